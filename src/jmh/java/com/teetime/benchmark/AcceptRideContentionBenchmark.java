@@ -0,0 +1,94 @@
+package com.teetime.benchmark;
+
+import com.teetime.database.DatabaseManager;
+import com.teetime.domain.Ride;
+import com.teetime.exception.RideNotAvailableException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Drivers racing to accept the same pending rides. Each ride is targeted by
+// `racersPerRide` consecutive attempts, exactly one of which wins. Every
+// thread makes BATCH attempts per iteration, so the score is the time for
+// one batch; run it through BenchmarkSuite with -t 1,4,16 to see how
+// acceptance scales.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, batchSize = AcceptRideContentionBenchmark.BATCH)
+@Measurement(iterations = 5, batchSize = AcceptRideContentionBenchmark.BATCH)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AcceptRideContentionBenchmark {
+
+    static final int BATCH = 100_000;
+    private static final int DRIVERS = 1_000;
+    private static final int PASSENGERS = 10_000;
+    private static final Object GLOBAL_LOCK = new Object();
+
+    @Param({"1", "8", "64"})
+    public int racersPerRide;
+
+    private DatabaseManager db;
+    private int[] rideIds;
+    private int[] driverIds;
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @Setup(Level.Iteration)
+    public void populate(BenchmarkParams params) {
+        db = BenchmarkSupport.freshDatabase();
+        driverIds = new int[DRIVERS];
+        for (int i = 0; i < DRIVERS; i++) {
+            driverIds[i] = db.createUser("Driver " + i, "driver" + i + "@ie.edu", "hash", "DRIVER");
+        }
+        int[] passengerIds = BenchmarkSupport.createPassengers(db, PASSENGERS);
+        LocalDateTime time = LocalDateTime.now().plusDays(1);
+        int rides = params.getThreads() * BATCH / racersPerRide + 1;
+        rideIds = new int[rides];
+        for (int i = 0; i < rides; i++) {
+            rideIds[i] = db.createRide(new Ride(passengerIds[i % PASSENGERS], "IE Tower", "Segovia campus", time, 1, 10.0));
+        }
+        attempts.set(0);
+    }
+
+    @State(Scope.Thread)
+    public static class DriverSeat {
+        int next;
+    }
+
+    private int nextRideId() {
+        int n = attempts.getAndIncrement();
+        return rideIds[n / racersPerRide];
+    }
+
+    private int nextDriverId(DriverSeat seat) {
+        return driverIds[(seat.next++ & 0x7fffffff) % DRIVERS];
+    }
+
+    @Benchmark
+    public boolean stripedAccept(DriverSeat seat) {
+        int driverId = nextDriverId(seat);
+        try {
+            db.acceptRide(nextRideId(), driverId, driverId);
+            return true;
+        } catch (RideNotAvailableException e) {
+            return false;
+        }
+    }
+
+    // Baseline: the same transition serialized behind one store-wide lock
+    @Benchmark
+    public boolean globalLockAccept(DriverSeat seat) {
+        int driverId = nextDriverId(seat);
+        synchronized (GLOBAL_LOCK) {
+            try {
+                db.acceptRide(nextRideId(), driverId, driverId);
+                return true;
+            } catch (RideNotAvailableException e) {
+                return false;
+            }
+        }
+    }
+}
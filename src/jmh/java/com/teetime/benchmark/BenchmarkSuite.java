@@ -0,0 +1,112 @@
+package com.teetime.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+// The regression suite: runs the data and service layer benchmarks once per
+// thread count and writes each run's results as JSON, one file per thread
+// count, so two releases can be compared file by file.
+//
+//   make bench-suite
+//   mvn -Pbenchmark verify -Djmh.main=com.teetime.benchmark.BenchmarkSuite \
+//       -Djmh.args="-t 1,4 -p rideCount=1000,100000 -o target/jmh"
+//
+// Options: -t thread counts, -p name=v1,v2 (repeatable) to override @Param
+// values, -f forks, -wi / -i warmup and measurement iterations, -o output
+// directory; any other argument is a benchmark regex replacing the default
+// selection.
+public final class BenchmarkSuite {
+
+    private static final String[] DEFAULT_BENCHMARKS = {
+            DataLayerBenchmark.class.getSimpleName(),
+            ServiceLayerBenchmark.class.getSimpleName(),
+    };
+
+    private BenchmarkSuite() {}
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        List<String> includes = new ArrayList<>();
+        List<String[]> params = new ArrayList<>();
+        String threads = "1,4";
+        Integer forks = null;
+        Integer warmups = null;
+        Integer iterations = null;
+        Path outDir = Paths.get("target", "jmh");
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-t":
+                    threads = value(args, ++i);
+                    break;
+                case "-p": {
+                    String[] param = value(args, ++i).split("=", 2);
+                    if (param.length != 2) {
+                        throw new IllegalArgumentException("Expected -p name=v1,v2 but got " + args[i]);
+                    }
+                    params.add(param);
+                    break;
+                }
+                case "-f":
+                    forks = Integer.parseInt(value(args, ++i));
+                    break;
+                case "-wi":
+                    warmups = Integer.parseInt(value(args, ++i));
+                    break;
+                case "-i":
+                    iterations = Integer.parseInt(value(args, ++i));
+                    break;
+                case "-o":
+                    outDir = Paths.get(value(args, ++i));
+                    break;
+                default:
+                    includes.add(args[i]);
+            }
+        }
+        if (includes.isEmpty()) {
+            includes.addAll(List.of(DEFAULT_BENCHMARKS));
+        }
+        Files.createDirectories(outDir);
+
+        for (String count : threads.split(",")) {
+            int threadCount = Integer.parseInt(count.trim());
+            Path result = outDir.resolve("jmh-t" + threadCount + ".json");
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .threads(threadCount)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(result.toString());
+            for (String include : includes) {
+                options.include(include);
+            }
+            for (String[] param : params) {
+                options.param(param[0], param[1].split(","));
+            }
+            if (forks != null) {
+                options.forks(forks);
+            }
+            if (warmups != null) {
+                options.warmupIterations(warmups);
+            }
+            if (iterations != null) {
+                options.measurementIterations(iterations);
+            }
+            new Runner(options.build()).run();
+            System.out.println("Results for " + threadCount + " thread(s) written to " + result);
+        }
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value after " + args[i - 1]);
+        }
+        return args[i];
+    }
+}
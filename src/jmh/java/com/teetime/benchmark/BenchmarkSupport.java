@@ -0,0 +1,35 @@
+package com.teetime.benchmark;
+
+import com.teetime.database.DatabaseManager;
+
+import java.lang.reflect.Field;
+
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {}
+
+    // Same trick the unit tests use: drop the singleton so each trial starts empty
+    static DatabaseManager freshDatabase() {
+        try {
+            Field instanceField = DatabaseManager.class.getDeclaredField("instance");
+            instanceField.setAccessible(true);
+            instanceField.set(null, null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot reset DatabaseManager", e);
+        }
+        return DatabaseManager.getInstance();
+    }
+
+    // Passengers whose emails are email(0) .. email(count - 1)
+    static int[] createPassengers(DatabaseManager db, int count) {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = db.createUser("Passenger " + i, email(i), "hash", "PASSENGER");
+        }
+        return ids;
+    }
+
+    static String email(int i) {
+        return "user" + i + "@student.ie.edu";
+    }
+}
@@ -0,0 +1,99 @@
+package com.teetime.benchmark;
+
+import com.teetime.database.DatabaseManager;
+import com.teetime.domain.Car;
+import com.teetime.domain.Ride;
+import com.teetime.service.RideService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Finding a driver's car should cost the same with 1k or 100k cars in the
+// fleet. scanAllCars is the pre-index lookup, kept as the baseline.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CarLookupBenchmark {
+
+    private static final int CARS_PER_DRIVER = 2;
+
+    @Param({"1000", "100000"})
+    public int carCount;
+
+    private DatabaseManager db;
+    private RideService rideService;
+    private final Map<Integer, Car> allCars = new ConcurrentHashMap<>();
+    private int[] carIds;
+    private int[] driverIds;
+    private int passengerId;
+    private Ride pendingRide;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        db = BenchmarkSupport.freshDatabase();
+        rideService = new RideService();
+        passengerId = db.createUser("Passenger", BenchmarkSupport.email(0), "hash", "PASSENGER");
+        carIds = new int[carCount];
+        driverIds = new int[carCount];
+        int driverId = 0;
+        for (int i = 0; i < carCount; i++) {
+            if (i % CARS_PER_DRIVER == 0) {
+                driverId = db.createUser("Driver " + i, "driver" + i + "@ie.edu", "hash", "DRIVER");
+            }
+            Car car = new Car(driverId, "PLATE" + i, "Toyota", 4);
+            carIds[i] = db.createCar(car);
+            driverIds[i] = driverId;
+            allCars.put(car.getId(), car);
+        }
+    }
+
+    // Cheap next to the microseconds acceptRide itself takes at 100k cars
+    @Setup(Level.Invocation)
+    public void newRequest() {
+        pendingRide = new Ride(passengerId, "IE Tower", "Atocha", LocalDateTime.now().plusDays(1), 1, 10.0);
+        db.createRide(pendingRide);
+    }
+
+    @Benchmark
+    public Car scanAllCars() {
+        int i = ThreadLocalRandom.current().nextInt(carCount);
+        List<Car> driverCars = new ArrayList<>();
+        for (Car car : allCars.values()) {
+            if (car.getDriverId() == driverIds[i]) {
+                driverCars.add(car);
+            }
+        }
+        for (Car car : driverCars) {
+            if (car.getId() == carIds[i]) {
+                return car;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public Car getCarById() {
+        return db.getCarById(carIds[ThreadLocalRandom.current().nextInt(carCount)]);
+    }
+
+    @Benchmark
+    public List<Car> getCarsByDriverId() {
+        return db.getCarsByDriverId(driverIds[ThreadLocalRandom.current().nextInt(carCount)]);
+    }
+
+    @Benchmark
+    public Ride acceptRide() throws Exception {
+        int i = ThreadLocalRandom.current().nextInt(carCount);
+        rideService.acceptRide(pendingRide, driverIds[i], carIds[i]);
+        return pendingRide;
+    }
+}
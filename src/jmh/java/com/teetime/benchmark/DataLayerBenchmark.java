@@ -0,0 +1,80 @@
+package com.teetime.benchmark;
+
+import com.teetime.database.DatabaseManager;
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// DatabaseManager reads and writes against a store of `rideCount` rides.
+// Every passenger has RIDES_PER_PASSENGER rides, one ride in PENDING_EVERY is
+// still pending, and pick-up times are spread over the next 30 days. Lookups
+// that touch one user should stay flat as the store grows; getPendingRides
+// grows with the number of pending rides it returns.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class DataLayerBenchmark {
+
+    static final int RIDES_PER_PASSENGER = 100;
+    static final int PENDING_EVERY = 100;
+    private static final int MINUTES_SPREAD = 30 * 24 * 60;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int rideCount;
+
+    private DatabaseManager db;
+    private int[] passengerIds;
+    private LocalDateTime start;
+    private final AtomicInteger newUsers = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void populate() {
+        db = BenchmarkSupport.freshDatabase();
+        passengerIds = BenchmarkSupport.createPassengers(db, Math.max(1, rideCount / RIDES_PER_PASSENGER));
+        start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < rideCount; i++) {
+            Ride ride = new Ride(passengerIds[i % passengerIds.length], "IE Tower", "Atocha",
+                    start.plusMinutes(i % MINUTES_SPREAD), 1, 10.0);
+            if (i % PENDING_EVERY != 0) {
+                ride.setStatus(RideStatus.COMPLETED);
+            }
+            db.createRide(ride);
+        }
+    }
+
+    @Benchmark
+    public int createUser() {
+        return db.createUser("New", "new" + newUsers.getAndIncrement() + "@student.ie.edu", "hash", "PASSENGER");
+    }
+
+    @Benchmark
+    public Object getUserByEmail() {
+        return db.getUserByEmail(BenchmarkSupport.email(ThreadLocalRandom.current().nextInt(passengerIds.length)));
+    }
+
+    @Benchmark
+    public List<Ride> getPendingRides() {
+        return db.getPendingRides();
+    }
+
+    // What the driver dashboard loads: the next 12 hours
+    @Benchmark
+    public List<Ride> getPendingRidesBetween() {
+        LocalDateTime from = start.plusMinutes(ThreadLocalRandom.current().nextInt(MINUTES_SPREAD));
+        return db.getPendingRidesBetween(from, from.plusHours(12));
+    }
+
+    @Benchmark
+    public List<Ride> getRidesByPassengerId() {
+        return db.getRidesByPassengerId(passengerIds[ThreadLocalRandom.current().nextInt(passengerIds.length)]);
+    }
+}
@@ -0,0 +1,110 @@
+package com.teetime.benchmark;
+
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+import com.teetime.service.CSVExportService;
+import com.teetime.service.ColumnarExportService;
+import com.teetime.service.RideExporter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Writing a ride history to CSV. legacyFileWriter is the pre-streaming
+// exporter (unbuffered FileWriter, String.format per price), kept as the
+// baseline. `threads` only applies to parallel; run with -p threads=1,2,4,...
+// up to the core count to see how it scales. gzip and columnar are the
+// compact formats; compare their file sizes against streaming's CSV.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ExportBenchmark {
+
+    @Param({"1000000"})
+    public int rideCount;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private final CSVExportService csvService = new CSVExportService();
+    private final CSVExportService gzipService = CSVExportService.gzipped();
+    private final ColumnarExportService columnarService = new ColumnarExportService();
+    private List<Ride> rides;
+    private Path file;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void createRides() throws IOException {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 8, 0);
+        rides = new ArrayList<>(rideCount);
+        for (int i = 0; i < rideCount; i++) {
+            Ride ride = new Ride(1 + i % 1000, "Place " + (i % 200), "Place " + (i % 37),
+                    start.plusMinutes(i), 1 + i % 4, 5 + (i % 997) / 10.0);
+            ride.setId(i + 1);
+            if (i % 10 != 0) {
+                ride.setDriverId(2000 + i % 300);
+                ride.setCarId(5000 + i % 300);
+                ride.setStatus(RideStatus.COMPLETED);
+            }
+            rides.add(ride);
+        }
+        file = Files.createTempFile("teetime-export", ".csv");
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        pool.shutdown();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long streaming() throws IOException {
+        return csvService.exportRides(rides.stream(), file);
+    }
+
+    @Benchmark
+    public long parallel() throws IOException {
+        return csvService.exportRidesParallel(rides.iterator(), file, pool, RideExporter.Progress.NONE);
+    }
+
+    @Benchmark
+    public long gzip() throws IOException {
+        return gzipService.exportRides(rides.iterator(), file, RideExporter.Progress.NONE);
+    }
+
+    @Benchmark
+    public long columnar() throws IOException {
+        return columnarService.export(rides.iterator(), file, RideExporter.Progress.NONE);
+    }
+
+    @Benchmark
+    public long legacyFileWriter() throws IOException {
+        try (FileWriter writer = new FileWriter(file.toFile())) {
+            writer.append(CSVExportService.HEADER);
+            for (Ride ride : rides) {
+                writer.append(String.valueOf(ride.getId())).append(",");
+                writer.append(String.valueOf(ride.getPassengerId())).append(",");
+                writer.append(ride.getDriverId() != null ? String.valueOf(ride.getDriverId()) : "").append(",");
+                writer.append(ride.getCarId() != null ? String.valueOf(ride.getCarId()) : "").append(",");
+                writer.append(ride.getOrigin()).append(",");
+                writer.append(ride.getDestination()).append(",");
+                writer.append(ride.getTime().toString()).append(",");
+                writer.append(String.valueOf(ride.getSeatsNeeded())).append(",");
+                writer.append(ride.getStatus().toString()).append(",");
+                writer.append(String.format("%.2f", ride.getPriceEstimate())).append("\n");
+            }
+        }
+        return rides.size();
+    }
+}
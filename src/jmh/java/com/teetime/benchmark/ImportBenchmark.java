@@ -0,0 +1,61 @@
+package com.teetime.benchmark;
+
+import com.teetime.database.DatabaseManager;
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+import com.teetime.service.ImportResult;
+import com.teetime.service.RideService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Loading a large ride history: one createRide per ride against the batched
+// import. Each invocation starts from an empty store holding only the passengers.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ImportBenchmark {
+
+    private static final int PASSENGERS = 1000;
+
+    @Param({"100000", "1000000"})
+    public int rideCount;
+
+    private DatabaseManager db;
+    private RideService rideService;
+    private List<Ride> rides;
+
+    @Setup(Level.Invocation)
+    public void emptyStore() {
+        db = BenchmarkSupport.freshDatabase();
+        rideService = new RideService(db);
+        int[] passengerIds = BenchmarkSupport.createPassengers(db, PASSENGERS);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 8, 0);
+        rides = new ArrayList<>(rideCount);
+        for (int i = 0; i < rideCount; i++) {
+            Ride ride = new Ride(passengerIds[i % PASSENGERS], "Place " + (i % 200), "Place " + (i % 37),
+                    start.plusMinutes(i), 1 + i % 4, 10.0);
+            ride.setStatus(i % 10 == 0 ? RideStatus.PENDING : RideStatus.COMPLETED);
+            rides.add(ride);
+        }
+    }
+
+    @Benchmark
+    public int createRideEach() {
+        for (Ride ride : rides) {
+            db.createRide(ride);
+        }
+        return rides.size();
+    }
+
+    @Benchmark
+    public ImportResult importRides() {
+        return rideService.importRides(rides.stream());
+    }
+}
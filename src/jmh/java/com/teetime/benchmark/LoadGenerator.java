@@ -0,0 +1,494 @@
+package com.teetime.benchmark;
+
+import com.teetime.database.DataStore;
+import com.teetime.database.DataStores;
+import com.teetime.domain.Car;
+import com.teetime.domain.Ride;
+import com.teetime.exception.CapacityExceededException;
+import com.teetime.exception.RideNotAvailableException;
+import com.teetime.remote.RemoteAuthService;
+import com.teetime.remote.RemoteClient;
+import com.teetime.remote.RemoteRideService;
+import com.teetime.service.AuthApi;
+import com.teetime.service.AuthService;
+import com.teetime.service.RideApi;
+import com.teetime.service.RideEventBus;
+import com.teetime.service.RideService;
+import com.teetime.service.ServiceExecutor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+// Load and soak test for RideService: simulated passengers request rides and
+// simulated drivers poll the pending list, race to accept one and complete it
+// a while later, on a pool of worker threads. Arrivals are open loop (Poisson,
+// shaped by an arrival curve), so a store that falls behind shows up as
+// growing start lag and latency rather than as fewer requests.
+//
+//   make load LOAD_ARGS="-passengers 5000 -drivers 1000 -rate 300 -duration 120"
+//   mvn -Pbenchmark verify -Djmh.main=com.teetime.benchmark.LoadGenerator \
+//       -Djmh.args="-curve flat -duration 3600 -o target/load/soak.json"
+//
+// Options: -passengers / -drivers population sizes; -t worker threads; -rate
+// peak ride requests per second; -duration seconds; -curve rush (a morning
+// peak mid-run), ramp (rising to the peak) or flat; -polls driver polls per
+// ride request; -pick how many of the earliest pending rides a driver
+// chooses from (fewer means more drivers racing for the same ride); -ride
+// average milliseconds from accept to complete; -report seconds between
+// progress lines; -seed; -server URL to load a RideServer instead of the
+// default store; -Dname=value to set a storage property before the store
+// opens (e.g. -Dteetime.store=sql, see DataStores); -o a JSON file for the
+// summary.
+public final class LoadGenerator {
+
+    private static final String[] PLACES = {
+            "IE Tower", "Segovia campus", "Maria de Molina", "Atocha", "Chamartin",
+            "Barajas T4", "Sol", "Nuevos Ministerios", "Moncloa", "Principe Pio",
+    };
+
+    private enum Curve {
+        RUSH, RAMP, FLAT;
+
+        // Fraction of the peak rate at `progress` (0 to 1) through the run
+        double shape(double progress) {
+            switch (this) {
+                case RUSH: {
+                    double z = (progress - 0.5) / 0.15;
+                    return 0.1 + 0.9 * Math.exp(-0.5 * z * z);
+                }
+                case RAMP:
+                    return Math.max(0.05, progress);
+                default:
+                    return 1.0;
+            }
+        }
+    }
+
+    private static final class Operation {
+        final String name;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong errors = new AtomicLong();
+
+        Operation(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class Driver {
+        final int id;
+        final int carId;
+
+        Driver(int id, int carId) {
+            this.id = id;
+            this.carId = carId;
+        }
+    }
+
+    private int passengers = 5_000;
+    private int drivers = 1_000;
+    private int threads = 64;
+    private double rate = 200;
+    private int durationSeconds = 60;
+    private Curve curve = Curve.RUSH;
+    private double polls = 2.0;
+    private int pick = 8;
+    private long rideMillis = 2_000;
+    private int reportSeconds = 10;
+    private long seed = 42;
+    private String server;
+    private Path out;
+
+    private final Operation create = new Operation("createRideRequest");
+    private final Operation pending = new Operation("getPendingRides");
+    private final Operation accept = new Operation("acceptRide");
+    private final Operation complete = new Operation("completeRide");
+    private final Operation[] operations = {create, pending, accept, complete};
+    // Arrival (when the simulated user acted) to the call starting
+    private final LatencyHistogram startLag = new LatencyHistogram();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong capacityRejections = new AtomicLong();
+    private final AtomicLong noIdleDriver = new AtomicLong();
+    private final AtomicLong noPendingRide = new AtomicLong();
+    // Arrivals handed to the workers and not yet finished
+    private final AtomicLong inFlight = new AtomicLong();
+
+    private RideApi rides;
+    private int[] passengerIds;
+    private final ConcurrentLinkedQueue<Driver> idleDrivers = new ConcurrentLinkedQueue<>();
+    private ExecutorService workers;
+    private ScheduledExecutorService timers;
+
+    private LoadGenerator() {}
+
+    public static void main(String[] args) throws Exception {
+        LoadGenerator load = new LoadGenerator();
+        load.parse(args);
+        load.run();
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-passengers":
+                    passengers = Integer.parseInt(value(args, ++i));
+                    break;
+                case "-drivers":
+                    drivers = Integer.parseInt(value(args, ++i));
+                    break;
+                case "-t":
+                    threads = Integer.parseInt(value(args, ++i));
+                    break;
+                case "-rate":
+                    rate = Double.parseDouble(value(args, ++i));
+                    break;
+                case "-duration":
+                    durationSeconds = Integer.parseInt(value(args, ++i));
+                    break;
+                case "-curve":
+                    curve = Curve.valueOf(value(args, ++i).toUpperCase(Locale.ROOT));
+                    break;
+                case "-polls":
+                    polls = Double.parseDouble(value(args, ++i));
+                    break;
+                case "-pick":
+                    pick = Integer.parseInt(value(args, ++i));
+                    break;
+                case "-ride":
+                    rideMillis = Long.parseLong(value(args, ++i));
+                    break;
+                case "-report":
+                    reportSeconds = Integer.parseInt(value(args, ++i));
+                    break;
+                case "-seed":
+                    seed = Long.parseLong(value(args, ++i));
+                    break;
+                case "-server":
+                    server = value(args, ++i);
+                    break;
+                case "-o":
+                    out = Paths.get(value(args, ++i));
+                    break;
+                default:
+                    if (args[i].startsWith("-D") && args[i].contains("=")) {
+                        String[] property = args[i].substring(2).split("=", 2);
+                        System.setProperty(property[0], property[1]);
+                        break;
+                    }
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (passengers <= 0 || drivers <= 0 || threads <= 0 || rate <= 0 || durationSeconds <= 0 || pick <= 0) {
+            throw new IllegalArgumentException("Populations, threads, rate, duration and pick must be positive");
+        }
+    }
+
+    private void run() throws Exception {
+        AuthApi auth;
+        DataStore store = null;
+        if (server != null) {
+            RemoteClient client = new RemoteClient(server);
+            rides = new RemoteRideService(client);
+            auth = new RemoteAuthService(client);
+        } else {
+            store = DataStores.getDefault();
+            rides = new RideService(store, new RideEventBus());
+            auth = new AuthService(store);
+        }
+        workers = ServiceExecutor.create(threads);
+        timers = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "teetime-load-timers");
+            t.setDaemon(true);
+            return t;
+        });
+
+        long setupStart = System.nanoTime();
+        populate(auth);
+        System.out.printf("Populated %d passengers and %d drivers in %.1f s%n", passengers, drivers,
+                (System.nanoTime() - setupStart) / 1e9);
+        System.out.printf("Load: %s curve peaking at %.0f ride requests/s with %.1f driver polls each, %d s, "
+                + "%d threads, %s%n", curve.name().toLowerCase(Locale.ROOT), rate, polls, durationSeconds, threads,
+                server != null ? "server " + server : "store " + System.getProperty("teetime.store", "memory"));
+
+        long start = System.nanoTime();
+        long[] last = new long[operations.length + 1];
+        timers.scheduleAtFixedRate(() -> progress(start, last), reportSeconds, reportSeconds, TimeUnit.SECONDS);
+        dispatch(start);
+
+        // Let the last arrivals finish, then the rides they accepted
+        while (inFlight.get() > 0) {
+            Thread.sleep(10);
+        }
+        timers.shutdown();
+        timers.awaitTermination(rideMillis * 2 + 60_000, TimeUnit.MILLISECONDS);
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.print(summary(seconds));
+        if (out != null) {
+            if (out.getParent() != null) {
+                Files.createDirectories(out.getParent());
+            }
+            Files.writeString(out, json(seconds));
+            System.out.println("Summary written to " + out);
+        }
+        if (rides instanceof RemoteRideService) {
+            ((RemoteRideService) rides).close();
+        }
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    // Emails carry a run id so repeated runs against a kept store do not collide
+    private void populate(AuthApi auth) {
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        passengerIds = new int[passengers];
+        IntStream.range(0, passengers).parallel().forEach(i -> passengerIds[i] =
+                register(auth, "Load passenger " + i, "load-p" + i + "-" + run + "@student.ie.edu", "PASSENGER"));
+        IntStream.range(0, drivers).parallel().forEach(i -> {
+            int driverId = register(auth, "Load driver " + i, "load-d" + i + "-" + run + "@ie.edu", "DRIVER");
+            try {
+                Car car = rides.addCar(driverId, "LOAD-" + i, "Seat Ibiza", 4 + i % 4);
+                idleDrivers.add(new Driver(driverId, car.getId()));
+            } catch (Exception e) {
+                throw new IllegalStateException("Cannot add a car: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    private static int register(AuthApi auth, String name, String email, String role) {
+        try {
+            return auth.register(name, email, "load", role).getId();
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot register " + email + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Non-homogeneous Poisson arrivals by thinning: candidates come at the
+    // peak rate and are kept in proportion to the curve
+    private void dispatch(long start) {
+        Random random = new Random(seed);
+        double peak = rate * (1 + polls);
+        double requestShare = 1 / (1 + polls);
+        double t = 0;
+        while (true) {
+            t += -Math.log(1 - random.nextDouble()) / peak;
+            if (t >= durationSeconds) {
+                return;
+            }
+            if (random.nextDouble() >= curve.shape(t / durationSeconds)) {
+                continue;
+            }
+            long arrival = start + (long) (t * 1e9);
+            long wait;
+            while ((wait = arrival - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean request = random.nextDouble() < requestShare;
+            inFlight.incrementAndGet();
+            workers.execute(() -> {
+                try {
+                    if (request) {
+                        requestRide(arrival);
+                    } else {
+                        driverPoll(arrival);
+                    }
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private void requestRide(long arrival) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int passengerId = passengerIds[random.nextInt(passengerIds.length)];
+        int from = random.nextInt(PLACES.length);
+        int to = (from + 1 + random.nextInt(PLACES.length - 1)) % PLACES.length;
+        LocalDateTime time = LocalDateTime.now().plusMinutes(15 + random.nextInt(165));
+        int seats = 1 + random.nextInt(4);
+        long begin = started(arrival);
+        try {
+            rides.createRideRequest(passengerId, PLACES[from], PLACES[to], time, seats);
+            create.latency.record(System.nanoTime() - begin);
+        } catch (Exception e) {
+            create.errors.incrementAndGet();
+        }
+    }
+
+    // An idle driver looks at the pending rides and tries to take one of the
+    // earliest; a driver who loses the race goes back to waiting
+    private void driverPoll(long arrival) {
+        Driver driver = idleDrivers.poll();
+        if (driver == null) {
+            noIdleDriver.incrementAndGet();
+            return;
+        }
+        long begin = started(arrival);
+        List<Ride> open;
+        try {
+            open = rides.getPendingRides();
+            pending.latency.record(System.nanoTime() - begin);
+        } catch (RuntimeException e) {
+            pending.errors.incrementAndGet();
+            idleDrivers.add(driver);
+            return;
+        }
+        if (open.isEmpty()) {
+            noPendingRide.incrementAndGet();
+            idleDrivers.add(driver);
+            return;
+        }
+        Ride ride = open.get(ThreadLocalRandom.current().nextInt(Math.min(pick, open.size())));
+        long acceptStart = System.nanoTime();
+        try {
+            rides.acceptRide(ride, driver.id, driver.carId);
+            accept.latency.record(System.nanoTime() - acceptStart);
+        } catch (RideNotAvailableException e) {
+            accept.latency.record(System.nanoTime() - acceptStart);
+            conflicts.incrementAndGet();
+            idleDrivers.add(driver);
+            return;
+        } catch (CapacityExceededException e) {
+            accept.latency.record(System.nanoTime() - acceptStart);
+            capacityRejections.incrementAndGet();
+            idleDrivers.add(driver);
+            return;
+        } catch (Exception e) {
+            accept.errors.incrementAndGet();
+            idleDrivers.add(driver);
+            return;
+        }
+
+        long delay = (long) (rideMillis * (0.5 + ThreadLocalRandom.current().nextDouble()));
+        timers.schedule(() -> {
+            long due = System.nanoTime();
+            workers.execute(() -> completeRide(ride, driver, due));
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void completeRide(Ride ride, Driver driver, long due) {
+        long begin = started(due);
+        try {
+            rides.completeRide(ride.getId());
+            complete.latency.record(System.nanoTime() - begin);
+        } catch (Exception e) {
+            complete.errors.incrementAndGet();
+        } finally {
+            idleDrivers.add(driver);
+        }
+    }
+
+    private long started(long arrival) {
+        long now = System.nanoTime();
+        startLag.record(now - arrival);
+        return now;
+    }
+
+    private void progress(long start, long[] last) {
+        StringBuilder line = new StringBuilder();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        line.append(String.format("%6.0f s  target %5.0f req/s", elapsed,
+                rate * curve.shape(Math.min(1, elapsed / durationSeconds))));
+        for (int i = 0; i < operations.length; i++) {
+            long count = operations[i].latency.count();
+            line.append(String.format("  %s %5.0f/s", shortName(operations[i]), (count - last[i]) / (double) reportSeconds));
+            last[i] = count;
+        }
+        long conflictCount = conflicts.get();
+        line.append(String.format("  conflicts %d  queued %d  idle drivers %d", conflictCount - last[operations.length],
+                ((ThreadPoolExecutor) workers).getQueue().size(), idleDrivers.size()));
+        last[operations.length] = conflictCount;
+        System.out.println(line);
+    }
+
+    private static String shortName(Operation operation) {
+        switch (operation.name) {
+            case "createRideRequest":
+                return "create";
+            case "getPendingRides":
+                return "pending";
+            case "acceptRide":
+                return "accept";
+            default:
+                return "complete";
+        }
+    }
+
+    private long acceptAttempts() {
+        return accept.latency.count() + accept.errors.get();
+    }
+
+    private String summary(double seconds) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%nFinished in %.1f s%n", seconds));
+        out.append(String.format("%-18s %10s %7s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "ops/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Operation operation : operations) {
+            LatencyHistogram h = operation.latency;
+            out.append(String.format("%-18s %10d %7d %9.1f %9.3f %9.3f %9.3f %9.3f%n", operation.name, h.count(),
+                    operation.errors.get(), h.count() / seconds, ms(h.percentile(50)), ms(h.percentile(99)),
+                    ms(h.percentile(99.9)), ms(h.max())));
+        }
+        long attempts = acceptAttempts();
+        out.append(String.format("Accept conflicts: %d of %d attempts (%.2f%%), capacity rejections %d%n",
+                conflicts.get(), attempts, attempts == 0 ? 0.0 : 100.0 * conflicts.get() / attempts,
+                capacityRejections.get()));
+        out.append(String.format("Driver polls with no idle driver %d, with no pending ride %d%n",
+                noIdleDriver.get(), noPendingRide.get()));
+        out.append(String.format("Start lag (arrival to call): p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                ms(startLag.percentile(50)), ms(startLag.percentile(99)), ms(startLag.max())));
+        return out.toString();
+    }
+
+    private String json(double seconds) {
+        StringBuilder json = new StringBuilder("{\n");
+        json.append(String.format(Locale.ROOT, "  \"config\": {\"passengers\": %d, \"drivers\": %d, \"threads\": %d, "
+                        + "\"rate\": %.1f, \"durationSeconds\": %d, \"curve\": \"%s\", \"polls\": %.2f, \"pick\": %d, "
+                        + "\"rideMillis\": %d, \"seed\": %d},\n", passengers, drivers, threads, rate, durationSeconds,
+                curve.name().toLowerCase(Locale.ROOT), polls, pick, rideMillis, seed));
+        json.append(String.format(Locale.ROOT, "  \"seconds\": %.3f,\n  \"operations\": {\n", seconds));
+        for (int i = 0; i < operations.length; i++) {
+            Operation operation = operations[i];
+            LatencyHistogram h = operation.latency;
+            json.append(String.format(Locale.ROOT, "    \"%s\": {\"count\": %d, \"errors\": %d, \"opsPerSecond\": %.1f, "
+                            + "\"p50Ms\": %.3f, \"p99Ms\": %.3f, \"p999Ms\": %.3f, \"maxMs\": %.3f}%s\n", operation.name,
+                    h.count(), operation.errors.get(), h.count() / seconds, ms(h.percentile(50)), ms(h.percentile(99)),
+                    ms(h.percentile(99.9)), ms(h.max()), i + 1 < operations.length ? "," : ""));
+        }
+        long attempts = acceptAttempts();
+        json.append(String.format(Locale.ROOT, "  },\n  \"acceptConflicts\": %d,\n  \"acceptConflictRate\": %.5f,\n"
+                        + "  \"capacityRejections\": %d,\n  \"noIdleDriver\": %d,\n  \"noPendingRide\": %d,\n"
+                        + "  \"startLagP99Ms\": %.3f,\n  \"startLagMaxMs\": %.3f\n}\n", conflicts.get(),
+                attempts == 0 ? 0.0 : (double) conflicts.get() / attempts, capacityRejections.get(), noIdleDriver.get(),
+                noPendingRide.get(), ms(startLag.percentile(99)), ms(startLag.max())));
+        return json.toString();
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value after " + args[i - 1]);
+        }
+        return args[i];
+    }
+}
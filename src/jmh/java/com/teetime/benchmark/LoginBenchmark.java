@@ -0,0 +1,54 @@
+package com.teetime.benchmark;
+
+import com.teetime.database.DatabaseManager;
+import com.teetime.domain.User;
+import com.teetime.exception.InvalidLoginException;
+import com.teetime.service.AuthService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Login latency should stay flat as the user base grows
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LoginBenchmark {
+
+    // sha256("password")
+    private static final String PASSWORD_HASH = "5e884898da28047151d0e56f8dc6292773603d0d6aabbdd62a11ef721d1542d8";
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int userCount;
+
+    private DatabaseManager db;
+    private AuthService authService;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        db = BenchmarkSupport.freshDatabase();
+        for (int i = 0; i < userCount; i++) {
+            db.createUser("User " + i, BenchmarkSupport.email(i), PASSWORD_HASH, "PASSENGER");
+        }
+        authService = new AuthService();
+    }
+
+    @Benchmark
+    public User getUserByEmail() {
+        return db.getUserByEmail(BenchmarkSupport.email(ThreadLocalRandom.current().nextInt(userCount)));
+    }
+
+    @Benchmark
+    public User login() throws InvalidLoginException {
+        return authService.login(BenchmarkSupport.email(ThreadLocalRandom.current().nextInt(userCount)), "password");
+    }
+
+    @Benchmark
+    public int registerDuplicate() {
+        return db.createUser("Dup", BenchmarkSupport.email(ThreadLocalRandom.current().nextInt(userCount)),
+                PASSWORD_HASH, "PASSENGER");
+    }
+}
@@ -0,0 +1,118 @@
+package com.teetime.benchmark;
+
+import com.teetime.database.DatabaseManager;
+import com.teetime.domain.Car;
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+import com.teetime.service.CSVExportService;
+import com.teetime.service.RideService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// RideService and CSVExportService against a store of `rideCount` rides,
+// populated like DataLayerBenchmark. exportRidesToCSV writes one passenger's
+// history, which is what the dashboards export.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ServiceLayerBenchmark {
+
+    private static final int DRIVERS = 1_000;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int rideCount;
+
+    private DatabaseManager db;
+    private RideService rideService;
+    private CSVExportService csvService;
+    private int[] passengerIds;
+    private int[] driverIds;
+    private int[] carIds;
+    private LocalDateTime time;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        db = BenchmarkSupport.freshDatabase();
+        rideService = new RideService();
+        csvService = new CSVExportService();
+        passengerIds = BenchmarkSupport.createPassengers(db,
+                Math.max(1, rideCount / DataLayerBenchmark.RIDES_PER_PASSENGER));
+        driverIds = new int[DRIVERS];
+        carIds = new int[DRIVERS];
+        for (int i = 0; i < DRIVERS; i++) {
+            driverIds[i] = db.createUser("Driver " + i, "driver" + i + "@ie.edu", "hash", "DRIVER");
+            carIds[i] = db.createCar(new Car(driverIds[i], "PLATE" + i, "Toyota", 4));
+        }
+        time = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < rideCount; i++) {
+            Ride ride = new Ride(passengerIds[i % passengerIds.length], "IE Tower", "Atocha", time, 1, 10.0);
+            if (i % DataLayerBenchmark.PENDING_EVERY != 0) {
+                ride.setStatus(RideStatus.COMPLETED);
+            }
+            db.createRide(ride);
+        }
+    }
+
+    // A fresh pending ride for every acceptRide call; cheap next to the call
+    @State(Scope.Thread)
+    public static class Request {
+        Ride ride;
+
+        @Setup(Level.Invocation)
+        public void newRide(ServiceLayerBenchmark bench) {
+            int passengerId = bench.passengerIds[ThreadLocalRandom.current().nextInt(bench.passengerIds.length)];
+            ride = new Ride(passengerId, "IE Tower", "Atocha", bench.time, 1, 10.0);
+            bench.db.createRide(ride);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ExportFile {
+        Path path;
+
+        @Setup(Level.Trial)
+        public void create() throws IOException {
+            path = Files.createTempFile("teetime-bench", ".csv");
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() throws IOException {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Benchmark
+    public Ride createRideRequest() throws Exception {
+        int passengerId = passengerIds[ThreadLocalRandom.current().nextInt(passengerIds.length)];
+        return rideService.createRideRequest(passengerId, "IE Tower", "Atocha", time, 1);
+    }
+
+    @Benchmark
+    public Ride acceptRide(Request request) throws Exception {
+        int driver = ThreadLocalRandom.current().nextInt(DRIVERS);
+        rideService.acceptRide(request.ride, driverIds[driver], carIds[driver]);
+        return request.ride;
+    }
+
+    @Benchmark
+    public Path exportRidesToCSV(ExportFile file) {
+        List<Ride> rides = rideService.getRidesByPassengerId(passengerIds[ThreadLocalRandom.current().nextInt(passengerIds.length)]);
+        try {
+            csvService.exportRidesToCSV(rides, file.path.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return file.path;
+    }
+}
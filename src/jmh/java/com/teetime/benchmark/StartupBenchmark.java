@@ -0,0 +1,91 @@
+package com.teetime.benchmark;
+
+import com.teetime.database.DatabaseManager;
+import com.teetime.database.StorageConfig;
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Time to open a data directory holding `rides` rides, each created, accepted
+// and completed (three journal records per ride). "journal" replays the full
+// history; "snapshot" loads a snapshot and replays a 1% tail written after it.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class StartupBenchmark {
+
+    private static final int DRIVERS = 1_000;
+    private static final int PASSENGERS = 10_000;
+
+    @Param({"1000000"})
+    public int rides;
+
+    @Param({"journal", "snapshot"})
+    public String layout;
+
+    private Path dataDir;
+    private StorageConfig config;
+
+    @Setup(Level.Trial)
+    public void populate() throws Exception {
+        dataDir = Files.createTempDirectory("teetime-startup");
+        // Snapshots only when asked, and fsync in the background to keep setup short
+        config = new StorageConfig(dataDir, StorageConfig.FsyncPolicy.INTERVAL, 64, 100, 0);
+        DatabaseManager db = DatabaseManager.open(config);
+
+        int[] driverIds = new int[DRIVERS];
+        for (int i = 0; i < DRIVERS; i++) {
+            driverIds[i] = db.createUser("Driver " + i, "driver" + i + "@ie.edu", "hash", "DRIVER");
+        }
+        int[] passengerIds = new int[PASSENGERS];
+        for (int i = 0; i < PASSENGERS; i++) {
+            passengerIds[i] = db.createUser("Passenger " + i, BenchmarkSupport.email(i), "hash", "PASSENGER");
+        }
+
+        int tail = "snapshot".equals(layout) ? rides / 100 : 0;
+        LocalDateTime time = LocalDateTime.now().minusDays(30);
+        for (int i = 0; i < rides; i++) {
+            if (i == rides - tail) {
+                db.snapshot();
+            }
+            Ride ride = new Ride(passengerIds[i % PASSENGERS], "IE Tower", "Segovia campus", time.plusMinutes(i), 1, 10.0);
+            int rideId = db.createRide(ride);
+            int driverId = driverIds[i % DRIVERS];
+            db.acceptRide(rideId, driverId, driverId);
+            db.transitionRide(ride, RideStatus.COMPLETED);
+        }
+        db.close();
+    }
+
+    @Benchmark
+    public DatabaseManager open() {
+        DatabaseManager db = DatabaseManager.open(config);
+        db.close();
+        return db;
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDataDir() throws IOException {
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
@@ -1,15 +1,36 @@
 package com.teetime;
 
+import com.teetime.database.DataStores;
 import com.teetime.gui.LoginScreen;
+import com.teetime.remote.RemoteAuthService;
+import com.teetime.remote.RemoteClient;
+import com.teetime.remote.RemoteRideService;
+import com.teetime.service.RideExpirySweeper;
+import com.teetime.service.ServiceExecutor;
+import com.teetime.service.Services;
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 public class Main extends Application {
+    private RideExpirySweeper expirySweeper;
+    private RemoteRideService remoteRides;
 
     @Override
     public void start(Stage primaryStage) {
         primaryStage.setTitle("TeeTime - Campus Ride Sharing");
+
+        // -Dteetime.server=http://host:8080 shares a RideServer's store
+        // instead of opening one here; the server expires rides itself
+        String server = System.getProperty("teetime.server");
+        if (server != null && !server.isBlank()) {
+            RemoteClient client = new RemoteClient(server);
+            remoteRides = new RemoteRideService(client);
+            Services.use(remoteRides, new RemoteAuthService(client));
+        } else {
+            expirySweeper = new RideExpirySweeper(DataStores.getDefault(), RideExpirySweeper.DEFAULT_GRACE);
+            expirySweeper.start(RideExpirySweeper.DEFAULT_PERIOD);
+        }
         
         LoginScreen loginScreen = new LoginScreen(primaryStage, getHostServices());
         Scene scene = new Scene(loginScreen.getView(), 800, 600);
@@ -18,6 +39,20 @@ public class Main extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        if (expirySweeper != null) {
+            expirySweeper.stop();
+        }
+        ServiceExecutor.shutdownShared();
+        if (remoteRides != null) {
+            remoteRides.close();
+            return;
+        }
+        // Flush the journal or shut the database down cleanly
+        DataStores.getDefault().close();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
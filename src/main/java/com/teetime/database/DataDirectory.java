@@ -0,0 +1,95 @@
+package com.teetime.database;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// File layout of a persistent store:
+//   snapshot-<n>.bin   full state as of the start of journal segment n
+//   journal-<n>.wal    writes made from that point on, replayed in order
+//   archive/           column files of finished rides, rebuilt on startup
+class DataDirectory {
+    private static final Pattern SEGMENT = Pattern.compile("journal-(\\d+)\\.wal");
+    private static final Pattern SNAPSHOT = Pattern.compile("snapshot-(\\d+)\\.bin");
+
+    private final Path dir;
+
+    DataDirectory(Path dir) throws IOException {
+        this.dir = dir;
+        Files.createDirectories(dir);
+    }
+
+    Path archiveDir() {
+        return dir.resolve("archive");
+    }
+
+    Path segment(long n) {
+        return dir.resolve(String.format("journal-%010d.wal", n));
+    }
+
+    Path snapshot(long n) {
+        return dir.resolve(String.format("snapshot-%010d.bin", n));
+    }
+
+    OptionalLong latestSnapshot() throws IOException {
+        List<Long> snapshots = list(SNAPSHOT);
+        return snapshots.isEmpty() ? OptionalLong.empty() : OptionalLong.of(snapshots.get(snapshots.size() - 1));
+    }
+
+    // Segment numbers >= from, ascending
+    List<Long> segmentsFrom(long from) throws IOException {
+        List<Long> segments = new ArrayList<>();
+        for (long n : list(SEGMENT)) {
+            if (n >= from) {
+                segments.add(n);
+            }
+        }
+        return segments;
+    }
+
+    // Drops snapshots and journal segments made obsolete by snapshot n
+    void deleteBefore(long n) throws IOException {
+        for (long segment : list(SEGMENT)) {
+            if (segment < n) {
+                Files.deleteIfExists(segment(segment));
+            }
+        }
+        for (long snapshot : list(SNAPSHOT)) {
+            if (snapshot < n) {
+                Files.deleteIfExists(snapshot(snapshot));
+            }
+        }
+    }
+
+    // Makes renames and deletions in the directory itself durable
+    void sync() {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform; the files themselves are already forced
+        }
+    }
+
+    private List<Long> list(Pattern pattern) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            for (Path entry : entries) {
+                Matcher m = pattern.matcher(entry.getFileName().toString());
+                if (m.matches()) {
+                    numbers.add(Long.parseLong(m.group(1)));
+                }
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+}
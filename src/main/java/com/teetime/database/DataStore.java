@@ -0,0 +1,108 @@
+package com.teetime.database;
+
+import com.teetime.domain.Car;
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+import com.teetime.domain.User;
+import com.teetime.exception.RideNotAvailableException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Storage for users, cars and rides as seen by the services. DatabaseManager
+// keeps everything in memory (optionally journaled to disk); SqlDataStore
+// keeps it in an embedded SQL database, so data can outgrow the heap.
+// Implementations must be safe for concurrent use. Changes to returned
+// entities must be written back through the store; rides are always copies.
+// Origins and destinations are canonicalized on write (case and spacing), and
+// the caller's Ride is updated to the stored spelling.
+public interface DataStore extends AutoCloseable {
+
+    // Users
+
+    // Returns -1 if the email (case-insensitive, trimmed) is already taken
+    int createUser(String name, String email, String passwordHash, String role);
+
+    User getUserByEmail(String email);
+
+    User getUserById(int id);
+
+    // False if the new email belongs to another user
+    boolean updateUser(User user);
+
+    void deleteUser(int userId);
+
+    // Cars
+
+    int createCar(Car car);
+
+    Car getCarById(int carId);
+
+    // Ordered by car id
+    List<Car> getCarsByDriverId(int driverId);
+
+    void deleteCar(int carId);
+
+    // Rides
+
+    int createRide(Ride ride);
+
+    List<Ride> getPendingRides();
+
+    List<Ride> getRidesByStatus(RideStatus status);
+
+    // Pending rides leaving from the place, matched like any stored place name
+    List<Ride> getPendingRidesFrom(String origin);
+
+    // Pending rides with from <= time < to, earliest first
+    List<Ride> getPendingRidesBetween(LocalDateTime from, LocalDateTime to);
+
+    // Cancels pending rides whose time is before the cutoff; returns how many
+    int expirePendingRides(LocalDateTime cutoff);
+
+    // Ordered by ride id
+    List<Ride> getRidesByPassengerId(int passengerId);
+
+    // Ordered by ride id
+    List<Ride> getRidesByDriverId(int driverId);
+
+    void updateRide(Ride ride);
+
+    // Sets the ride's status and stores the whole ride
+    void transitionRide(Ride ride, RideStatus newStatus);
+
+    Ride getRideById(int rideId);
+
+    // Ride modification sequence: every ride write (create, update,
+    // transition, accept, expiry, import) takes the next number, so an export
+    // can pick up exactly the rides written since its last run
+
+    long getLastRideModSeq();
+
+    // Ids of rides written after afterSeq and at or before upToSeq, ascending.
+    // Null if the store no longer keeps history that old (the in-memory store
+    // keeps about the last million writes); the caller starts over from every
+    // ride.
+    int[] getRideIdsChangedBetween(long afterSeq, long upToSeq);
+
+    // Atomic PENDING -> CONFIRMED; exactly one of several racing drivers wins
+    Ride acceptRide(int rideId, int driverId, int carId) throws RideNotAvailableException;
+
+    // Atomic CONFIRMED -> COMPLETED, checked against the stored ride rather
+    // than a caller's possibly stale copy
+    Ride completeRide(int rideId) throws RideNotAvailableException;
+
+    // Bulk import of already validated records, far cheaper per record than
+    // the single-entity calls. Ids are assigned in list order and returned in
+    // the same order; a user whose email is taken gets -1 and is skipped.
+
+    int[] importUsers(List<User> users);
+
+    int[] importCars(List<Car> cars);
+
+    int[] importRides(List<Ride> rides);
+
+    // Releases files and threads; the store must not be used afterwards
+    @Override
+    void close();
+}
@@ -0,0 +1,45 @@
+package com.teetime.database;
+
+import java.nio.file.Paths;
+import java.util.Locale;
+
+// Picks the application's DataStore from system properties:
+// -Dteetime.store=memory (default) is the DatabaseManager singleton, configured
+// by StorageConfig; -Dteetime.store=sql is SqlDataStore, kept in
+// teetime.data.dir (in memory without one) with teetime.sql.pool connections.
+public final class DataStores {
+    private static volatile SqlDataStore sqlStore;
+
+    private DataStores() {}
+
+    public static DataStore getDefault() {
+        String backend = System.getProperty("teetime.store", "memory").trim().toLowerCase(Locale.ROOT);
+        switch (backend) {
+            case "memory":
+                return DatabaseManager.getInstance();
+            case "sql":
+                return sql();
+            default:
+                throw new IllegalArgumentException("Unknown teetime.store: " + backend + " (expected memory or sql)");
+        }
+    }
+
+    private static SqlDataStore sql() {
+        SqlDataStore store = sqlStore;
+        if (store == null) {
+            synchronized (DataStores.class) {
+                store = sqlStore;
+                if (store == null) {
+                    String dir = System.getProperty("teetime.data.dir");
+                    int poolSize = Integer.parseInt(System.getProperty("teetime.sql.pool",
+                            String.valueOf(SqlDataStore.DEFAULT_POOL_SIZE)));
+                    store = dir == null || dir.isBlank()
+                            ? SqlDataStore.inMemory()
+                            : SqlDataStore.open(Paths.get(dir), poolSize);
+                    sqlStore = store;
+                }
+            }
+        }
+        return store;
+    }
+}
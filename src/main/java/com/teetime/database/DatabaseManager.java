@@ -1,19 +1,75 @@
 package com.teetime.database;
 
 import com.teetime.domain.*;
+import com.teetime.exception.RideNotAvailableException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Safe for concurrent readers and writers: storage and indexes are
+// concurrent maps, and writes to a single user or ride are serialized by
+// a striped lock on its id. Rides are stored in a RideTable of primitive
+// columns and handed out as Ride copies. Pending rides are also kept in
+// pick-up time order for window queries and expiry, and every ride write is
+// numbered in a RideChangeLog for incremental exports.
+// When a data directory is configured every write is also journaled. Once the
+// journal grows past a threshold a snapshot of the whole store is written in
+// the background and older journal segments are deleted; startup loads the
+// latest snapshot and replays only the segments written after it.
+// Persistent stores also move finished rides off the heap into RideArchive;
+// `rides` and the ride indexes then hold only pending and confirmed rides.
+public class DatabaseManager implements DataStore {
+    private static final long SNAPSHOT_CHECK_MILLIS = 1000;
 
-public class DatabaseManager {
-    private static DatabaseManager instance;
+    private static volatile DatabaseManager instance;
     
     // In-memory storage
     private Map<Integer, User> users;
     private Map<Integer, Car> cars;
-    private Map<Integer, Ride> rides;
+    private RideTable rides; // primitive columns; callers get Ride views
+
+    // Secondary indexes
+    private Map<String, Integer> userIdsByEmail;
+    private Map<Integer, String> emailKeysByUserId;
+    private RideIndex carsByDriver;
+    private Map<RideStatus, IdSet> ridesByStatus;
+    private RideIndex ridesByPassenger;
+    private RideIndex ridesByDriver;
+    private PendingSchedule pendingByTime;
+    private PlaceRegistry places;
+    private RideChangeLog rideChanges; // ride modification sequence
+
+    private LockStripes userLocks;
+    private LockStripes carLocks;
+    private LockStripes rideLocks;
+
+    // Null when running purely in memory
+    private WriteAheadLog journal;
+    private DataDirectory dataDirectory;
+    private long currentSegment;      // guarded by snapshotLock
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private ScheduledExecutorService snapshotter;
+    private boolean snapshotLoaded;
+    private RideArchive archive;
     
     // Auto-increment IDs
     private AtomicInteger userIdCounter;
@@ -21,29 +77,310 @@ public class DatabaseManager {
     private AtomicInteger rideIdCounter;
 
     private DatabaseManager() {
-        initDatabase();
+        this(StorageConfig.fromSystemProperties());
+    }
+
+    DatabaseManager(StorageConfig config) {
+        initDatabase(config);
+    }
+
+    // A standalone instance outside the singleton, e.g. for tools and benchmarks
+    public static DatabaseManager open(StorageConfig config) {
+        return new DatabaseManager(config);
     }
 
     public static DatabaseManager getInstance() {
-        if (instance == null) {
-            instance = new DatabaseManager();
+        DatabaseManager db = instance;
+        if (db == null) {
+            synchronized (DatabaseManager.class) {
+                db = instance;
+                if (db == null) {
+                    db = new DatabaseManager();
+                    instance = db;
+                }
+            }
         }
-        return instance;
+        return db;
     }
 
-    private void initDatabase() {
-        users = new HashMap<>();
-        cars = new HashMap<>();
-        rides = new HashMap<>();
+    private void initDatabase(StorageConfig config) {
+        users = new ConcurrentHashMap<>();
+        cars = new ConcurrentHashMap<>();
+        places = new PlaceRegistry();
+        rides = new RideTable(places, () -> rideIdCounter.get());
+
+        userIdsByEmail = new ConcurrentHashMap<>();
+        emailKeysByUserId = new ConcurrentHashMap<>();
+        carsByDriver = new RideIndex();
+        ridesByStatus = new EnumMap<>(RideStatus.class);
+        for (RideStatus status : RideStatus.values()) {
+            ridesByStatus.put(status, new IdSet());
+        }
+        ridesByPassenger = new RideIndex();
+        ridesByDriver = new RideIndex();
+        pendingByTime = new PendingSchedule();
+        rideChanges = new RideChangeLog();
+
+        userLocks = new LockStripes(64);
+        carLocks = new LockStripes(64);
+        rideLocks = new LockStripes(256);
         
         userIdCounter = new AtomicInteger(1);
         carIdCounter = new AtomicInteger(1);
         rideIdCounter = new AtomicInteger(1);
+
+        if (config.isPersistent()) {
+            openJournal(config);
+        }
         
         // Create default admin user
         createDefaultAdmin();
     }
     
+    private void openJournal(StorageConfig config) {
+        try {
+            dataDirectory = new DataDirectory(config.getDataDir());
+            archive = new RideArchive(dataDirectory.archiveDir(), places);
+            long start = 0;
+            OptionalLong snapshot = dataDirectory.latestSnapshot();
+            if (snapshot.isPresent()) {
+                start = snapshot.getAsLong();
+                loadSnapshot(start);
+            }
+            List<Long> segments = dataDirectory.segmentsFrom(start);
+            for (long segment : segments) {
+                WriteAheadLog.replay(dataDirectory.segment(segment), this::applyRecord);
+            }
+            indexLoadedRides();
+            currentSegment = segments.isEmpty() ? start : segments.get(segments.size() - 1);
+            journal = new WriteAheadLog(dataDirectory.segment(currentSegment), config);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal in " + config.getDataDir(), e);
+        }
+        if (config.getSnapshotBytes() > 0) {
+            startSnapshotter(config.getSnapshotBytes());
+        }
+    }
+
+    private void loadSnapshot(long n) throws IOException {
+        snapshotLoaded = false;
+        WriteAheadLog.replay(dataDirectory.snapshot(n), this::applyRecord);
+        if (!snapshotLoaded) {
+            // Snapshots are renamed into place only when complete, so this is disk damage
+            throw new IOException("Snapshot " + dataDirectory.snapshot(n) + " is incomplete");
+        }
+    }
+
+    private void startSnapshotter(long thresholdBytes) {
+        snapshotter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "teetime-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        snapshotter.scheduleWithFixedDelay(() -> {
+            try {
+                if (journal.segmentBytes() >= thresholdBytes) {
+                    snapshot();
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Background snapshot failed: " + e.getMessage());
+            }
+        }, SNAPSHOT_CHECK_MILLIS, SNAPSHOT_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // Replay runs before the instance is published, so no locking is needed
+    private void applyRecord(byte type, ByteBuffer payload) {
+        switch (type) {
+            case EntityCodec.PUT_USER: {
+                User user = EntityCodec.decodeUser(payload);
+                String oldKey = emailKeysByUserId.put(user.getId(), emailKey(user.getEmail()));
+                if (oldKey != null) {
+                    userIdsByEmail.remove(oldKey, user.getId());
+                }
+                userIdsByEmail.put(emailKey(user.getEmail()), user.getId());
+                users.put(user.getId(), user);
+                bumpCounter(userIdCounter, user.getId());
+                break;
+            }
+            case EntityCodec.DELETE_USER: {
+                int id = payload.getInt();
+                removeUser(id);
+                bumpCounter(userIdCounter, id);
+                break;
+            }
+            case EntityCodec.PUT_CAR: {
+                Car car = EntityCodec.decodeCar(payload);
+                indexCar(car, cars.put(car.getId(), car));
+                bumpCounter(carIdCounter, car.getId());
+                break;
+            }
+            case EntityCodec.DELETE_CAR: {
+                int id = payload.getInt();
+                unindexCar(cars.remove(id));
+                bumpCounter(carIdCounter, id);
+                break;
+            }
+            case EntityCodec.PUT_RIDE:
+                applyRide(EntityCodec.decodeRide(payload));
+                break;
+            case EntityCodec.PUT_RIDE_CHANGE: {
+                long seq = payload.getLong();
+                Ride ride = EntityCodec.decodeRide(payload);
+                applyRide(ride);
+                rideChanges.restore(seq, ride.getId());
+                break;
+            }
+            case EntityCodec.RIDE_CHANGES: {
+                long firstSeq = payload.getLong();
+                int count = payload.getInt();
+                for (int i = 0; i < count; i++) {
+                    int rideId = payload.getInt();
+                    if (rideId > 0) {
+                        rideChanges.restore(firstSeq + i, rideId);
+                    }
+                }
+                break;
+            }
+            case EntityCodec.COUNTERS:
+                userIdCounter.accumulateAndGet(payload.getInt(), Math::max);
+                carIdCounter.accumulateAndGet(payload.getInt(), Math::max);
+                rideIdCounter.accumulateAndGet(payload.getInt(), Math::max);
+                break;
+            case EntityCodec.SNAPSHOT_END:
+                snapshotLoaded = true;
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal record type " + type);
+        }
+    }
+
+    private void applyRide(Ride ride) {
+        if (isArchived(ride)) {
+            rides.remove(ride.getId());
+            archive.put(ride);
+        } else {
+            if (archive != null) {
+                archive.remove(ride.getId());
+            }
+            rides.put(ride); // indexed once replay is done
+        }
+        bumpCounter(rideIdCounter, ride.getId());
+    }
+
+    // Building the ride indexes record by record would copy a user's whole list
+    // on every replayed write, so they are built in one pass after loading
+    private void indexLoadedRides() {
+        Map<Integer, IntStream.Builder> byPassenger = new HashMap<>();
+        Map<Integer, IntStream.Builder> byDriver = new HashMap<>();
+        for (int id = rides.nextId(0); id >= 0; id = rides.nextId(id + 1)) {
+            RideStatus status = rides.status(id);
+            if (status != null) {
+                ridesByStatus.get(status).add(id);
+            }
+            if (status == RideStatus.PENDING) {
+                pendingByTime.add(id, rides.epochSecond(id));
+            }
+            byPassenger.computeIfAbsent(rides.passengerId(id), k -> IntStream.builder()).add(id);
+            int driverId = rides.driverId(id);
+            if (driverId != 0) {
+                byDriver.computeIfAbsent(driverId, k -> IntStream.builder()).add(id);
+            }
+        }
+        byPassenger.forEach((passengerId, ids) -> ridesByPassenger.load(passengerId, ids.build().toArray()));
+        byDriver.forEach((driverId, ids) -> ridesByDriver.load(driverId, ids.build().toArray()));
+    }
+
+    // Ids are never reused, even for entities deleted before the restart
+    private static void bumpCounter(AtomicInteger counter, int seenId) {
+        counter.accumulateAndGet(seenId + 1, Math::max);
+    }
+
+    // Appends to the journal; callers hold the entity's lock so records for one
+    // entity are journaled in the order they were applied
+    private long journal(byte type, byte[] payload) {
+        return journal != null ? journal.append(type, payload) : 0;
+    }
+
+    // Called after the entity's lock is released so writers can share an fsync
+    private void awaitDurable(long seq) {
+        if (journal != null && seq > 0) {
+            journal.awaitDurable(seq);
+        }
+    }
+
+    // Writes a snapshot of the whole store and deletes the journal segments it
+    // covers. Writers are not blocked: the journal first moves on to a fresh
+    // segment, then the maps are copied out while writes continue. Anything
+    // that changes during the copy is applied before it is journaled, so it is
+    // also in the new segment and replaying it over the snapshot fixes it up.
+    public void snapshot() {
+        if (journal == null || !snapshotLock.tryLock()) {
+            return; // in-memory, or a snapshot is already being written
+        }
+        SnapshotWriter writer = null;
+        try {
+            long next = currentSegment + 1;
+            journal.rotate(dataDirectory.segment(next));
+            currentSegment = next;
+
+            writer = new SnapshotWriter(dataDirectory.snapshot(next));
+            for (User user : users.values()) {
+                writer.writeUser(user);
+            }
+            for (Car car : cars.values()) {
+                writer.writeCar(car);
+            }
+            for (int id = rides.nextId(0); id >= 0; id = rides.nextId(id + 1)) {
+                Ride ride = readRide(id);
+                if (ride != null) {
+                    writer.writeRide(ride);
+                }
+            }
+            if (archive != null) {
+                int archivedRows = archive.rowCount();
+                for (int row = 0; row < archivedRows; row++) {
+                    Ride ride = archive.read(row);
+                    if (ride != null) {
+                        writer.writeRide(ride);
+                    }
+                }
+            }
+            SnapshotWriter changesWriter = writer;
+            rideChanges.forEachPage(changesWriter::writeRideChanges);
+            // Read last, so they are past every id the snapshot contains
+            writer.commit(userIdCounter.get(), carIdCounter.get(), rideIdCounter.get());
+            writer = null;
+            dataDirectory.sync();
+            dataDirectory.deleteBefore(next);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write snapshot", e);
+        } finally {
+            if (writer != null) {
+                writer.abort();
+            }
+            snapshotLock.unlock();
+        }
+    }
+
+    // Flushes and closes the journal; the instance must not be used afterwards
+    public void close() {
+        if (journal == null) {
+            return;
+        }
+        if (snapshotter != null) {
+            snapshotter.shutdown(); // let a running snapshot finish rather than interrupt its file I/O
+        }
+        snapshotLock.lock();
+        try {
+            journal.close();
+            archive.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close journal", e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
     private void createDefaultAdmin() {
         try {
             String passwordHash = hashPassword("admin");
@@ -53,7 +390,7 @@ public class DatabaseManager {
         }
     }
     
-    private String hashPassword(String password) {
+    static String hashPassword(String password) {
         try {
             java.security.MessageDigest md = java.security.MessageDigest.getInstance("SHA-256");
             byte[] hash = md.digest(password.getBytes());
@@ -69,99 +406,583 @@ public class DatabaseManager {
         }
     }
 
+    // Emails are matched case-insensitively and ignoring surrounding whitespace
+    static String emailKey(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
     // User operations
     public int createUser(String name, String email, String passwordHash, String role) {
-        // Check if email already exists
-        for (User user : users.values()) {
-            if (user.getEmail().equals(email)) {
-                return -1; // Email already exists
+        String key = emailKey(email);
+        int[] createdId = {-1};
+        long[] seq = {0};
+
+        // The email claim and the insert happen atomically for this key, so two
+        // concurrent registrations with the same email cannot both succeed
+        userIdsByEmail.computeIfAbsent(key, k -> {
+            int id = userIdCounter.getAndIncrement();
+            User user;
+
+            if (role.contains("DRIVER")) {
+                user = new com.teetime.domain.Driver(id, name, email, passwordHash, role);
+            } else {
+                user = new Passenger(id, name, email, passwordHash, role);
             }
-        }
-        
-        int id = userIdCounter.getAndIncrement();
-        User user;
-        
-        if (role.contains("DRIVER")) {
-            user = new com.teetime.domain.Driver(id, name, email, passwordHash, role);
-        } else {
-            user = new Passenger(id, name, email, passwordHash, role);
-        }
-        
-        users.put(id, user);
-        return id;
+
+            users.put(id, user);
+            emailKeysByUserId.put(id, k);
+            seq[0] = journal(EntityCodec.PUT_USER, EntityCodec.encodeUser(user));
+            createdId[0] = id;
+            return id;
+        });
+        awaitDurable(seq[0]);
+        return createdId[0]; // -1 if the email already exists
     }
 
     public User getUserByEmail(String email) {
-        for (User user : users.values()) {
-            if (user.getEmail().equals(email)) {
-                return user;
+        String key = emailKey(email);
+        if (key == null) {
+            return null;
+        }
+        Integer id = userIdsByEmail.get(key);
+        return id != null ? users.get(id) : null;
+    }
+
+    public User getUserById(int id) {
+        return users.get(id);
+    }
+
+    public boolean updateUser(User user) {
+        String newKey = emailKey(user.getEmail());
+        long seq;
+        ReentrantLock lock = userLocks.forId(user.getId());
+        lock.lock();
+        try {
+            Integer owner = userIdsByEmail.putIfAbsent(newKey, user.getId());
+            if (owner != null && owner != user.getId()) {
+                return false; // Email taken by another user
+            }
+
+            String oldKey = emailKeysByUserId.put(user.getId(), newKey);
+            if (oldKey != null && !oldKey.equals(newKey)) {
+                userIdsByEmail.remove(oldKey, user.getId());
             }
+            users.put(user.getId(), user);
+            seq = journal(EntityCodec.PUT_USER, EntityCodec.encodeUser(user));
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(seq);
+        return true;
+    }
+
+    public void deleteUser(int userId) {
+        long seq;
+        ReentrantLock lock = userLocks.forId(userId);
+        lock.lock();
+        try {
+            removeUser(userId);
+            seq = journal(EntityCodec.DELETE_USER, EntityCodec.encodeId(userId));
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(seq);
+    }
+
+    private void removeUser(int userId) {
+        users.remove(userId);
+        String key = emailKeysByUserId.remove(userId);
+        if (key != null) {
+            userIdsByEmail.remove(key, userId);
         }
-        return null;
     }
 
     // Car operations
     public int createCar(Car car) {
         int id = carIdCounter.getAndIncrement();
         car.setId(id);
-        cars.put(id, car);
+        long seq;
+        ReentrantLock lock = carLocks.forId(id);
+        lock.lock();
+        try {
+            indexCar(car, cars.put(id, car));
+            seq = journal(EntityCodec.PUT_CAR, EntityCodec.encodeCar(car));
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(seq);
         return id;
     }
 
+    public Car getCarById(int carId) {
+        return cars.get(carId);
+    }
+
+    // Ordered by car id
     public List<Car> getCarsByDriverId(int driverId) {
         List<Car> driverCars = new ArrayList<>();
-        for (Car car : cars.values()) {
-            if (car.getDriverId() == driverId) {
+        for (int carId : carsByDriver.get(driverId)) {
+            Car car = cars.get(carId);
+            if (car != null && car.getDriverId() == driverId) { // may be mid-delete
                 driverCars.add(car);
             }
         }
         return driverCars;
     }
 
+    // Caller holds the car's lock
+    private void indexCar(Car car, Car previous) {
+        carsByDriver.put(car.getDriverId(), car.getId());
+        if (previous != null && previous.getDriverId() != car.getDriverId()) {
+            carsByDriver.remove(previous.getDriverId(), car.getId());
+        }
+    }
+
+    private void unindexCar(Car removed) {
+        if (removed != null) {
+            carsByDriver.remove(removed.getDriverId(), removed.getId());
+        }
+    }
+
     public void deleteCar(int carId) {
-        cars.remove(carId);
+        long seq;
+        ReentrantLock lock = carLocks.forId(carId);
+        lock.lock();
+        try {
+            unindexCar(cars.remove(carId));
+            seq = journal(EntityCodec.DELETE_CAR, EntityCodec.encodeId(carId));
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(seq);
     }
 
     // Ride operations
     public int createRide(Ride ride) {
         int id = rideIdCounter.getAndIncrement();
         ride.setId(id);
-        rides.put(id, ride);
+        storeRide(ride);
         return id;
     }
 
     public List<Ride> getPendingRides() {
-        List<Ride> pendingRides = new ArrayList<>();
-        for (Ride ride : rides.values()) {
-            if (ride.getStatus() == RideStatus.PENDING) {
-                pendingRides.add(ride);
+        return getRidesByStatus(RideStatus.PENDING);
+    }
+
+    public List<Ride> getRidesByStatus(RideStatus status) {
+        List<Ride> result = new ArrayList<>();
+        IdSet ids = ridesByStatus.get(status);
+        for (int id = ids.next(0); id >= 0; id = ids.next(id + 1)) {
+            Ride ride = readRide(id);
+            if (ride != null && ride.getStatus() == status) { // may have moved on since
+                result.add(ride);
             }
         }
-        return pendingRides;
+        if (archive != null && isFinal(status)) {
+            result.addAll(archive.getByStatus(status));
+        }
+        return result;
     }
 
-    public List<Ride> getRidesByPassengerId(int passengerId) {
-        List<Ride> passengerRides = new ArrayList<>();
-        for (Ride ride : rides.values()) {
-            if (ride.getPassengerId() == passengerId) {
-                passengerRides.add(ride);
+    public PlaceRegistry getPlaces() {
+        return places;
+    }
+
+    public List<Ride> getPendingRidesFrom(String origin) {
+        int originId = places.idOf(origin);
+        return originId != PlaceRegistry.NONE ? getPendingRidesFrom(originId) : List.of();
+    }
+
+    // Pending rides leaving from the given place, by PlaceRegistry id
+    public List<Ride> getPendingRidesFrom(int originId) {
+        List<Ride> result = new ArrayList<>();
+        IdSet pending = ridesByStatus.get(RideStatus.PENDING);
+        for (int id = pending.next(0); id >= 0; id = pending.next(id + 1)) {
+            if (rides.originId(id) != originId) {
+                continue; // filtered on the int column without building the Ride
+            }
+            Ride ride = readRide(id);
+            if (ride != null && ride.getStatus() == RideStatus.PENDING) {
+                result.add(ride);
             }
         }
-        return passengerRides;
+        return result;
+    }
+
+    // Pending rides with from <= time < to, earliest first
+    public List<Ride> getPendingRidesBetween(LocalDateTime from, LocalDateTime to) {
+        List<Ride> result = new ArrayList<>();
+        int[] ids = pendingByTime.between(from.toEpochSecond(ZoneOffset.UTC), to.toEpochSecond(ZoneOffset.UTC));
+        for (int id : ids) {
+            Ride ride = readRide(id);
+            if (ride != null && ride.getStatus() == RideStatus.PENDING
+                    && !ride.getTime().isBefore(from) && ride.getTime().isBefore(to)) {
+                result.add(ride);
+            }
+        }
+        return result;
+    }
+
+    // Cancels pending rides whose time is before the cutoff; nobody can pick
+    // them up any more. Returns how many were cancelled.
+    public int expirePendingRides(LocalDateTime cutoff) {
+        int expired = 0;
+        long seq = 0;
+        for (int id : pendingByTime.upTo(cutoff.toEpochSecond(ZoneOffset.UTC))) {
+            ReentrantLock lock = rideLocks.forId(id);
+            lock.lock();
+            try {
+                Ride ride = rides.read(id);
+                if (ride == null || ride.getStatus() != RideStatus.PENDING || !ride.getTime().isBefore(cutoff)) {
+                    continue; // accepted, rescheduled or not yet stale
+                }
+                ride.setStatus(RideStatus.CANCELLED);
+                seq = putRide(ride);
+                expired++;
+            } finally {
+                lock.unlock();
+            }
+        }
+        awaitDurable(seq); // covers every earlier append too
+        return expired;
+    }
+
+    public Ride getRideById(int rideId) {
+        ReentrantLock lock = rideLocks.forId(rideId);
+        lock.lock();
+        try {
+            Ride ride = rides.read(rideId);
+            return ride == null && archive != null ? archive.get(rideId) : ride;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Every ride write (create, update, transition, accept, expiry, import)
+    // takes the next modification sequence number; the journal records it, so
+    // the numbering survives restarts
+
+    public long getLastRideModSeq() {
+        return rideChanges.lastSeq();
+    }
+
+    public int[] getRideIdsChangedBetween(long afterSeq, long upToSeq) {
+        return rideChanges.ridesChangedBetween(afterSeq, upToSeq);
+    }
+
+    // Returned lists are read-only, ordered by ride id
+    public List<Ride> getRidesByPassengerId(int passengerId) {
+        List<Ride> active = readRides(ridesByPassenger.get(passengerId));
+        return archive != null ? withArchived(active, archive.getByPassenger(passengerId)) : active;
     }
 
     public List<Ride> getRidesByDriverId(int driverId) {
-        List<Ride> driverRides = new ArrayList<>();
-        for (Ride ride : rides.values()) {
-            if (ride.getDriverId() != null && ride.getDriverId() == driverId) {
-                driverRides.add(ride);
+        List<Ride> active = readRides(ridesByDriver.get(driverId));
+        return archive != null ? withArchived(active, archive.getByDriver(driverId)) : active;
+    }
+
+    private List<Ride> readRides(int[] ids) {
+        List<Ride> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Ride ride = readRide(id);
+            if (ride != null) {
+                result.add(ride);
             }
         }
-        return driverRides;
+        return Collections.unmodifiableList(result);
     }
 
+    // Rides are handed out as copies built from the table under the ride's lock,
+    // so a reader never sees half of an update
+    private Ride readRide(int id) {
+        ReentrantLock lock = rideLocks.forId(id);
+        lock.lock();
+        try {
+            return rides.read(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The active list is read first, so a ride archived in between shows up
+    // in both and the archived copy wins
+    private static List<Ride> withArchived(List<Ride> active, List<Ride> archived) {
+        if (archived.isEmpty()) {
+            return active;
+        }
+        Map<Integer, Ride> byId = new TreeMap<>();
+        for (Ride ride : active) {
+            byId.put(ride.getId(), ride);
+        }
+        for (Ride ride : archived) {
+            byId.put(ride.getId(), ride);
+        }
+        return List.copyOf(byId.values());
+    }
+
+    // Rides held in memory, as opposed to archived ones
+    int residentRideCount() {
+        return rides.size();
+    }
+
+    // Saves the ride; Ride objects returned by this class are copies, so changes
+    // to them only take effect through updateRide or transitionRide
     public void updateRide(Ride ride) {
-        rides.put(ride.getId(), ride);
+        storeRide(ride);
+    }
+
+    // Moves the ride into the bucket for its new status and stores it
+    public void transitionRide(Ride ride, RideStatus newStatus) {
+        long seq;
+        ReentrantLock lock = rideLocks.forId(ride.getId());
+        lock.lock();
+        try {
+            ride.setStatus(newStatus);
+            seq = putRide(ride);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(seq);
+    }
+
+    private void storeRide(Ride ride) {
+        long seq;
+        ReentrantLock lock = rideLocks.forId(ride.getId());
+        lock.lock();
+        try {
+            seq = putRide(ride);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(seq);
     }
-}
 
+    // Caller holds the ride's stripe lock
+    private long putRide(Ride ride) {
+        internPlaces(ride);
+        if (isArchived(ride)) {
+            reindexRide(ride, false);
+            rides.remove(ride.getId());
+            archive.put(ride);
+        } else {
+            if (archive != null) {
+                archive.remove(ride.getId());
+            }
+            reindexRide(ride, true);
+            rides.put(ride);
+        }
+        long modSeq = rideChanges.append(ride.getId());
+        return journal(EntityCodec.PUT_RIDE_CHANGE, EntityCodec.encodeRideChange(modSeq, EntityCodec.encodeRide(ride)));
+    }
+
+    // All rides share one String per place instead of holding their own copies
+    private void internPlaces(Ride ride) {
+        ride.setOrigin(places.canonical(ride.getOrigin()));
+        ride.setDestination(places.canonical(ride.getDestination()));
+    }
+
+    private static boolean isFinal(RideStatus status) {
+        return status == RideStatus.COMPLETED || status == RideStatus.CANCELLED;
+    }
+
+    private boolean isArchived(Ride ride) {
+        return archive != null && isFinal(ride.getStatus());
+    }
+
+    // Atomic PENDING -> CONFIRMED. Only one of any number of drivers racing for
+    // the same ride wins; the rest get RideNotAvailableException.
+    public Ride acceptRide(int rideId, int driverId, int carId) throws RideNotAvailableException {
+        Ride ride;
+        long seq;
+        ReentrantLock lock = rideLocks.forId(rideId);
+        lock.lock();
+        try {
+            ride = rides.read(rideId);
+            if (ride == null && archive != null) {
+                ride = archive.get(rideId);
+            }
+            if (ride == null) {
+                throw new RideNotAvailableException("Ride not found");
+            }
+            if (ride.getStatus() != RideStatus.PENDING) {
+                throw new RideNotAvailableException("Ride is no longer pending (" + ride.getStatus() + ")");
+            }
+            ride.setDriverId(driverId);
+            ride.setCarId(carId);
+            ride.setStatus(RideStatus.CONFIRMED);
+            seq = putRide(ride);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(seq);
+        return ride;
+    }
+
+    public Ride completeRide(int rideId) throws RideNotAvailableException {
+        Ride ride;
+        long seq;
+        ReentrantLock lock = rideLocks.forId(rideId);
+        lock.lock();
+        try {
+            ride = rides.read(rideId);
+            if (ride == null && archive != null) {
+                ride = archive.get(rideId);
+            }
+            if (ride == null) {
+                throw new RideNotAvailableException("Ride not found");
+            }
+            if (ride.getStatus() != RideStatus.CONFIRMED) {
+                throw new RideNotAvailableException("Ride is not confirmed (" + ride.getStatus() + ")");
+            }
+            ride.setStatus(RideStatus.COMPLETED);
+            seq = putRide(ride);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(seq);
+        return ride;
+    }
+
+    // Bulk import. Each batch reserves its id range with one counter bump,
+    // encodes its journal records in parallel and waits for a single fsync at
+    // the end. Callers validate the records first.
+
+    public int[] importUsers(List<User> batch) {
+        int[] ids = new int[batch.size()];
+        int first = userIdCounter.getAndAdd(batch.size());
+        long seq = 0;
+        for (int i = 0; i < ids.length; i++) {
+            User user = batch.get(i);
+            int id = first + i;
+            String key = emailKey(user.getEmail());
+            if (userIdsByEmail.putIfAbsent(key, id) != null) {
+                ids[i] = -1; // Email already exists; the id stays unused
+                continue;
+            }
+            user.setId(id);
+            users.put(id, user);
+            emailKeysByUserId.put(id, key);
+            seq = journal(EntityCodec.PUT_USER, EntityCodec.encodeUser(user));
+            ids[i] = id;
+        }
+        awaitDurable(seq);
+        return ids;
+    }
+
+    public int[] importCars(List<Car> batch) {
+        int[] ids = new int[batch.size()];
+        int first = carIdCounter.getAndAdd(batch.size());
+        long seq = 0;
+        for (int i = 0; i < ids.length; i++) {
+            Car car = batch.get(i);
+            car.setId(first + i);
+            ReentrantLock lock = carLocks.forId(car.getId());
+            lock.lock();
+            try {
+                indexCar(car, cars.put(car.getId(), car));
+                seq = journal(EntityCodec.PUT_CAR, EntityCodec.encodeCar(car));
+            } finally {
+                lock.unlock();
+            }
+            ids[i] = car.getId();
+        }
+        awaitDurable(seq);
+        return ids;
+    }
+
+    // The rides are unreachable through the indexes until the whole batch is
+    // stored, then indexed in one pass: one merge per passenger and driver
+    // instead of a copy-on-write per ride.
+    public int[] importRides(List<Ride> batch) {
+        int first = rideIdCounter.getAndAdd(batch.size());
+        byte[][] records = new byte[batch.size()][];
+        IntStream.range(0, records.length).parallel().forEach(i -> {
+            Ride ride = batch.get(i);
+            ride.setId(first + i);
+            internPlaces(ride);
+            records[i] = EntityCodec.encodeRide(ride);
+        });
+
+        long seq = 0;
+        for (int i = 0; i < records.length; i++) {
+            Ride ride = batch.get(i);
+            ReentrantLock lock = rideLocks.forId(ride.getId());
+            lock.lock();
+            try {
+                if (isArchived(ride)) {
+                    archive.put(ride);
+                } else {
+                    rides.put(ride);
+                }
+                long modSeq = rideChanges.append(ride.getId());
+                seq = journal(EntityCodec.PUT_RIDE_CHANGE, EntityCodec.encodeRideChange(modSeq, records[i]));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Map<Integer, IntStream.Builder> byPassenger = new HashMap<>();
+        Map<Integer, IntStream.Builder> byDriver = new HashMap<>();
+        int[] ids = new int[batch.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Ride ride = batch.get(i);
+            int id = ride.getId();
+            ids[i] = id;
+            if (isArchived(ride)) {
+                continue;
+            }
+            if (ride.getStatus() != null) {
+                ridesByStatus.get(ride.getStatus()).add(id);
+            }
+            if (ride.getStatus() == RideStatus.PENDING && ride.getTime() != null) {
+                pendingByTime.add(id, ride.getTime().toEpochSecond(ZoneOffset.UTC));
+            }
+            byPassenger.computeIfAbsent(ride.getPassengerId(), k -> IntStream.builder()).add(id);
+            if (ride.getDriverId() != null) {
+                byDriver.computeIfAbsent(ride.getDriverId(), k -> IntStream.builder()).add(id);
+            }
+        }
+        byPassenger.forEach((passengerId, rideIds) -> ridesByPassenger.putAll(passengerId, rideIds.build().toArray()));
+        byDriver.forEach((driverId, rideIds) -> ridesByDriver.putAll(driverId, rideIds.build().toArray()));
+        awaitDurable(seq);
+        return ids;
+    }
+
+    // Moves the ride's id between index entries to match its new state. Runs
+    // under the ride's stripe lock, before the table row is overwritten so the
+    // previous state can still be read from it. New entries are added before
+    // old ones are removed, so concurrent readers never miss the ride.
+    private void reindexRide(Ride ride, boolean resident) {
+        int id = ride.getId();
+        boolean wasResident = rides.contains(id);
+        RideStatus oldStatus = wasResident ? rides.status(id) : null;
+        int oldPassengerId = wasResident ? rides.passengerId(id) : 0;
+        int oldDriverId = wasResident ? rides.driverId(id) : 0;
+        RideStatus newStatus = resident ? ride.getStatus() : null;
+        int newPassengerId = resident ? ride.getPassengerId() : 0;
+        int newDriverId = resident && ride.getDriverId() != null ? ride.getDriverId() : 0;
+
+        if (newStatus != null) {
+            ridesByStatus.get(newStatus).add(id);
+        }
+        if (oldStatus != null && oldStatus != newStatus) {
+            ridesByStatus.get(oldStatus).remove(id);
+        }
+        if (resident) {
+            ridesByPassenger.put(newPassengerId, id);
+        }
+        if (wasResident && oldPassengerId != newPassengerId) {
+            ridesByPassenger.remove(oldPassengerId, id);
+        }
+        if (newDriverId != 0) {
+            ridesByDriver.put(newDriverId, id);
+        }
+        if (oldDriverId != 0 && oldDriverId != newDriverId) {
+            ridesByDriver.remove(oldDriverId, id);
+        }
+        long oldPendingTime = oldStatus == RideStatus.PENDING ? rides.epochSecond(id) : PendingSchedule.NO_TIME;
+        long newPendingTime = newStatus == RideStatus.PENDING && ride.getTime() != null
+                ? ride.getTime().toEpochSecond(ZoneOffset.UTC) : PendingSchedule.NO_TIME;
+        pendingByTime.move(id, oldPendingTime, newPendingTime);
+    }
+}
@@ -0,0 +1,171 @@
+package com.teetime.database;
+
+import com.teetime.domain.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Binary form of users, cars and rides as stored in the journal. Every record
+// carries the full entity state, so replaying a record twice is harmless.
+final class EntityCodec {
+    static final byte PUT_USER = 1;
+    static final byte DELETE_USER = 2;
+    static final byte PUT_CAR = 3;
+    static final byte DELETE_CAR = 4;
+    static final byte PUT_RIDE = 5;
+    static final byte COUNTERS = 6;      // snapshots only
+    static final byte SNAPSHOT_END = 7;  // snapshots only
+    static final byte PUT_RIDE_CHANGE = 8; // a PUT_RIDE with its modification sequence
+    static final byte RIDE_CHANGES = 9;  // snapshots only: a page of the ride change log
+
+    private static final byte KIND_PASSENGER = 0;
+    private static final byte KIND_DRIVER = 1;
+
+    private EntityCodec() {}
+
+    static byte[] encodeUser(User user) {
+        return encode(out -> {
+            out.writeInt(user.getId());
+            out.writeByte(user instanceof Driver ? KIND_DRIVER : KIND_PASSENGER);
+            writeString(out, user.getName());
+            writeString(out, user.getEmail());
+            writeString(out, user.getPasswordHash());
+            writeString(out, user.getRole());
+        });
+    }
+
+    static User decodeUser(ByteBuffer in) {
+        int id = in.getInt();
+        byte kind = in.get();
+        String name = readString(in);
+        String email = readString(in);
+        String passwordHash = readString(in);
+        String role = readString(in);
+        return kind == KIND_DRIVER
+                ? new Driver(id, name, email, passwordHash, role)
+                : new Passenger(id, name, email, passwordHash, role);
+    }
+
+    static byte[] encodeCar(Car car) {
+        return encode(out -> {
+            out.writeInt(car.getId());
+            out.writeInt(car.getDriverId());
+            writeString(out, car.getPlate());
+            writeString(out, car.getBrand());
+            out.writeInt(car.getSeats());
+        });
+    }
+
+    static Car decodeCar(ByteBuffer in) {
+        int id = in.getInt();
+        int driverId = in.getInt();
+        String plate = readString(in);
+        String brand = readString(in);
+        int seats = in.getInt();
+        Car car = new Car(driverId, plate, brand, seats);
+        car.setId(id);
+        return car;
+    }
+
+    static byte[] encodeRide(Ride ride) {
+        return encode(out -> {
+            out.writeInt(ride.getId());
+            out.writeInt(ride.getPassengerId());
+            out.writeInt(ride.getDriverId() != null ? ride.getDriverId() : 0);
+            out.writeInt(ride.getCarId() != null ? ride.getCarId() : 0);
+            writeString(out, ride.getOrigin());
+            writeString(out, ride.getDestination());
+            LocalDateTime time = ride.getTime();
+            out.writeLong(time != null ? time.toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE);
+            out.writeInt(time != null ? time.getNano() : 0);
+            out.writeInt(ride.getSeatsNeeded());
+            out.writeByte(ride.getStatus() != null ? ride.getStatus().ordinal() : -1);
+            out.writeDouble(ride.getPriceEstimate());
+        });
+    }
+
+    static Ride decodeRide(ByteBuffer in) {
+        Ride ride = new Ride();
+        ride.setId(in.getInt());
+        ride.setPassengerId(in.getInt());
+        int driverId = in.getInt();
+        ride.setDriverId(driverId != 0 ? driverId : null); // ids start at 1
+        int carId = in.getInt();
+        ride.setCarId(carId != 0 ? carId : null);
+        ride.setOrigin(readString(in));
+        ride.setDestination(readString(in));
+        long epochSecond = in.getLong();
+        int nano = in.getInt();
+        if (epochSecond != Long.MIN_VALUE) {
+            ride.setTime(LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC));
+        }
+        ride.setSeatsNeeded(in.getInt());
+        byte status = in.get();
+        ride.setStatus(status >= 0 ? RideStatus.values()[status] : null);
+        ride.setPriceEstimate(in.getDouble());
+        return ride;
+    }
+
+    // The sequence number goes in front of an already encoded ride
+    static byte[] encodeRideChange(long seq, byte[] encodedRide) {
+        return ByteBuffer.allocate(Long.BYTES + encodedRide.length).putLong(seq).put(encodedRide).array();
+    }
+
+    static byte[] encodeRideChanges(long firstSeq, int[] rideIds, int count) {
+        ByteBuffer out = ByteBuffer.allocate(Long.BYTES + Integer.BYTES + count * Integer.BYTES);
+        out.putLong(firstSeq).putInt(count);
+        for (int i = 0; i < count; i++) {
+            out.putInt(rideIds[i]);
+        }
+        return out.array();
+    }
+
+    static byte[] encodeCounters(int nextUserId, int nextCarId, int nextRideId) {
+        return ByteBuffer.allocate(3 * Integer.BYTES).putInt(nextUserId).putInt(nextCarId).putInt(nextRideId).array();
+    }
+
+    static byte[] encodeId(int id) {
+        return ByteBuffer.allocate(Integer.BYTES).putInt(id).array();
+    }
+
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] encode(Writer writer) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+            DataOutputStream out = new DataOutputStream(bytes);
+            writer.write(out);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // in-memory stream, cannot happen
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,84 @@
+package com.teetime.database;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Concurrent set of non-negative ids as a bitset, one bit per id, iterated in
+// ascending order. Ride ids are dense, so this is far smaller than a sorted
+// map of boxed keys. Blocks are allocated on first use and never freed.
+class IdSet {
+    private static final int BLOCK_WORDS = 1024;
+    private static final int BLOCK_BITS = BLOCK_WORDS * Long.SIZE;
+
+    private volatile AtomicLongArray[] blocks = new AtomicLongArray[4]; // grown under this
+
+    void add(int id) {
+        AtomicLongArray block = block(id, true);
+        int word = (id % BLOCK_BITS) / Long.SIZE;
+        long bit = 1L << id;
+        long current;
+        do {
+            current = block.get(word);
+        } while ((current & bit) == 0 && !block.compareAndSet(word, current, current | bit));
+    }
+
+    void remove(int id) {
+        AtomicLongArray block = block(id, false);
+        if (block == null) {
+            return;
+        }
+        int word = (id % BLOCK_BITS) / Long.SIZE;
+        long bit = 1L << id;
+        long current;
+        do {
+            current = block.get(word);
+        } while ((current & bit) != 0 && !block.compareAndSet(word, current, current & ~bit));
+    }
+
+    boolean contains(int id) {
+        AtomicLongArray block = block(id, false);
+        return block != null && (block.get((id % BLOCK_BITS) / Long.SIZE) & (1L << id)) != 0;
+    }
+
+    // The smallest id in the set that is >= fromId, or -1
+    int next(int fromId) {
+        AtomicLongArray[] current = blocks;
+        int id = Math.max(0, fromId);
+        for (int b = id / BLOCK_BITS; b < current.length; b++) {
+            AtomicLongArray block = current[b];
+            if (block != null) {
+                int start = b == id / BLOCK_BITS ? (id % BLOCK_BITS) / Long.SIZE : 0;
+                for (int w = start; w < BLOCK_WORDS; w++) {
+                    long bits = block.get(w);
+                    if (b == id / BLOCK_BITS && w == start) {
+                        bits &= -1L << id; // drop bits below fromId in its own word
+                    }
+                    if (bits != 0) {
+                        return b * BLOCK_BITS + w * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private AtomicLongArray block(int id, boolean create) {
+        int index = id / BLOCK_BITS;
+        AtomicLongArray[] current = blocks;
+        AtomicLongArray block = index < current.length ? current[index] : null;
+        if (block != null || !create) {
+            return block;
+        }
+        synchronized (this) {
+            current = blocks;
+            if (index >= current.length) {
+                current = Arrays.copyOf(current, Math.max(current.length * 2, index + 1));
+            }
+            if (current[index] == null) {
+                current[index] = new AtomicLongArray(BLOCK_WORDS);
+            }
+            blocks = current; // volatile write publishes the new block
+            return current[index];
+        }
+    }
+}
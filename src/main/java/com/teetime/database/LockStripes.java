@@ -0,0 +1,28 @@
+package com.teetime.database;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+// Fixed pool of locks shared out by entity id, so writers to different
+// entities rarely contend and no global lock is needed
+class LockStripes {
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    LockStripes(int stripes) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    ReentrantLock forId(int id) {
+        int h = id * 0x9E3779B9; // spread consecutive ids across stripes
+        return locks[(h ^ (h >>> 16)) & mask];
+    }
+
+    int size() {
+        return locks.length;
+    }
+}
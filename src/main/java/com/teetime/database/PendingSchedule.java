@@ -0,0 +1,67 @@
+package com.teetime.database;
+
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Pending rides ordered by pick-up time, for "rides in the next N hours" and
+// for expiring rides whose time has passed. Each entry packs the ride's epoch
+// minute above its id, so a time range is one subSet of the skip list:
+// O(log n) to find the start, then one step per ride in the range. Callers
+// compare exact times themselves, since entries only resolve to the minute.
+class PendingSchedule {
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    private static final int ID_BITS = 31;
+
+    private final ConcurrentSkipListSet<Long> entries = new ConcurrentSkipListSet<>();
+
+    // Moves the ride from its old time to its new one; NO_TIME means not
+    // scheduled. The new entry is added first so readers never miss the ride.
+    void move(int rideId, long oldEpochSecond, long newEpochSecond) {
+        if (newEpochSecond != NO_TIME) {
+            entries.add(key(newEpochSecond, rideId));
+        }
+        if (oldEpochSecond != NO_TIME
+                && (newEpochSecond == NO_TIME || minute(oldEpochSecond) != minute(newEpochSecond))) {
+            entries.remove(key(oldEpochSecond, rideId));
+        }
+    }
+
+    void add(int rideId, long epochSecond) {
+        move(rideId, NO_TIME, epochSecond);
+    }
+
+    void remove(int rideId, long epochSecond) {
+        move(rideId, epochSecond, NO_TIME);
+    }
+
+    // Rides whose minute falls in [from, to], earliest first
+    int[] between(long fromEpochSecond, long toEpochSecond) {
+        if (toEpochSecond < fromEpochSecond) {
+            return new int[0];
+        }
+        return ids(entries.subSet(key(fromEpochSecond, 0), true, key(toEpochSecond, Integer.MAX_VALUE), true));
+    }
+
+    // Rides whose minute is at or before the given time's, earliest first
+    int[] upTo(long epochSecond) {
+        return ids(entries.headSet(key(epochSecond, Integer.MAX_VALUE), true));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static int[] ids(NavigableSet<Long> range) {
+        return range.stream().mapToInt(key -> (int) (key & Integer.MAX_VALUE)).toArray();
+    }
+
+    private static long minute(long epochSecond) {
+        return Math.floorDiv(epochSecond, 60);
+    }
+
+    // Ride ids are positive ints; minutes fit comfortably in the 32 bits above them
+    private static long key(long epochSecond, int rideId) {
+        return (minute(epochSecond) << ID_BITS) | rideId;
+    }
+}
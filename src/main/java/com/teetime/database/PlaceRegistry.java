@@ -0,0 +1,95 @@
+package com.teetime.database;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Canonical spellings of ride locations, each interned to a small int id.
+// Lookups ignore case and surrounding or repeated whitespace; the first
+// spelling registered becomes the name every ride shares.
+public class PlaceRegistry {
+    public static final int NONE = 0;
+
+    private final Map<String, Integer> idsByKey = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64]; // indexed by id, slot 0 unused
+    private int size;                                  // guarded by this
+
+    // Returns the place's id, registering it on first sight
+    public int intern(String place) {
+        if (place == null) {
+            return NONE;
+        }
+        String key = key(place);
+        Integer id = idsByKey.get(key);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = idsByKey.get(key);
+            if (id != null) {
+                return id;
+            }
+            int next = size + 1;
+            if (next == names.length) {
+                names = Arrays.copyOf(names, names.length * 2);
+            }
+            names[next] = normalize(place);
+            size = next;
+            idsByKey.put(key, next); // publishes the name written above
+            return next;
+        }
+    }
+
+    // The registered spelling of the place, registering it if needed
+    public String canonical(String place) {
+        return place == null ? null : name(intern(place));
+    }
+
+    // NONE if the place was never registered
+    public int idOf(String place) {
+        if (place == null) {
+            return NONE;
+        }
+        Integer id = idsByKey.get(key(place));
+        return id != null ? id : NONE;
+    }
+
+    public String name(int id) {
+        if (id == NONE) {
+            return null;
+        }
+        String[] current = names;
+        if (id < 0 || id >= current.length || current[id] == null) {
+            throw new IllegalArgumentException("Unknown place id " + id);
+        }
+        return current[id];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    static String key(String place) {
+        return normalize(place).toLowerCase(Locale.ROOT);
+    }
+
+    // Strips and collapses runs of whitespace (any Character.isWhitespace,
+    // not just ASCII) to a single space
+    static String normalize(String place) {
+        String trimmed = place.strip();
+        StringBuilder out = null;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            boolean space = Character.isWhitespace(c);
+            if (out == null && space
+                    && (c != ' ' || i + 1 < trimmed.length() && Character.isWhitespace(trimmed.charAt(i + 1)))) {
+                out = new StringBuilder(trimmed.length()).append(trimmed, 0, i);
+            }
+            if (out != null && !(space && i > 0 && Character.isWhitespace(trimmed.charAt(i - 1)))) {
+                out.append(space ? ' ' : c);
+            }
+        }
+        return out != null ? out.toString() : trimmed;
+    }
+}
@@ -0,0 +1,298 @@
+package com.teetime.database;
+
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Finished rides, kept off the heap in memory-mapped column files: one file per
+// field with a fixed width per row. Places are stored as PlaceRegistry ids; times
+// and prices keep full precision, since snapshots are written from these rows.
+// Each row also points at the previous row of the same passenger and of the same
+// driver, so history lookups walk only that user's rows and the heap holds just
+// the chain heads.
+// The archive is derived data: it is rebuilt from the snapshot and journal on
+// every startup.
+class RideArchive implements Closeable {
+    private static final int NONE = -1;
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final byte DEAD = -1; // status of a row whose ride left the archive
+
+    private final int regionRows;
+    private final List<Column> columns = new ArrayList<>();
+    private final Column ids;
+    private final Column passengerIds;
+    private final Column driverIds;
+    private final Column carIds;
+    private final Column origins;
+    private final Column destinations;
+    private final Column epochSeconds;
+    private final Column nanos;
+    private final Column seats;
+    private final Column statuses;
+    private final Column prices;
+    private final Column prevByPassenger;
+    private final Column prevByDriver;
+
+    private final PlaceRegistry places;
+    private final Map<Integer, Integer> passengerHeads = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> driverHeads = new ConcurrentHashMap<>();
+    // Row + 1 of each archived ride, indexed by ride id (0: not archived);
+    // ride ids are dense, so this costs 4 bytes per ride. Guarded by this.
+    private int[] rowsById = new int[1024];
+    private volatile int rowCount;
+
+    RideArchive(Path dir, PlaceRegistry places) throws IOException {
+        this(dir, places, 1 << 16);
+    }
+
+    RideArchive(Path dir, PlaceRegistry places, int regionRows) throws IOException {
+        this.places = places;
+        this.regionRows = regionRows;
+        Files.createDirectories(dir);
+        ids = column(dir, "id", Integer.BYTES);
+        passengerIds = column(dir, "passenger_id", Integer.BYTES);
+        driverIds = column(dir, "driver_id", Integer.BYTES);
+        carIds = column(dir, "car_id", Integer.BYTES);
+        origins = column(dir, "origin", Integer.BYTES);
+        destinations = column(dir, "destination", Integer.BYTES);
+        epochSeconds = column(dir, "time_seconds", Long.BYTES);
+        nanos = column(dir, "time_nanos", Integer.BYTES);
+        seats = column(dir, "seats_needed", Short.BYTES);
+        statuses = column(dir, "status", 1);
+        prices = column(dir, "price", Double.BYTES);
+        prevByPassenger = column(dir, "prev_by_passenger", Integer.BYTES);
+        prevByDriver = column(dir, "prev_by_driver", Integer.BYTES);
+    }
+
+    private Column column(Path dir, String name, int width) throws IOException {
+        Column column = new Column(dir.resolve(name + ".col"), width, regionRows);
+        columns.add(column);
+        return column;
+    }
+
+    // Archives the ride, or rewrites its row if it is already archived. A ride
+    // that moved to another passenger or driver gets a fresh row at the head of
+    // its new chains; the old row is left dead in the old ones.
+    synchronized void put(Ride ride) {
+        int existing = find(ride.getId());
+        if (existing != NONE) {
+            if (passengerIds.getInt(existing) == ride.getPassengerId()
+                    && driverIds.getInt(existing) == (ride.getDriverId() != null ? ride.getDriverId() : 0)) {
+                writeFields(existing, ride);
+                return;
+            }
+            statuses.putByte(existing, DEAD);
+            rowsById[ride.getId()] = 0;
+        }
+        int row = rowCount;
+        try {
+            for (Column column : columns) {
+                column.ensureRow(row);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot grow ride archive", e);
+        }
+        ids.putInt(row, ride.getId());
+        passengerIds.putInt(row, ride.getPassengerId());
+        writeFields(row, ride);
+        prevByPassenger.putInt(row, passengerHeads.getOrDefault(ride.getPassengerId(), NONE));
+        prevByDriver.putInt(row, ride.getDriverId() != null ? driverHeads.getOrDefault(ride.getDriverId(), NONE) : NONE);
+        if (ride.getId() >= rowsById.length) {
+            rowsById = Arrays.copyOf(rowsById, Math.max(ride.getId() + 1, rowsById.length * 2));
+        }
+        rowsById[ride.getId()] = row + 1;
+
+        // Publish the row before the chain heads that lead readers to it
+        rowCount = row + 1;
+        passengerHeads.put(ride.getPassengerId(), row);
+        if (ride.getDriverId() != null) {
+            driverHeads.put(ride.getDriverId(), row);
+        }
+    }
+
+    private void writeFields(int row, Ride ride) {
+        driverIds.putInt(row, ride.getDriverId() != null ? ride.getDriverId() : 0);
+        carIds.putInt(row, ride.getCarId() != null ? ride.getCarId() : 0);
+        origins.putInt(row, places.intern(ride.getOrigin()));
+        destinations.putInt(row, places.intern(ride.getDestination()));
+        LocalDateTime time = ride.getTime();
+        epochSeconds.putLong(row, time != null ? time.toEpochSecond(ZoneOffset.UTC) : NO_TIME);
+        nanos.putInt(row, time != null ? time.getNano() : 0);
+        seats.putShort(row, (short) ride.getSeatsNeeded());
+        prices.putDouble(row, ride.getPriceEstimate());
+        statuses.putByte(row, (byte) (ride.getStatus() != null ? ride.getStatus().ordinal() : DEAD));
+    }
+
+    // Drops the ride from the archive; its row stays in the chains but is skipped
+    synchronized boolean remove(int rideId) {
+        int row = find(rideId);
+        if (row == NONE) {
+            return false;
+        }
+        statuses.putByte(row, DEAD);
+        rowsById[rideId] = 0;
+        return true;
+    }
+
+    synchronized boolean contains(int rideId) {
+        return find(rideId) != NONE;
+    }
+
+    synchronized Ride get(int rideId) {
+        int row = find(rideId);
+        return row != NONE ? read(row) : null;
+    }
+
+    // The ride's live row, or NONE if it is not archived
+    private int find(int rideId) {
+        return rideId >= 0 && rideId < rowsById.length ? rowsById[rideId] - 1 : NONE;
+    }
+
+    // Oldest first
+    List<Ride> getByPassenger(int passengerId) {
+        return walk(passengerHeads.get(passengerId), prevByPassenger);
+    }
+
+    List<Ride> getByDriver(int driverId) {
+        return walk(driverHeads.get(driverId), prevByDriver);
+    }
+
+    private List<Ride> walk(Integer head, Column prev) {
+        if (head == null) {
+            return Collections.emptyList();
+        }
+        List<Ride> result = new ArrayList<>();
+        for (int row = head; row != NONE; row = prev.getInt(row)) {
+            Ride ride = read(row);
+            if (ride != null) {
+                result.add(ride);
+            }
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    List<Ride> getByStatus(RideStatus status) {
+        List<Ride> result = new ArrayList<>();
+        int rows = rowCount;
+        for (int row = 0; row < rows; row++) {
+            if (statuses.getByte(row) == status.ordinal()) {
+                result.add(read(row));
+            }
+        }
+        return result;
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    // Materializes the row as a Ride, or null if the row is dead
+    Ride read(int row) {
+        byte status = statuses.getByte(row);
+        if (status == DEAD) {
+            return null;
+        }
+        Ride ride = new Ride();
+        ride.setId(ids.getInt(row));
+        ride.setPassengerId(passengerIds.getInt(row));
+        int driverId = driverIds.getInt(row);
+        ride.setDriverId(driverId != 0 ? driverId : null);
+        int carId = carIds.getInt(row);
+        ride.setCarId(carId != 0 ? carId : null);
+        ride.setOrigin(places.name(origins.getInt(row)));
+        ride.setDestination(places.name(destinations.getInt(row)));
+        long epochSecond = epochSeconds.getLong(row);
+        if (epochSecond != NO_TIME) {
+            ride.setTime(LocalDateTime.ofEpochSecond(epochSecond, nanos.getInt(row), ZoneOffset.UTC));
+        }
+        ride.setSeatsNeeded(seats.getShort(row));
+        ride.setStatus(RideStatus.values()[status]);
+        ride.setPriceEstimate(prices.getDouble(row));
+        return ride;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Column column : columns) {
+            column.close();
+        }
+    }
+
+    // One field of every row, mapped region by region as rows are added
+    private static final class Column implements Closeable {
+        private final FileChannel channel;
+        private final int width;
+        private final int regionRows;
+        private volatile MappedByteBuffer[] regions = new MappedByteBuffer[0];
+
+        Column(Path file, int width, int regionRows) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.width = width;
+            this.regionRows = regionRows;
+        }
+
+        // Called by the single writer before it fills the row
+        void ensureRow(int row) throws IOException {
+            int region = row / regionRows;
+            MappedByteBuffer[] current = regions;
+            if (region < current.length) {
+                return;
+            }
+            MappedByteBuffer[] grown = Arrays.copyOf(current, region + 1);
+            long regionBytes = (long) regionRows * width;
+            grown[region] = channel.map(FileChannel.MapMode.READ_WRITE, region * regionBytes, regionBytes);
+            regions = grown;
+        }
+
+        private MappedByteBuffer region(int row) {
+            return regions[row / regionRows];
+        }
+
+        private int offset(int row) {
+            return (row % regionRows) * width;
+        }
+
+        int getInt(int row) { return region(row).getInt(offset(row)); }
+
+        void putInt(int row, int value) { region(row).putInt(offset(row), value); }
+
+        short getShort(int row) { return region(row).getShort(offset(row)); }
+
+        void putShort(int row, short value) { region(row).putShort(offset(row), value); }
+
+        byte getByte(int row) { return region(row).get(offset(row)); }
+
+        void putByte(int row, byte value) { region(row).put(offset(row), value); }
+
+        long getLong(int row) { return region(row).getLong(offset(row)); }
+
+        void putLong(int row, long value) { region(row).putLong(offset(row), value); }
+
+        double getDouble(int row) { return region(row).getDouble(offset(row)); }
+
+        void putDouble(int row, double value) { region(row).putDouble(offset(row), value); }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.teetime.database;
+
+import java.io.IOException;
+import java.util.BitSet;
+
+// The ride modification sequence: every ride write takes the next sequence
+// number, and slot n remembers which ride write n changed. "What changed since
+// n" then costs one step per write since n, however long the history is.
+// Slots live in pages of ints allocated on first use, 4 bytes per write.
+// Only the newest `retainedPages` pages are kept (with the default, the last
+// million or so writes, 4 MB): older ones are dropped as new ones start, and
+// changes since a mark that old can no longer be listed.
+// Appends and the high mark are guarded by this; pages are filled before the
+// mark passes them, so readers that take the mark under the lock can read
+// the slots below it without locking.
+class RideChangeLog {
+    static final int PAGE_BITS = 16;
+    static final int PAGE_SIZE = 1 << PAGE_BITS;
+    static final int DEFAULT_RETAINED_PAGES = 16;
+
+    private final int retainedPages;
+    private int[][] pages = new int[16][];
+    private int firstPage = -1; // lowest page held, -1 while there is none
+    private long lastSeq;
+
+    RideChangeLog() {
+        this(DEFAULT_RETAINED_PAGES);
+    }
+
+    RideChangeLog(int retainedPages) {
+        this.retainedPages = Math.max(1, retainedPages);
+    }
+
+    synchronized long append(int rideId) {
+        long seq = lastSeq + 1;
+        put(seq, rideId);
+        lastSeq = seq;
+        return seq;
+    }
+
+    // Replay: writes back a slot recorded earlier; idempotent
+    synchronized void restore(long seq, int rideId) {
+        put(seq, rideId);
+        lastSeq = Math.max(lastSeq, seq);
+    }
+
+    synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    // The oldest mark changes can still be listed after
+    synchronized long oldestSeq() {
+        return firstPage <= 0 ? 0 : ((long) firstPage << PAGE_BITS) - 1;
+    }
+
+    // Ids of the rides written after `afterSeq` and at or before `upToSeq`,
+    // each once, in ascending order; null if writes after `afterSeq` have
+    // been dropped
+    int[] ridesChangedBetween(long afterSeq, long upToSeq) {
+        int[][] current;
+        long last;
+        synchronized (this) {
+            if (afterSeq < oldestSeq() && afterSeq < Math.min(lastSeq, upToSeq)) {
+                return null;
+            }
+            current = pages;
+            last = Math.min(lastSeq, upToSeq);
+        }
+        BitSet changed = new BitSet();
+        for (long seq = Math.max(afterSeq, 0) + 1; seq <= last; seq++) {
+            int[] page = current[(int) (seq >>> PAGE_BITS)];
+            if (page == null) {
+                return null; // dropped while we were reading
+            }
+            int rideId = page[(int) (seq & (PAGE_SIZE - 1))];
+            if (rideId > 0) {
+                changed.set(rideId);
+            }
+        }
+        return changed.stream().toArray();
+    }
+
+    interface PageVisitor {
+        void visit(long firstSeq, int[] rideIds, int count) throws IOException;
+    }
+
+    // Hands out the filled part of each page held up to the current mark, for
+    // snapshots; a log restored from them drops the same older pages
+    void forEachPage(PageVisitor visitor) throws IOException {
+        int[][] current;
+        long last;
+        synchronized (this) {
+            current = pages;
+            last = lastSeq;
+        }
+        for (int p = 0; p < current.length && (long) p << PAGE_BITS <= last; p++) {
+            if (current[p] != null) {
+                long firstSeq = (long) p << PAGE_BITS;
+                int count = (int) Math.min(PAGE_SIZE, last - firstSeq + 1);
+                visitor.visit(firstSeq, current[p], count);
+            }
+        }
+    }
+
+    private void put(long seq, int rideId) {
+        int p = (int) (seq >>> PAGE_BITS);
+        if (p >= pages.length) {
+            int[][] grown = new int[Math.max(pages.length * 2, p + 1)][];
+            System.arraycopy(pages, 0, grown, 0, pages.length);
+            pages = grown;
+        }
+        if (pages[p] == null) {
+            pages[p] = new int[PAGE_SIZE];
+            if (firstPage < 0 || p < firstPage) {
+                firstPage = p;
+            }
+            for (; firstPage <= p - retainedPages; firstPage++) {
+                pages[firstPage] = null;
+            }
+        }
+        pages[p][(int) (seq & (PAGE_SIZE - 1))] = rideId;
+    }
+}
@@ -0,0 +1,78 @@
+package com.teetime.database;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Multimap from a user id to the ids of that user's rides (or cars), kept sorted. Each
+// key holds an immutable array that is swapped atomically on write, so reads
+// hand it out without copying or locking.
+class RideIndex {
+    private static final int[] EMPTY = new int[0];
+
+    private final ConcurrentHashMap<Integer, int[]> rideIdsByKey = new ConcurrentHashMap<>();
+
+    // Callers must not modify the returned array
+    public int[] get(int key) {
+        return rideIdsByKey.getOrDefault(key, EMPTY);
+    }
+
+    public void put(int key, int rideId) {
+        if (Arrays.binarySearch(get(key), rideId) >= 0) {
+            return; // already indexed
+        }
+        rideIdsByKey.compute(key, (k, ids) -> {
+            int[] base = ids != null ? ids : EMPTY;
+            int at = Arrays.binarySearch(base, rideId);
+            if (at >= 0) {
+                return base;
+            }
+            int insert = -at - 1;
+            int[] next = new int[base.length + 1];
+            System.arraycopy(base, 0, next, 0, insert);
+            next[insert] = rideId;
+            System.arraycopy(base, insert, next, insert + 1, base.length - insert);
+            return next;
+        });
+    }
+
+    // Merges many ids into the key in one copy; used by bulk imports
+    public void putAll(int key, int[] rideIds) {
+        int[] added = rideIds.clone();
+        Arrays.sort(added);
+        rideIdsByKey.compute(key, (k, ids) -> {
+            int[] base = ids != null ? ids : EMPTY;
+            int[] merged = new int[base.length + added.length];
+            int i = 0, j = 0, n = 0;
+            while (i < base.length || j < added.length) {
+                int next = j == added.length || (i < base.length && base[i] <= added[j]) ? base[i++] : added[j++];
+                if (n == 0 || merged[n - 1] != next) {
+                    merged[n++] = next;
+                }
+            }
+            return n == merged.length ? merged : Arrays.copyOf(merged, n);
+        });
+    }
+
+    // Replaces the key's ids wholesale; used to bulk-build the index on startup
+    public void load(int key, int[] rideIds) {
+        int[] sorted = rideIds.clone();
+        Arrays.sort(sorted);
+        rideIdsByKey.put(key, sorted);
+    }
+
+    public void remove(int key, int rideId) {
+        rideIdsByKey.computeIfPresent(key, (k, ids) -> {
+            int at = Arrays.binarySearch(ids, rideId);
+            if (at < 0) {
+                return ids;
+            }
+            if (ids.length == 1) {
+                return null;
+            }
+            int[] next = new int[ids.length - 1];
+            System.arraycopy(ids, 0, next, 0, at);
+            System.arraycopy(ids, at + 1, next, at, ids.length - at - 1);
+            return next;
+        });
+    }
+}
@@ -0,0 +1,233 @@
+package com.teetime.database;
+
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+// Resident rides as parallel primitive columns indexed by ride id, allocated in
+// chunks of CHUNK_ROWS ids. About 45 bytes per ride instead of a Ride object
+// with boxed ids, a LocalDateTime and two Strings. Unassigned driver and car
+// are stored as 0 (ids start at 1), places as PlaceRegistry ids.
+// Callers hold the ride's stripe lock for put/remove/read of that id. A chunk
+// whose ids have all been handed out and whose rides have all been removed
+// (archived) is dropped, so finished history does not stay on the heap.
+class RideTable {
+    static final int CHUNK_ROWS = 1024;
+
+    private static final byte ABSENT = -1;
+    private static final byte NO_STATUS = -2;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private final PlaceRegistry places;
+    private final IntSupplier nextId;
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile Chunk[] chunks = new Chunk[16]; // replaced and written under this
+
+    private static final class Chunk {
+        final int[] passengerIds = new int[CHUNK_ROWS];
+        final int[] driverIds = new int[CHUNK_ROWS];
+        final int[] carIds = new int[CHUNK_ROWS];
+        final int[] originIds = new int[CHUNK_ROWS];
+        final int[] destinationIds = new int[CHUNK_ROWS];
+        final long[] epochSeconds = new long[CHUNK_ROWS];
+        final int[] nanos = new int[CHUNK_ROWS];
+        final short[] seats = new short[CHUNK_ROWS];
+        final byte[] statuses = new byte[CHUNK_ROWS];
+        final double[] prices = new double[CHUNK_ROWS];
+        int live;         // guarded by the chunk's monitor
+        boolean dropped;  // guarded by the chunk's monitor
+
+        Chunk() {
+            Arrays.fill(statuses, ABSENT);
+        }
+    }
+
+    // nextId: the next ride id that will be handed out
+    RideTable(PlaceRegistry places, IntSupplier nextId) {
+        this.places = places;
+        this.nextId = nextId;
+    }
+
+    void put(Ride ride) {
+        int id = ride.getId();
+        int row = id % CHUNK_ROWS;
+        while (true) {
+            Chunk chunk = chunkFor(id, true);
+            if (chunk.statuses[row] != ABSENT) {
+                write(chunk, row, ride); // present rows keep their chunk alive
+                return;
+            }
+            synchronized (chunk) {
+                if (chunk.dropped) {
+                    continue; // lost a race with drop(); a fresh chunk will be allocated
+                }
+                write(chunk, row, ride);
+                chunk.live++;
+            }
+            size.incrementAndGet();
+            return;
+        }
+    }
+
+    private void write(Chunk chunk, int row, Ride ride) {
+        chunk.passengerIds[row] = ride.getPassengerId();
+        chunk.driverIds[row] = ride.getDriverId() != null ? ride.getDriverId() : 0;
+        chunk.carIds[row] = ride.getCarId() != null ? ride.getCarId() : 0;
+        chunk.originIds[row] = places.intern(ride.getOrigin());
+        chunk.destinationIds[row] = places.intern(ride.getDestination());
+        LocalDateTime time = ride.getTime();
+        chunk.epochSeconds[row] = time != null ? time.toEpochSecond(ZoneOffset.UTC) : NO_TIME;
+        chunk.nanos[row] = time != null ? time.getNano() : 0;
+        chunk.seats[row] = (short) ride.getSeatsNeeded();
+        chunk.prices[row] = ride.getPriceEstimate();
+        chunk.statuses[row] = ride.getStatus() != null ? (byte) ride.getStatus().ordinal() : NO_STATUS;
+    }
+
+    boolean remove(int id) {
+        Chunk chunk = chunkFor(id, false);
+        int row = id % CHUNK_ROWS;
+        if (chunk == null || chunk.statuses[row] == ABSENT) {
+            return false;
+        }
+        synchronized (chunk) {
+            chunk.statuses[row] = ABSENT;
+            chunk.live--;
+            int chunkEnd = (id / CHUNK_ROWS + 1) * CHUNK_ROWS;
+            if (chunk.live == 0 && nextId.getAsInt() >= chunkEnd) {
+                chunk.dropped = true;
+                drop(id / CHUNK_ROWS, chunk);
+            }
+        }
+        size.decrementAndGet();
+        return true;
+    }
+
+    boolean contains(int id) {
+        Chunk chunk = chunkFor(id, false);
+        return chunk != null && chunk.statuses[id % CHUNK_ROWS] != ABSENT;
+    }
+
+    // A Ride view of the stored row, or null if the ride is not resident
+    Ride read(int id) {
+        Chunk chunk = chunkFor(id, false);
+        int row = id % CHUNK_ROWS;
+        if (chunk == null || chunk.statuses[row] == ABSENT) {
+            return null;
+        }
+        Ride ride = new Ride();
+        ride.setId(id);
+        ride.setPassengerId(chunk.passengerIds[row]);
+        int driverId = chunk.driverIds[row];
+        ride.setDriverId(driverId != 0 ? driverId : null);
+        int carId = chunk.carIds[row];
+        ride.setCarId(carId != 0 ? carId : null);
+        ride.setOrigin(places.name(chunk.originIds[row]));
+        ride.setDestination(places.name(chunk.destinationIds[row]));
+        long seconds = chunk.epochSeconds[row];
+        ride.setTime(seconds != NO_TIME ? LocalDateTime.ofEpochSecond(seconds, chunk.nanos[row], ZoneOffset.UTC) : null);
+        ride.setSeatsNeeded(chunk.seats[row]);
+        ride.setPriceEstimate(chunk.prices[row]);
+        byte status = chunk.statuses[row];
+        ride.setStatus(status != NO_STATUS ? RideStatus.values()[status] : null);
+        return ride;
+    }
+
+    // Column accessors for resident rides; 0 / null when absent
+
+    int passengerId(int id) {
+        Chunk chunk = chunkFor(id, false);
+        return chunk != null ? chunk.passengerIds[id % CHUNK_ROWS] : 0;
+    }
+
+    int driverId(int id) {
+        Chunk chunk = chunkFor(id, false);
+        return chunk != null ? chunk.driverIds[id % CHUNK_ROWS] : 0;
+    }
+
+    int originId(int id) {
+        Chunk chunk = chunkFor(id, false);
+        return chunk != null ? chunk.originIds[id % CHUNK_ROWS] : PlaceRegistry.NONE;
+    }
+
+    // Long.MIN_VALUE when absent or without a time
+    long epochSecond(int id) {
+        Chunk chunk = chunkFor(id, false);
+        int row = id % CHUNK_ROWS;
+        return chunk != null && chunk.statuses[row] != ABSENT ? chunk.epochSeconds[row] : NO_TIME;
+    }
+
+    RideStatus status(int id) {
+        Chunk chunk = chunkFor(id, false);
+        byte status = chunk != null ? chunk.statuses[id % CHUNK_ROWS] : ABSENT;
+        return status >= 0 ? RideStatus.values()[status] : null;
+    }
+
+    // The smallest resident id >= fromId, or -1
+    int nextId(int fromId) {
+        Chunk[] current = chunks;
+        int first = Math.max(0, fromId);
+        for (int c = first / CHUNK_ROWS; c < current.length; c++) {
+            Chunk chunk = current[c];
+            if (chunk == null) {
+                continue;
+            }
+            int start = c == first / CHUNK_ROWS ? first % CHUNK_ROWS : 0;
+            for (int row = start; row < CHUNK_ROWS; row++) {
+                if (chunk.statuses[row] != ABSENT) {
+                    return c * CHUNK_ROWS + row;
+                }
+            }
+        }
+        return -1;
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    // Allocated chunks, for tests and memory accounting
+    int chunkCount() {
+        int count = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Chunk chunkFor(int id, boolean create) {
+        int index = id / CHUNK_ROWS;
+        Chunk[] current = chunks;
+        Chunk chunk = index < current.length ? current[index] : null;
+        if (chunk != null || !create) {
+            return chunk;
+        }
+        synchronized (this) {
+            current = chunks;
+            if (index >= current.length) {
+                current = Arrays.copyOf(current, Math.max(current.length * 2, index + 1));
+            }
+            chunk = current[index];
+            if (chunk == null) {
+                chunk = new Chunk();
+                current[index] = chunk;
+            }
+            chunks = current; // volatile write publishes the new chunk
+            return chunk;
+        }
+    }
+
+    private synchronized void drop(int index, Chunk chunk) {
+        Chunk[] current = chunks;
+        if (current[index] == chunk) {
+            current[index] = null;
+            chunks = current;
+        }
+    }
+}
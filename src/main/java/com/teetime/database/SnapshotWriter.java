@@ -0,0 +1,84 @@
+package com.teetime.database;
+
+import com.teetime.domain.Car;
+import com.teetime.domain.Ride;
+import com.teetime.domain.User;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+// Writes a snapshot in the journal's own record format: one PUT per live
+// entity, the ride change log, then the id counters and an end marker. The file is built under a
+// temporary name and renamed into place once it is fully on disk.
+class SnapshotWriter {
+    private static final int FLUSH_BYTES = 1 << 20;
+
+    private final FileChannel channel;
+    private final Path tmp;
+    private final Path target;
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer buffer = ByteBuffer.allocate(FLUSH_BYTES + (FLUSH_BYTES >> 2));
+
+    SnapshotWriter(Path target) throws IOException {
+        this.target = target;
+        this.tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        this.channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    void writeUser(User user) throws IOException {
+        write(EntityCodec.PUT_USER, EntityCodec.encodeUser(user));
+    }
+
+    void writeCar(Car car) throws IOException {
+        write(EntityCodec.PUT_CAR, EntityCodec.encodeCar(car));
+    }
+
+    void writeRide(Ride ride) throws IOException {
+        write(EntityCodec.PUT_RIDE, EntityCodec.encodeRide(ride));
+    }
+
+    void writeRideChanges(long firstSeq, int[] rideIds, int count) throws IOException {
+        write(EntityCodec.RIDE_CHANGES, EntityCodec.encodeRideChanges(firstSeq, rideIds, count));
+    }
+
+    // Finishes the snapshot and atomically publishes it under its final name
+    void commit(int nextUserId, int nextCarId, int nextRideId) throws IOException {
+        write(EntityCodec.COUNTERS, EntityCodec.encodeCounters(nextUserId, nextCarId, nextRideId));
+        write(EntityCodec.SNAPSHOT_END, new byte[0]);
+        flush();
+        channel.force(true);
+        channel.close();
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    void abort() {
+        try {
+            channel.close();
+            Files.deleteIfExists(tmp);
+        } catch (IOException e) {
+            System.err.println("Failed to clean up snapshot " + tmp + ": " + e.getMessage());
+        }
+    }
+
+    private void write(byte type, byte[] payload) throws IOException {
+        buffer = WriteAheadLog.frame(buffer, crc, type, payload);
+        if (buffer.position() >= FLUSH_BYTES) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,682 @@
+package com.teetime.database;
+
+import com.teetime.domain.*;
+import com.teetime.exception.RideNotAvailableException;
+import com.teetime.exception.StorageException;
+import org.h2.jdbcx.JdbcConnectionPool;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+// DataStore backed by an embedded H2 database, on disk under a data directory
+// or in memory. Rows live in the database rather than on the heap, so the
+// store can hold more rides than fit in memory; every lookup the services
+// make is served by an index. Statements are prepared per call on pooled
+// connections in auto-commit mode: each write is a single statement, and
+// acceptRide claims a ride with a conditional UPDATE. Only bulk imports run
+// in an explicit transaction, one per batch.
+// Places are stored once in their own table, keyed like PlaceRegistry keys.
+// Every ride write stamps the row's mod_seq from a database sequence, and
+// the mark reported to exports only covers committed writes.
+public class SqlDataStore implements DataStore {
+    public static final int DEFAULT_POOL_SIZE = 8;
+
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final int KIND_PASSENGER = 0;
+    private static final int KIND_DRIVER = 1;
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS users ("
+                    + "id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, kind TINYINT NOT NULL, "
+                    + "name VARCHAR, email VARCHAR, email_key VARCHAR NOT NULL, password_hash VARCHAR, role VARCHAR)",
+            "CREATE UNIQUE INDEX IF NOT EXISTS users_by_email ON users (email_key)",
+            "CREATE TABLE IF NOT EXISTS cars ("
+                    + "id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, driver_id INT NOT NULL, "
+                    + "plate VARCHAR, brand VARCHAR, seats INT NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS cars_by_driver ON cars (driver_id)",
+            "CREATE TABLE IF NOT EXISTS places ("
+                    + "id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, place_key VARCHAR NOT NULL, name VARCHAR NOT NULL)",
+            "CREATE UNIQUE INDEX IF NOT EXISTS places_by_key ON places (place_key)",
+            "CREATE TABLE IF NOT EXISTS rides ("
+                    + "id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, passenger_id INT NOT NULL, "
+                    + "driver_id INT, car_id INT, origin_id INT, destination_id INT, ride_time TIMESTAMP, "
+                    + "seats_needed INT NOT NULL, status VARCHAR(16), price_estimate DOUBLE NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS rides_by_passenger ON rides (passenger_id)",
+            "CREATE INDEX IF NOT EXISTS rides_by_driver ON rides (driver_id)",
+            "CREATE INDEX IF NOT EXISTS rides_by_status_time ON rides (status, ride_time)",
+            "CREATE INDEX IF NOT EXISTS rides_by_status_origin ON rides (status, origin_id)",
+            "CREATE SEQUENCE IF NOT EXISTS ride_mod_seq",
+            "ALTER TABLE rides ADD COLUMN IF NOT EXISTS mod_seq BIGINT NOT NULL DEFAULT 0",
+            "CREATE INDEX IF NOT EXISTS rides_by_mod_seq ON rides (mod_seq)",
+    };
+
+    private static final String USER_COLUMNS = "id, kind, name, email, password_hash, role";
+    private static final String INSERT_USER =
+            "INSERT INTO users (kind, name, email, email_key, password_hash, role) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_CAR = "INSERT INTO cars (driver_id, plate, brand, seats) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_RIDE = "INSERT INTO rides (passenger_id, driver_id, car_id, origin_id, "
+            + "destination_id, ride_time, seats_needed, status, price_estimate, mod_seq) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, NEXT VALUE FOR ride_mod_seq)";
+    private static final String CAR_COLUMNS = "id, driver_id, plate, brand, seats";
+    private static final String SELECT_RIDES = "SELECT r.id, r.passenger_id, r.driver_id, r.car_id, o.name, d.name, "
+            + "r.ride_time, r.seats_needed, r.status, r.price_estimate FROM rides r "
+            + "LEFT JOIN places o ON o.id = r.origin_id LEFT JOIN places d ON d.id = r.destination_id ";
+
+    private final JdbcConnectionPool pool;
+    private final Map<String, Place> placesByKey = new ConcurrentHashMap<>();
+    // Ride writes hold the read side from before they take a mod_seq value
+    // until they commit; reading the mark takes the write side. Both are taken
+    // with a connection in hand, so neither waits for the pool while holding it.
+    private final ReentrantReadWriteLock rideWrites = new ReentrantReadWriteLock();
+
+    private static final class Place {
+        final int id;
+        final String name;
+
+        Place(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    SqlDataStore(String jdbcUrl, int poolSize) {
+        pool = JdbcConnectionPool.create(jdbcUrl, "sa", "");
+        pool.setMaxConnections(poolSize);
+        try (Connection c = pool.getConnection(); Statement statement = c.createStatement()) {
+            for (String ddl : SCHEMA) {
+                statement.execute(ddl);
+            }
+        } catch (SQLException e) {
+            pool.dispose();
+            throw new StorageException("Cannot open database " + jdbcUrl, e);
+        }
+        createUser("Admin User", "admin@ie.edu", DatabaseManager.hashPassword("admin"), "BOTH");
+    }
+
+    // teetime.mv.db in the given directory, created if missing
+    public static SqlDataStore open(Path dataDir, int poolSize) {
+        return new SqlDataStore("jdbc:h2:file:" + dataDir.toAbsolutePath().resolve("teetime")
+                + ";LOCK_TIMEOUT=10000", poolSize);
+    }
+
+    // A private in-memory database, gone once the store is closed
+    public static SqlDataStore inMemory() {
+        return new SqlDataStore("jdbc:h2:mem:teetime-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                DEFAULT_POOL_SIZE);
+    }
+
+    @Override
+    public void close() {
+        try (Connection c = pool.getConnection(); Statement statement = c.createStatement()) {
+            statement.execute("SHUTDOWN");
+        } catch (SQLException e) {
+            throw new StorageException("Failed to shut down database", e);
+        } finally {
+            pool.dispose();
+        }
+    }
+
+    // User operations
+
+    @Override
+    public int createUser(String name, String email, String passwordHash, String role) {
+        try (Connection c = pool.getConnection();
+             PreparedStatement insert = c.prepareStatement(INSERT_USER, Statement.RETURN_GENERATED_KEYS)) {
+            bindUser(insert, role.contains("DRIVER") ? KIND_DRIVER : KIND_PASSENGER, name, email, passwordHash, role);
+            insert.executeUpdate();
+            return generatedId(insert);
+        } catch (SQLException e) {
+            if (UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                return -1; // Email already exists
+            }
+            throw new StorageException("Failed to create user", e);
+        }
+    }
+
+    private static void bindUser(PreparedStatement insert, int kind, String name, String email, String passwordHash,
+                                 String role) throws SQLException {
+        insert.setInt(1, kind);
+        insert.setString(2, name);
+        insert.setString(3, email);
+        insert.setString(4, DatabaseManager.emailKey(email));
+        insert.setString(5, passwordHash);
+        insert.setString(6, role);
+    }
+
+    @Override
+    public User getUserByEmail(String email) {
+        String key = DatabaseManager.emailKey(email);
+        if (key == null) {
+            return null;
+        }
+        return queryUser("SELECT " + USER_COLUMNS + " FROM users WHERE email_key = ?", key);
+    }
+
+    @Override
+    public User getUserById(int id) {
+        return queryUser("SELECT " + USER_COLUMNS + " FROM users WHERE id = ?", id);
+    }
+
+    private User queryUser(String sql, Object key) {
+        try (Connection c = pool.getConnection(); PreparedStatement query = c.prepareStatement(sql)) {
+            query.setObject(1, key);
+            try (ResultSet rs = query.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                int id = rs.getInt(1);
+                return rs.getInt(2) == KIND_DRIVER
+                        ? new Driver(id, rs.getString(3), rs.getString(4), rs.getString(5), rs.getString(6))
+                        : new Passenger(id, rs.getString(3), rs.getString(4), rs.getString(5), rs.getString(6));
+            }
+        } catch (SQLException e) {
+            throw new StorageException("Failed to read user", e);
+        }
+    }
+
+    @Override
+    public boolean updateUser(User user) {
+        String sql = "MERGE INTO users (id, kind, name, email, email_key, password_hash, role) KEY (id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (Connection c = pool.getConnection(); PreparedStatement merge = c.prepareStatement(sql)) {
+            merge.setInt(1, user.getId());
+            merge.setInt(2, user instanceof Driver ? KIND_DRIVER : KIND_PASSENGER);
+            merge.setString(3, user.getName());
+            merge.setString(4, user.getEmail());
+            merge.setString(5, DatabaseManager.emailKey(user.getEmail()));
+            merge.setString(6, user.getPasswordHash());
+            merge.setString(7, user.getRole());
+            merge.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            if (UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                return false; // Email taken by another user
+            }
+            throw new StorageException("Failed to update user " + user.getId(), e);
+        }
+    }
+
+    @Override
+    public void deleteUser(int userId) {
+        update("DELETE FROM users WHERE id = ?", "Failed to delete user " + userId, userId);
+    }
+
+    // Car operations
+
+    @Override
+    public int createCar(Car car) {
+        try (Connection c = pool.getConnection();
+             PreparedStatement insert = c.prepareStatement(INSERT_CAR, Statement.RETURN_GENERATED_KEYS)) {
+            bindCar(insert, car);
+            insert.executeUpdate();
+            int id = generatedId(insert);
+            car.setId(id);
+            return id;
+        } catch (SQLException e) {
+            throw new StorageException("Failed to create car", e);
+        }
+    }
+
+    private static void bindCar(PreparedStatement insert, Car car) throws SQLException {
+        insert.setInt(1, car.getDriverId());
+        insert.setString(2, car.getPlate());
+        insert.setString(3, car.getBrand());
+        insert.setInt(4, car.getSeats());
+    }
+
+    @Override
+    public Car getCarById(int carId) {
+        List<Car> cars = queryCars("SELECT " + CAR_COLUMNS + " FROM cars WHERE id = ?", carId);
+        return cars.isEmpty() ? null : cars.get(0);
+    }
+
+    @Override
+    public List<Car> getCarsByDriverId(int driverId) {
+        return queryCars("SELECT " + CAR_COLUMNS + " FROM cars WHERE driver_id = ? ORDER BY id", driverId);
+    }
+
+    private List<Car> queryCars(String sql, int key) {
+        try (Connection c = pool.getConnection(); PreparedStatement query = c.prepareStatement(sql)) {
+            query.setInt(1, key);
+            List<Car> cars = new ArrayList<>();
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    Car car = new Car(rs.getInt(2), rs.getString(3), rs.getString(4), rs.getInt(5));
+                    car.setId(rs.getInt(1));
+                    cars.add(car);
+                }
+            }
+            return cars;
+        } catch (SQLException e) {
+            throw new StorageException("Failed to read cars", e);
+        }
+    }
+
+    @Override
+    public void deleteCar(int carId) {
+        update("DELETE FROM cars WHERE id = ?", "Failed to delete car " + carId, carId);
+    }
+
+    // Ride operations
+
+    @Override
+    public int createRide(Ride ride) {
+        try (Connection c = pool.getConnection();
+             PreparedStatement insert = c.prepareStatement(INSERT_RIDE, Statement.RETURN_GENERATED_KEYS)) {
+            bindRide(c, insert, ride);
+            Lock lock = rideWrites.readLock();
+            lock.lock();
+            try {
+                insert.executeUpdate();
+            } finally {
+                lock.unlock();
+            }
+            int id = generatedId(insert);
+            ride.setId(id);
+            return id;
+        } catch (SQLException e) {
+            throw new StorageException("Failed to create ride", e);
+        }
+    }
+
+    // Binds every column but the id, in table order, to parameters 1..9
+    private void bindRide(Connection c, PreparedStatement statement, Ride ride) throws SQLException {
+        Place origin = place(c, ride.getOrigin());
+        Place destination = place(c, ride.getDestination());
+        statement.setInt(1, ride.getPassengerId());
+        statement.setObject(2, ride.getDriverId(), Types.INTEGER);
+        statement.setObject(3, ride.getCarId(), Types.INTEGER);
+        statement.setObject(4, origin != null ? origin.id : null, Types.INTEGER);
+        statement.setObject(5, destination != null ? destination.id : null, Types.INTEGER);
+        statement.setObject(6, ride.getTime(), Types.TIMESTAMP);
+        statement.setInt(7, ride.getSeatsNeeded());
+        statement.setString(8, ride.getStatus() != null ? ride.getStatus().name() : null);
+        statement.setDouble(9, ride.getPriceEstimate());
+        ride.setOrigin(origin != null ? origin.name : null);
+        ride.setDestination(destination != null ? destination.name : null);
+    }
+
+    @Override
+    public List<Ride> getPendingRides() {
+        return getRidesByStatus(RideStatus.PENDING);
+    }
+
+    @Override
+    public List<Ride> getRidesByStatus(RideStatus status) {
+        return queryRides(SELECT_RIDES + "WHERE r.status = ? ORDER BY r.id", status.name());
+    }
+
+    @Override
+    public List<Ride> getPendingRidesFrom(String origin) {
+        if (origin == null) {
+            return Collections.emptyList();
+        }
+        return queryRides(SELECT_RIDES + "WHERE r.status = ? AND r.origin_id = "
+                + "(SELECT id FROM places WHERE place_key = ?) ORDER BY r.id",
+                RideStatus.PENDING.name(), PlaceRegistry.key(origin));
+    }
+
+    @Override
+    public List<Ride> getPendingRidesBetween(LocalDateTime from, LocalDateTime to) {
+        return queryRides(SELECT_RIDES + "WHERE r.status = ? AND r.ride_time >= ? AND r.ride_time < ? "
+                + "ORDER BY r.ride_time, r.id", RideStatus.PENDING.name(), from, to);
+    }
+
+    @Override
+    public int expirePendingRides(LocalDateTime cutoff) {
+        return updateRides("UPDATE rides SET status = ?, mod_seq = NEXT VALUE FOR ride_mod_seq "
+                + "WHERE status = ? AND ride_time < ?", "Failed to expire rides",
+                RideStatus.CANCELLED.name(), RideStatus.PENDING.name(), cutoff);
+    }
+
+    @Override
+    public List<Ride> getRidesByPassengerId(int passengerId) {
+        return queryRides(SELECT_RIDES + "WHERE r.passenger_id = ? ORDER BY r.id", passengerId);
+    }
+
+    @Override
+    public List<Ride> getRidesByDriverId(int driverId) {
+        return queryRides(SELECT_RIDES + "WHERE r.driver_id = ? ORDER BY r.id", driverId);
+    }
+
+    @Override
+    public Ride getRideById(int rideId) {
+        return readRide(rideId);
+    }
+
+    // Sequence values are taken when a statement runs but only visible once it
+    // commits, so MAX(mod_seq) read beside a running write could pass over
+    // that write's lower number for good. Waiting out the writes in flight
+    // means every number up to the mark is committed or rolled back.
+    @Override
+    public long getLastRideModSeq() {
+        try (Connection c = pool.getConnection(); Statement query = c.createStatement()) {
+            Lock lock = rideWrites.writeLock();
+            lock.lock();
+            try (ResultSet rs = query.executeQuery("SELECT COALESCE(MAX(mod_seq), 0) FROM rides")) {
+                rs.next();
+                return rs.getLong(1);
+            } finally {
+                lock.unlock();
+            }
+        } catch (SQLException e) {
+            throw new StorageException("Failed to read the ride modification sequence", e);
+        }
+    }
+
+    @Override
+    public int[] getRideIdsChangedBetween(long afterSeq, long upToSeq) {
+        try (Connection c = pool.getConnection();
+             PreparedStatement query = c.prepareStatement(
+                     "SELECT id FROM rides WHERE mod_seq > ? AND mod_seq <= ? ORDER BY id")) {
+            query.setLong(1, afterSeq);
+            query.setLong(2, upToSeq);
+            IntStream.Builder ids = IntStream.builder();
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+            return ids.build().toArray();
+        } catch (SQLException e) {
+            throw new StorageException("Failed to read changed rides", e);
+        }
+    }
+
+    private Ride readRide(int rideId) {
+        List<Ride> rides = queryRides(SELECT_RIDES + "WHERE r.id = ?", rideId);
+        return rides.isEmpty() ? null : rides.get(0);
+    }
+
+    private List<Ride> queryRides(String sql, Object... params) {
+        try (Connection c = pool.getConnection(); PreparedStatement query = c.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                query.setObject(i + 1, params[i]);
+            }
+            List<Ride> rides = new ArrayList<>();
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    rides.add(toRide(rs));
+                }
+            }
+            return Collections.unmodifiableList(rides);
+        } catch (SQLException e) {
+            throw new StorageException("Failed to read rides", e);
+        }
+    }
+
+    private static Ride toRide(ResultSet rs) throws SQLException {
+        Ride ride = new Ride();
+        ride.setId(rs.getInt(1));
+        ride.setPassengerId(rs.getInt(2));
+        ride.setDriverId(rs.getObject(3, Integer.class));
+        ride.setCarId(rs.getObject(4, Integer.class));
+        ride.setOrigin(rs.getString(5));
+        ride.setDestination(rs.getString(6));
+        ride.setTime(rs.getObject(7, LocalDateTime.class));
+        ride.setSeatsNeeded(rs.getInt(8));
+        String status = rs.getString(9);
+        ride.setStatus(status != null ? RideStatus.valueOf(status) : null);
+        ride.setPriceEstimate(rs.getDouble(10));
+        return ride;
+    }
+
+    @Override
+    public void updateRide(Ride ride) {
+        String sql = "MERGE INTO rides (passenger_id, driver_id, car_id, origin_id, destination_id, ride_time, "
+                + "seats_needed, status, price_estimate, id, mod_seq) KEY (id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NEXT VALUE FOR ride_mod_seq)";
+        try (Connection c = pool.getConnection(); PreparedStatement merge = c.prepareStatement(sql)) {
+            bindRide(c, merge, ride);
+            merge.setInt(10, ride.getId());
+            Lock lock = rideWrites.readLock();
+            lock.lock();
+            try {
+                merge.executeUpdate();
+            } finally {
+                lock.unlock();
+            }
+        } catch (SQLException e) {
+            throw new StorageException("Failed to update ride " + ride.getId(), e);
+        }
+    }
+
+    @Override
+    public void transitionRide(Ride ride, RideStatus newStatus) {
+        ride.setStatus(newStatus);
+        updateRide(ride);
+    }
+
+    // The WHERE clause makes the claim atomic: the row lock lets one UPDATE
+    // see PENDING, and every other racer then matches no row
+    @Override
+    public Ride acceptRide(int rideId, int driverId, int carId) throws RideNotAvailableException {
+        int claimed = updateRides("UPDATE rides SET driver_id = ?, car_id = ?, status = ?, "
+                + "mod_seq = NEXT VALUE FOR ride_mod_seq WHERE id = ? AND status = ?",
+                "Failed to accept ride " + rideId,
+                driverId, carId, RideStatus.CONFIRMED.name(), rideId, RideStatus.PENDING.name());
+        Ride ride = readRide(rideId);
+        if (ride == null) {
+            throw new RideNotAvailableException("Ride not found");
+        }
+        if (claimed == 0) {
+            throw new RideNotAvailableException("Ride is no longer pending (" + ride.getStatus() + ")");
+        }
+        return ride;
+    }
+
+    @Override
+    public Ride completeRide(int rideId) throws RideNotAvailableException {
+        int completed = updateRides("UPDATE rides SET status = ?, mod_seq = NEXT VALUE FOR ride_mod_seq "
+                + "WHERE id = ? AND status = ?",
+                "Failed to complete ride " + rideId,
+                RideStatus.COMPLETED.name(), rideId, RideStatus.CONFIRMED.name());
+        Ride ride = readRide(rideId);
+        if (ride == null) {
+            throw new RideNotAvailableException("Ride not found");
+        }
+        if (completed == 0) {
+            throw new RideNotAvailableException("Ride is not confirmed (" + ride.getStatus() + ")");
+        }
+        return ride;
+    }
+
+    // Bulk import: one transaction per batch, cars and rides as JDBC batches
+
+    @Override
+    public int[] importUsers(List<User> users) {
+        return inTransaction("Failed to import users", false, c -> {
+            int[] ids = new int[users.size()];
+            try (PreparedStatement insert = c.prepareStatement(INSERT_USER, Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = 0; i < ids.length; i++) {
+                    User user = users.get(i);
+                    bindUser(insert, user instanceof Driver ? KIND_DRIVER : KIND_PASSENGER, user.getName(),
+                            user.getEmail(), user.getPasswordHash(), user.getRole());
+                    try {
+                        insert.executeUpdate();
+                    } catch (SQLException e) {
+                        if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                            throw e;
+                        }
+                        ids[i] = -1; // Email already exists; only this row is rolled back
+                        continue;
+                    }
+                    ids[i] = generatedId(insert);
+                    user.setId(ids[i]);
+                }
+            }
+            return ids;
+        });
+    }
+
+    @Override
+    public int[] importCars(List<Car> cars) {
+        return inTransaction("Failed to import cars", false, c -> {
+            try (PreparedStatement insert = c.prepareStatement(INSERT_CAR, Statement.RETURN_GENERATED_KEYS)) {
+                for (Car car : cars) {
+                    bindCar(insert, car);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                int[] ids = generatedIds(insert, cars.size());
+                for (int i = 0; i < ids.length; i++) {
+                    cars.get(i).setId(ids[i]);
+                }
+                return ids;
+            }
+        });
+    }
+
+    @Override
+    public int[] importRides(List<Ride> rides) {
+        return inTransaction("Failed to import rides", true, c -> {
+            try (PreparedStatement insert = c.prepareStatement(INSERT_RIDE, Statement.RETURN_GENERATED_KEYS)) {
+                for (Ride ride : rides) {
+                    bindRide(c, insert, ride);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                int[] ids = generatedIds(insert, rides.size());
+                for (int i = 0; i < ids.length; i++) {
+                    rides.get(i).setId(ids[i]);
+                }
+                return ids;
+            }
+        });
+    }
+
+    private interface Work<T> {
+        T run(Connection c) throws SQLException;
+    }
+
+    // writesRides: the work takes mod_seq values, so it holds the ride write
+    // lock until it commits or rolls back
+    private <T> T inTransaction(String failure, boolean writesRides, Work<T> work) {
+        try (Connection c = pool.getConnection()) {
+            c.setAutoCommit(false);
+            Lock lock = writesRides ? rideWrites.readLock() : null;
+            if (lock != null) {
+                lock.lock();
+            }
+            try {
+                T result = work.run(c);
+                c.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                c.rollback();
+                placesByKey.clear(); // may hold places whose insert was just rolled back
+                throw e;
+            } finally {
+                if (lock != null) {
+                    lock.unlock();
+                }
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new StorageException(failure, e);
+        }
+    }
+
+    private int update(String sql, String failure, Object... params) {
+        return executeUpdate(sql, failure, null, params);
+    }
+
+    // An update that stamps rides with mod_seq values
+    private int updateRides(String sql, String failure, Object... params) {
+        return executeUpdate(sql, failure, rideWrites.readLock(), params);
+    }
+
+    private int executeUpdate(String sql, String failure, Lock lock, Object... params) {
+        try (Connection c = pool.getConnection(); PreparedStatement statement = c.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
+            }
+            if (lock == null) {
+                return statement.executeUpdate();
+            }
+            lock.lock();
+            try {
+                return statement.executeUpdate();
+            } finally {
+                lock.unlock();
+            }
+        } catch (SQLException e) {
+            throw new StorageException(failure, e);
+        }
+    }
+
+    // The place's row, inserted on first sight; the first spelling stored wins
+    private Place place(Connection c, String name) throws SQLException {
+        if (name == null) {
+            return null;
+        }
+        String key = PlaceRegistry.key(name);
+        Place place = placesByKey.get(key);
+        if (place != null) {
+            return place;
+        }
+        place = findPlace(c, key);
+        if (place == null) {
+            try (PreparedStatement insert = c.prepareStatement(
+                    "INSERT INTO places (place_key, name) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+                insert.setString(1, key);
+                insert.setString(2, PlaceRegistry.normalize(name));
+                insert.executeUpdate();
+                place = new Place(generatedId(insert), PlaceRegistry.normalize(name));
+            } catch (SQLException e) {
+                if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                    throw e;
+                }
+                place = findPlace(c, key); // inserted concurrently
+            }
+        }
+        placesByKey.put(key, place);
+        return place;
+    }
+
+    private static Place findPlace(Connection c, String key) throws SQLException {
+        try (PreparedStatement query = c.prepareStatement("SELECT id, name FROM places WHERE place_key = ?")) {
+            query.setString(1, key);
+            try (ResultSet rs = query.executeQuery()) {
+                return rs.next() ? new Place(rs.getInt(1), rs.getString(2)) : null;
+            }
+        }
+    }
+
+    private static int[] generatedIds(PreparedStatement statement, int count) throws SQLException {
+        int[] ids = new int[count];
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            for (int i = 0; i < count; i++) {
+                if (!keys.next()) {
+                    throw new SQLException("Expected " + count + " generated ids but got " + i);
+                }
+                ids[i] = keys.getInt(1);
+            }
+        }
+        return ids;
+    }
+
+    private static int generatedId(PreparedStatement statement) throws SQLException {
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            if (!keys.next()) {
+                throw new SQLException("No generated id");
+            }
+            return keys.getInt(1);
+        }
+    }
+}
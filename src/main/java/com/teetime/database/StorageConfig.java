@@ -0,0 +1,96 @@
+package com.teetime.database;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+// Where and how DatabaseManager persists its data. Without a data directory
+// the store is purely in-memory, as before.
+public class StorageConfig {
+
+    public enum FsyncPolicy {
+        PER_OP,   // every write waits for fsync; concurrent writers share one (group commit)
+        BATCHED,  // fsync once every batchSize writes
+        INTERVAL  // fsync from a background thread every intervalMillis
+    }
+
+    static final long DEFAULT_SNAPSHOT_BYTES = 64L * 1024 * 1024;
+
+    private final Path dataDir;
+    private final FsyncPolicy fsyncPolicy;
+    private final int batchSize;
+    private final long intervalMillis;
+    private final long snapshotBytes;
+
+    public StorageConfig(Path dataDir, FsyncPolicy fsyncPolicy, int batchSize, long intervalMillis) {
+        this(dataDir, fsyncPolicy, batchSize, intervalMillis, DEFAULT_SNAPSHOT_BYTES);
+    }
+
+    // snapshotBytes: journal segment size that triggers a background snapshot, 0 to disable
+    public StorageConfig(Path dataDir, FsyncPolicy fsyncPolicy, int batchSize, long intervalMillis,
+                         long snapshotBytes) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be greater than 0");
+        }
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Fsync interval must be greater than 0");
+        }
+        this.dataDir = dataDir;
+        this.fsyncPolicy = fsyncPolicy;
+        this.batchSize = batchSize;
+        this.intervalMillis = intervalMillis;
+        this.snapshotBytes = Math.max(0, snapshotBytes);
+    }
+
+    public static StorageConfig inMemory() {
+        return new StorageConfig(null, FsyncPolicy.PER_OP, 64, 50);
+    }
+
+    public static StorageConfig persistent(Path dataDir, FsyncPolicy fsyncPolicy) {
+        return new StorageConfig(dataDir, fsyncPolicy, 64, 50);
+    }
+
+    // -Dteetime.data.dir=... enables persistence; -Dteetime.fsync=per-op|batched|interval
+    // picks the durability trade-off, tuned by teetime.fsync.batch / teetime.fsync.interval.ms.
+    // teetime.snapshot.bytes sets the journal size that triggers a snapshot.
+    public static StorageConfig fromSystemProperties() {
+        String dir = System.getProperty("teetime.data.dir");
+        String policy = System.getProperty("teetime.fsync", "per-op");
+        int batchSize = Integer.parseInt(System.getProperty("teetime.fsync.batch", "64"));
+        long intervalMillis = Long.parseLong(System.getProperty("teetime.fsync.interval.ms", "50"));
+        long snapshotBytes = Long.parseLong(System.getProperty("teetime.snapshot.bytes",
+                String.valueOf(DEFAULT_SNAPSHOT_BYTES)));
+        return new StorageConfig(
+                dir == null || dir.isBlank() ? null : Paths.get(dir),
+                parsePolicy(policy),
+                batchSize,
+                intervalMillis,
+                snapshotBytes
+        );
+    }
+
+    static FsyncPolicy parsePolicy(String value) {
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "per-op":
+                return FsyncPolicy.PER_OP;
+            case "batched":
+                return FsyncPolicy.BATCHED;
+            case "interval":
+                return FsyncPolicy.INTERVAL;
+            default:
+                throw new IllegalArgumentException("Unknown fsync policy: " + value);
+        }
+    }
+
+    public boolean isPersistent() { return dataDir != null; }
+
+    public Path getDataDir() { return dataDir; }
+
+    public FsyncPolicy getFsyncPolicy() { return fsyncPolicy; }
+
+    public int getBatchSize() { return batchSize; }
+
+    public long getIntervalMillis() { return intervalMillis; }
+
+    public long getSnapshotBytes() { return snapshotBytes; }
+}
@@ -0,0 +1,273 @@
+package com.teetime.database;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+// Append-only journal. Each record is framed as
+//   [int payloadLength][int crc32c(type + payload)][byte type][payload]
+// Writers append into an in-memory buffer and get back a sequence number;
+// whoever needs durability swaps the buffer out, writes it through the
+// FileChannel and fsyncs once for every record appended so far (group commit).
+// rotate() switches appends to a new segment file so old ones can be dropped
+// once a snapshot covers them.
+class WriteAheadLog implements Closeable {
+    static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + 1;
+
+    interface RecordHandler {
+        void apply(byte type, ByteBuffer payload);
+    }
+
+    private Path file;            // guarded by flushLock
+    private FileChannel channel;  // guarded by flushLock
+    private final StorageConfig.FsyncPolicy policy;
+    private final int batchSize;
+    private final ScheduledExecutorService syncer;
+
+    private final Object appendLock = new Object();
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private long appendedSeq;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private ByteBuffer spare = ByteBuffer.allocate(64 * 1024);
+    private volatile long durableSeq;
+    private volatile long segmentBytes;
+    private volatile boolean closed;
+
+    // Opens the journal for appending, after replay() has validated its contents
+    WriteAheadLog(Path file, StorageConfig config) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.channel.position(channel.size());
+        this.segmentBytes = channel.size();
+        this.policy = config.getFsyncPolicy();
+        this.batchSize = config.getBatchSize();
+        if (policy == StorageConfig.FsyncPolicy.INTERVAL) {
+            syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "teetime-wal-sync");
+                t.setDaemon(true);
+                return t;
+            });
+            syncer.scheduleWithFixedDelay(this::syncQuietly,
+                    config.getIntervalMillis(), config.getIntervalMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            syncer = null;
+        }
+    }
+
+    // Feeds every intact record to the handler. A torn or corrupt tail (crash
+    // mid-write) is cut off so new records are appended after the last good one.
+    static long replay(Path file, RecordHandler handler) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        long fileBytes = Files.size(file);
+        long validBytes = 0;
+        long records = 0;
+        CRC32C crc = new CRC32C();
+        try (InputStream raw = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw, 1 << 16))) {
+            while (true) {
+                int length;
+                int checksum;
+                byte type;
+                byte[] payload;
+                try {
+                    length = in.readInt();
+                    checksum = in.readInt();
+                    type = in.readByte();
+                    // A length running past the end of the file is a torn or
+                    // corrupt header, not a reason to allocate it
+                    if (length < 0 || length > fileBytes - validBytes - HEADER_BYTES) {
+                        System.err.println("Journal " + file + ": bad record length at byte " + validBytes
+                                + ", discarding tail");
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(type);
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    System.err.println("Journal " + file + ": checksum mismatch at byte " + validBytes + ", discarding tail");
+                    break;
+                }
+                handler.apply(type, ByteBuffer.wrap(payload));
+                validBytes += HEADER_BYTES + length;
+                records++;
+            }
+        }
+        if (validBytes < fileBytes) {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ch.truncate(validBytes);
+                ch.force(true);
+            }
+        }
+        return records;
+    }
+
+    // Buffers the record and returns its sequence number for awaitDurable()
+    long append(byte type, byte[] payload) {
+        synchronized (appendLock) {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            pending = frame(pending, crc, type, payload);
+            return ++appendedSeq;
+        }
+    }
+
+    // Writes one framed record into the buffer, growing it if needed
+    static ByteBuffer frame(ByteBuffer buffer, CRC32C crc, byte type, byte[] payload) {
+        int size = HEADER_BYTES + payload.length;
+        if (buffer.remaining() < size) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + size));
+            buffer.flip();
+            bigger.put(buffer);
+            buffer = bigger;
+        }
+        crc.reset();
+        crc.update(type);
+        crc.update(payload);
+        buffer.putInt(payload.length).putInt((int) crc.getValue()).put(type).put(payload);
+        return buffer;
+    }
+
+    // Blocks until the record is on disk as far as the fsync policy demands
+    void awaitDurable(long seq) {
+        switch (policy) {
+            case PER_OP:
+                sync(seq);
+                break;
+            case BATCHED:
+                if (seq - durableSeq >= batchSize) {
+                    sync(seq);
+                }
+                break;
+            case INTERVAL:
+                break; // the background syncer covers it
+        }
+    }
+
+    void sync() {
+        long seq;
+        synchronized (appendLock) {
+            seq = appendedSeq;
+        }
+        sync(seq);
+    }
+
+    private void sync(long seq) {
+        if (durableSeq >= seq) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            if (durableSeq >= seq) {
+                return; // another writer's flush already covered this record
+            }
+            ByteBuffer batch;
+            long upTo;
+            synchronized (appendLock) {
+                batch = pending;
+                pending = spare;
+                spare = batch;
+                upTo = appendedSeq;
+            }
+            writeAndForce(batch);
+            durableSeq = upTo;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write journal " + file, e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Caller holds flushLock
+    private void writeAndForce(ByteBuffer batch) throws IOException {
+        batch.flip();
+        segmentBytes += batch.remaining();
+        while (batch.hasRemaining()) {
+            channel.write(batch);
+        }
+        batch.clear();
+        channel.force(false);
+    }
+
+    // Makes everything appended so far durable in the current segment and
+    // directs later appends to nextFile. Appenders wait only for that one flush.
+    void rotate(Path nextFile) throws IOException {
+        flushLock.lock();
+        try {
+            synchronized (appendLock) {
+                writeAndForce(pending);
+                durableSeq = appendedSeq;
+                channel.close();
+                channel = FileChannel.open(nextFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                channel.position(channel.size());
+                file = nextFile;
+                segmentBytes = channel.size();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Bytes written to the current segment so far
+    long segmentBytes() {
+        return segmentBytes;
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            System.err.println("Background journal sync failed: " + e.getMessage());
+        }
+    }
+
+    long durableSequence() {
+        return durableSeq;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (syncer != null) {
+            // Interrupting a sync in progress would close the channel under it
+            syncer.shutdown();
+            try {
+                syncer.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        sync();
+        synchronized (appendLock) {
+            closed = true;
+        }
+        flushLock.lock();
+        try {
+            channel.close();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.teetime.exception;
+
+public class RideNotAvailableException extends Exception {
+    public RideNotAvailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.teetime.exception;
+
+// The storage backend failed (disk, database); unchecked, like the
+// UncheckedIOException the journal throws, so DataStore methods stay plain
+public class StorageException extends RuntimeException {
+    public StorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,89 @@
+package com.teetime.gui;
+
+import javafx.collections.ModifiableObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// An ObservableList whose edits can be grouped, so tables and FilteredLists
+// over it hear one change for a whole batch instead of one per row. Range
+// adds and removes move the backing array once rather than once per row.
+final class BatchedList<T> extends ModifiableObservableListBase<T> {
+    private final ArrayList<T> items = new ArrayList<>();
+
+    // Listeners are told once, after all the edits
+    void batch(Runnable edits) {
+        beginChange();
+        try {
+            edits.run();
+        } finally {
+            endChange();
+        }
+    }
+
+    @Override
+    public T get(int index) {
+        return items.get(index);
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends T> added) {
+        if (index < 0 || index > items.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+        if (added.isEmpty()) {
+            return false;
+        }
+        beginChange();
+        try {
+            items.addAll(index, added);
+            modCount++;
+            nextAdd(index, index + added.size());
+        } finally {
+            endChange();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> added) {
+        return addAll(items.size(), added);
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex == toIndex) {
+            return;
+        }
+        beginChange();
+        try {
+            List<T> removed = items.subList(fromIndex, toIndex);
+            nextRemove(fromIndex, new ArrayList<>(removed));
+            removed.clear();
+            modCount++;
+        } finally {
+            endChange();
+        }
+    }
+
+    @Override
+    protected void doAdd(int index, T element) {
+        items.add(index, element);
+    }
+
+    @Override
+    protected T doSet(int index, T element) {
+        return items.set(index, element);
+    }
+
+    @Override
+    protected T doRemove(int index) {
+        return items.remove(index);
+    }
+}
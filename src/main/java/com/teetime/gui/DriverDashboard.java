@@ -4,11 +4,12 @@ import com.teetime.domain.Car;
 import com.teetime.domain.Ride;
 import com.teetime.domain.RideStatus;
 import com.teetime.domain.User;
-import com.teetime.service.CSVExportService;
-import com.teetime.service.RideService;
+import com.teetime.exception.RideNotAvailableException;
+import com.teetime.service.AsyncRideService;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.HostServices;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -16,38 +17,44 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
-import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
-import java.io.File;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public class DriverDashboard {
+    private static final Duration PENDING_WINDOW = Duration.ofHours(12);
+
     private BorderPane view;
     private Stage stage;
     private User user;
     private HostServices hostServices;
-    private RideService rideService;
-    private CSVExportService csvService;
+    private AsyncRideService rideService;
     private TableView<Car> carsTable;
     private TableView<Ride> pendingRidesTable;
     private TableView<Ride> myRidesTable;
-    private ObservableList<Car> cars;
-    private ObservableList<Ride> pendingRides;
-    private ObservableList<Ride> myRides;
+    private BatchedList<Car> cars;
+    private BatchedList<Ride> pendingRides;
+    private BatchedList<Ride> myRides;
+    private FxPulseCoalescer uiUpdates;
+    private LiveRideList livePendingRides;
+    private LiveRideList liveMyRides;
+    private LocalDateTime pendingWindowEnd;
+    private Timeline pendingWindowTimer;
 
     public DriverDashboard(Stage stage, User user, HostServices hostServices) {
         this.stage = stage;
         this.user = user;
         this.hostServices = hostServices;
-        this.rideService = new RideService();
-        this.csvService = new CSVExportService();
-        this.cars = FXCollections.observableArrayList();
-        this.pendingRides = FXCollections.observableArrayList();
-        this.myRides = FXCollections.observableArrayList();
+        this.rideService = new AsyncRideService();
+        this.cars = new BatchedList<>();
+        this.pendingRides = new BatchedList<>();
+        this.myRides = new BatchedList<>();
+        this.uiUpdates = new FxPulseCoalescer("Driver dashboard");
         createView();
         loadData();
     }
@@ -122,7 +129,7 @@ public class DriverDashboard {
 
         Button addButton = new Button("Add Car");
         addButton.setStyle("-fx-background-color: #2ecc71; -fx-text-fill: white; -fx-font-size: 14px; -fx-padding: 8 20;");
-        addButton.setOnAction(e -> addCar(plateField.getText(), brandField.getText(), seatsSpinner.getValue()));
+        addButton.setOnAction(e -> addCar(addButton, plateField.getText(), brandField.getText(), seatsSpinner.getValue()));
 
         formBox.getChildren().addAll(formTitle, formGrid, addButton);
 
@@ -154,7 +161,7 @@ public class DriverDashboard {
                 deleteButton.setStyle("-fx-background-color: #e74c3c; -fx-text-fill: white;");
                 deleteButton.setOnAction(e -> {
                     Car car = getTableView().getItems().get(getIndex());
-                    deleteCar(car);
+                    deleteCar(deleteButton, car);
                 });
             }
 
@@ -181,7 +188,7 @@ public class DriverDashboard {
         VBox box = new VBox(15);
         box.setPadding(new Insets(20));
 
-        Label title = new Label("Available Ride Requests");
+        Label title = new Label("Available Ride Requests (next " + PENDING_WINDOW.toHours() + " hours)");
         title.setFont(Font.font("Arial", FontWeight.BOLD, 20));
 
         pendingRidesTable = new TableView<>();
@@ -232,7 +239,7 @@ public class DriverDashboard {
                 acceptButton.setStyle("-fx-background-color: #2ecc71; -fx-text-fill: white;");
                 acceptButton.setOnAction(e -> {
                     Ride ride = getTableView().getItems().get(getIndex());
-                    acceptRide(ride);
+                    acceptRide(acceptButton, ride);
                 });
             }
 
@@ -249,10 +256,7 @@ public class DriverDashboard {
 
         pendingRidesTable.getColumns().addAll(originCol, destCol, timeCol, seatsCol, priceCol, actionCol);
 
-        Button refreshButton = new Button("Refresh");
-        refreshButton.setOnAction(e -> loadPendingRides());
-
-        box.getChildren().addAll(title, pendingRidesTable, refreshButton);
+        box.getChildren().addAll(title, pendingRidesTable);
         return box;
     }
 
@@ -314,7 +318,7 @@ public class DriverDashboard {
                 completeButton.setStyle("-fx-background-color: #3498db; -fx-text-fill: white;");
                 completeButton.setOnAction(e -> {
                     Ride ride = getTableView().getItems().get(getIndex());
-                    completeRide(ride);
+                    completeRide(completeButton, ride);
                 });
             }
 
@@ -337,41 +341,36 @@ public class DriverDashboard {
         myRidesTable.getColumns().addAll(originCol, destCol, timeCol, seatsCol, statusCol, priceCol, actionCol);
 
         HBox buttons = new HBox(10);
-        Button refreshButton = new Button("Refresh");
-        refreshButton.setOnAction(e -> loadMyRides());
-        
-        Button exportButton = new Button("Export to CSV");
-        exportButton.setOnAction(e -> exportToCSV());
-        
-        buttons.getChildren().addAll(refreshButton, exportButton);
+        RideExportControl exportControl = new RideExportControl(stage, "my_driver_rides", () -> myRides);
+        buttons.getChildren().add(exportControl);
 
         box.getChildren().addAll(title, myRidesTable, buttons);
         return box;
     }
 
-    private void addCar(String plate, String brand, int seats) {
-        try {
-            rideService.addCar(user.getId(), plate, brand, seats);
-            showAlert("Success", "Car added successfully!");
-            loadCars();
-        } catch (Exception e) {
-            showAlert("Error", "Failed to add car: " + e.getMessage());
-        }
+    private void addCar(Button addButton, String plate, String brand, int seats) {
+        FxAsync.onFx(FxAsync.busy(addButton, rideService.addCar(user.getId(), plate, brand, seats)),
+            car -> {
+                showAlert("Success", "Car added successfully!");
+                loadCars();
+            },
+            e -> showAlert("Error", "Failed to add car: " + e.getMessage()));
     }
 
-    private void deleteCar(Car car) {
+    private void deleteCar(Button deleteButton, Car car) {
         Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
         confirm.setTitle("Confirm Delete");
         confirm.setContentText("Delete car " + car.getPlate() + "?");
         
         Optional<ButtonType> result = confirm.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            rideService.deleteCar(car.getId());
-            loadCars();
+            FxAsync.onFx(FxAsync.busy(deleteButton, rideService.deleteCar(car.getId())),
+                done -> loadCars(),
+                e -> showAlert("Error", "Failed to delete car: " + e.getMessage()));
         }
     }
 
-    private void acceptRide(Ride ride) {
+    private void acceptRide(Button acceptButton, Ride ride) {
         if (cars.isEmpty()) {
             showAlert("Error", "Please add a car first!");
             return;
@@ -385,68 +384,88 @@ public class DriverDashboard {
 
         Optional<Car> result = dialog.showAndWait();
         if (result.isPresent()) {
-            try {
-                rideService.acceptRide(ride, user.getId(), result.get().getId());
-                showAlert("Success", "Ride accepted!");
-                loadPendingRides();
-                loadMyRides();
-            } catch (Exception e) {
-                showAlert("Error", "Failed to accept ride: " + e.getMessage());
-            }
+            FxAsync.onFx(FxAsync.busy(acceptButton, rideService.acceptRide(ride, user.getId(), result.get().getId())),
+                accepted -> {
+                    showRide(accepted);
+                    showAlert("Success", "Ride accepted!");
+                },
+                e -> {
+                    if (e instanceof RideNotAvailableException) {
+                        showAlert("Ride Taken", "This ride was just accepted by another driver.");
+                    } else {
+                        showAlert("Error", "Failed to accept ride: " + e.getMessage());
+                    }
+                });
         }
     }
 
-    private void completeRide(Ride ride) {
-        try {
-            rideService.completeRide(ride);
-            showAlert("Success", "Ride completed!");
-            loadMyRides();
-        } catch (Exception e) {
-            showAlert("Error", "Failed to complete ride: " + e.getMessage());
-        }
+    private void completeRide(Button completeButton, Ride ride) {
+        FxAsync.onFx(FxAsync.busy(completeButton, rideService.completeRide(ride)),
+            completed -> {
+                showRide(completed);
+                showAlert("Success", "Ride completed!");
+            },
+            e -> showAlert("Error", "Failed to complete ride: " + e.getMessage()));
+    }
+
+    // Shows our own change straight away rather than waiting for its event;
+    // the row the action started from was never modified
+    private void showRide(Ride ride) {
+        livePendingRides.update(ride);
+        liveMyRides.update(ride);
     }
 
     private void loadData() {
         loadCars();
-        loadPendingRides();
-        loadMyRides();
+
+        // Ride requests and accepted rides follow ride events; see LiveRideList
+        livePendingRides = new LiveRideList(pendingRidesTable, pendingRides, this::queryPendingWindow, this::inPendingWindow,
+            LiveRideList.BY_TIME, e -> showAlert("Error", "Failed to load ride requests: " + e.getMessage()));
+        livePendingRides.start(rideService, null, uiUpdates);
+        liveMyRides = new LiveRideList(myRidesTable, myRides, () -> rideService.getRidesByDriverId(user.getId()),
+            ride -> true, LiveRideList.BY_ID, e -> showAlert("Error", "Failed to load rides: " + e.getMessage()));
+        liveMyRides.start(rideService, ride -> ride.getDriverId() != null && ride.getDriverId() == user.getId(),
+            uiUpdates);
+
+        pendingWindowTimer = new Timeline(new KeyFrame(javafx.util.Duration.minutes(1), e -> advancePendingWindow()));
+        pendingWindowTimer.setCycleCount(Animation.INDEFINITE);
+        pendingWindowTimer.play();
     }
 
-    private void loadCars() {
-        List<Car> userCars = rideService.getCarsByDriverId(user.getId());
-        cars.setAll(userCars);
+    // Returns at once; the table fills in when the cars arrive
+    private CompletableFuture<?> loadCars() {
+        return FxAsync.load(carsTable, cars, rideService.getCarsByDriverId(user.getId()), KeyedListDiff.CARS,
+            e -> showAlert("Error", "Failed to load cars: " + e.getMessage()));
     }
 
-    private void loadPendingRides() {
-        List<Ride> pending = rideService.getPendingRides();
-        pendingRides.setAll(pending);
+    private CompletableFuture<List<Ride>> queryPendingWindow() {
+        LocalDateTime now = LocalDateTime.now();
+        pendingWindowEnd = now.plus(PENDING_WINDOW);
+        return rideService.getPendingRidesBetween(now, pendingWindowEnd);
     }
 
-    private void loadMyRides() {
-        List<Ride> rides = rideService.getRidesByDriverId(user.getId());
-        myRides.setAll(rides);
+    private boolean inPendingWindow(Ride ride) {
+        LocalDateTime now = LocalDateTime.now();
+        return ride.getStatus() == RideStatus.PENDING
+            && !ride.getTime().isBefore(now) && ride.getTime().isBefore(now.plus(PENDING_WINDOW));
     }
 
-    private void exportToCSV() {
-        FileChooser fileChooser = new FileChooser();
-        fileChooser.setTitle("Export Rides to CSV");
-        fileChooser.setInitialFileName("my_driver_rides.csv");
-        fileChooser.getExtensionFilters().add(
-            new FileChooser.ExtensionFilter("CSV Files", "*.csv")
-        );
-        
-        File file = fileChooser.showSaveDialog(stage);
-        if (file != null) {
-            try {
-                csvService.exportRidesToCSV(myRides, file.getAbsolutePath());
-                showAlert("Success", "Rides exported to " + file.getName());
-            } catch (Exception e) {
-                showAlert("Error", "Failed to export: " + e.getMessage());
-            }
-        }
+    // Events only cover rides that change, so as time passes rides that left
+    // the window are dropped and the slice that entered it is fetched
+    private void advancePendingWindow() {
+        livePendingRides.prune();
+        LocalDateTime from = pendingWindowEnd;
+        pendingWindowEnd = LocalDateTime.now().plus(PENDING_WINDOW);
+        FxAsync.onFx(rideService.getPendingRidesBetween(from, pendingWindowEnd),
+            entered -> pendingRides.batch(() -> entered.forEach(livePendingRides::update)),
+            e -> System.err.println("Failed to load upcoming ride requests: " + e.getMessage()));
     }
 
     private void logout() {
+        pendingWindowTimer.stop();
+        livePendingRides.stop();
+        liveMyRides.stop();
+        uiUpdates.stop();
         LoginScreen loginScreen = new LoginScreen(stage, hostServices);
         Scene scene = new Scene(loginScreen.getView(), 800, 600);
         stage.setScene(scene);
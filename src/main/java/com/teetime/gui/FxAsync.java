@@ -0,0 +1,81 @@
+package com.teetime.gui;
+
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableView;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+// Glue between the async services and the dashboards: results are handed back
+// on the JavaFX Application Thread, and controls show a call is in flight.
+final class FxAsync {
+    static final Executor FX_THREAD = Platform::runLater;
+
+    private static final String LOAD_KEY = "teetime.load";
+
+    private FxAsync() {
+    }
+
+    // Runs onSuccess or onFailure on the FX thread when the call finishes;
+    // onFailure gets the exception the service threw
+    static <T> void onFx(CompletableFuture<T> call, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        call.whenCompleteAsync((result, error) -> {
+            if (error == null) {
+                onSuccess.accept(result);
+            } else {
+                onFailure.accept(unwrap(error));
+            }
+        }, FX_THREAD);
+    }
+
+    // Disables the control until the call finishes
+    static <T> CompletableFuture<T> busy(Node control, CompletableFuture<T> call) {
+        control.setDisable(true);
+        call.whenCompleteAsync((result, error) -> control.setDisable(false), FX_THREAD);
+        return call;
+    }
+
+    // Merges the call's result into the table's items as one list change,
+    // showing "Loading..." while an empty table waits. If loads overlap, only
+    // the newest is applied.
+    static <T> CompletableFuture<? extends List<T>> load(TableView<T> table, BatchedList<T> items,
+                                                         CompletableFuture<? extends List<T>> rows,
+                                                         KeyedListDiff<T> diff, Consumer<Throwable> onFailure) {
+        return load(table, items, rows, diff, () -> { }, onFailure);
+    }
+
+    // As above, running afterFill once the rows are in the table
+    static <T> CompletableFuture<? extends List<T>> load(TableView<T> table, BatchedList<T> items,
+                                                         CompletableFuture<? extends List<T>> rows,
+                                                         KeyedListDiff<T> diff, Runnable afterFill,
+                                                         Consumer<Throwable> onFailure) {
+        Object load = new Object();
+        table.getProperties().put(LOAD_KEY, load);
+        table.setPlaceholder(new Label("Loading..."));
+        onFx(rows, result -> {
+            if (table.getProperties().get(LOAD_KEY) == load) {
+                items.batch(() -> diff.merge(items, result));
+                table.setPlaceholder(null);
+                afterFill.run();
+            }
+        }, error -> {
+            if (table.getProperties().get(LOAD_KEY) == load) {
+                table.setPlaceholder(new Label("Could not load: " + error.getMessage()));
+                onFailure.accept(error);
+            }
+        });
+        return rows;
+    }
+
+    static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
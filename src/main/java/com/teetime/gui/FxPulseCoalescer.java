@@ -0,0 +1,184 @@
+package com.teetime.gui;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Executor for UI updates arriving from other threads (ride events): instead
+// of one Platform.runLater each, updates queue up and run together once per
+// JavaFX pulse, inside a frame budget so a flood of changes cannot stall
+// rendering; whatever does not fit waits for the next pulse. The timer only
+// runs while updates are waiting. One per dashboard.
+//
+// Queue depth, flush time and latency (queued to run) are kept for tuning;
+// with -Dteetime.ui.metrics=true they are printed every 10 seconds.
+final class FxPulseCoalescer implements Executor {
+    static final long FRAME_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(8);
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final String name;
+    private final long budgetNanos;
+    private final Runnable requestPulses;
+    private final ConcurrentLinkedQueue<Queued> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicBoolean pulsing = new AtomicBoolean();
+    private final boolean report = Boolean.getBoolean("teetime.ui.metrics");
+    private AnimationTimer timer;
+    private volatile boolean stopped;
+
+    // Metrics; apart from the depths, written on the FX thread only
+    private final AtomicInteger maxDepth = new AtomicInteger();
+    private volatile long flushes;
+    private volatile long updatesRun;
+    private volatile long lastFlushNanos;
+    private volatile long maxFlushNanos;
+    private volatile long maxLatencyNanos;
+    private long nextReport;
+
+    private static final class Queued {
+        final Runnable update;
+        final long queuedAt;
+
+        Queued(Runnable update, long queuedAt) {
+            this.update = update;
+            this.queuedAt = queuedAt;
+        }
+    }
+
+    FxPulseCoalescer(String name) {
+        this.name = name;
+        this.budgetNanos = FRAME_BUDGET_NANOS;
+        this.requestPulses = () -> Platform.runLater(this::startTimer);
+    }
+
+    // For tests: `requestPulses` is called when updates start waiting, and
+    // the caller then drives flush() itself
+    FxPulseCoalescer(String name, long budgetNanos, Runnable requestPulses) {
+        this.name = name;
+        this.budgetNanos = budgetNanos;
+        this.requestPulses = requestPulses;
+    }
+
+    @Override
+    public void execute(Runnable update) {
+        if (stopped) {
+            return;
+        }
+        queue.add(new Queued(update, System.nanoTime()));
+        maxDepth.accumulateAndGet(depth.incrementAndGet(), Math::max);
+        if (pulsing.compareAndSet(false, true)) {
+            requestPulses.run();
+        }
+    }
+
+    // Runs waiting updates until the budget is spent; returns how many ran.
+    // On the FX thread, once per pulse.
+    int flush() {
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        int ran = 0;
+        Queued next;
+        while ((next = queue.poll()) != null) {
+            depth.decrementAndGet();
+            maxLatencyNanos = Math.max(maxLatencyNanos, start - next.queuedAt);
+            try {
+                next.update.run();
+            } catch (RuntimeException e) {
+                System.err.println("UI update failed: " + e.getMessage());
+            }
+            ran++;
+            if (System.nanoTime() - deadline > 0) {
+                break;
+            }
+        }
+        long took = System.nanoTime() - start;
+        if (ran > 0) {
+            flushes++;
+            updatesRun += ran;
+            lastFlushNanos = took;
+            maxFlushNanos = Math.max(maxFlushNanos, took);
+        }
+        if (queue.isEmpty()) {
+            pulsing.set(false);
+            // An update queued after the poll above saw pulsing still set
+            if (!queue.isEmpty() && pulsing.compareAndSet(false, true)) {
+                return ran;
+            }
+            stopTimer();
+        }
+        return ran;
+    }
+
+    // Drops waiting updates and stops pulsing; later updates are ignored
+    void stop() {
+        stopped = true;
+        queue.clear();
+        depth.set(0);
+        stopTimer();
+    }
+
+    int queueDepth() {
+        return depth.get();
+    }
+
+    int maxQueueDepth() {
+        return maxDepth.get();
+    }
+
+    long flushCount() {
+        return flushes;
+    }
+
+    long updatesRun() {
+        return updatesRun;
+    }
+
+    long lastFlushNanos() {
+        return lastFlushNanos;
+    }
+
+    long maxFlushNanos() {
+        return maxFlushNanos;
+    }
+
+    long maxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s UI updates: %d run in %d flushes, queue %d (max %d), flush last %.2f ms (max %.2f ms), "
+                        + "latency max %.2f ms", name, updatesRun, flushes, depth.get(), maxDepth.get(),
+                lastFlushNanos / 1e6, maxFlushNanos / 1e6, maxLatencyNanos / 1e6);
+    }
+
+    private void startTimer() {
+        if (stopped) {
+            return;
+        }
+        if (timer == null) {
+            timer = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    flush();
+                    if (report && now - nextReport > 0) {
+                        nextReport = now + REPORT_INTERVAL_NANOS;
+                        System.out.println(FxPulseCoalescer.this);
+                    }
+                }
+            };
+        }
+        timer.start();
+    }
+
+    private void stopTimer() {
+        if (timer != null) {
+            timer.stop();
+        }
+    }
+}
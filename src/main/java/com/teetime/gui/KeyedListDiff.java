@@ -0,0 +1,140 @@
+package com.teetime.gui;
+
+import com.teetime.domain.Car;
+import com.teetime.domain.Ride;
+import javafx.collections.ObservableList;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+import java.util.function.ToIntFunction;
+
+// Brings a table's list in line with freshly loaded rows, matching them by id
+// and touching only what changed: rows that are gone are removed, new rows are
+// added in runs, changed rows are replaced in place, and unchanged rows keep
+// their instance. Tables, their selection and FilteredLists over the list see
+// a handful of small changes instead of one setAll rebuilding everything.
+final class KeyedListDiff<T> {
+    static final KeyedListDiff<Ride> RIDES = new KeyedListDiff<>(Ride::getId, KeyedListDiff::sameRide);
+    static final KeyedListDiff<Car> CARS = new KeyedListDiff<>(Car::getId, KeyedListDiff::sameCar);
+
+    private final ToIntFunction<T> key;
+    private final BiPredicate<T, T> same;
+
+    KeyedListDiff(ToIntFunction<T> key, BiPredicate<T, T> same) {
+        this.key = key;
+        this.same = same;
+    }
+
+    // Afterwards `rows` holds `fresh` in its order; ids must be unique
+    void merge(ObservableList<T> rows, List<? extends T> fresh) {
+        Map<Integer, Integer> freshIndex = new HashMap<>(fresh.size() * 2);
+        for (int i = 0; i < fresh.size(); i++) {
+            freshIndex.put(key.applyAsInt(fresh.get(i)), i);
+        }
+
+        // Keep the longest run of rows already in the fresh order; everything
+        // else (gone, or moved) is removed, moved rows come back as inserts
+        int[] positions = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            Integer at = freshIndex.get(key.applyAsInt(rows.get(i)));
+            positions[i] = at == null ? -1 : at;
+        }
+        boolean[] keep = longestIncreasing(positions);
+        for (int end = rows.size(); end > 0; ) {
+            if (keep[end - 1]) {
+                end--;
+                continue;
+            }
+            int start = end - 1;
+            while (start > 0 && !keep[start - 1]) {
+                start--;
+            }
+            rows.remove(start, end);
+            end = start;
+        }
+
+        int r = 0;
+        int f = 0;
+        while (f < fresh.size()) {
+            T next = fresh.get(f);
+            if (r < rows.size() && key.applyAsInt(rows.get(r)) == key.applyAsInt(next)) {
+                if (!same.test(rows.get(r), next)) {
+                    rows.set(r, next);
+                }
+                r++;
+                f++;
+                continue;
+            }
+            int end = f + 1;
+            if (r < rows.size()) {
+                int kept = key.applyAsInt(rows.get(r));
+                while (end < fresh.size() && key.applyAsInt(fresh.get(end)) != kept) {
+                    end++;
+                }
+            } else {
+                end = fresh.size();
+            }
+            rows.addAll(r, fresh.subList(f, end));
+            r += end - f;
+            f = end;
+        }
+    }
+
+    // Marks a longest strictly increasing subsequence of the non-negative
+    // positions (patience sorting, n log n)
+    static boolean[] longestIncreasing(int[] positions) {
+        int n = positions.length;
+        int[] tails = new int[n];
+        int[] previous = new int[n];
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            if (positions[i] < 0) {
+                continue;
+            }
+            int lo = 0;
+            int hi = length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (positions[tails[mid]] < positions[i]) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            previous[i] = lo > 0 ? tails[lo - 1] : -1;
+            tails[lo] = i;
+            if (lo == length) {
+                length++;
+            }
+        }
+        boolean[] keep = new boolean[n];
+        for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+            keep[i] = true;
+        }
+        return keep;
+    }
+
+    static boolean sameRide(Ride a, Ride b) {
+        return a.getId() == b.getId()
+            && a.getPassengerId() == b.getPassengerId()
+            && Objects.equals(a.getDriverId(), b.getDriverId())
+            && Objects.equals(a.getCarId(), b.getCarId())
+            && Objects.equals(a.getOrigin(), b.getOrigin())
+            && Objects.equals(a.getDestination(), b.getDestination())
+            && Objects.equals(a.getTime(), b.getTime())
+            && a.getSeatsNeeded() == b.getSeatsNeeded()
+            && a.getStatus() == b.getStatus()
+            && Double.compare(a.getPriceEstimate(), b.getPriceEstimate()) == 0;
+    }
+
+    static boolean sameCar(Car a, Car b) {
+        return a.getId() == b.getId()
+            && a.getDriverId() == b.getDriverId()
+            && Objects.equals(a.getPlate(), b.getPlate())
+            && Objects.equals(a.getBrand(), b.getBrand())
+            && a.getSeats() == b.getSeats();
+    }
+}
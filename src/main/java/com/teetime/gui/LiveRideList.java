@@ -0,0 +1,179 @@
+package com.teetime.gui;
+
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+import com.teetime.service.AsyncRideService;
+import com.teetime.service.RideEvent;
+import com.teetime.service.RideEventBus;
+import javafx.scene.control.TableView;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Keeps a table's rides current without Refresh buttons: one full load
+// (merged row by row on a resync), then each ride event changes just that
+// row. Events arriving while a load is in flight are applied again on top of
+// its result, and a shown ride never moves back to an earlier status, so a
+// late event or a slow load cannot undo a newer change. Used only on the FX
+// thread.
+final class LiveRideList implements RideEventBus.Listener {
+    static final Comparator<Ride> BY_ID = Comparator.comparingInt(Ride::getId);
+    static final Comparator<Ride> BY_TIME = Comparator.comparing(Ride::getTime).thenComparing(BY_ID);
+    private static final int FINAL = 2;
+
+    private final TableView<Ride> table;
+    private final BatchedList<Ride> rides;
+    private final Supplier<CompletableFuture<List<Ride>>> query;
+    private final Predicate<Ride> belongs;
+    private final Comparator<Ride> order;
+    private final Consumer<Throwable> onLoadFailure;
+    // Furthest status seen per ride through events, for shown rides that can
+    // still change; entries go with their row or at a final status
+    private final Map<Integer, Integer> stages = new HashMap<>();
+    private List<RideEvent> duringLoad;
+    private RideEventBus.Subscription subscription;
+
+    // `belongs` decides whether a changed ride is shown; the query must return
+    // rides in `order`
+    LiveRideList(TableView<Ride> table, BatchedList<Ride> rides, Supplier<CompletableFuture<List<Ride>>> query,
+                 Predicate<Ride> belongs, Comparator<Ride> order, Consumer<Throwable> onLoadFailure) {
+        this.table = table;
+        this.rides = rides;
+        this.query = query;
+        this.belongs = belongs;
+        this.order = order;
+        this.onLoadFailure = onLoadFailure;
+    }
+
+    // Subscribes before loading, so no change falls between the two. Events
+    // are delivered on `updates`, which must run them on the FX thread.
+    void start(AsyncRideService rideService, Predicate<Ride> filter, Executor updates) {
+        subscription = rideService.subscribe(filter, updates, this);
+        reload();
+    }
+
+    void stop() {
+        if (subscription != null) {
+            subscription.close();
+        }
+    }
+
+    CompletableFuture<?> reload() {
+        List<RideEvent> events = new ArrayList<>();
+        duringLoad = events;
+        return FxAsync.load(table, rides, query.get(), KeyedListDiff.RIDES, () -> {
+            duringLoad = null;
+            Set<Integer> shown = new HashSet<>();
+            for (Ride ride : rides) {
+                shown.add(ride.getId());
+            }
+            stages.keySet().retainAll(shown);
+            onEvents(events);
+        }, error -> {
+            duringLoad = null;
+            onLoadFailure.accept(error);
+        });
+    }
+
+    @Override
+    public void onEvents(List<RideEvent> events) {
+        if (duringLoad != null) {
+            duringLoad.addAll(events);
+        }
+        rides.batch(() -> {
+            for (RideEvent event : events) {
+                update(event.getRide());
+            }
+        });
+    }
+
+    @Override
+    public void onResync() {
+        reload();
+    }
+
+    // Adds, replaces or removes the ride's row
+    void update(Ride ride) {
+        int stage = stage(ride.getStatus());
+        Integer seen = stages.get(ride.getId());
+        if (seen != null && stage < seen) {
+            return;
+        }
+        int index = indexOf(ride);
+        if (index >= 0) {
+            if (stage < stage(rides.get(index).getStatus())) {
+                return;
+            }
+            if (belongs.test(ride) && order.compare(rides.get(index), ride) == 0) {
+                if (!KeyedListDiff.sameRide(rides.get(index), ride)) {
+                    rides.set(index, ride);
+                }
+                remember(ride, stage);
+                return;
+            }
+            rides.remove(index);
+        }
+        if (belongs.test(ride)) {
+            int at = Collections.binarySearch(rides, ride, order);
+            rides.add(at < 0 ? -at - 1 : at, ride);
+            remember(ride, stage);
+        } else {
+            stages.remove(ride.getId());
+        }
+    }
+
+    private void remember(Ride ride, int stage) {
+        if (stage < FINAL) {
+            stages.put(ride.getId(), stage);
+        } else {
+            stages.remove(ride.getId());
+        }
+    }
+
+    // Drops rows that no longer belong, e.g. rides that left a time window
+    void prune() {
+        rides.batch(() -> rides.removeIf(ride -> {
+            if (belongs.test(ride)) {
+                return false;
+            }
+            stages.remove(ride.getId());
+            return true;
+        }));
+    }
+
+    // Usually found by binary search, as most changes leave the sort key alone
+    private int indexOf(Ride ride) {
+        int at = Collections.binarySearch(rides, ride, order);
+        if (at >= 0 && rides.get(at).getId() == ride.getId()) {
+            return at;
+        }
+        for (int i = 0; i < rides.size(); i++) {
+            if (rides.get(i).getId() == ride.getId()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int stage(RideStatus status) {
+        switch (status) {
+            case PENDING:
+                return 0;
+            case CONFIRMED:
+                return 1;
+            default:
+                return FINAL;
+        }
+    }
+}
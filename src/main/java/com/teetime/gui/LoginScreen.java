@@ -2,7 +2,7 @@ package com.teetime.gui;
 
 import com.teetime.domain.User;
 import com.teetime.exception.InvalidLoginException;
-import com.teetime.service.AuthService;
+import com.teetime.service.AsyncAuthService;
 import javafx.application.HostServices;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -17,12 +17,13 @@ public class LoginScreen {
     private VBox view;
     private Stage stage;
     private HostServices hostServices;
-    private AuthService authService;
+    private AsyncAuthService authService;
+    private HBox buttonBox;
 
     public LoginScreen(Stage stage, HostServices hostServices) {
         this.stage = stage;
         this.hostServices = hostServices;
-        this.authService = new AuthService();
+        this.authService = new AsyncAuthService();
         createView();
     }
 
@@ -64,7 +65,7 @@ public class LoginScreen {
         loginForm.add(passwordField, 1, 1);
 
         // Buttons
-        HBox buttonBox = new HBox(10);
+        buttonBox = new HBox(10);
         buttonBox.setAlignment(Pos.CENTER);
 
         Button loginButton = new Button("Login");
@@ -95,12 +96,13 @@ public class LoginScreen {
     }
 
     private void handleLogin(String email, String password) {
-        try {
-            User user = authService.login(email, password);
-            openDashboard(user);
-        } catch (InvalidLoginException e) {
-            showAlert("Login Failed", e.getMessage());
+        if (buttonBox.isDisabled()) {
+            return;
         }
+        FxAsync.onFx(FxAsync.busy(buttonBox, authService.login(email, password)),
+            this::openDashboard,
+            e -> showAlert("Login Failed", e instanceof InvalidLoginException
+                ? e.getMessage() : "Could not log in: " + e.getMessage()));
     }
 
     private void showRegistrationDialog() {
@@ -140,17 +142,14 @@ public class LoginScreen {
 
         dialog.showAndWait().ifPresent(response -> {
             if (response == registerButtonType) {
-                try {
-                    User user = authService.register(
+                FxAsync.onFx(FxAsync.busy(buttonBox, authService.register(
                         nameField.getText(),
                         emailField.getText(),
                         passwordField.getText(),
                         roleCombo.getValue()
-                    );
-                    showAlert("Success", "Registration successful! You can now login.");
-                } catch (Exception e) {
-                    showAlert("Registration Failed", e.getMessage());
-                }
+                    )),
+                    user -> showAlert("Success", "Registration successful! You can now login."),
+                    e -> showAlert("Registration Failed", e.getMessage()));
             }
         });
     }
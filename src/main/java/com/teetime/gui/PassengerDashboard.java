@@ -3,11 +3,8 @@ package com.teetime.gui;
 import com.teetime.domain.Ride;
 import com.teetime.domain.RideStatus;
 import com.teetime.domain.User;
-import com.teetime.service.CSVExportService;
-import com.teetime.service.RideService;
+import com.teetime.service.AsyncRideService;
 import javafx.application.HostServices;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -15,33 +12,34 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
-import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
-import java.io.File;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 
 public class PassengerDashboard {
     private BorderPane view;
     private Stage stage;
     private User user;
     private HostServices hostServices;
-    private RideService rideService;
-    private CSVExportService csvService;
+    private AsyncRideService rideService;
     private TableView<Ride> ridesTable;
-    private ObservableList<Ride> rides;
+    private BatchedList<Ride> rides;
+    private LiveRideList liveRides;
+    private FxPulseCoalescer uiUpdates;
 
     public PassengerDashboard(Stage stage, User user, HostServices hostServices) {
         this.stage = stage;
         this.user = user;
         this.hostServices = hostServices;
-        this.rideService = new RideService();
-        this.csvService = new CSVExportService();
-        this.rides = FXCollections.observableArrayList();
+        this.rideService = new AsyncRideService();
+        this.rides = new BatchedList<>();
+        this.uiUpdates = new FxPulseCoalescer("Passenger dashboard");
         createView();
-        loadRides();
+        liveRides = new LiveRideList(ridesTable, rides, () -> rideService.getRidesByPassengerId(user.getId()),
+            ride -> true, LiveRideList.BY_ID, e -> showAlert("Error", "Failed to load rides: " + e.getMessage()));
+        // Follows the passenger's rides as they are created, accepted and finished
+        liveRides.start(rideService, ride -> ride.getPassengerId() == user.getId(), uiUpdates);
     }
 
     private void createView() {
@@ -110,6 +108,7 @@ public class PassengerDashboard {
         Button createButton = new Button("Create Request");
         createButton.setStyle("-fx-background-color: #2ecc71; -fx-text-fill: white; -fx-font-size: 14px; -fx-padding: 8 20;");
         createButton.setOnAction(e -> createRideRequest(
+            createButton,
             originField.getText(),
             destField.getText(),
             datePicker.getValue(),
@@ -173,13 +172,8 @@ public class PassengerDashboard {
         ridesTable.getColumns().addAll(originCol, destCol, timeCol, seatsCol, statusCol, priceCol);
 
         HBox tableButtons = new HBox(10);
-        Button refreshButton = new Button("Refresh");
-        refreshButton.setOnAction(e -> loadRides());
-        
-        Button exportButton = new Button("Export to CSV");
-        exportButton.setOnAction(e -> exportToCSV());
-        
-        tableButtons.getChildren().addAll(refreshButton, exportButton);
+        RideExportControl exportControl = new RideExportControl(stage, "my_rides", () -> rides);
+        tableButtons.getChildren().add(exportControl);
 
         tableBox.getChildren().addAll(tableTitle, ridesTable, tableButtons);
 
@@ -201,7 +195,9 @@ public class PassengerDashboard {
         view.setCenter(tabPane);
     }
 
-    private void createRideRequest(String origin, String dest, java.time.LocalDate date, String time, int seats) {
+    private void createRideRequest(Button createButton, String origin, String dest, java.time.LocalDate date,
+                                   String time, int seats) {
+        LocalDateTime dateTime;
         try {
             // Parse time
             String[] timeParts = time.split(":");
@@ -211,41 +207,20 @@ public class PassengerDashboard {
             int hour = Integer.parseInt(timeParts[0]);
             int minute = Integer.parseInt(timeParts[1]);
             
-            LocalDateTime dateTime = date.atTime(hour, minute);
-            
-            rideService.createRideRequest(user.getId(), origin, dest, dateTime, seats);
-            showAlert("Success", "Ride request created successfully!");
-            loadRides();
+            dateTime = date.atTime(hour, minute);
         } catch (Exception e) {
             showAlert("Error", "Failed to create ride: " + e.getMessage());
+            return;
         }
-    }
-
-    private void loadRides() {
-        List<Ride> userRides = rideService.getRidesByPassengerId(user.getId());
-        rides.setAll(userRides);
-    }
 
-    private void exportToCSV() {
-        FileChooser fileChooser = new FileChooser();
-        fileChooser.setTitle("Export Rides to CSV");
-        fileChooser.setInitialFileName("my_rides.csv");
-        fileChooser.getExtensionFilters().add(
-            new FileChooser.ExtensionFilter("CSV Files", "*.csv")
-        );
-        
-        File file = fileChooser.showSaveDialog(stage);
-        if (file != null) {
-            try {
-                csvService.exportRidesToCSV(rides, file.getAbsolutePath());
-                showAlert("Success", "Rides exported to " + file.getName());
-            } catch (Exception e) {
-                showAlert("Error", "Failed to export: " + e.getMessage());
-            }
-        }
+        FxAsync.onFx(FxAsync.busy(createButton, rideService.createRideRequest(user.getId(), origin, dest, dateTime, seats)),
+            ride -> showAlert("Success", "Ride request created successfully!"),
+            e -> showAlert("Error", "Failed to create ride: " + e.getMessage()));
     }
 
     private void logout() {
+        liveRides.stop();
+        uiUpdates.stop();
         LoginScreen loginScreen = new LoginScreen(stage, hostServices);
         Scene scene = new Scene(loginScreen.getView(), 800, 600);
         stage.setScene(scene);
@@ -0,0 +1,134 @@
+package com.teetime.gui;
+
+import com.teetime.domain.Ride;
+import com.teetime.service.RideExporter;
+import javafx.concurrent.Task;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.HBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+// "Export Rides" button that lets the user pick a file and format, then writes
+// it on a background thread, showing a progress bar and a Cancel button while
+// it runs so the UI stays responsive.
+public class RideExportControl extends HBox {
+    private final Stage stage;
+    private final String baseFileName;
+    private final Supplier<List<Ride>> rides;
+    private final List<RideExporter> formats;
+    private final Button exportButton;
+    private final ProgressBar progressBar;
+    private final Label progressLabel;
+    private final Button cancelButton;
+    private Task<Long> running;
+
+    // baseFileName has no extension; the chosen format adds it
+    public RideExportControl(Stage stage, String baseFileName, Supplier<List<Ride>> rides) {
+        super(10);
+        this.stage = stage;
+        this.baseFileName = baseFileName;
+        this.rides = rides;
+        this.formats = RideExporter.formats();
+        this.exportButton = new Button("Export Rides");
+        this.progressBar = new ProgressBar(0);
+        this.progressLabel = new Label();
+        this.cancelButton = new Button("Cancel");
+
+        setAlignment(Pos.CENTER_LEFT);
+        exportButton.setOnAction(e -> chooseFileAndExport());
+        cancelButton.setOnAction(e -> {
+            if (running != null) {
+                running.cancel();
+            }
+        });
+        showProgress(false);
+        getChildren().addAll(exportButton, progressBar, progressLabel, cancelButton);
+    }
+
+    private void chooseFileAndExport() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Export Rides");
+        fileChooser.setInitialFileName(baseFileName + "." + formats.get(0).getExtension());
+        for (RideExporter format : formats) {
+            fileChooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter(format.getName() + " Files", "*." + format.getExtension())
+            );
+        }
+
+        File file = fileChooser.showSaveDialog(stage);
+        if (file != null) {
+            int chosen = fileChooser.getExtensionFilters().indexOf(fileChooser.getSelectedExtensionFilter());
+            RideExporter exporter = formats.get(Math.max(chosen, 0));
+            // Copy on the FX thread; the table's list must not be read from the export thread
+            export(exporter, new ArrayList<>(rides.get()), file);
+        }
+    }
+
+    private void export(RideExporter exporter, List<Ride> snapshot, File file) {
+        long total = snapshot.size();
+        Task<Long> task = new Task<>() {
+            @Override
+            protected Long call() throws Exception {
+                return exporter.export(snapshot.iterator(), file.toPath(), rows -> {
+                    updateProgress(rows, total);
+                    updateMessage(rows + " / " + total + " rides");
+                    return !isCancelled();
+                });
+            }
+        };
+        task.setOnSucceeded(e -> {
+            finish();
+            showAlert("Success", task.getValue() + " rides exported to " + file.getName());
+        });
+        task.setOnFailed(e -> {
+            finish();
+            showAlert("Error", "Failed to export: " + task.getException().getMessage());
+        });
+        task.setOnCancelled(e -> {
+            finish();
+            showAlert("Export Cancelled", "No file was written.");
+        });
+
+        running = task;
+        progressBar.progressProperty().bind(task.progressProperty());
+        progressLabel.textProperty().bind(task.messageProperty());
+        showProgress(true);
+
+        Thread thread = new Thread(task, "teetime-ride-export");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void finish() {
+        running = null;
+        progressBar.progressProperty().unbind();
+        progressLabel.textProperty().unbind();
+        showProgress(false);
+    }
+
+    private void showProgress(boolean exporting) {
+        exportButton.setDisable(exporting);
+        for (Node node : List.of(progressBar, progressLabel, cancelButton)) {
+            node.setVisible(exporting);
+            node.setManaged(exporting);
+        }
+    }
+
+    private void showAlert(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+}
@@ -0,0 +1,152 @@
+package com.teetime.remote;
+
+import com.teetime.domain.Car;
+import com.teetime.domain.Driver;
+import com.teetime.domain.Passenger;
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+import com.teetime.domain.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Domain objects to and from the maps Json reads and writes. Times travel as
+// ISO local date-times; password hashes never leave the server.
+final class JsonMapping {
+    private JsonMapping() {
+    }
+
+    static Map<String, Object> ride(Ride ride) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", ride.getId());
+        json.put("passengerId", ride.getPassengerId());
+        json.put("driverId", ride.getDriverId());
+        json.put("carId", ride.getCarId());
+        json.put("origin", ride.getOrigin());
+        json.put("destination", ride.getDestination());
+        json.put("time", ride.getTime() == null ? null : ride.getTime().toString());
+        json.put("seatsNeeded", ride.getSeatsNeeded());
+        json.put("status", ride.getStatus() == null ? null : ride.getStatus().name());
+        json.put("priceEstimate", ride.getPriceEstimate());
+        return json;
+    }
+
+    static Ride ride(Map<String, Object> json) {
+        Ride ride = new Ride();
+        ride.setId(integer(json, "id"));
+        ride.setPassengerId(integer(json, "passengerId"));
+        ride.setDriverId(optionalInteger(json, "driverId"));
+        ride.setCarId(optionalInteger(json, "carId"));
+        ride.setOrigin((String) json.get("origin"));
+        ride.setDestination((String) json.get("destination"));
+        ride.setTime(time(json, "time"));
+        ride.setSeatsNeeded(integer(json, "seatsNeeded"));
+        String status = (String) json.get("status");
+        ride.setStatus(status == null ? null : RideStatus.valueOf(status));
+        ride.setPriceEstimate(((Number) json.get("priceEstimate")).doubleValue());
+        return ride;
+    }
+
+    static List<Object> rides(List<Ride> rides) {
+        List<Object> json = new ArrayList<>(rides.size());
+        for (Ride ride : rides) {
+            json.add(ride(ride));
+        }
+        return json;
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<Ride> rides(Object json) {
+        List<Object> items = (List<Object>) json;
+        List<Ride> rides = new ArrayList<>(items.size());
+        for (Object item : items) {
+            rides.add(ride((Map<String, Object>) item));
+        }
+        return rides;
+    }
+
+    static Map<String, Object> car(Car car) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", car.getId());
+        json.put("driverId", car.getDriverId());
+        json.put("plate", car.getPlate());
+        json.put("brand", car.getBrand());
+        json.put("seats", car.getSeats());
+        return json;
+    }
+
+    static Car car(Map<String, Object> json) {
+        Car car = new Car(integer(json, "driverId"), (String) json.get("plate"), (String) json.get("brand"),
+                integer(json, "seats"));
+        car.setId(integer(json, "id"));
+        return car;
+    }
+
+    static List<Object> cars(List<Car> cars) {
+        List<Object> json = new ArrayList<>(cars.size());
+        for (Car car : cars) {
+            json.add(car(car));
+        }
+        return json;
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<Car> cars(Object json) {
+        List<Object> items = (List<Object>) json;
+        List<Car> cars = new ArrayList<>(items.size());
+        for (Object item : items) {
+            cars.add(car((Map<String, Object>) item));
+        }
+        return cars;
+    }
+
+    static Map<String, Object> user(User user) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", user.getId());
+        json.put("name", user.getName());
+        json.put("email", user.getEmail());
+        json.put("role", user.getRole());
+        json.put("driver", user instanceof Driver);
+        return json;
+    }
+
+    static User user(Map<String, Object> json) {
+        int id = integer(json, "id");
+        String name = (String) json.get("name");
+        String email = (String) json.get("email");
+        String role = (String) json.get("role");
+        if (Boolean.TRUE.equals(json.get("driver"))) {
+            return new Driver(id, name, email, null, role);
+        }
+        return new Passenger(id, name, email, null, role);
+    }
+
+    static int integer(Map<String, Object> json, String key) {
+        Object value = json.get(key);
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException("Missing number '" + key + "'");
+        }
+        return ((Number) value).intValue();
+    }
+
+    static Integer optionalInteger(Map<String, Object> json, String key) {
+        Object value = json.get(key);
+        return value == null ? null : ((Number) value).intValue();
+    }
+
+    static String string(Map<String, Object> json, String key) {
+        Object value = json.get(key);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("Missing text '" + key + "'");
+        }
+        return (String) value;
+    }
+
+    static LocalDateTime time(Map<String, Object> json, String key) {
+        Object value = json.get(key);
+        return value == null ? null : LocalDateTime.parse((String) value);
+    }
+}
@@ -0,0 +1,47 @@
+package com.teetime.remote;
+
+import com.teetime.domain.User;
+import com.teetime.exception.InvalidLoginException;
+import com.teetime.service.AuthApi;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// AuthApi backed by a RideServer; see RemoteRideService. Users come back
+// without their password hash.
+public class RemoteAuthService implements AuthApi {
+    private final RemoteClient client;
+
+    public RemoteAuthService(RemoteClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public User login(String email, String password) throws InvalidLoginException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("email", email);
+        body.put("password", password);
+        try {
+            return user(client.post("login", body));
+        } catch (InvalidLoginException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new InvalidLoginException(e.getMessage());
+        }
+    }
+
+    @Override
+    public User register(String name, String email, String password, String role) throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("name", name);
+        body.put("email", email);
+        body.put("password", password);
+        body.put("role", role);
+        return user(client.post("users", body));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static User user(Object json) {
+        return JsonMapping.user((Map<String, Object>) json);
+    }
+}
@@ -0,0 +1,128 @@
+package com.teetime.remote;
+
+import com.teetime.exception.CapacityExceededException;
+import com.teetime.exception.InvalidLoginException;
+import com.teetime.exception.RideNotAvailableException;
+import com.teetime.exception.StorageException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+// The HTTP side of RemoteRideService and RemoteAuthService: JSON requests to
+// a RideServer over kept-alive HTTP/1.1 connections. Errors come back as the
+// exceptions the local services throw; an unreachable or failing server is a
+// StorageException, as a failing local store would be. Safe for concurrent use.
+public final class RemoteClient {
+    static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI base;
+    private final HttpClient http;
+
+    // e.g. http://localhost:8080
+    public RemoteClient(String serverUrl) {
+        this.base = URI.create(serverUrl.endsWith("/") ? serverUrl : serverUrl + "/");
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public URI getBase() {
+        return base;
+    }
+
+    Object get(String path) throws Exception {
+        return send("GET", path, null, REQUEST_TIMEOUT);
+    }
+
+    Object get(String path, Duration timeout) throws Exception {
+        return send("GET", path, null, timeout);
+    }
+
+    Object post(String path, Map<String, Object> body) throws Exception {
+        return send("POST", path, body, REQUEST_TIMEOUT);
+    }
+
+    // For service methods that declare no checked exceptions
+    Object getUnchecked(String path) {
+        return unchecked("GET", path);
+    }
+
+    Object deleteUnchecked(String path) {
+        return unchecked("DELETE", path);
+    }
+
+    private Object unchecked(String method, String path) {
+        try {
+            return send(method, path, null, REQUEST_TIMEOUT);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new StorageException("Server rejected " + method + " " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    static String encode(Object value) {
+        return URLEncoder.encode(String.valueOf(value), StandardCharsets.UTF_8);
+    }
+
+    private Object send(String method, String path, Map<String, Object> body, Duration timeout) throws Exception {
+        HttpRequest.BodyPublisher publisher = body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(Json.write(body), StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder(base.resolve("api/" + path))
+                .timeout(timeout)
+                .header("Content-Type", "application/json; charset=utf-8")
+                .header("Accept", "application/json")
+                .method(method, publisher)
+                .build();
+
+        HttpResponse<String> response;
+        try {
+            response = http.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new StorageException("Server " + base + " unreachable: " + e.getMessage(), e);
+        }
+
+        Object json;
+        try {
+            json = response.body().isEmpty() ? null : Json.parse(response.body());
+        } catch (IllegalArgumentException e) {
+            throw new StorageException("Server sent an unreadable reply (HTTP " + response.statusCode() + ")", e);
+        }
+        if (response.statusCode() == 200) {
+            return json;
+        }
+        throw failure(response.statusCode(), json);
+    }
+
+    private static Exception failure(int status, Object json) {
+        String message = "HTTP " + status;
+        String type = "";
+        if (json instanceof Map) {
+            Map<?, ?> error = (Map<?, ?>) json;
+            message = String.valueOf(error.get("error"));
+            type = String.valueOf(error.get("type"));
+        }
+        switch (type) {
+            case "InvalidLoginException":
+                return new InvalidLoginException(message);
+            case "RideNotAvailableException":
+                return new RideNotAvailableException(message);
+            case "CapacityExceededException":
+                return new CapacityExceededException(message);
+            default:
+                if (status == 400 || status == 422) {
+                    return new Exception(message);
+                }
+                return new StorageException("Server failed (HTTP " + status + "): " + message, null);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.teetime.remote;
+
+import com.teetime.domain.Car;
+import com.teetime.domain.Ride;
+import com.teetime.service.RideApi;
+import com.teetime.service.RideEvent;
+import com.teetime.service.RideEventBus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+// RideApi backed by a RideServer instead of a local store, so several GUIs
+// can share one. Subscribers hear about every ride change made on the
+// server, whoever made it: the first subscription starts a thread long
+// polling the server's ride changes and publishing them on this service's
+// own bus.
+public class RemoteRideService implements RideApi, AutoCloseable {
+    static final long POLL_WAIT_MILLIS = 25_000;
+    private static final long RETRY_MILLIS = 1000;
+
+    private final RemoteClient client;
+    private final RideEventBus bus;
+    private Thread poller;
+    private volatile boolean closed;
+
+    public RemoteRideService(RemoteClient client) {
+        this.client = client;
+        this.bus = new RideEventBus();
+    }
+
+    @Override
+    public RideEventBus.Subscription subscribe(Predicate<Ride> filter, Executor executor,
+                                               RideEventBus.Listener listener) {
+        RideEventBus.Subscription subscription = bus.subscribe(filter, executor, listener);
+        startPolling();
+        return subscription;
+    }
+
+    @Override
+    public Ride createRideRequest(int passengerId, String origin, String destination,
+                                  LocalDateTime time, int seatsNeeded) throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("passengerId", passengerId);
+        body.put("origin", origin);
+        body.put("destination", destination);
+        body.put("time", time == null ? null : time.toString());
+        body.put("seatsNeeded", seatsNeeded);
+        return ride(client.post("rides", body));
+    }
+
+    @Override
+    public void acceptRide(Ride ride, int driverId, int carId) throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("driverId", driverId);
+        body.put("carId", carId);
+        Ride accepted = ride(client.post("rides/" + ride.getId() + "/accept", body));
+        ride.setDriverId(accepted.getDriverId());
+        ride.setCarId(accepted.getCarId());
+        ride.setStatus(accepted.getStatus());
+    }
+
+    @Override
+    public Ride completeRide(int rideId) throws Exception {
+        return ride(client.post("rides/" + rideId + "/complete", new LinkedHashMap<>()));
+    }
+
+    @Override
+    public List<Ride> getPendingRides() {
+        return JsonMapping.rides(client.getUnchecked("rides/pending"));
+    }
+
+    @Override
+    public List<Ride> getUpcomingPendingRides(Duration window) {
+        LocalDateTime now = LocalDateTime.now();
+        return getPendingRidesBetween(now, now.plus(window));
+    }
+
+    @Override
+    public List<Ride> getPendingRidesBetween(LocalDateTime from, LocalDateTime to) {
+        return JsonMapping.rides(client.getUnchecked("rides/pending?from=" + RemoteClient.encode(from)
+                + "&to=" + RemoteClient.encode(to)));
+    }
+
+    @Override
+    public List<Ride> getRidesByPassengerId(int passengerId) {
+        return JsonMapping.rides(client.getUnchecked("rides?passengerId=" + passengerId));
+    }
+
+    @Override
+    public List<Ride> getRidesByDriverId(int driverId) {
+        return JsonMapping.rides(client.getUnchecked("rides?driverId=" + driverId));
+    }
+
+    @Override
+    public List<Ride> getPendingRidesFrom(String origin) {
+        return JsonMapping.rides(client.getUnchecked("rides/pending?origin=" + RemoteClient.encode(origin)));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Car addCar(int driverId, String plate, String brand, int seats) throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("driverId", driverId);
+        body.put("plate", plate);
+        body.put("brand", brand);
+        body.put("seats", seats);
+        return JsonMapping.car((Map<String, Object>) client.post("cars", body));
+    }
+
+    @Override
+    public List<Car> getCarsByDriverId(int driverId) {
+        return JsonMapping.cars(client.getUnchecked("users/" + driverId + "/cars"));
+    }
+
+    @Override
+    public void deleteCar(int carId) {
+        client.deleteUnchecked("cars/" + carId);
+    }
+
+    // Stops following ride changes; calls keep working
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (poller != null) {
+            poller.interrupt();
+        }
+    }
+
+    private synchronized void startPolling() {
+        if (poller != null || closed) {
+            return;
+        }
+        poller = new Thread(this::poll, "teetime-remote-changes");
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    // The first reply only gives the server's current sequence; changes made
+    // before it may have been missed by loads already done, so subscribers
+    // reload once. After that every reply brings the rides written since the
+    // previous one, and a failed poll is retried from the same sequence.
+    @SuppressWarnings("unchecked")
+    private void poll() {
+        long seq = -1;
+        while (!closed) {
+            try {
+                Map<String, Object> reply = (Map<String, Object>) client.get(
+                        "rides/changes?after=" + seq + "&waitMs=" + POLL_WAIT_MILLIS,
+                        Duration.ofMillis(POLL_WAIT_MILLIS).plus(RemoteClient.REQUEST_TIMEOUT));
+                long next = ((Number) reply.get("seq")).longValue();
+                if (seq < 0 || Boolean.TRUE.equals(reply.get("resync"))) {
+                    bus.resyncAll();
+                } else {
+                    for (Ride ride : JsonMapping.rides(reply.get("rides"))) {
+                        bus.publish(new RideEvent(eventType(ride), ride));
+                    }
+                }
+                seq = next;
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                if (closed) {
+                    return;
+                }
+                System.err.println("Following ride changes failed: " + e.getMessage());
+                try {
+                    Thread.sleep(RETRY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static RideEvent.Type eventType(Ride ride) {
+        switch (ride.getStatus()) {
+            case CONFIRMED:
+                return RideEvent.Type.ACCEPTED;
+            case COMPLETED:
+                return RideEvent.Type.COMPLETED;
+            case CANCELLED:
+                return RideEvent.Type.CANCELLED;
+            default:
+                return RideEvent.Type.CREATED;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Ride ride(Object json) {
+        return JsonMapping.ride((Map<String, Object>) json);
+    }
+}
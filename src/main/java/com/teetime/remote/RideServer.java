@@ -0,0 +1,420 @@
+package com.teetime.remote;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.teetime.database.DataStore;
+import com.teetime.database.DataStores;
+import com.teetime.domain.Ride;
+import com.teetime.exception.CapacityExceededException;
+import com.teetime.exception.InvalidLoginException;
+import com.teetime.exception.RideNotAvailableException;
+import com.teetime.service.AuthService;
+import com.teetime.service.RideEvent;
+import com.teetime.service.RideEventBus;
+import com.teetime.service.RideExpirySweeper;
+import com.teetime.service.RideService;
+import com.teetime.service.ServiceExecutor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Headless TeeTime backend: AuthService and RideService over one store,
+// served as JSON over HTTP/1.1 so several GUIs (RemoteRideService,
+// RemoteAuthService) can share it. Each request runs on its own thread,
+// virtual when the JVM has them; connections are kept alive between requests.
+// There is no authentication or TLS, so only serve trusted networks.
+//
+// Clients follow ride changes by long polling /api/rides/changes with the
+// last ride modification sequence they saw; the poll returns as soon as a
+// ride is written, or empty after `waitMs`.
+public final class RideServer {
+    public static final int DEFAULT_PORT = 8080;
+    static final long MAX_WAIT_MILLIS = 30_000;
+    // Requests in flight at once when there are no virtual threads; each long
+    // poll holds one for up to MAX_WAIT_MILLIS
+    static final int MAX_PLATFORM_THREADS = 256;
+    // Beyond this many changed rides a poll tells the client to reload instead
+    static final int MAX_CHANGES = 5000;
+    // Larger request bodies are refused with 413 before they are buffered
+    static final int MAX_BODY_BYTES = 1 << 20;
+
+    private static final class HttpError extends Exception {
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private final DataStore db;
+    private final RideService rides;
+    private final AuthService auth;
+    private final RideEventBus events;
+    // Completed and replaced on every published ride change, to wake long
+    // polls without a shared monitor (which would also pin virtual threads)
+    private final AtomicReference<CompletableFuture<Void>> nextChange =
+            new AtomicReference<>(new CompletableFuture<>());
+    private HttpServer server;
+    private ExecutorService executor;
+    private RideEventBus.Subscription wakeups;
+    private volatile boolean stopping;
+
+    public RideServer(DataStore db) {
+        this(db, RideEventBus.getDefault());
+    }
+
+    public RideServer(DataStore db, RideEventBus events) {
+        this.db = db;
+        this.events = events;
+        this.rides = new RideService(db, events);
+        this.auth = new AuthService(db);
+    }
+
+    public synchronized void start(InetSocketAddress address) throws IOException {
+        if (server != null) {
+            return;
+        }
+        stopping = false;
+        wakeups = events.subscribe(null, Runnable::run, new RideEventBus.Listener() {
+            @Override
+            public void onEvents(List<RideEvent> changes) {
+                wakeUp();
+            }
+
+            @Override
+            public void onResync() {
+                wakeUp();
+            }
+        });
+        executor = ServiceExecutor.perTask(MAX_PLATFORM_THREADS);
+        server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+        server.start();
+    }
+
+    public synchronized int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Long polls in flight return at once; the store is left open
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        stopping = true;
+        wakeUp();
+        wakeups.close();
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+
+    private void wakeUp() {
+        nextChange.getAndSet(new CompletableFuture<>()).complete(null);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int status = 200;
+        Object body;
+        try {
+            List<String> path = new ArrayList<>(Arrays.asList(exchange.getRequestURI().getPath().split("/")));
+            path.removeIf(String::isEmpty);
+            path.remove(0); // "api"
+            body = route(exchange.getRequestMethod(), path, query(exchange.getRequestURI().getRawQuery()),
+                    readBody(exchange));
+        } catch (HttpError e) {
+            status = e.status;
+            body = error(e.getMessage(), "HttpError");
+        } catch (InvalidLoginException e) {
+            status = 401;
+            body = error(e);
+        } catch (RideNotAvailableException e) {
+            status = 409;
+            body = error(e);
+        } catch (CapacityExceededException e) {
+            status = 422;
+            body = error(e);
+        } catch (IllegalArgumentException | DateTimeException | ClassCastException e) {
+            status = 400;
+            body = error("Bad request: " + e.getMessage(), "BadRequest");
+        } catch (RuntimeException e) {
+            status = 500;
+            body = error(e);
+        } catch (Exception e) {
+            // Validation failures from the services
+            status = 400;
+            body = error(e);
+        } catch (Throwable e) {
+            status = 500;
+            body = error("Internal error", e.getClass().getSimpleName());
+        }
+
+        try {
+            byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Object route(String method, List<String> path, Map<String, String> query, Map<String, Object> body)
+            throws Exception {
+        String resource = path.isEmpty() ? "" : path.get(0);
+        int size = path.size();
+        switch (method + " " + resource) {
+            case "POST login":
+                if (size == 1) {
+                    return JsonMapping.user(auth.login(JsonMapping.string(body, "email"),
+                            JsonMapping.string(body, "password")));
+                }
+                break;
+            case "POST users":
+                if (size == 1) {
+                    return JsonMapping.user(auth.register(JsonMapping.string(body, "name"),
+                            JsonMapping.string(body, "email"), JsonMapping.string(body, "password"),
+                            JsonMapping.string(body, "role")));
+                }
+                break;
+            case "GET users":
+                if (size == 3 && path.get(2).equals("cars")) {
+                    return JsonMapping.cars(rides.getCarsByDriverId(id(path.get(1))));
+                }
+                break;
+            case "POST cars":
+                if (size == 1) {
+                    return JsonMapping.car(rides.addCar(JsonMapping.integer(body, "driverId"),
+                            JsonMapping.string(body, "plate"), JsonMapping.string(body, "brand"),
+                            JsonMapping.integer(body, "seats")));
+                }
+                break;
+            case "DELETE cars":
+                if (size == 2) {
+                    rides.deleteCar(id(path.get(1)));
+                    return new LinkedHashMap<>();
+                }
+                break;
+            case "GET rides":
+                if (size == 1) {
+                    return JsonMapping.rides(ridesOf(query));
+                }
+                if (size == 2 && path.get(1).equals("pending")) {
+                    return JsonMapping.rides(pending(query));
+                }
+                if (size == 2 && path.get(1).equals("changes")) {
+                    return changes(number(query, "after", -1), number(query, "waitMs", 0));
+                }
+                break;
+            case "POST rides":
+                if (size == 1) {
+                    return JsonMapping.ride(rides.createRideRequest(JsonMapping.integer(body, "passengerId"),
+                            JsonMapping.string(body, "origin"), JsonMapping.string(body, "destination"),
+                            LocalDateTime.parse(JsonMapping.string(body, "time")),
+                            JsonMapping.integer(body, "seatsNeeded")));
+                }
+                if (size == 3 && path.get(2).equals("accept")) {
+                    Ride ride = existingRide(path.get(1));
+                    rides.acceptRide(ride, JsonMapping.integer(body, "driverId"), JsonMapping.integer(body, "carId"));
+                    return JsonMapping.ride(ride);
+                }
+                if (size == 3 && path.get(2).equals("complete")) {
+                    return JsonMapping.ride(rides.completeRide(existingRide(path.get(1)).getId()));
+                }
+                break;
+            default:
+                break;
+        }
+        throw new HttpError(404, "No such resource: " + method + " /api/" + String.join("/", path));
+    }
+
+    private List<Ride> ridesOf(Map<String, String> query) throws HttpError {
+        if (query.containsKey("passengerId")) {
+            return rides.getRidesByPassengerId(id(query.get("passengerId")));
+        }
+        if (query.containsKey("driverId")) {
+            return rides.getRidesByDriverId(id(query.get("driverId")));
+        }
+        throw new HttpError(400, "passengerId or driverId is required");
+    }
+
+    private List<Ride> pending(Map<String, String> query) {
+        if (query.containsKey("origin")) {
+            return rides.getPendingRidesFrom(query.get("origin"));
+        }
+        if (query.containsKey("from") && query.containsKey("to")) {
+            return rides.getPendingRidesBetween(LocalDateTime.parse(query.get("from")),
+                    LocalDateTime.parse(query.get("to")));
+        }
+        return rides.getPendingRides();
+    }
+
+    private Ride existingRide(String id) throws HttpError {
+        Ride ride = db.getRideById(id(id));
+        if (ride == null) {
+            throw new HttpError(404, "Ride " + id + " not found");
+        }
+        return ride;
+    }
+
+    // Rides written after `after`, waiting up to `waitMs` for one if there
+    // are none yet. `after` below zero just asks for the current sequence; a
+    // sequence ahead of the store's (the server restarted over another
+    // store), or too many changes, tells the client to reload everything.
+    Map<String, Object> changes(long after, long waitMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.min(Math.max(waitMs, 0), MAX_WAIT_MILLIS));
+        long seq;
+        while (true) {
+            // Taken before reading the sequence, so a write in between still wakes us
+            CompletableFuture<Void> next = nextChange.get();
+            seq = db.getLastRideModSeq();
+            long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (seq != after || stopping || left <= 0) {
+                break;
+            }
+            try {
+                // Capped, to notice writes made around this server's bus
+                next.get(Math.min(left, 1000), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                // Checked again above
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("seq", seq);
+        if (after < 0 || seq == after) {
+            result.put("rides", new ArrayList<>());
+            return result;
+        }
+        int[] ids = after > seq ? null : db.getRideIdsChangedBetween(after, seq);
+        if (ids == null || ids.length > MAX_CHANGES) {
+            result.put("resync", true);
+            return result;
+        }
+        List<Ride> changedRides = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Ride ride = db.getRideById(id);
+            if (ride != null) {
+                changedRides.add(ride);
+            }
+        }
+        result.put("rides", JsonMapping.rides(changedRides));
+        return result;
+    }
+
+    private static Map<String, Object> error(Exception e) {
+        return error(e.getMessage(), e.getClass().getSimpleName());
+    }
+
+    private static Map<String, Object> error(String message, String type) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("error", message);
+        json.put("type", type);
+        return json;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException, HttpError {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new HttpError(413, "Request body is larger than " + MAX_BODY_BYTES + " bytes");
+            }
+            String text = new String(bytes, StandardCharsets.UTF_8);
+            if (text.isBlank()) {
+                return new HashMap<>();
+            }
+            Object json = Json.parse(text);
+            if (!(json instanceof Map)) {
+                throw new IllegalArgumentException("Expected a JSON object");
+            }
+            return (Map<String, Object>) json;
+        }
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> query = new HashMap<>();
+        if (raw == null || raw.isEmpty()) {
+            return query;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static int id(String text) throws HttpError {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new HttpError(404, "Not an id: " + text);
+        }
+    }
+
+    private static long number(Map<String, String> query, String key, long otherwise) {
+        String value = query.get(key);
+        return value == null ? otherwise : Long.parseLong(value);
+    }
+
+    // Serves the default store (see DataStores) until the process is stopped:
+    // --port N (default 8080), --host H (default localhost; 0.0.0.0 for
+    // every interface)
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        String host = "localhost";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--host":
+                    host = args[i + 1];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        DataStore db = DataStores.getDefault();
+        RideServer server = new RideServer(db);
+        server.start(new InetSocketAddress(host, port));
+        RideExpirySweeper expirySweeper = new RideExpirySweeper(db, RideExpirySweeper.DEFAULT_GRACE);
+        expirySweeper.start(RideExpirySweeper.DEFAULT_PERIOD);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            expirySweeper.stop();
+            db.close();
+        }, "teetime-server-shutdown"));
+        System.out.println("TeeTime server listening on " + host + ":" + server.getPort());
+    }
+}
@@ -0,0 +1,30 @@
+package com.teetime.service;
+
+import com.teetime.domain.User;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+// AuthApi with every call run on a ServiceExecutor; see AsyncRideService
+public class AsyncAuthService {
+    private final AuthApi auth;
+    private final ExecutorService executor;
+
+    public AsyncAuthService() {
+        this(Services.auth(), ServiceExecutor.shared());
+    }
+
+    public AsyncAuthService(AuthApi auth, ExecutorService executor) {
+        this.auth = auth;
+        this.executor = executor;
+    }
+
+    // Fails with InvalidLoginException on a wrong email or password
+    public CompletableFuture<User> login(String email, String password) {
+        return ServiceExecutor.submit(executor, () -> auth.login(email, password));
+    }
+
+    public CompletableFuture<User> register(String name, String email, String password, String role) {
+        return ServiceExecutor.submit(executor, () -> auth.register(name, email, password, role));
+    }
+}
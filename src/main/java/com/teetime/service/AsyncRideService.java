@@ -0,0 +1,91 @@
+package com.teetime.service;
+
+import com.teetime.domain.Car;
+import com.teetime.domain.Ride;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Predicate;
+
+// RideApi with every call run on a ServiceExecutor. Futures complete on
+// an executor thread, failing with the exception the blocking call throws
+// (e.g. RideNotAvailableException), so callers must hop back to their own
+// thread (the GUI via Platform.runLater) before touching the UI.
+public class AsyncRideService {
+    private final RideApi rides;
+    private final ExecutorService executor;
+
+    public AsyncRideService() {
+        this(Services.rides(), ServiceExecutor.shared());
+    }
+
+    public AsyncRideService(RideApi rides, ExecutorService executor) {
+        this.rides = rides;
+        this.executor = executor;
+    }
+
+    // Events are delivered on `deliverOn`, not on the service executor
+    public RideEventBus.Subscription subscribe(Predicate<Ride> filter, Executor deliverOn,
+                                               RideEventBus.Listener listener) {
+        return rides.subscribe(filter, deliverOn, listener);
+    }
+
+    public CompletableFuture<Ride> createRideRequest(int passengerId, String origin, String destination,
+                                                     LocalDateTime time, int seatsNeeded) {
+        return ServiceExecutor.submit(executor,
+                () -> rides.createRideRequest(passengerId, origin, destination, time, seatsNeeded));
+    }
+
+    // Completes with a copy of the ride in its accepted state. The caller's
+    // Ride is copied on the calling thread and never touched afterwards, so it
+    // may be a row the UI is showing.
+    public CompletableFuture<Ride> acceptRide(Ride ride, int driverId, int carId) {
+        Ride copy = RideEvent.copy(ride);
+        return ServiceExecutor.submit(executor, () -> {
+            rides.acceptRide(copy, driverId, carId);
+            return copy;
+        });
+    }
+
+    // Completes with the stored ride in its completed state; only the id of
+    // the caller's Ride is read
+    public CompletableFuture<Ride> completeRide(Ride ride) {
+        int rideId = ride.getId();
+        return ServiceExecutor.submit(executor, () -> rides.completeRide(rideId));
+    }
+
+    public CompletableFuture<List<Ride>> getUpcomingPendingRides(Duration window) {
+        return ServiceExecutor.submit(executor, () -> rides.getUpcomingPendingRides(window));
+    }
+
+    public CompletableFuture<List<Ride>> getPendingRidesBetween(LocalDateTime from, LocalDateTime to) {
+        return ServiceExecutor.submit(executor, () -> rides.getPendingRidesBetween(from, to));
+    }
+
+    public CompletableFuture<List<Ride>> getRidesByPassengerId(int passengerId) {
+        return ServiceExecutor.submit(executor, () -> rides.getRidesByPassengerId(passengerId));
+    }
+
+    public CompletableFuture<List<Ride>> getRidesByDriverId(int driverId) {
+        return ServiceExecutor.submit(executor, () -> rides.getRidesByDriverId(driverId));
+    }
+
+    public CompletableFuture<Car> addCar(int driverId, String plate, String brand, int seats) {
+        return ServiceExecutor.submit(executor, () -> rides.addCar(driverId, plate, brand, seats));
+    }
+
+    public CompletableFuture<List<Car>> getCarsByDriverId(int driverId) {
+        return ServiceExecutor.submit(executor, () -> rides.getCarsByDriverId(driverId));
+    }
+
+    public CompletableFuture<Void> deleteCar(int carId) {
+        return ServiceExecutor.submit(executor, () -> {
+            rides.deleteCar(carId);
+            return null;
+        });
+    }
+}
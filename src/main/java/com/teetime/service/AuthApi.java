@@ -0,0 +1,13 @@
+package com.teetime.service;
+
+import com.teetime.domain.User;
+import com.teetime.exception.InvalidLoginException;
+
+// Login and sign-up as clients see them, local (AuthService) or remote
+// (RemoteAuthService). Imports stay on AuthService.
+public interface AuthApi {
+
+    User login(String email, String password) throws InvalidLoginException;
+
+    User register(String name, String email, String password, String role) throws Exception;
+}
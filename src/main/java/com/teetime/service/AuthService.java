@@ -1,19 +1,28 @@
 package com.teetime.service;
 
-import com.teetime.database.DatabaseManager;
+import com.teetime.database.DataStore;
+import com.teetime.database.DataStores;
 import com.teetime.domain.User;
 import com.teetime.exception.InvalidLoginException;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.security.MessageDigest;
-import java.sql.SQLException;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
-public class AuthService {
-    private DatabaseManager db;
+public class AuthService implements AuthApi {
+    private DataStore db;
 
     public AuthService() {
-        this.db = DatabaseManager.getInstance();
+        this(DataStores.getDefault());
     }
 
+    public AuthService(DataStore db) {
+        this.db = db;
+    }
+
+    @Override
     public User login(String email, String password) throws InvalidLoginException {
         User user = db.getUserByEmail(email);
         if (user == null) {
@@ -28,6 +37,7 @@ public class AuthService {
         return user;
     }
 
+    @Override
     public User register(String name, String email, String password, String role) throws Exception {
         // Validate email domain
         if (!email.contains("@student.ie.edu") && !email.contains("@ie.edu")) {
@@ -58,6 +68,33 @@ public class AuthService {
         }
     }
 
+    // Registers users in bulk, e.g. a cohort exported from another system.
+    // Passwords arrive already hashed; emails that are taken are rejected.
+    public ImportResult importUsers(Stream<User> users) {
+        return BulkImporter.run(users, Function.identity(), this::validateImportedUser, db::importUsers, "Email already registered");
+    }
+
+    public ImportResult importUsersFromCSV(Path file) throws IOException {
+        CSVImportService csv = new CSVImportService();
+        try (Stream<String> records = csv.records(file)) {
+            return BulkImporter.run(records, csv::parseUser, this::validateImportedUser, db::importUsers, "Email already registered");
+        }
+    }
+
+    private String validateImportedUser(User user) {
+        String email = user.getEmail();
+        if (email == null || (!email.contains("@student.ie.edu") && !email.contains("@ie.edu"))) {
+            return "Email must be a valid IE University email";
+        }
+        if (user.getName() == null || user.getName().trim().isEmpty()) {
+            return "Name cannot be empty";
+        }
+        if (user.getPasswordHash() == null || user.getPasswordHash().isEmpty()) {
+            return "Password hash cannot be empty";
+        }
+        return null;
+    }
+
     private String hashPassword(String password) {
         try {
             MessageDigest md = MessageDigest.getInstance("SHA-256");
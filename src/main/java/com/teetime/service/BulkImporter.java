@@ -0,0 +1,83 @@
+package com.teetime.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Feeds a stream of records to a DataStore bulk call in batches. Each batch is
+// parsed and validated in parallel, then its valid records are stored in one
+// call, so a million-row import makes a few dozen store calls instead of a
+// million. Records keep their input order.
+final class BulkImporter {
+    static final int BATCH_SIZE = 50_000;
+
+    private BulkImporter() {}
+
+    // parse may throw IllegalArgumentException and validate returns an error
+    // message or null; both reject just that record. store returns the new ids,
+    // -1 for a record it refused, which is reported as `refusedMessage`.
+    static <S, T> ImportResult run(Stream<S> source, Function<S, T> parse, Function<T, String> validate,
+                                   Function<List<T>, int[]> store, String refusedMessage) {
+        int imported = 0;
+        int rejected = 0;
+        List<String> errors = new ArrayList<>();
+        long firstRecord = 1;
+        Iterator<S> it = source.iterator();
+        List<S> raw = new ArrayList<>(BATCH_SIZE);
+        while (it.hasNext()) {
+            raw.clear();
+            while (it.hasNext() && raw.size() < BATCH_SIZE) {
+                raw.add(it.next());
+            }
+
+            Object[] outcomes = new Object[raw.size()]; // a parsed record or its error message
+            IntStream.range(0, outcomes.length).parallel().forEach(i -> {
+                try {
+                    T record = parse.apply(raw.get(i));
+                    String error = validate.apply(record);
+                    outcomes[i] = error != null ? error : record;
+                } catch (IllegalArgumentException e) {
+                    outcomes[i] = e.getMessage();
+                }
+            });
+
+            List<T> valid = new ArrayList<>(outcomes.length);
+            int[] validAt = new int[outcomes.length];
+            for (int i = 0; i < outcomes.length; i++) {
+                if (!(outcomes[i] instanceof String)) {
+                    @SuppressWarnings("unchecked")
+                    T record = (T) outcomes[i];
+                    validAt[valid.size()] = i;
+                    valid.add(record);
+                }
+            }
+            if (!valid.isEmpty()) {
+                int[] ids = store.apply(valid);
+                for (int v = 0; v < ids.length; v++) {
+                    if (ids[v] <= 0) {
+                        outcomes[validAt[v]] = refusedMessage;
+                    }
+                }
+            }
+            for (int i = 0; i < outcomes.length; i++) {
+                if (outcomes[i] instanceof String) {
+                    rejected++;
+                    addError(errors, firstRecord + i, (String) outcomes[i]);
+                } else {
+                    imported++;
+                }
+            }
+            firstRecord += outcomes.length;
+        }
+        return new ImportResult(imported, rejected, errors);
+    }
+
+    private static void addError(List<String> errors, long recordNumber, String message) {
+        if (errors.size() < ImportResult.MAX_ERRORS) {
+            errors.add("Record " + recordNumber + ": " + message);
+        }
+    }
+}
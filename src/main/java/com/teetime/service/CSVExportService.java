@@ -2,31 +2,365 @@ package com.teetime.service;
 
 import com.teetime.domain.Ride;
 
-import java.io.FileWriter;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 
-public class CSVExportService {
+// Writes rides as RFC 4180 CSV (CRLF line ends, places quoted when they hold
+// a comma, quote or line break), optionally gzip-compressed. Rows are
+// streamed: each is formatted into one reused buffer (no String.format or
+// toString per field) and written through a 64 KB buffered writer.
+// exportRidesParallel formats chunks of rows on a fork-join pool instead and
+// produces the same bytes (for gzip, the same text split into gzip members).
+public class CSVExportService implements RideExporter {
+    public static final String HEADER = "ID,Passenger ID,Driver ID,Car ID,Origin,Destination,Time,Seats Needed,Status,Price\r\n";
+
+    // How often (in rows) the progress callback runs
+    public static final int PROGRESS_INTERVAL = 10_000;
+
+    private static final int WRITE_BUFFER = 1 << 16;
+
+    // Rows per parallel chunk, about 1 MB of CSV
+    static final int CHUNK_ROWS = 16_384;
+
+    private final boolean gzip;
+
+    public CSVExportService() {
+        this(false);
+    }
+
+    private CSVExportService(boolean gzip) {
+        this.gzip = gzip;
+    }
+
+    public static CSVExportService gzipped() {
+        return new CSVExportService(true);
+    }
+
+    @Override
+    public String getName() {
+        return gzip ? "Gzipped CSV" : "CSV";
+    }
+
+    @Override
+    public String getExtension() {
+        return gzip ? "csv.gz" : "csv";
+    }
+
+    @Override
+    public long export(Iterator<Ride> rides, Path file, Progress progress) throws IOException {
+        return exportRidesParallel(rides, file, progress);
+    }
 
     public void exportRidesToCSV(List<Ride> rides, String filename) throws IOException {
-        try (FileWriter writer = new FileWriter(filename)) {
-            // Write header
-            writer.append("ID,Passenger ID,Driver ID,Car ID,Origin,Destination,Time,Seats Needed,Status,Price\n");
-            
-            // Write data
-            for (Ride ride : rides) {
-                writer.append(String.valueOf(ride.getId())).append(",");
-                writer.append(String.valueOf(ride.getPassengerId())).append(",");
-                writer.append(ride.getDriverId() != null ? String.valueOf(ride.getDriverId()) : "").append(",");
-                writer.append(ride.getCarId() != null ? String.valueOf(ride.getCarId()) : "").append(",");
-                writer.append(ride.getOrigin()).append(",");
-                writer.append(ride.getDestination()).append(",");
-                writer.append(ride.getTime().toString()).append(",");
-                writer.append(String.valueOf(ride.getSeatsNeeded())).append(",");
-                writer.append(ride.getStatus().toString()).append(",");
-                writer.append(String.format("%.2f", ride.getPriceEstimate())).append("\n");
+        exportRides(rides.iterator(), Paths.get(filename), Progress.NONE);
+    }
+
+    public long exportRides(Stream<Ride> rides, Path file) throws IOException {
+        return exportRides(rides.iterator(), file, Progress.NONE);
+    }
+
+    // Single-threaded; same contract as export
+    public long exportRides(Iterator<Ride> rides, Path file, Progress progress) throws IOException {
+        long rows;
+        boolean finished = false;
+        try (Writer writer = open(file, false)) {
+            writer.write(HEADER);
+            rows = writeRows(writer, rides, progress);
+            finished = true;
+        } finally {
+            if (!finished) {
+                Files.deleteIfExists(file);
             }
         }
+        progress.update(rows);
+        return rows;
+    }
+
+    // Adds rows to the end of an earlier export (as a new gzip member when
+    // gzipped), or exports with a header if the file does not exist yet. On
+    // failure or cancellation the file is cut back to its previous length.
+    public long appendRides(Iterator<Ride> rides, Path file, Progress progress) throws IOException {
+        if (!Files.exists(file) || Files.size(file) == 0) {
+            return exportRides(rides, file, progress);
+        }
+        long previousSize = Files.size(file);
+        long rows;
+        boolean finished = false;
+        try (Writer writer = open(file, true)) {
+            rows = writeRows(writer, rides, progress);
+            finished = true;
+        } finally {
+            if (!finished) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(previousSize);
+                }
+            }
+        }
+        progress.update(rows);
+        return rows;
+    }
+
+    private Writer open(Path file, boolean append) throws IOException {
+        OutputStream out = append
+                ? Files.newOutputStream(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)
+                : Files.newOutputStream(file);
+        if (gzip) {
+            out = fastGzip(out, WRITE_BUFFER);
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER);
+    }
+
+    private static long writeRows(Writer writer, Iterator<Ride> rides, Progress progress) throws IOException {
+        long rows = 0;
+        StringBuilder row = new StringBuilder(128);
+        char[] chars = new char[128];
+        while (rides.hasNext()) {
+            row.setLength(0);
+            appendRow(row, rides.next());
+            if (chars.length < row.length()) {
+                chars = new char[row.length() * 2];
+            }
+            row.getChars(0, row.length(), chars, 0);
+            writer.write(chars, 0, row.length());
+            rows++;
+            if (rows % PROGRESS_INTERVAL == 0 && !progress.update(rows)) {
+                throw new CancellationException("Export cancelled after " + rows + " rows");
+            }
+        }
+        return rows;
+    }
+
+    public long exportRidesParallel(Iterator<Ride> rides, Path file, Progress progress) throws IOException {
+        return exportRidesParallel(rides, file, ForkJoinPool.commonPool(), progress);
+    }
+
+    // Same output and contract as exportRides. The caller's thread pulls rides
+    // into chunks, the pool formats each chunk into its own buffer, and
+    // finished buffers are written in order with gathering writes. At most two
+    // chunks per pool thread are in memory at once. Progress runs per chunk.
+    public long exportRidesParallel(Iterator<Ride> rides, Path file, ForkJoinPool pool, Progress progress)
+            throws IOException {
+        int window = pool.getParallelism() * 2;
+        ArrayDeque<ForkJoinTask<Chunk>> inFlight = new ArrayDeque<>();
+        long rows = 0;
+        boolean finished = false;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, new ByteBuffer[] {encode(new StringBuilder(HEADER))});
+            List<ByteBuffer> ready = new ArrayList<>(window);
+            while (rides.hasNext() || !inFlight.isEmpty()) {
+                while (rides.hasNext() && inFlight.size() < window) {
+                    List<Ride> chunk = new ArrayList<>(CHUNK_ROWS);
+                    while (rides.hasNext() && chunk.size() < CHUNK_ROWS) {
+                        chunk.add(rides.next());
+                    }
+                    inFlight.add(pool.submit(() -> new Chunk(formatChunk(chunk), chunk.size())));
+                }
+                // Wait for the oldest chunk, then take every later one that is already done
+                do {
+                    Chunk chunk = inFlight.poll().join();
+                    ready.add(chunk.bytes);
+                    rows += chunk.rows;
+                } while (!inFlight.isEmpty() && inFlight.peek().isDone());
+                writeFully(channel, ready.toArray(new ByteBuffer[0]));
+                ready.clear();
+                if (!progress.update(rows)) {
+                    throw new CancellationException("Export cancelled after " + rows + " rows");
+                }
+            }
+            if (rows == 0) {
+                progress.update(0);
+            }
+            finished = true;
+        } finally {
+            if (!finished) {
+                for (ForkJoinTask<Chunk> task : inFlight) {
+                    task.cancel(false);
+                }
+                Files.deleteIfExists(file);
+            }
+        }
+        return rows;
     }
-}
 
+    private static final class Chunk {
+        final ByteBuffer bytes;
+        final int rows;
+
+        Chunk(ByteBuffer bytes, int rows) {
+            this.bytes = bytes;
+            this.rows = rows;
+        }
+    }
+
+    private ByteBuffer formatChunk(List<Ride> rides) throws IOException {
+        StringBuilder text = new StringBuilder(rides.size() * 80);
+        for (Ride ride : rides) {
+            appendRow(text, ride);
+        }
+        return encode(text);
+    }
+
+    // Gzip members may be concatenated, so each chunk is compressed on its own
+    private ByteBuffer encode(StringBuilder text) throws IOException {
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        if (!gzip) {
+            return ByteBuffer.wrap(bytes);
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream member = fastGzip(compressed, 512)) {
+            member.write(bytes);
+        }
+        return ByteBuffer.wrap(compressed.toByteArray());
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer[] buffers) throws IOException {
+        ByteBuffer last = buffers[buffers.length - 1];
+        while (last.hasRemaining()) {
+            channel.write(buffers);
+        }
+    }
+
+    // Level 1: CSV compresses nearly as well, several times faster than the default
+    private static GZIPOutputStream fastGzip(OutputStream out, int bufferSize) throws IOException {
+        return new GZIPOutputStream(out, bufferSize) {
+            {
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        };
+    }
+
+    static void appendRow(StringBuilder row, Ride ride) {
+        row.append(ride.getId()).append(',');
+        row.append(ride.getPassengerId()).append(',');
+        if (ride.getDriverId() != null) {
+            row.append(ride.getDriverId().intValue());
+        }
+        row.append(',');
+        if (ride.getCarId() != null) {
+            row.append(ride.getCarId().intValue());
+        }
+        row.append(',');
+        appendField(row, ride.getOrigin());
+        row.append(',');
+        appendField(row, ride.getDestination());
+        row.append(',');
+        appendTime(row, ride.getTime());
+        row.append(',');
+        row.append(ride.getSeatsNeeded()).append(',');
+        row.append(ride.getStatus().name()).append(',');
+        appendPrice(row, ride.getPriceEstimate());
+        row.append("\r\n");
+    }
+
+    static void appendField(StringBuilder out, String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    // Same text as LocalDateTime.toString()
+    static void appendTime(StringBuilder out, LocalDateTime time) {
+        int year = time.getYear();
+        if (year < 0 || year > 9999) {
+            out.append(time);
+            return;
+        }
+        appendDigits(out, year, 4);
+        out.append('-');
+        appendDigits(out, time.getMonthValue(), 2);
+        out.append('-');
+        appendDigits(out, time.getDayOfMonth(), 2);
+        out.append('T');
+        appendDigits(out, time.getHour(), 2);
+        out.append(':');
+        appendDigits(out, time.getMinute(), 2);
+        int second = time.getSecond();
+        int nano = time.getNano();
+        if (second > 0 || nano > 0) {
+            out.append(':');
+            appendDigits(out, second, 2);
+            if (nano > 0) {
+                out.append('.');
+                if (nano % 1_000_000 == 0) {
+                    appendDigits(out, nano / 1_000_000, 3);
+                } else if (nano % 1000 == 0) {
+                    appendDigits(out, nano / 1000, 6);
+                } else {
+                    appendDigits(out, nano, 9);
+                }
+            }
+        }
+    }
+
+    // Two decimals, half-up, always with a '.' whatever the default locale
+    static void appendPrice(StringBuilder out, double price) {
+        if (Double.isNaN(price) || Double.isInfinite(price) || Math.abs(price) >= 1e15) {
+            out.append(String.format(Locale.ROOT, "%.2f", price));
+            return;
+        }
+        double scaled = Math.abs(price) * 100;
+        double fraction = scaled - Math.floor(scaled);
+        long cents;
+        if (Math.abs(fraction - 0.5) < 1e-6) {
+            // Near a tie; %.2f rounds the shortest decimal form (Double.toString), so do the same
+            cents = BigDecimal.valueOf(Math.abs(price)).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+        } else {
+            cents = Math.round(scaled);
+        }
+        if (Double.doubleToRawLongBits(price) < 0) { // includes -0.0, as %.2f does
+            out.append('-');
+        }
+        out.append(cents / 100).append('.');
+        appendDigits(out, (int) (cents % 100), 2);
+    }
+
+    private static void appendDigits(StringBuilder out, int value, int width) {
+        for (int bound = 10, digits = 1; digits < width; bound *= 10, digits++) {
+            if (value < bound) {
+                out.append('0');
+            }
+        }
+        out.append(value);
+    }
+}
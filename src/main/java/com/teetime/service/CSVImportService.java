@@ -0,0 +1,108 @@
+package com.teetime.service;
+
+import com.teetime.domain.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Reads the CSV files bulk imports are fed from. Rides use the layout
+// CSVExportService writes (its ID column is ignored, imported rides get new
+// ids); users are "Name,Email,Password Hash,Role" and cars
+// "Driver ID,Plate,Brand,Seats". Every file starts with a header line and
+// fields may be quoted as RFC 4180 describes.
+public class CSVImportService {
+
+    // The data lines of the file; close the stream when done
+    public Stream<String> records(Path file) throws IOException {
+        return Files.lines(file).skip(1).filter(line -> !line.isBlank());
+    }
+
+    public Ride parseRide(String line) {
+        String[] fields = split(line, 10);
+        try {
+            Ride ride = new Ride();
+            ride.setPassengerId(Integer.parseInt(fields[1]));
+            ride.setDriverId(optionalInt(fields[2]));
+            ride.setCarId(optionalInt(fields[3]));
+            ride.setOrigin(fields[4]);
+            ride.setDestination(fields[5]);
+            ride.setTime(LocalDateTime.parse(fields[6]));
+            ride.setSeatsNeeded(Integer.parseInt(fields[7]));
+            ride.setStatus(RideStatus.valueOf(fields[8]));
+            ride.setPriceEstimate(Double.parseDouble(fields[9]));
+            return ride;
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed ride: " + e.getMessage(), e);
+        }
+    }
+
+    public User parseUser(String line) {
+        String[] fields = split(line, 4);
+        String role = fields[3];
+        return role.contains("DRIVER")
+                ? new Driver(0, fields[0], fields[1], fields[2], role)
+                : new Passenger(0, fields[0], fields[1], fields[2], role);
+    }
+
+    public Car parseCar(String line) {
+        String[] fields = split(line, 4);
+        try {
+            return new Car(Integer.parseInt(fields[0]), fields[1], fields[2], Integer.parseInt(fields[3]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed car: " + e.getMessage(), e);
+        }
+    }
+
+    // RFC 4180 fields; quoted fields may hold commas and doubled quotes but not line breaks
+    private static String[] split(String line, int columns) {
+        List<String> fields = new ArrayList<>(columns);
+        StringBuilder field = new StringBuilder();
+        int i = 0;
+        while (true) {
+            field.setLength(0);
+            if (i < line.length() && line.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i == line.length()) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    char c = line.charAt(i++);
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                if (i < line.length() && line.charAt(i) != ',') {
+                    throw new IllegalArgumentException("Unexpected text after a quoted field");
+                }
+            } else {
+                while (i < line.length() && line.charAt(i) != ',') {
+                    field.append(line.charAt(i++));
+                }
+            }
+            fields.add(field.toString());
+            if (i == line.length()) {
+                break;
+            }
+            i++; // the comma
+        }
+        if (fields.size() != columns) {
+            throw new IllegalArgumentException("Expected " + columns + " columns but found " + fields.size());
+        }
+        return fields.toArray(new String[0]);
+    }
+
+    private static Integer optionalInt(String field) {
+        return field.isEmpty() ? null : Integer.valueOf(field);
+    }
+}
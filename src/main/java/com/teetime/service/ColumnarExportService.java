@@ -0,0 +1,480 @@
+package com.teetime.service;
+
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Compact binary ride files for analytics, several times smaller and faster
+// to write than CSV. Layout: the magic "TTRC" and a version byte, then blocks
+// of up to BLOCK_ROWS rides and a final 0. Each block is
+//   varint rows, varint raw length, varint deflated length, deflated body
+// and its body holds the places first seen in the block (varint count, then
+// length-prefixed UTF-8), followed by one column per field: id deltas,
+// passenger, driver and car ids (0 for none), origin and destination as
+// indexes into the file's place dictionary, time as epoch-second deltas plus
+// nanos, seats, status ordinal and price in cents (or raw bits when the price
+// is not a whole number of cents). Signed values are zigzag varints.
+public class ColumnarExportService implements RideExporter {
+    static final int BLOCK_ROWS = 65_536;
+
+    private static final byte[] MAGIC = {'T', 'T', 'R', 'C'};
+    private static final int VERSION = 1;
+    private static final RideStatus[] STATUSES = RideStatus.values();
+
+    @Override
+    public String getName() {
+        return "Columnar (TeeTime)";
+    }
+
+    @Override
+    public String getExtension() {
+        return "ttrc";
+    }
+
+    @Override
+    public long export(Iterator<Ride> rides, Path file, Progress progress) throws IOException {
+        long rows = 0;
+        boolean finished = false;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            out.write(MAGIC);
+            out.write(VERSION);
+            BlockWriter writer = new BlockWriter();
+            List<Ride> block = new ArrayList<>(BLOCK_ROWS);
+            while (rides.hasNext()) {
+                block.clear();
+                while (rides.hasNext() && block.size() < BLOCK_ROWS) {
+                    block.add(rides.next());
+                }
+                writer.write(block, out);
+                rows += block.size();
+                if (!progress.update(rows)) {
+                    throw new CancellationException("Export cancelled after " + rows + " rows");
+                }
+            }
+            out.write(0);
+            if (rows == 0) {
+                progress.update(0);
+            }
+            finished = true;
+        } finally {
+            if (!finished) {
+                Files.deleteIfExists(file);
+            }
+        }
+        return rows;
+    }
+
+    // Reads an exported file back, in export order; close the stream when done
+    public Stream<Ride> readRides(Path file) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC) || in.read() != VERSION) {
+                throw new IOException(file + " is not a TeeTime columnar file");
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        BlockReader reader = new BlockReader(in);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(reader,
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        in.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    // Keeps the place dictionary and the previous id and time across blocks
+    private static final class BlockWriter {
+        private final Map<String, Integer> placeIndex = new HashMap<>();
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final Bytes body = new Bytes(1 << 20);
+        private final Bytes header = new Bytes(16);
+        private byte[] compressed = new byte[1 << 20];
+        private long previousId;
+        private long previousSecond;
+
+        void write(List<Ride> block, OutputStream out) throws IOException {
+            int rows = block.size();
+            // One pass over the rides, then each column is written from a flat array
+            long[] ids = new long[rows];
+            long[] passengers = new long[rows];
+            Integer[] drivers = new Integer[rows];
+            Integer[] cars = new Integer[rows];
+            int[] origins = new int[rows];
+            int[] destinations = new int[rows];
+            long[] seconds = new long[rows];
+            int[] nanos = new int[rows];
+            long[] seats = new long[rows];
+            int[] statuses = new int[rows];
+            double[] prices = new double[rows];
+            List<String> newPlaces = new ArrayList<>();
+            for (int i = 0; i < rows; i++) {
+                Ride ride = block.get(i);
+                ids[i] = ride.getId();
+                passengers[i] = ride.getPassengerId();
+                drivers[i] = ride.getDriverId();
+                cars[i] = ride.getCarId();
+                origins[i] = place(ride.getOrigin(), newPlaces);
+                destinations[i] = place(ride.getDestination(), newPlaces);
+                LocalDateTime time = ride.getTime();
+                seconds[i] = time.toEpochSecond(ZoneOffset.UTC);
+                nanos[i] = time.getNano();
+                seats[i] = ride.getSeatsNeeded();
+                statuses[i] = ride.getStatus().ordinal();
+                prices[i] = ride.getPriceEstimate();
+            }
+
+            body.clear();
+            body.writeVarLong(newPlaces.size());
+            for (String place : newPlaces) {
+                byte[] utf8 = place.getBytes(StandardCharsets.UTF_8);
+                body.writeVarLong(utf8.length);
+                body.write(utf8, 0, utf8.length);
+            }
+            for (long id : ids) {
+                body.writeZigZag(id - previousId);
+                previousId = id;
+            }
+            for (long passenger : passengers) {
+                body.writeZigZag(passenger);
+            }
+            for (Integer driver : drivers) {
+                body.writeOptional(driver);
+            }
+            for (Integer car : cars) {
+                body.writeOptional(car);
+            }
+            for (int origin : origins) {
+                body.writeVarLong(origin);
+            }
+            for (int destination : destinations) {
+                body.writeVarLong(destination);
+            }
+            for (long second : seconds) {
+                body.writeZigZag(second - previousSecond);
+                previousSecond = second;
+            }
+            for (int nano : nanos) {
+                body.writeVarLong(nano);
+            }
+            for (long seat : seats) {
+                body.writeZigZag(seat);
+            }
+            for (int status : statuses) {
+                body.writeByte(status);
+            }
+            for (double price : prices) {
+                writePrice(price);
+            }
+
+            deflater.reset();
+            deflater.setInput(body.data, 0, body.size);
+            deflater.finish();
+            int compressedSize = 0;
+            while (!deflater.finished()) {
+                if (compressedSize == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                compressedSize += deflater.deflate(compressed, compressedSize, compressed.length - compressedSize);
+            }
+
+            header.clear();
+            header.writeVarLong(block.size());
+            header.writeVarLong(body.size);
+            header.writeVarLong(compressedSize);
+            out.write(header.data, 0, header.size);
+            out.write(compressed, 0, compressedSize);
+        }
+
+        private int place(String name, List<String> newPlaces) {
+            Integer index = placeIndex.get(name);
+            if (index == null) {
+                index = placeIndex.size();
+                placeIndex.put(name, index);
+                newPlaces.add(name);
+            }
+            return index;
+        }
+
+        // Whole cents as an even varint, anything else as 1 plus the raw bits
+        private void writePrice(double price) {
+            if (Math.abs(price) < 1e13) {
+                long cents = Math.round(price * 100);
+                if (Double.doubleToLongBits(cents / 100.0) == Double.doubleToLongBits(price)) {
+                    body.writeVarLong(zigZag(cents) << 1);
+                    return;
+                }
+            }
+            body.writeVarLong(1);
+            body.writeLong(Double.doubleToRawLongBits(price));
+        }
+    }
+
+    private static final class BlockReader implements Iterator<Ride> {
+        private final DataInputStream in;
+        private final List<String> places = new ArrayList<>();
+        private final Inflater inflater = new Inflater();
+        private byte[] compressed = new byte[0];
+        private Ride[] block = new Ride[0];
+        private int next;
+        private boolean ended;
+        private long previousId;
+        private long previousSecond;
+
+        BlockReader(DataInputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next < block.length) {
+                return true;
+            }
+            if (ended) {
+                return false;
+            }
+            try {
+                readBlock();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return next < block.length;
+        }
+
+        @Override
+        public Ride next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Ride ride = block[next];
+            block[next++] = null;
+            return ride;
+        }
+
+        private void readBlock() throws IOException {
+            int rows = (int) readVarLong(in);
+            if (rows == 0) {
+                ended = true;
+                block = new Ride[0];
+                next = 0;
+                return;
+            }
+            int rawSize = (int) readVarLong(in);
+            int compressedSize = (int) readVarLong(in);
+            if (compressed.length < compressedSize) {
+                compressed = new byte[compressedSize];
+            }
+            in.readFully(compressed, 0, compressedSize);
+            byte[] raw = new byte[rawSize];
+            inflater.reset();
+            inflater.setInput(compressed, 0, compressedSize);
+            try {
+                if (inflater.inflate(raw) != rawSize) {
+                    throw new IOException("Truncated ride block");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt ride block", e);
+            }
+
+            Cursor body = new Cursor(raw);
+            long newPlaces = body.readVarLong();
+            for (long i = 0; i < newPlaces; i++) {
+                int length = (int) body.readVarLong();
+                places.add(new String(raw, body.position, length, StandardCharsets.UTF_8));
+                body.position += length;
+            }
+
+            Ride[] rides = new Ride[rows];
+            for (int i = 0; i < rows; i++) {
+                rides[i] = new Ride();
+                previousId += body.readZigZag();
+                rides[i].setId((int) previousId);
+            }
+            for (Ride ride : rides) {
+                ride.setPassengerId((int) body.readZigZag());
+            }
+            for (Ride ride : rides) {
+                ride.setDriverId(body.readOptional());
+            }
+            for (Ride ride : rides) {
+                ride.setCarId(body.readOptional());
+            }
+            for (Ride ride : rides) {
+                ride.setOrigin(places.get((int) body.readVarLong()));
+            }
+            for (Ride ride : rides) {
+                ride.setDestination(places.get((int) body.readVarLong()));
+            }
+            long[] seconds = new long[rows];
+            for (int i = 0; i < rows; i++) {
+                previousSecond += body.readZigZag();
+                seconds[i] = previousSecond;
+            }
+            for (int i = 0; i < rows; i++) {
+                rides[i].setTime(LocalDateTime.ofEpochSecond(seconds[i], (int) body.readVarLong(), ZoneOffset.UTC));
+            }
+            for (Ride ride : rides) {
+                ride.setSeatsNeeded((int) body.readZigZag());
+            }
+            for (Ride ride : rides) {
+                ride.setStatus(STATUSES[body.readByte()]);
+            }
+            for (Ride ride : rides) {
+                long price = body.readVarLong();
+                ride.setPriceEstimate(price == 1
+                        ? Double.longBitsToDouble(body.readLong())
+                        : unZigZag(price >>> 1) / 100.0);
+            }
+            block = rides;
+            next = 0;
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated ride file");
+            }
+            value |= (long) (b & 0x7f) << shift;
+            if (b < 0x80) {
+                return value;
+            }
+        }
+    }
+
+    // Growable byte array with the varint writers used by blocks
+    private static final class Bytes {
+        byte[] data;
+        int size;
+
+        Bytes(int capacity) {
+            data = new byte[capacity];
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void writeByte(int b) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[size++] = (byte) b;
+        }
+
+        void write(byte[] bytes, int offset, int length) {
+            if (size + length > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + length));
+            }
+            System.arraycopy(bytes, offset, data, size, length);
+            size += length;
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7fL) != 0) {
+                writeByte((int) (value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong(zigZag(value));
+        }
+
+        void writeOptional(Integer value) {
+            writeVarLong(value == null ? 0 : zigZag(value) + 1);
+        }
+
+        void writeLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                writeByte((int) (value >>> shift));
+            }
+        }
+    }
+
+    private static final class Cursor {
+        final byte[] data;
+        int position;
+
+        Cursor(byte[] data) {
+            this.data = data;
+        }
+
+        int readByte() {
+            return data[position++] & 0xff;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7f) << shift;
+                if (b < 0x80) {
+                    return value;
+                }
+            }
+        }
+
+        long readZigZag() {
+            return unZigZag(readVarLong());
+        }
+
+        Integer readOptional() {
+            long value = readVarLong();
+            return value == 0 ? null : (int) unZigZag(value - 1);
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | readByte();
+            }
+            return value;
+        }
+    }
+}
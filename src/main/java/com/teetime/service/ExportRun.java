@@ -0,0 +1,28 @@
+package com.teetime.service;
+
+import java.nio.file.Path;
+
+// What one incremental export wrote: the rides changed after fromSeq and at
+// or before toSeq in the ride modification sequence
+public class ExportRun {
+    private final Path file;
+    private final long rides;
+    private final long fromSeq;
+    private final long toSeq;
+
+    public ExportRun(Path file, long rides, long fromSeq, long toSeq) {
+        this.file = file;
+        this.rides = rides;
+        this.fromSeq = fromSeq;
+        this.toSeq = toSeq;
+    }
+
+    // Null when nothing had changed and no file was written
+    public Path getFile() { return file; }
+
+    public long getRides() { return rides; }
+
+    public long getFromSeq() { return fromSeq; }
+
+    public long getToSeq() { return toSeq; }
+}
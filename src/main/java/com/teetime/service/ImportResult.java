@@ -0,0 +1,27 @@
+package com.teetime.service;
+
+import java.util.Collections;
+import java.util.List;
+
+// Outcome of a bulk import: how many records were stored and why the others
+// were not. Only the first MAX_ERRORS messages are kept.
+public class ImportResult {
+    public static final int MAX_ERRORS = 100;
+
+    private final int imported;
+    private final int rejected;
+    private final List<String> errors;
+
+    public ImportResult(int imported, int rejected, List<String> errors) {
+        this.imported = imported;
+        this.rejected = rejected;
+        this.errors = Collections.unmodifiableList(errors);
+    }
+
+    public int getImported() { return imported; }
+
+    public int getRejected() { return rejected; }
+
+    // "Record <n>: <reason>", n counting from 1 in input order
+    public List<String> getErrors() { return errors; }
+}
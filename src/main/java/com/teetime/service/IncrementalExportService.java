@@ -0,0 +1,87 @@
+package com.teetime.service;
+
+import com.teetime.database.DataStore;
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+
+// Nightly exports that only write the rides changed since the previous run,
+// so their cost follows the day's activity rather than the whole history.
+// The high-water mark (the last ride modification sequence exported) lives in
+// a ".mark" file beside the export and moves only once the export is
+// complete; a failed run is repeated in full next time. A ride changed while
+// a run is in progress is written with its newest state and again next run.
+// A mark older than the store's change history gets every ride again.
+public class IncrementalExportService {
+    private final DataStore db;
+
+    public IncrementalExportService(DataStore db) {
+        this.db = db;
+    }
+
+    // Appends the changed rides to a CSV (or gzipped CSV) export, creating it
+    // with every ride on the first run. The mark is `file` + ".mark".
+    public ExportRun appendChanges(Path file, CSVExportService format) throws IOException {
+        Path markFile = file.resolveSibling(file.getFileName() + ".mark");
+        long from = readMark(markFile);
+        long to = db.getLastRideModSeq();
+        long rides = format.appendRides(changedRides(from, to), file, RideExporter.Progress.NONE);
+        writeMark(markFile, to);
+        return new ExportRun(file, rides, from, to);
+    }
+
+    // Writes the changed rides to a new file <dir>/<prefix>-<from>-<to>.<ext>,
+    // or nothing if no ride changed. The mark is <dir>/<prefix>.mark.
+    public ExportRun writeDelta(Path dir, String prefix, RideExporter format) throws IOException {
+        Path markFile = dir.resolve(prefix + ".mark");
+        long from = readMark(markFile);
+        long to = db.getLastRideModSeq();
+        if (to == from) {
+            return new ExportRun(null, 0, from, to);
+        }
+        Path file = dir.resolve(prefix + "-" + from + "-" + to + "." + format.getExtension());
+        long rides = format.export(changedRides(from, to), file, RideExporter.Progress.NONE);
+        writeMark(markFile, to);
+        return new ExportRun(file, rides, from, to);
+    }
+
+    private Iterator<Ride> changedRides(long fromSeq, long toSeq) {
+        int[] ids = db.getRideIdsChangedBetween(fromSeq, toSeq);
+        if (ids == null) {
+            // The store no longer remembers changes that old: write every ride
+            return Arrays.stream(RideStatus.values())
+                    .flatMap(status -> db.getRidesByStatus(status).stream())
+                    .iterator();
+        }
+        return Arrays.stream(ids)
+                .mapToObj(db::getRideById)
+                .filter(Objects::nonNull)
+                .iterator();
+    }
+
+    static long readMark(Path markFile) throws IOException {
+        if (!Files.exists(markFile)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(Files.readString(markFile, StandardCharsets.UTF_8).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Corrupt export mark " + markFile, e);
+        }
+    }
+
+    // Replaced atomically, so a crash leaves either the old mark or the new one
+    private static void writeMark(Path markFile, long seq) throws IOException {
+        Path tmp = markFile.resolveSibling(markFile.getFileName() + ".tmp");
+        Files.writeString(tmp, Long.toString(seq), StandardCharsets.UTF_8);
+        Files.move(tmp, markFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
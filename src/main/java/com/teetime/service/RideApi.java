@@ -0,0 +1,51 @@
+package com.teetime.service;
+
+import com.teetime.domain.Car;
+import com.teetime.domain.Ride;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+// What clients (the GUI, the load generator) may do with rides and cars,
+// whether the store is local (RideService) or behind a RideServer
+// (RemoteRideService). Expiry and imports are server-side jobs and stay on
+// RideService.
+public interface RideApi {
+
+    // Ride changes as they happen; see RideEventBus
+    RideEventBus.Subscription subscribe(Predicate<Ride> filter, Executor executor, RideEventBus.Listener listener);
+
+    Ride createRideRequest(int passengerId, String origin, String destination,
+                           LocalDateTime time, int seatsNeeded) throws Exception;
+
+    // Updates the caller's ride to its accepted state; throws
+    // RideNotAvailableException if another driver got there first
+    void acceptRide(Ride ride, int driverId, int carId) throws Exception;
+
+    // Returns the completed ride; throws RideNotAvailableException unless the
+    // stored ride is confirmed
+    Ride completeRide(int rideId) throws Exception;
+
+    List<Ride> getPendingRides();
+
+    // Pending rides leaving within the next `window`, earliest first
+    List<Ride> getUpcomingPendingRides(Duration window);
+
+    // Pending rides with from <= time < to, earliest first
+    List<Ride> getPendingRidesBetween(LocalDateTime from, LocalDateTime to);
+
+    List<Ride> getRidesByPassengerId(int passengerId);
+
+    List<Ride> getRidesByDriverId(int driverId);
+
+    List<Ride> getPendingRidesFrom(String origin);
+
+    Car addCar(int driverId, String plate, String brand, int seats) throws Exception;
+
+    List<Car> getCarsByDriverId(int driverId);
+
+    void deleteCar(int carId);
+}
@@ -0,0 +1,37 @@
+package com.teetime.service;
+
+import com.teetime.domain.Ride;
+
+// A change to one ride, published by RideService after the store has it.
+// The ride is a snapshot of its state after the change, shared by every
+// subscriber, so it must not be modified.
+public class RideEvent {
+    public enum Type { CREATED, ACCEPTED, COMPLETED, CANCELLED }
+
+    private final Type type;
+    private final Ride ride;
+
+    public RideEvent(Type type, Ride ride) {
+        this.type = type;
+        this.ride = ride;
+    }
+
+    // Copies the ride, so the caller may go on changing its own instance
+    static RideEvent of(Type type, Ride ride) {
+        return new RideEvent(type, copy(ride));
+    }
+
+    static Ride copy(Ride ride) {
+        Ride copy = new Ride(ride.getPassengerId(), ride.getOrigin(), ride.getDestination(),
+                ride.getTime(), ride.getSeatsNeeded(), ride.getPriceEstimate());
+        copy.setId(ride.getId());
+        copy.setDriverId(ride.getDriverId());
+        copy.setCarId(ride.getCarId());
+        copy.setStatus(ride.getStatus());
+        return copy;
+    }
+
+    public Type getType() { return type; }
+
+    public Ride getRide() { return ride; }
+}
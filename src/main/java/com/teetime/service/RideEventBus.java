@@ -0,0 +1,176 @@
+package com.teetime.service;
+
+import com.teetime.domain.Ride;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+// In-process publish/subscribe for ride changes, so screens can follow the
+// store instead of polling it. Publishing never blocks on a subscriber: each
+// one has its own queue, drained on the subscriber's executor (for the GUI,
+// Platform::runLater) one batch at a time. Queued events for the same ride
+// are coalesced into the newest one. A subscriber that falls more than
+// `capacity` rides behind loses its queue and is told to reload instead.
+public class RideEventBus {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static RideEventBus defaultBus;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    // The bus RideService publishes to unless given another
+    public static synchronized RideEventBus getDefault() {
+        if (defaultBus == null) {
+            defaultBus = new RideEventBus();
+        }
+        return defaultBus;
+    }
+
+    public interface Listener {
+        // Events in the order their rides were first queued; at most one per ride
+        void onEvents(List<RideEvent> events);
+
+        // Events were dropped; reload everything from the store
+        void onResync();
+    }
+
+    public void publish(RideEvent event) {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    // Tells every subscriber to reload, for changes too large to publish one
+    // by one (bulk imports)
+    public void resyncAll() {
+        for (Subscription subscription : subscriptions) {
+            subscription.overflow();
+        }
+    }
+
+    // Only rides matching the filter are queued; null takes every ride
+    public Subscription subscribe(Predicate<Ride> filter, Executor executor, Listener listener) {
+        return subscribe(filter, executor, DEFAULT_CAPACITY, listener);
+    }
+
+    public Subscription subscribe(Predicate<Ride> filter, Executor executor, int capacity, Listener listener) {
+        Subscription subscription = new Subscription(filter, executor, capacity, listener);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    public final class Subscription implements AutoCloseable {
+        private final Predicate<Ride> filter;
+        private final Executor executor;
+        private final int capacity;
+        private final Listener listener;
+        // Guarded by this
+        private final Map<Integer, RideEvent> queued = new LinkedHashMap<>();
+        private boolean overflowed;
+        private boolean scheduled;
+        private boolean closed;
+
+        private Subscription(Predicate<Ride> filter, Executor executor, int capacity, Listener listener) {
+            this.filter = filter;
+            this.executor = executor;
+            this.capacity = capacity;
+            this.listener = listener;
+        }
+
+        private void offer(RideEvent event) {
+            if (filter != null && !filter.test(event.getRide())) {
+                return;
+            }
+            synchronized (this) {
+                if (closed || overflowed) {
+                    return;
+                }
+                queued.put(event.getRide().getId(), event);
+                if (queued.size() > capacity) {
+                    queued.clear();
+                    overflowed = true;
+                }
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            schedule();
+        }
+
+        private void overflow() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                queued.clear();
+                overflowed = true;
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            try {
+                executor.execute(this::drain);
+            } catch (RuntimeException e) {
+                // The executor is gone (e.g. the FX toolkit has exited)
+                close();
+            }
+        }
+
+        // Runs on the executor; the next batch is only scheduled once this
+        // one is delivered, so a pooled executor cannot reorder batches
+        private void drain() {
+            List<RideEvent> batch;
+            boolean resync;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                batch = new ArrayList<>(queued.values());
+                queued.clear();
+                resync = overflowed;
+                overflowed = false;
+            }
+            try {
+                if (resync) {
+                    listener.onResync();
+                } else if (!batch.isEmpty()) {
+                    listener.onEvents(batch);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Ride event listener failed: " + e.getMessage());
+            }
+            synchronized (this) {
+                scheduled = !closed && (overflowed || !queued.isEmpty());
+                if (!scheduled) {
+                    return;
+                }
+            }
+            schedule();
+        }
+
+        // Stops delivery; batches already handed to the executor are dropped
+        @Override
+        public void close() {
+            synchronized (this) {
+                closed = true;
+                queued.clear();
+            }
+            subscriptions.remove(this);
+        }
+    }
+}
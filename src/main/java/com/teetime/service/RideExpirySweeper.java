@@ -0,0 +1,64 @@
+package com.teetime.service;
+
+import com.teetime.database.DataStore;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Periodically cancels ride requests whose pick-up time passed more than
+// `grace` ago without a driver accepting them, so they stop showing up as
+// pending and move into history. Each cancellation is published on the
+// default RideEventBus.
+public class RideExpirySweeper {
+    public static final Duration DEFAULT_GRACE = Duration.ofMinutes(30);
+    public static final Duration DEFAULT_PERIOD = Duration.ofMinutes(1);
+
+    private final RideService rides;
+    private final Duration grace;
+    private ScheduledExecutorService executor;
+
+    public RideExpirySweeper(DataStore db, Duration grace) {
+        this.rides = new RideService(db);
+        this.grace = grace;
+    }
+
+    public synchronized void start(Duration period) {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "teetime-ride-expiry");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                sweep();
+            } catch (RuntimeException e) {
+                System.err.println("Ride expiry sweep failed: " + e.getMessage());
+            }
+        }, 0, period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Runs one sweep now; returns how many rides were cancelled
+    public int sweep() {
+        return rides.expirePendingRides(LocalDateTime.now().minus(grace));
+    }
+
+    // Waits for a running sweep so the store is not closed underneath it
+    public synchronized void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.teetime.service;
+
+import com.teetime.domain.Ride;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+
+// A file format rides can be exported to. Exporters stream: rides are pulled
+// from the iterator as they are written, never collected first.
+public interface RideExporter {
+
+    interface Progress {
+        Progress NONE = rowsWritten -> true;
+
+        // Called with the number of rows written so far; return false to cancel
+        boolean update(long rowsWritten);
+    }
+
+    // The formats offered to users, plain CSV first
+    static List<RideExporter> formats() {
+        return List.of(new CSVExportService(), CSVExportService.gzipped(), new ColumnarExportService());
+    }
+
+    // Shown in file choosers, e.g. "CSV"
+    String getName();
+
+    // File name extension without the dot, e.g. "csv.gz"
+    String getExtension();
+
+    // Returns the number of rides written. If progress asks to stop, the
+    // partial file is deleted and CancellationException is thrown.
+    long export(Iterator<Ride> rides, Path file, Progress progress) throws IOException;
+}
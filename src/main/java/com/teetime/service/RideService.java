@@ -1,19 +1,46 @@
 package com.teetime.service;
 
-import com.teetime.database.DatabaseManager;
+import com.teetime.database.DataStore;
+import com.teetime.database.DataStores;
 import com.teetime.domain.*;
 import com.teetime.exception.CapacityExceededException;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
-public class RideService {
-    private DatabaseManager db;
+// RideApi over a store, plus the server-side jobs: expiry and imports
+public class RideService implements RideApi {
+    private DataStore db;
+    private RideEventBus events;
 
     public RideService() {
-        this.db = DatabaseManager.getInstance();
+        this(DataStores.getDefault());
     }
 
+    public RideService(DataStore db) {
+        this(db, RideEventBus.getDefault());
+    }
+
+    public RideService(DataStore db, RideEventBus events) {
+        this.db = db;
+        this.events = events;
+    }
+
+    // Ride changes made through any RideService sharing this one's bus
+    @Override
+    public RideEventBus.Subscription subscribe(Predicate<Ride> filter, Executor executor,
+                                               RideEventBus.Listener listener) {
+        return events.subscribe(filter, executor, listener);
+    }
+
+    @Override
     public Ride createRideRequest(int passengerId, String origin, String destination, 
                                   LocalDateTime time, int seatsNeeded) throws Exception {
         // Validation
@@ -38,24 +65,18 @@ public class RideService {
         int rideId = db.createRide(ride);
         if (rideId > 0) {
             ride.setId(rideId);
+            events.publish(RideEvent.of(RideEvent.Type.CREATED, ride));
             return ride;
         } else {
             throw new Exception("Failed to create ride");
         }
     }
 
+    @Override
     public void acceptRide(Ride ride, int driverId, int carId) throws Exception {
         // Get car to check capacity
-        List<Car> cars = db.getCarsByDriverId(driverId);
-        Car selectedCar = null;
-        for (Car car : cars) {
-            if (car.getId() == carId) {
-                selectedCar = car;
-                break;
-            }
-        }
-
-        if (selectedCar == null) {
+        Car selectedCar = db.getCarById(carId);
+        if (selectedCar == null || selectedCar.getDriverId() != driverId) {
             throw new Exception("Car not found");
         }
 
@@ -66,30 +87,78 @@ public class RideService {
             );
         }
 
-        // Update ride
-        ride.setDriverId(driverId);
-        ride.setCarId(carId);
-        ride.setStatus(RideStatus.CONFIRMED);
-        db.updateRide(ride);
+        // Claim the ride; throws RideNotAvailableException if another driver got there first.
+        // The store returns its own copy, so the caller's ride is brought up to date from it
+        Ride accepted = db.acceptRide(ride.getId(), driverId, carId);
+        ride.setDriverId(accepted.getDriverId());
+        ride.setCarId(accepted.getCarId());
+        ride.setStatus(accepted.getStatus());
+        events.publish(RideEvent.of(RideEvent.Type.ACCEPTED, ride));
+    }
+
+    @Override
+    public Ride completeRide(int rideId) throws Exception {
+        Ride completed = db.completeRide(rideId);
+        events.publish(RideEvent.of(RideEvent.Type.COMPLETED, completed));
+        return completed;
     }
 
     public void completeRide(Ride ride) throws Exception {
-        ride.setStatus(RideStatus.COMPLETED);
-        db.updateRide(ride);
+        ride.setStatus(completeRide(ride.getId()).getStatus());
+    }
+
+    // Cancels pending rides whose time is before the cutoff and publishes a
+    // CANCELLED event for each; returns how many were cancelled. The store only
+    // reports a count, so the rides are found in the modification sequence;
+    // if it no longer reaches back that far, subscribers reload instead.
+    public int expirePendingRides(LocalDateTime cutoff) {
+        long before = db.getLastRideModSeq();
+        int expired = db.expirePendingRides(cutoff);
+        int[] changed = expired > 0 ? db.getRideIdsChangedBetween(before, db.getLastRideModSeq()) : new int[0];
+        if (changed == null) {
+            events.resyncAll();
+        } else {
+            for (int rideId : changed) {
+                Ride ride = db.getRideById(rideId);
+                if (ride != null && ride.getStatus() == RideStatus.CANCELLED) {
+                    events.publish(RideEvent.of(RideEvent.Type.CANCELLED, ride));
+                }
+            }
+        }
+        return expired;
     }
 
+    @Override
     public List<Ride> getPendingRides() {
         return db.getPendingRides();
     }
 
+    @Override
+    public List<Ride> getUpcomingPendingRides(Duration window) {
+        LocalDateTime now = LocalDateTime.now();
+        return db.getPendingRidesBetween(now, now.plus(window));
+    }
+
+    @Override
+    public List<Ride> getPendingRidesBetween(LocalDateTime from, LocalDateTime to) {
+        return db.getPendingRidesBetween(from, to);
+    }
+
+    @Override
     public List<Ride> getRidesByPassengerId(int passengerId) {
         return db.getRidesByPassengerId(passengerId);
     }
 
+    @Override
     public List<Ride> getRidesByDriverId(int driverId) {
         return db.getRidesByDriverId(driverId);
     }
 
+    @Override
+    public List<Ride> getPendingRidesFrom(String origin) {
+        return db.getPendingRidesFrom(origin);
+    }
+
     private double calculatePrice(String origin, String destination, int seats) {
         // Simple price calculation: base rate * estimated distance factor * seats
         double baseRate = 5.0;
@@ -97,6 +166,7 @@ public class RideService {
         return baseRate * distanceFactor * seats;
     }
 
+    @Override
     public Car addCar(int driverId, String plate, String brand, int seats) throws Exception {
         if (plate == null || plate.trim().isEmpty()) {
             throw new Exception("Plate cannot be empty");
@@ -118,10 +188,90 @@ public class RideService {
         }
     }
 
+    // Stores rides in bulk, e.g. history migrated from another system. Each ride
+    // keeps its own time and status (PENDING if unset); a price of 0 gets an estimate.
+    // Subscribers are told to reload rather than sent one event per ride.
+    public ImportResult importRides(Stream<Ride> rides) {
+        return announceImport(
+                BulkImporter.run(rides, Function.identity(), this::validateImportedRide, db::importRides, "Rejected by the store"));
+    }
+
+    public ImportResult importRidesFromCSV(Path file) throws IOException {
+        CSVImportService csv = new CSVImportService();
+        try (Stream<String> records = csv.records(file)) {
+            return announceImport(
+                    BulkImporter.run(records, csv::parseRide, this::validateImportedRide, db::importRides, "Rejected by the store"));
+        }
+    }
+
+    private ImportResult announceImport(ImportResult result) {
+        if (result.getImported() > 0) {
+            events.resyncAll();
+        }
+        return result;
+    }
+
+    public ImportResult importCars(Stream<Car> cars) {
+        return BulkImporter.run(cars, Function.identity(), this::validateImportedCar, db::importCars, "Rejected by the store");
+    }
+
+    public ImportResult importCarsFromCSV(Path file) throws IOException {
+        CSVImportService csv = new CSVImportService();
+        try (Stream<String> records = csv.records(file)) {
+            return BulkImporter.run(records, csv::parseCar, this::validateImportedCar, db::importCars, "Rejected by the store");
+        }
+    }
+
+    private String validateImportedRide(Ride ride) {
+        if (ride.getOrigin() == null || ride.getOrigin().trim().isEmpty()) {
+            return "Origin cannot be empty";
+        }
+        if (ride.getDestination() == null || ride.getDestination().trim().isEmpty()) {
+            return "Destination cannot be empty";
+        }
+        if (ride.getSeatsNeeded() <= 0) {
+            return "Seats needed must be greater than 0";
+        }
+        if (ride.getTime() == null) {
+            return "Time cannot be empty";
+        }
+        if (db.getUserById(ride.getPassengerId()) == null) {
+            return "Passenger " + ride.getPassengerId() + " not found";
+        }
+        if (ride.getDriverId() != null && db.getUserById(ride.getDriverId()) == null) {
+            return "Driver " + ride.getDriverId() + " not found";
+        }
+        if (ride.getStatus() == null) {
+            ride.setStatus(RideStatus.PENDING);
+        }
+        if (ride.getPriceEstimate() <= 0) {
+            ride.setPriceEstimate(calculatePrice(ride.getOrigin(), ride.getDestination(), ride.getSeatsNeeded()));
+        }
+        return null;
+    }
+
+    private String validateImportedCar(Car car) {
+        if (car.getPlate() == null || car.getPlate().trim().isEmpty()) {
+            return "Plate cannot be empty";
+        }
+        if (car.getBrand() == null || car.getBrand().trim().isEmpty()) {
+            return "Brand cannot be empty";
+        }
+        if (car.getSeats() <= 0 || car.getSeats() > 8) {
+            return "Seats must be between 1 and 8";
+        }
+        if (db.getUserById(car.getDriverId()) == null) {
+            return "Driver " + car.getDriverId() + " not found";
+        }
+        return null;
+    }
+
+    @Override
     public List<Car> getCarsByDriverId(int driverId) {
         return db.getCarsByDriverId(driverId);
     }
 
+    @Override
     public void deleteCar(int carId) {
         db.deleteCar(carId);
     }
@@ -0,0 +1,113 @@
+package com.teetime.service;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs service calls off the caller's thread (for the GUI, off the JavaFX
+// Application Thread). At most `maxConcurrent` calls run at once and the rest
+// queue, so a burst of clicks cannot flood the store or its connection pool.
+// Calls run on virtual threads when the JVM has them (Java 21+), otherwise
+// on daemon platform threads; idle threads are let go after a few seconds.
+public final class ServiceExecutor {
+    public static final int DEFAULT_MAX_CONCURRENT = 16;
+
+    private static ExecutorService shared;
+
+    private ServiceExecutor() {
+    }
+
+    // The executor the async services use unless given another
+    public static synchronized ExecutorService shared() {
+        if (shared == null) {
+            shared = create(DEFAULT_MAX_CONCURRENT);
+        }
+        return shared;
+    }
+
+    // Waits for calls already started, so the store is not closed underneath them
+    public static synchronized void shutdownShared() {
+        if (shared == null) {
+            return;
+        }
+        shared.shutdown();
+        try {
+            shared.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        shared = null;
+    }
+
+    public static ExecutorService create(int maxConcurrent) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent,
+                5, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    // One thread per task, for work that mostly waits (server requests, long
+    // polls). Unbounded only when the threads are virtual; platform threads
+    // are capped at `maxPlatformThreads` like create(), the rest queueing.
+    public static ExecutorService perTask(int maxPlatformThreads) {
+        ThreadFactory virtual = virtualThreadFactory();
+        if (virtual == null) {
+            return create(maxPlatformThreads);
+        }
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), virtual);
+    }
+
+    // Completes with the call's result, or exceptionally with exactly what it
+    // threw (not wrapped), including a rejection by a shut down executor
+    static <T> CompletableFuture<T> submit(ExecutorService executor, Callable<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(call.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private static ThreadFactory threadFactory() {
+        ThreadFactory virtual = virtualThreadFactory();
+        if (virtual != null) {
+            return virtual;
+        }
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "teetime-service-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    // The build targets Java 17, so virtual threads are looked up
+    // reflectively; null when the JVM has none
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "teetime-service-", 1L);
+            Method factory = builderType.getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.teetime.service;
+
+// The ride and auth services the async services wrap by default: local ones
+// over the default store, unless Main points the GUI at a server
+public final class Services {
+    private static RideApi rides;
+    private static AuthApi auth;
+
+    private Services() {
+    }
+
+    public static synchronized RideApi rides() {
+        if (rides == null) {
+            rides = new RideService();
+        }
+        return rides;
+    }
+
+    public static synchronized AuthApi auth() {
+        if (auth == null) {
+            auth = new AuthService();
+        }
+        return auth;
+    }
+
+    public static synchronized void use(RideApi rideService, AuthApi authService) {
+        rides = rideService;
+        auth = authService;
+    }
+}
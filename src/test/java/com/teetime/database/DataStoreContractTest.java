@@ -0,0 +1,557 @@
+package com.teetime.database;
+
+import com.teetime.domain.*;
+import com.teetime.exception.RideNotAvailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Behaviour every DataStore backend must share; each backend runs it through
+// a subclass that says how to open a fresh, empty store
+abstract class DataStoreContractTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2030, 6, 1, 12, 0);
+
+    protected DataStore store;
+
+    protected abstract DataStore openStore() throws Exception;
+
+    @BeforeEach
+    void open() throws Exception {
+        store = openStore();
+    }
+
+    @AfterEach
+    void closeStore() {
+        store.close();
+    }
+
+    private int passenger(String email) {
+        return store.createUser("Passenger", email, "hash", "PASSENGER");
+    }
+
+    private int driver(String email) {
+        return store.createUser("Driver", email, "hash", "DRIVER");
+    }
+
+    private Ride ride(int passengerId, String origin, LocalDateTime time) {
+        Ride ride = new Ride(passengerId, origin, "Atocha", time, 2, 12.5);
+        store.createRide(ride);
+        return ride;
+    }
+
+    private static List<Integer> ids(List<Ride> rides) {
+        return rides.stream().map(Ride::getId).collect(Collectors.toList());
+    }
+
+    // Users
+
+    @Test
+    void defaultAdmin_exists() {
+        User admin = store.getUserByEmail("admin@ie.edu");
+        assertNotNull(admin);
+        assertEquals("BOTH", admin.getRole());
+        assertEquals(DatabaseManager.hashPassword("admin"), admin.getPasswordHash());
+    }
+
+    @Test
+    void createUser_isFoundByIdAndByEmailIgnoringCaseAndSpaces() {
+        int id = store.createUser("Pat", "Pat@Student.ie.edu", "hash", "PASSENGER");
+        assertTrue(id > 0);
+
+        User byEmail = store.getUserByEmail("  pat@student.IE.edu ");
+        assertEquals(id, byEmail.getId());
+        assertEquals("Pat@Student.ie.edu", byEmail.getEmail());
+        assertTrue(byEmail instanceof Passenger);
+        assertEquals("Pat", store.getUserById(id).getName());
+        assertNull(store.getUserByEmail("nobody@ie.edu"));
+        assertNull(store.getUserByEmail(null));
+    }
+
+    @Test
+    void createUser_withDriverRole_isADriver() {
+        int id = driver("dana@ie.edu");
+        assertTrue(store.getUserById(id) instanceof Driver);
+    }
+
+    @Test
+    void createUser_withTakenEmail_returnsMinusOne() {
+        int first = passenger("same@ie.edu");
+        assertEquals(-1, store.createUser("Other", "SAME@ie.edu", "hash2", "DRIVER"));
+        assertEquals(first, store.getUserByEmail("same@ie.edu").getId());
+        assertEquals("hash", store.getUserByEmail("same@ie.edu").getPasswordHash());
+    }
+
+    @Test
+    void updateUser_movesEmailAndRefusesAnotherUsersEmail() {
+        int patId = passenger("pat@ie.edu");
+        passenger("sam@ie.edu");
+
+        User pat = store.getUserById(patId);
+        pat.setEmail("patricia@ie.edu");
+        pat.setName("Patricia");
+        assertTrue(store.updateUser(pat));
+        assertNull(store.getUserByEmail("pat@ie.edu"));
+        assertEquals("Patricia", store.getUserByEmail("patricia@ie.edu").getName());
+
+        pat.setEmail("Sam@ie.edu");
+        assertFalse(store.updateUser(pat));
+        assertEquals(patId, store.getUserByEmail("patricia@ie.edu").getId());
+    }
+
+    @Test
+    void deleteUser_removesUserAndFreesTheEmail() {
+        int id = passenger("gone@ie.edu");
+        store.deleteUser(id);
+
+        assertNull(store.getUserById(id));
+        assertNull(store.getUserByEmail("gone@ie.edu"));
+        assertTrue(passenger("gone@ie.edu") > id);
+    }
+
+    // Cars
+
+    @Test
+    void cars_areFoundByIdAndByDriverUntilDeleted() {
+        int driverA = driver("a@ie.edu");
+        int driverB = driver("b@ie.edu");
+        Car first = new Car(driverA, "1111AAA", "Seat", 4);
+        int firstId = store.createCar(first);
+        int otherId = store.createCar(new Car(driverB, "2222BBB", "Kia", 3));
+        int secondId = store.createCar(new Car(driverA, "3333CCC", "Fiat", 2));
+
+        assertEquals(firstId, first.getId());
+        assertEquals("1111AAA", store.getCarById(firstId).getPlate());
+        assertEquals(List.of(firstId, secondId),
+                store.getCarsByDriverId(driverA).stream().map(Car::getId).collect(Collectors.toList()));
+
+        store.deleteCar(firstId);
+        assertNull(store.getCarById(firstId));
+        assertEquals(1, store.getCarsByDriverId(driverA).size());
+        assertEquals(otherId, store.getCarsByDriverId(driverB).get(0).getId());
+        assertTrue(store.getCarsByDriverId(9999).isEmpty());
+    }
+
+    // Rides
+
+    @Test
+    void createRide_storesEveryFieldAndStartsPending() {
+        int passengerId = passenger("p@ie.edu");
+        Ride ride = ride(passengerId, "IE Tower", NOON.plusSeconds(30));
+
+        assertTrue(ride.getId() > 0);
+        Ride stored = store.getRidesByPassengerId(passengerId).get(0);
+        assertEquals(ride.getId(), stored.getId());
+        assertEquals(passengerId, stored.getPassengerId());
+        assertNull(stored.getDriverId());
+        assertNull(stored.getCarId());
+        assertEquals("IE Tower", stored.getOrigin());
+        assertEquals("Atocha", stored.getDestination());
+        assertEquals(NOON.plusSeconds(30), stored.getTime());
+        assertEquals(2, stored.getSeatsNeeded());
+        assertEquals(RideStatus.PENDING, stored.getStatus());
+        assertEquals(12.5, stored.getPriceEstimate(), 0.001);
+    }
+
+    @Test
+    void createRide_canonicalizesPlacesToTheFirstSpelling() {
+        int passengerId = passenger("p@ie.edu");
+        ride(passengerId, "IE  Tower ", NOON);
+        Ride second = ride(passengerId, "ie tower", NOON);
+
+        assertEquals("IE Tower", second.getOrigin());
+        assertEquals(List.of("IE Tower", "IE Tower"),
+                store.getRidesByPassengerId(passengerId).stream().map(Ride::getOrigin).collect(Collectors.toList()));
+    }
+
+    @Test
+    void getPendingRidesFrom_matchesThePlaceHoweverItIsTyped() {
+        int passengerId = passenger("p@ie.edu");
+        Ride fromTower = ride(passengerId, "IE Tower", NOON);
+        ride(passengerId, "Atocha", NOON);
+        Ride confirmed = ride(passengerId, "IE Tower", NOON);
+        store.transitionRide(confirmed, RideStatus.CONFIRMED);
+
+        assertEquals(List.of(fromTower.getId()), ids(store.getPendingRidesFrom("ie TOWER")));
+        assertTrue(store.getPendingRidesFrom("Nowhere").isEmpty());
+    }
+
+    @Test
+    void getRidesByStatus_followsTransitions() {
+        int passengerId = passenger("p@ie.edu");
+        Ride first = ride(passengerId, "A", NOON);
+        Ride second = ride(passengerId, "B", NOON);
+        store.transitionRide(second, RideStatus.CONFIRMED);
+        store.transitionRide(first, RideStatus.CANCELLED);
+
+        assertEquals(RideStatus.CANCELLED, first.getStatus());
+        assertTrue(store.getPendingRides().isEmpty());
+        assertEquals(List.of(second.getId()), ids(store.getRidesByStatus(RideStatus.CONFIRMED)));
+        assertEquals(List.of(first.getId()), ids(store.getRidesByStatus(RideStatus.CANCELLED)));
+
+        store.transitionRide(second, RideStatus.COMPLETED);
+        assertTrue(store.getRidesByStatus(RideStatus.CONFIRMED).isEmpty());
+        assertEquals(List.of(second.getId()), ids(store.getRidesByStatus(RideStatus.COMPLETED)));
+    }
+
+    @Test
+    void getPendingRidesBetween_isHalfOpenAndOrderedByTime() {
+        int passengerId = passenger("p@ie.edu");
+        Ride late = ride(passengerId, "A", NOON.plusHours(5));
+        Ride early = ride(passengerId, "A", NOON);
+        ride(passengerId, "A", NOON.plusHours(6));
+        ride(passengerId, "A", NOON.minusSeconds(1));
+        Ride confirmed = ride(passengerId, "A", NOON.plusHours(1));
+        store.transitionRide(confirmed, RideStatus.CONFIRMED);
+
+        assertEquals(List.of(early.getId(), late.getId()), ids(store.getPendingRidesBetween(NOON, NOON.plusHours(6))));
+    }
+
+    @Test
+    void rideTimes_roundTripUnchangedInADaylightSavingGap() {
+        TimeZone defaultZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+        try {
+            LocalDateTime gap = LocalDateTime.of(2026, 3, 8, 2, 30); // clocks jump from 02:00 to 03:00
+            int passengerId = passenger("p@ie.edu");
+            Ride ride = ride(passengerId, "A", gap);
+            ride(passengerId, "A", gap.plusHours(1));
+
+            assertEquals(gap, store.getRideById(ride.getId()).getTime());
+            assertEquals(List.of(ride.getId()), ids(store.getPendingRidesBetween(gap, gap.plusMinutes(1))));
+            assertEquals(1, store.expirePendingRides(gap.plusMinutes(1)));
+        } finally {
+            TimeZone.setDefault(defaultZone);
+        }
+    }
+
+    @Test
+    void expirePendingRides_cancelsOnlyPendingRidesBeforeTheCutoff() throws Exception {
+        int passengerId = passenger("p@ie.edu");
+        int driverId = driver("d@ie.edu");
+        Ride stale = ride(passengerId, "A", NOON.minusHours(2));
+        Ride accepted = ride(passengerId, "A", NOON.minusHours(2));
+        Ride upcoming = ride(passengerId, "A", NOON);
+        store.acceptRide(accepted.getId(), driverId, 1);
+
+        assertEquals(1, store.expirePendingRides(NOON));
+        assertEquals(0, store.expirePendingRides(NOON));
+        assertEquals(List.of(stale.getId()), ids(store.getRidesByStatus(RideStatus.CANCELLED)));
+        assertEquals(List.of(upcoming.getId()), ids(store.getPendingRides()));
+        assertEquals(List.of(accepted.getId()), ids(store.getRidesByStatus(RideStatus.CONFIRMED)));
+    }
+
+    @Test
+    void ridesByPassengerAndDriver_areOrderedByIdAndReadOnly() throws Exception {
+        int passengerId = passenger("p@ie.edu");
+        int otherPassenger = passenger("q@ie.edu");
+        int driverId = driver("d@ie.edu");
+        Ride first = ride(passengerId, "A", NOON.plusHours(3));
+        ride(otherPassenger, "A", NOON);
+        Ride second = ride(passengerId, "B", NOON);
+        store.acceptRide(second.getId(), driverId, 7);
+        store.acceptRide(first.getId(), driverId, 7);
+
+        List<Ride> mine = store.getRidesByPassengerId(passengerId);
+        assertEquals(List.of(first.getId(), second.getId()), ids(mine));
+        assertEquals(List.of(first.getId(), second.getId()), ids(store.getRidesByDriverId(driverId)));
+        assertTrue(store.getRidesByDriverId(otherPassenger).isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> mine.add(new Ride()));
+    }
+
+    @Test
+    void updateRide_storesTheWholeRide() {
+        int passengerId = passenger("p@ie.edu");
+        int driverId = driver("d@ie.edu");
+        Ride ride = ride(passengerId, "A", NOON);
+        ride.setDestination("Barajas");
+        ride.setSeatsNeeded(3);
+        ride.setDriverId(driverId);
+        ride.setStatus(RideStatus.CONFIRMED);
+        store.updateRide(ride);
+
+        Ride stored = store.getRidesByDriverId(driverId).get(0);
+        assertEquals("Barajas", stored.getDestination());
+        assertEquals(3, stored.getSeatsNeeded());
+        assertEquals(RideStatus.CONFIRMED, stored.getStatus());
+        assertTrue(store.getPendingRides().isEmpty());
+    }
+
+    @Test
+    void returnedRides_areCopies() {
+        int passengerId = passenger("p@ie.edu");
+        ride(passengerId, "A", NOON);
+
+        store.getPendingRides().get(0).setStatus(RideStatus.CANCELLED);
+        assertEquals(RideStatus.PENDING, store.getRidesByPassengerId(passengerId).get(0).getStatus());
+    }
+
+    @Test
+    void acceptRide_confirmsOnceAndRejectsLaterOrUnknownRides() throws Exception {
+        int passengerId = passenger("p@ie.edu");
+        int firstDriver = driver("d1@ie.edu");
+        int secondDriver = driver("d2@ie.edu");
+        Ride ride = ride(passengerId, "A", NOON);
+
+        Ride accepted = store.acceptRide(ride.getId(), firstDriver, 11);
+        assertEquals(RideStatus.CONFIRMED, accepted.getStatus());
+        assertEquals(firstDriver, accepted.getDriverId());
+        assertEquals(11, accepted.getCarId());
+
+        RideNotAvailableException taken = assertThrows(RideNotAvailableException.class,
+                () -> store.acceptRide(ride.getId(), secondDriver, 12));
+        assertTrue(taken.getMessage().contains("CONFIRMED"));
+        assertEquals(firstDriver, store.getRidesByPassengerId(passengerId).get(0).getDriverId());
+        assertThrows(RideNotAvailableException.class, () -> store.acceptRide(999_999, firstDriver, 11));
+    }
+
+    @Test
+    void completeRide_completesOnlyConfirmedRides() throws Exception {
+        int passengerId = passenger("p@ie.edu");
+        int driverId = driver("d@ie.edu");
+        Ride pending = ride(passengerId, "A", NOON);
+        Ride confirmed = ride(passengerId, "B", NOON);
+        store.acceptRide(confirmed.getId(), driverId, 11);
+
+        RideNotAvailableException notConfirmed = assertThrows(RideNotAvailableException.class,
+                () -> store.completeRide(pending.getId()));
+        assertTrue(notConfirmed.getMessage().contains("PENDING"));
+        Ride completed = store.completeRide(confirmed.getId());
+        assertEquals(RideStatus.COMPLETED, completed.getStatus());
+        assertEquals(driverId, completed.getDriverId());
+
+        // A cancellation after the driver's read is not overwritten
+        Ride cancelled = ride(passengerId, "C", NOON);
+        store.acceptRide(cancelled.getId(), driverId, 11);
+        store.transitionRide(store.getRideById(cancelled.getId()), RideStatus.CANCELLED);
+        assertThrows(RideNotAvailableException.class, () -> store.completeRide(cancelled.getId()));
+        assertEquals(RideStatus.CANCELLED, store.getRideById(cancelled.getId()).getStatus());
+        assertThrows(RideNotAvailableException.class, () -> store.completeRide(confirmed.getId()));
+        assertThrows(RideNotAvailableException.class, () -> store.completeRide(999_999));
+    }
+
+    @Test
+    void acceptRide_underContention_hasExactlyOneWinnerPerRide() throws Exception {
+        int passengerId = passenger("p@ie.edu");
+        int racers = 8;
+        int[] drivers = new int[racers];
+        for (int i = 0; i < racers; i++) {
+            drivers[i] = driver("d" + i + "@ie.edu");
+        }
+        List<Ride> rides = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            rides.add(ride(passengerId, "A", NOON));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(racers);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> wins = new ArrayList<>();
+            for (int i = 0; i < racers; i++) {
+                int driverId = drivers[i];
+                wins.add(pool.submit(() -> {
+                    start.await();
+                    int won = 0;
+                    for (Ride ride : rides) {
+                        try {
+                            store.acceptRide(ride.getId(), driverId, driverId);
+                            won++;
+                        } catch (RideNotAvailableException e) {
+                            // another driver got it
+                        }
+                    }
+                    return won;
+                }));
+            }
+            start.countDown();
+            int total = 0;
+            for (Future<Integer> win : wins) {
+                total += win.get();
+            }
+            assertEquals(rides.size(), total);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertTrue(store.getPendingRides().isEmpty());
+        assertEquals(rides.size(), store.getRidesByStatus(RideStatus.CONFIRMED).size());
+    }
+
+    // Bulk import
+
+    @Test
+    void importUsers_assignsIdsInOrderAndSkipsTakenEmails() {
+        passenger("taken@student.ie.edu");
+        List<User> users = List.of(
+                new Passenger("Ana", "ana@student.ie.edu", "hash"),
+                new Driver(0, "Taken", " TAKEN@student.ie.edu", "hash", "DRIVER"),
+                new Driver(0, "Bo", "bo@student.ie.edu", "hash", "DRIVER"),
+                new Passenger("Ana again", "Ana@Student.ie.edu", "hash"));
+
+        int[] ids = store.importUsers(users);
+
+        assertEquals(4, ids.length);
+        assertTrue(ids[0] > 0);
+        assertEquals(-1, ids[1]);
+        assertTrue(ids[2] > ids[0]);
+        assertEquals(-1, ids[3]);
+        assertEquals("Ana", store.getUserByEmail("ana@student.ie.edu").getName());
+        assertTrue(store.getUserById(ids[2]) instanceof Driver);
+        assertTrue(passenger("new@student.ie.edu") > ids[2]);
+    }
+
+    @Test
+    void importCars_areFoundByIdAndByDriver() {
+        int driverId = driver("d@ie.edu");
+        int existing = store.createCar(new Car(driverId, "OLD", "Seat", 4));
+
+        int[] ids = store.importCars(List.of(new Car(driverId, "A1", "Kia", 4), new Car(driverId, "B2", "Fiat", 2)));
+
+        assertEquals(2, ids.length);
+        assertTrue(ids[0] > existing && ids[1] > ids[0]);
+        assertEquals("B2", store.getCarById(ids[1]).getPlate());
+        assertEquals(List.of(existing, ids[0], ids[1]),
+                store.getCarsByDriverId(driverId).stream().map(Car::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void importRides_areVisibleToEveryLookup() throws Exception {
+        int passengerId = passenger("p@student.ie.edu");
+        int driverId = driver("d@ie.edu");
+        Ride existing = ride(passengerId, "Campus", NOON);
+        Ride pending = new Ride(passengerId, " campus ", "Sol", NOON.plusHours(1), 1, 7.0);
+        Ride done = new Ride(passengerId, "Sol", "Campus", NOON.minusDays(1), 3, 9.0);
+        done.setDriverId(driverId);
+        done.setCarId(5);
+        done.setStatus(RideStatus.COMPLETED);
+
+        int[] ids = store.importRides(List.of(pending, done));
+
+        assertTrue(ids[0] > existing.getId() && ids[1] > ids[0]);
+        assertEquals(ids[0], pending.getId());
+        assertEquals("Campus", pending.getOrigin());
+        assertEquals(List.of(existing.getId(), ids[0], ids[1]), ids(store.getRidesByPassengerId(passengerId)));
+        assertEquals(List.of(ids[1]), ids(store.getRidesByDriverId(driverId)));
+        assertEquals(List.of(ids[1]), ids(store.getRidesByStatus(RideStatus.COMPLETED)));
+        assertEquals(List.of(existing.getId(), ids[0]), ids(store.getPendingRidesFrom("CAMPUS")));
+        assertEquals(List.of(ids[0]), ids(store.getPendingRidesBetween(NOON.plusMinutes(30), NOON.plusHours(2))));
+
+        Ride stored = store.getRidesByDriverId(driverId).get(0);
+        assertEquals(Integer.valueOf(5), stored.getCarId());
+        assertEquals(3, stored.getSeatsNeeded());
+        assertEquals(9.0, stored.getPriceEstimate());
+        assertEquals(NOON.minusDays(1), stored.getTime());
+
+        store.acceptRide(ids[0], driverId, 5);
+        assertEquals(List.of(ids[0], ids[1]), ids(store.getRidesByDriverId(driverId)));
+    }
+
+    // Ride modification sequence
+
+    @Test
+    void everyRideWrite_bumpsTheModificationSequence() throws Exception {
+        int passengerId = passenger("p@student.ie.edu");
+        int driverId = driver("d@ie.edu");
+        long start = store.getLastRideModSeq();
+        Ride first = ride(passengerId, "Campus", NOON);
+        Ride second = ride(passengerId, "Sol", NOON.minusDays(1));
+        long created = store.getLastRideModSeq();
+        assertTrue(created > start);
+        assertArrayEquals(new int[] {first.getId(), second.getId()}, store.getRideIdsChangedBetween(start, created));
+
+        store.acceptRide(first.getId(), driverId, 1);
+        long accepted = store.getLastRideModSeq();
+        assertArrayEquals(new int[] {first.getId()}, store.getRideIdsChangedBetween(created, accepted));
+
+        store.expirePendingRides(NOON);
+        long expired = store.getLastRideModSeq();
+        assertArrayEquals(new int[] {second.getId()}, store.getRideIdsChangedBetween(accepted, expired));
+
+        Ride confirmed = store.getRideById(first.getId());
+        store.transitionRide(confirmed, RideStatus.COMPLETED);
+        confirmed.setSeatsNeeded(3);
+        store.updateRide(confirmed);
+        long updated = store.getLastRideModSeq();
+        assertArrayEquals(new int[] {first.getId()}, store.getRideIdsChangedBetween(expired, updated));
+
+        int[] imported = store.importRides(List.of(new Ride(passengerId, "Sol", "Atocha", NOON, 1, 3.0)));
+        assertArrayEquals(imported, store.getRideIdsChangedBetween(updated, store.getLastRideModSeq()));
+        assertArrayEquals(new int[] {first.getId(), second.getId(), imported[0]},
+                store.getRideIdsChangedBetween(start, store.getLastRideModSeq()));
+        assertArrayEquals(new int[0], store.getRideIdsChangedBetween(store.getLastRideModSeq(), Long.MAX_VALUE));
+    }
+
+    // An exporter that reads the mark while other threads write must still
+    // pick every write up in some interval: the mark may not pass a write that
+    // has taken its number but is not visible yet
+    @Test
+    void modificationSequence_readDuringConcurrentWrites_neverSkipsAWrite() throws Exception {
+        int passengerId = passenger("p@student.ie.edu");
+        int writers = 8;
+        int perWriter = 200;
+        Set<Integer> seen = new HashSet<>();
+        long mark = store.getLastRideModSeq();
+
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<List<Integer>>> written = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                written.add(pool.submit(() -> {
+                    List<Integer> ids = new ArrayList<>();
+                    for (int i = 0; i < perWriter; i++) {
+                        if (i % 2 == writer % 2) {
+                            ids.add(ride(passengerId, "Campus", NOON).getId());
+                        } else {
+                            ids.add(store.importRides(List.of(new Ride(passengerId, "Sol", "Atocha", NOON, 1, 3.0)))[0]);
+                        }
+                    }
+                    return ids;
+                }));
+            }
+            while (!written.stream().allMatch(Future::isDone)) {
+                long next = store.getLastRideModSeq();
+                for (int id : store.getRideIdsChangedBetween(mark, next)) {
+                    seen.add(id);
+                }
+                mark = next;
+            }
+            for (int id : store.getRideIdsChangedBetween(mark, store.getLastRideModSeq())) {
+                seen.add(id);
+            }
+
+            for (Future<List<Integer>> ids : written) {
+                for (int id : ids.get()) {
+                    assertTrue(seen.contains(id), "ride " + id + " was never reported as changed");
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void getRideById_findsActiveAndFinishedRides() throws Exception {
+        int passengerId = passenger("p@student.ie.edu");
+        Ride pending = ride(passengerId, "Campus", NOON);
+        Ride done = ride(passengerId, "Sol", NOON);
+        store.transitionRide(done, RideStatus.COMPLETED);
+
+        assertEquals("Campus", store.getRideById(pending.getId()).getOrigin());
+        assertEquals(RideStatus.COMPLETED, store.getRideById(done.getId()).getStatus());
+        assertNull(store.getRideById(9999));
+    }
+}
@@ -0,0 +1,176 @@
+package com.teetime.database;
+
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+import com.teetime.exception.RideNotAvailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseManagerConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    private DatabaseManager db;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Field instanceField = DatabaseManager.class.getDeclaredField("instance");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+
+        db = DatabaseManager.getInstance();
+    }
+
+    // Runs the task on THREADS threads released at the same moment
+    private void runConcurrently(Callable<Void> task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void getInstance_calledConcurrently_returnsSingleInstance() throws Exception {
+        Field instanceField = DatabaseManager.class.getDeclaredField("instance");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+
+        Set<DatabaseManager> seen = ConcurrentHashMap.newKeySet();
+        runConcurrently(() -> {
+            seen.add(DatabaseManager.getInstance());
+            return null;
+        });
+
+        assertEquals(1, seen.size());
+    }
+
+    @Test
+    void createUser_withSameEmailFromManyThreads_onlyOneSucceeds() throws Exception {
+        AtomicInteger winners = new AtomicInteger();
+        runConcurrently(() -> {
+            for (int i = 0; i < 200; i++) {
+                if (db.createUser("U" + i, "user" + i + "@example.com", "hash", "PASSENGER") > 0) {
+                    winners.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        assertEquals(200, winners.get(), "Each email should be claimed exactly once");
+        for (int i = 0; i < 200; i++) {
+            assertNotNull(db.getUserByEmail("user" + i + "@example.com"));
+        }
+    }
+
+    @Test
+    void createAcceptComplete_fromManyThreads_keepsIndexesConsistent() throws Exception {
+        int ridesPerThread = 500;
+        int driverId = db.createUser("Driver", "driver@example.com", "hash", "DRIVER");
+        AtomicInteger nextPassenger = new AtomicInteger();
+
+        runConcurrently(() -> {
+            int passengerId = db.createUser("P", "p" + nextPassenger.getAndIncrement() + "@example.com", "hash", "PASSENGER");
+            for (int i = 0; i < ridesPerThread; i++) {
+                Ride ride = new Ride(passengerId, "A", "B", LocalDateTime.now().plusHours(1), 1, 10.0);
+                db.createRide(ride);
+                if (i % 3 == 0) {
+                    continue; // leave pending
+                }
+                ride.setDriverId(driverId);
+                ride.setCarId(1);
+                db.transitionRide(ride, RideStatus.CONFIRMED);
+                if (i % 3 == 2) {
+                    db.transitionRide(ride, RideStatus.COMPLETED);
+                }
+                db.getPendingRides(); // concurrent readers
+            }
+            return null;
+        });
+
+        int total = THREADS * ridesPerThread;
+        int pending = db.getRidesByStatus(RideStatus.PENDING).size();
+        int confirmed = db.getRidesByStatus(RideStatus.CONFIRMED).size();
+        int completed = db.getRidesByStatus(RideStatus.COMPLETED).size();
+        assertEquals(total, pending + confirmed + completed, "Every ride should sit in exactly one bucket");
+        assertEquals(THREADS * 167, pending);
+        assertEquals(THREADS * 167, confirmed);
+        assertEquals(THREADS * 166, completed);
+
+        List<Ride> driverRides = db.getRidesByDriverId(driverId);
+        assertEquals(confirmed + completed, driverRides.size());
+        Set<Integer> ids = new HashSet<>();
+        for (Ride ride : driverRides) {
+            assertTrue(ids.add(ride.getId()), "Driver index must not contain duplicates");
+        }
+
+        for (int p = 0; p < THREADS; p++) {
+            int passengerId = db.getUserByEmail("p" + p + "@example.com").getId();
+            assertEquals(ridesPerThread, db.getRidesByPassengerId(passengerId).size());
+        }
+    }
+
+    @Test
+    void acceptRide_racedByManyDrivers_hasExactlyOneWinnerPerRide() throws Exception {
+        int passengerId = db.createUser("P", "p@example.com", "hash", "PASSENGER");
+        int rideCount = 300;
+        int[] rideIds = new int[rideCount];
+        for (int i = 0; i < rideCount; i++) {
+            rideIds[i] = db.createRide(new Ride(passengerId, "A", "B", LocalDateTime.now().plusHours(1), 1, 10.0));
+        }
+        AtomicInteger nextDriver = new AtomicInteger();
+        AtomicInteger wins = new AtomicInteger();
+        AtomicInteger losses = new AtomicInteger();
+
+        runConcurrently(() -> {
+            int driverId = db.createUser("D", "d" + nextDriver.getAndIncrement() + "@example.com", "hash", "DRIVER");
+            for (int rideId : rideIds) {
+                try {
+                    db.acceptRide(rideId, driverId, driverId);
+                    wins.incrementAndGet();
+                } catch (RideNotAvailableException e) {
+                    losses.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        assertEquals(rideCount, wins.get());
+        assertEquals(rideCount * (THREADS - 1), losses.get());
+        assertTrue(db.getPendingRides().isEmpty());
+        assertEquals(rideCount, db.getRidesByStatus(RideStatus.CONFIRMED).size());
+
+        int indexed = 0;
+        for (int d = 0; d < THREADS; d++) {
+            int driverId = db.getUserByEmail("d" + d + "@example.com").getId();
+            for (Ride ride : db.getRidesByDriverId(driverId)) {
+                assertEquals(driverId, ride.getDriverId());
+                indexed++;
+            }
+        }
+        assertEquals(rideCount, indexed, "Each ride should be indexed under its single winner");
+    }
+}
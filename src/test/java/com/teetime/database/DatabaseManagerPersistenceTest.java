@@ -0,0 +1,322 @@
+package com.teetime.database;
+
+import com.teetime.domain.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseManagerPersistenceTest {
+
+    @TempDir
+    Path dataDir;
+
+    private DatabaseManager open() {
+        return new DatabaseManager(StorageConfig.persistent(dataDir, StorageConfig.FsyncPolicy.PER_OP));
+    }
+
+    @Test
+    void reopen_restoresUsersCarsAndRides() throws Exception {
+        DatabaseManager db = open();
+        int passengerId = db.createUser("Pat", "pat@student.ie.edu", "hash", "PASSENGER");
+        int driverId = db.createUser("Dana", "dana@ie.edu", "hash", "DRIVER");
+        int carId = db.createCar(new Car(driverId, "1234ABC", "Toyota", 4));
+        Ride ride = new Ride(passengerId, "IE Tower", "Atocha", LocalDateTime.now().plusHours(2), 2, 14.5);
+        int rideId = db.createRide(ride);
+        db.acceptRide(rideId, driverId, carId);
+        db.createRide(new Ride(passengerId, "Atocha", "IE Tower", LocalDateTime.now().plusHours(5), 1, 9.0));
+        db.close();
+
+        DatabaseManager reopened = open();
+        try {
+            assertEquals("Pat", reopened.getUserByEmail("pat@student.ie.edu").getName());
+            assertTrue(reopened.getUserByEmail("dana@ie.edu") instanceof Driver);
+            assertNotNull(reopened.getUserByEmail("admin@ie.edu"));
+
+            List<Car> cars = reopened.getCarsByDriverId(driverId);
+            assertEquals(1, cars.size());
+            assertEquals("1234ABC", cars.get(0).getPlate());
+            assertEquals(driverId, reopened.getCarById(carId).getDriverId());
+
+            List<Ride> driverRides = reopened.getRidesByDriverId(driverId);
+            assertEquals(1, driverRides.size());
+            assertEquals(RideStatus.CONFIRMED, driverRides.get(0).getStatus());
+            assertEquals(carId, driverRides.get(0).getCarId());
+            assertEquals(2, reopened.getRidesByPassengerId(passengerId).size());
+            assertEquals(1, reopened.getPendingRides().size());
+            LocalDateTime now = LocalDateTime.now();
+            assertEquals(1, reopened.getPendingRidesBetween(now, now.plusHours(6)).size());
+            assertTrue(reopened.getPendingRidesBetween(now, now.plusHours(3)).isEmpty());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void reopen_restoresBulkImports() {
+        DatabaseManager db = open();
+        int[] users = db.importUsers(List.of(new Passenger("Pat", "pat@student.ie.edu", "hash"),
+                new Driver(0, "Dana", "dana@ie.edu", "hash", "DRIVER")));
+        int[] cars = db.importCars(List.of(new Car(users[1], "1234ABC", "Toyota", 4)));
+        Ride done = new Ride(users[0], "IE Tower", "Atocha", LocalDateTime.now().minusDays(2), 2, 14.5);
+        done.setDriverId(users[1]);
+        done.setCarId(cars[0]);
+        done.setStatus(RideStatus.COMPLETED);
+        int[] rides = db.importRides(List.of(done,
+                new Ride(users[0], "Atocha", "IE Tower", LocalDateTime.now().plusHours(5), 1, 9.0)));
+        db.close();
+
+        DatabaseManager reopened = open();
+        try {
+            assertEquals(users[1], reopened.getUserByEmail("dana@ie.edu").getId());
+            assertEquals("1234ABC", reopened.getCarById(cars[0]).getPlate());
+            assertEquals(List.of(rides[0], rides[1]), ids(reopened.getRidesByPassengerId(users[0])));
+            assertEquals(List.of(rides[0]), ids(reopened.getRidesByDriverId(users[1])));
+            assertEquals(List.of(rides[1]), ids(reopened.getPendingRides()));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void reopen_keepsTheRideModificationSequenceAcrossSnapshots() throws Exception {
+        DatabaseManager db = open();
+        int passengerId = db.createUser("Pat", "pat@student.ie.edu", "hash", "PASSENGER");
+        int driverId = db.createUser("Dana", "dana@ie.edu", "hash", "DRIVER");
+        int early = db.createRide(new Ride(passengerId, "A", "B", LocalDateTime.now().plusHours(1), 1, 5.0));
+        int late = db.createRide(new Ride(passengerId, "B", "C", LocalDateTime.now().plusHours(2), 1, 5.0));
+        long mark = db.getLastRideModSeq();
+        db.snapshot();
+        db.acceptRide(early, driverId, 1);
+        long end = db.getLastRideModSeq();
+        db.close();
+
+        DatabaseManager reopened = open();
+        try {
+            assertEquals(end, reopened.getLastRideModSeq());
+            assertArrayEquals(new int[] {early}, reopened.getRideIdsChangedBetween(mark, end));
+            assertArrayEquals(new int[] {early, late}, reopened.getRideIdsChangedBetween(0, end));
+            int next = reopened.createRide(new Ride(passengerId, "C", "D", LocalDateTime.now().plusHours(3), 1, 5.0));
+            assertEquals(end + 1, reopened.getLastRideModSeq());
+            assertArrayEquals(new int[] {next}, reopened.getRideIdsChangedBetween(end, end + 1));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void reopen_continuesIdCountersWithoutReusingIds() {
+        DatabaseManager db = open();
+        int userId = db.createUser("Pat", "pat@student.ie.edu", "hash", "PASSENGER");
+        int lastUserId = db.createUser("Temp", "temp@student.ie.edu", "hash", "PASSENGER");
+        db.deleteUser(lastUserId);
+        int carId = db.createCar(new Car(userId, "X", "Y", 4));
+        db.deleteCar(carId);
+        int rideId = db.createRide(new Ride(userId, "A", "B", LocalDateTime.now().plusHours(1), 1, 5.0));
+        db.close();
+
+        DatabaseManager reopened = open();
+        try {
+            assertNull(reopened.getUserByEmail("temp@student.ie.edu"));
+            assertTrue(reopened.getCarsByDriverId(userId).isEmpty());
+            assertTrue(reopened.createUser("New", "new@student.ie.edu", "hash", "PASSENGER") > lastUserId);
+            assertTrue(reopened.createCar(new Car(userId, "Z", "W", 4)) > carId);
+            assertTrue(reopened.createRide(new Ride(userId, "C", "D", LocalDateTime.now().plusHours(1), 1, 5.0)) > rideId);
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void reopen_afterEmailChange_resolvesOnlyTheNewEmail() {
+        DatabaseManager db = open();
+        int id = db.createUser("Pat", "old@student.ie.edu", "hash", "PASSENGER");
+        User user = db.getUserById(id);
+        user.setEmail("new@student.ie.edu");
+        db.updateUser(user);
+        db.close();
+
+        DatabaseManager reopened = open();
+        try {
+            assertNull(reopened.getUserByEmail("old@student.ie.edu"));
+            assertEquals(id, reopened.getUserByEmail("new@student.ie.edu").getId());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void reopen_withBatchedPolicy_recoversEverythingFlushedOnClose() {
+        StorageConfig batched = new StorageConfig(dataDir, StorageConfig.FsyncPolicy.BATCHED, 1000, 50);
+        DatabaseManager db = new DatabaseManager(batched);
+        for (int i = 0; i < 10; i++) {
+            db.createUser("U" + i, "u" + i + "@student.ie.edu", "hash", "PASSENGER");
+        }
+        db.close();
+
+        DatabaseManager reopened = new DatabaseManager(batched);
+        try {
+            for (int i = 0; i < 10; i++) {
+                assertNotNull(reopened.getUserByEmail("u" + i + "@student.ie.edu"));
+            }
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void snapshot_reopenLoadsSnapshotAndDeletesCoveredSegments() throws Exception {
+        DatabaseManager db = open();
+        int passengerId = db.createUser("Pat", "pat@student.ie.edu", "hash", "PASSENGER");
+        int driverId = db.createUser("Dana", "dana@ie.edu", "hash", "DRIVER");
+        int carId = db.createCar(new Car(driverId, "1234ABC", "Toyota", 4));
+        int rideId = db.createRide(new Ride(passengerId, "IE Tower", "Atocha", LocalDateTime.now().plusHours(2), 2, 14.5));
+        db.snapshot();
+        db.acceptRide(rideId, driverId, carId);
+        db.snapshot();
+        int laterRideId = db.createRide(new Ride(passengerId, "Atocha", "IE Tower", LocalDateTime.now().plusHours(5), 1, 9.0));
+        db.close();
+
+        assertEquals(List.of("archive", "journal-0000000002.wal", "snapshot-0000000002.bin"), dataFiles());
+
+        DatabaseManager reopened = open();
+        try {
+            assertEquals(driverId, reopened.getUserByEmail("dana@ie.edu").getId());
+            assertEquals(1, reopened.getCarsByDriverId(driverId).size());
+            assertEquals(RideStatus.CONFIRMED, reopened.getRidesByDriverId(driverId).get(0).getStatus());
+            assertEquals(laterRideId, reopened.getPendingRides().get(0).getId());
+            assertTrue(reopened.createRide(new Ride(passengerId, "A", "B", LocalDateTime.now().plusHours(1), 1, 5.0)) > laterRideId);
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void snapshot_keepsFinishedRidesAtFullPrecision() throws Exception {
+        DatabaseManager db = open();
+        int passengerId = db.createUser("Pat", "pat@student.ie.edu", "hash", "PASSENGER");
+        int driverId = db.createUser("Dana", "dana@ie.edu", "hash", "DRIVER");
+        LocalDateTime time = LocalDateTime.of(2025, 3, 14, 9, 30, 45, 123_456_789);
+        int rideId = db.createRide(new Ride(passengerId, "IE Tower", "Atocha", time, 2, 12.345678901));
+        db.acceptRide(rideId, driverId, 1);
+        db.completeRide(rideId);
+        db.snapshot();
+        db.close();
+
+        DatabaseManager reopened = open();
+        try {
+            Ride ride = reopened.getRideById(rideId);
+            assertEquals(RideStatus.COMPLETED, ride.getStatus());
+            assertEquals(time, ride.getTime());
+            assertEquals(12.345678901, ride.getPriceEstimate());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void snapshot_countersSkipIdsOfEntitiesDeletedBeforeTheSnapshot() {
+        DatabaseManager db = open();
+        int userId = db.createUser("Temp", "temp@student.ie.edu", "hash", "PASSENGER");
+        db.deleteUser(userId);
+        db.snapshot();
+        db.close();
+
+        DatabaseManager reopened = open();
+        try {
+            assertTrue(reopened.createUser("New", "new@student.ie.edu", "hash", "PASSENGER") > userId);
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void snapshot_whileWritersRun_losesNoWrites() throws Exception {
+        DatabaseManager db = new DatabaseManager(new StorageConfig(dataDir, StorageConfig.FsyncPolicy.INTERVAL, 64, 5, 0));
+        int passengerId = db.createUser("Pat", "pat@student.ie.edu", "hash", "PASSENGER");
+        AtomicBoolean running = new AtomicBoolean(true);
+        int[] created = {0};
+        Thread writer = new Thread(() -> {
+            while (running.get()) {
+                db.createRide(new Ride(passengerId, "A", "B", LocalDateTime.now().plusHours(1), 1, 5.0));
+                created[0]++;
+            }
+        });
+        writer.start();
+        for (int i = 0; i < 5; i++) {
+            Thread.sleep(10);
+            db.snapshot();
+        }
+        running.set(false);
+        writer.join();
+        db.close();
+
+        DatabaseManager reopened = open();
+        try {
+            assertEquals(created[0], reopened.getRidesByPassengerId(passengerId).size());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void completedRides_leaveTheHeapButStayInHistory() throws Exception {
+        DatabaseManager db = open();
+        int passengerId = db.createUser("Pat", "pat@student.ie.edu", "hash", "PASSENGER");
+        int driverId = db.createUser("Dana", "dana@ie.edu", "hash", "DRIVER");
+        int carId = db.createCar(new Car(driverId, "1234ABC", "Toyota", 4));
+        Ride done = new Ride(passengerId, "IE Tower", "Atocha", LocalDateTime.of(2025, 3, 14, 9, 30), 2, 14.5);
+        int doneId = db.createRide(done);
+        Ride accepted = db.acceptRide(doneId, driverId, carId);
+        db.transitionRide(accepted, RideStatus.COMPLETED);
+        int openId = db.createRide(new Ride(passengerId, "Atocha", "IE Tower", LocalDateTime.of(2025, 3, 14, 18, 0), 1, 9.0));
+
+        try {
+            assertEquals(1, db.residentRideCount());
+            assertEquals(List.of(doneId, openId), ids(db.getRidesByPassengerId(passengerId)));
+            assertEquals(List.of(doneId), ids(db.getRidesByDriverId(driverId)));
+            assertEquals(List.of(doneId), ids(db.getRidesByStatus(RideStatus.COMPLETED)));
+            assertThrows(com.teetime.exception.RideNotAvailableException.class,
+                    () -> db.acceptRide(doneId, driverId, carId));
+        } finally {
+            db.close();
+        }
+
+        DatabaseManager reopened = open();
+        try {
+            assertEquals(1, reopened.residentRideCount());
+            Ride archived = reopened.getRidesByDriverId(driverId).get(0);
+            assertEquals(RideStatus.COMPLETED, archived.getStatus());
+            assertEquals("Atocha", archived.getDestination());
+            assertEquals(carId, archived.getCarId());
+            reopened.snapshot();
+        } finally {
+            reopened.close();
+        }
+
+        DatabaseManager fromSnapshot = open();
+        try {
+            assertEquals(List.of(doneId, openId), ids(fromSnapshot.getRidesByPassengerId(passengerId)));
+        } finally {
+            fromSnapshot.close();
+        }
+    }
+
+    private static List<Integer> ids(List<Ride> rides) {
+        return rides.stream().map(Ride::getId).collect(Collectors.toList());
+    }
+
+    private List<String> dataFiles() throws Exception {
+        try (Stream<Path> files = Files.list(dataDir)) {
+            return files.map(f -> f.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+}
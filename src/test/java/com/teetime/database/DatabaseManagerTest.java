@@ -1,6 +1,7 @@
 package com.teetime.database;
 
 import com.teetime.domain.*;
+import com.teetime.exception.RideNotAvailableException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -80,6 +81,57 @@ class DatabaseManagerTest {
         assertNull(user);
     }
 
+    @Test
+    void getUserByEmail_ignoresCaseAndSurroundingWhitespace() {
+        int id = db.createUser("Jane", "Jane.Doe@Example.com", "hash", "PASSENGER");
+
+        User user = db.getUserByEmail("  jane.doe@example.COM ");
+        assertNotNull(user);
+        assertEquals(id, user.getId());
+        assertEquals("Jane.Doe@Example.com", user.getEmail(), "Stored email keeps its original form");
+    }
+
+    @Test
+    void createUser_withDuplicateEmailInDifferentCase_returnsMinusOne() {
+        assertTrue(db.createUser("Original", "same@example.com", "hash1", "PASSENGER") > 0);
+        assertEquals(-1, db.createUser("Duplicate", "SAME@example.com", "hash2", "PASSENGER"));
+    }
+
+    @Test
+    void updateUser_withChangedEmail_movesEmailIndexEntry() {
+        int id = db.createUser("John", "old@example.com", "hash", "PASSENGER");
+        User user = db.getUserById(id);
+
+        user.setEmail("new@example.com");
+        assertTrue(db.updateUser(user));
+
+        assertNull(db.getUserByEmail("old@example.com"), "Old email should no longer resolve");
+        assertEquals(id, db.getUserByEmail("new@example.com").getId());
+        assertTrue(db.createUser("Other", "old@example.com", "hash", "PASSENGER") > 0,
+                "Old email should be free for registration again");
+    }
+
+    @Test
+    void updateUser_withEmailOwnedByAnotherUser_isRejected() {
+        db.createUser("First", "first@example.com", "hash", "PASSENGER");
+        int secondId = db.createUser("Second", "second@example.com", "hash", "PASSENGER");
+        User second = db.getUserById(secondId);
+
+        second.setEmail("FIRST@example.com");
+        assertFalse(db.updateUser(second));
+        assertEquals("First", db.getUserByEmail("first@example.com").getName());
+    }
+
+    @Test
+    void deleteUser_removesUserAndEmailIndexEntry() {
+        int id = db.createUser("John", "john@example.com", "hash", "PASSENGER");
+
+        db.deleteUser(id);
+
+        assertNull(db.getUserById(id));
+        assertNull(db.getUserByEmail("john@example.com"));
+    }
+
     @Test
     void createCar_assignsIdAndCarIsReturnedByGetCarsByDriverId() {
         int driverId = db.createUser("Driver", "d@example.com", "hash", "DRIVER");
@@ -112,6 +164,35 @@ class DatabaseManagerTest {
         assertTrue(db.getCarsByDriverId(driverId).isEmpty(), "Car list should be empty after deletion");
     }
 
+    @Test
+    void getCarById_returnsStoredCarUntilDeleted() {
+        int driverId = db.createUser("Driver", "d@example.com", "hash", "DRIVER");
+        int carId = db.createCar(new Car(driverId, "1234ABC", "Toyota", 4));
+
+        assertEquals("1234ABC", db.getCarById(carId).getPlate());
+        assertNull(db.getCarById(carId + 1));
+
+        db.deleteCar(carId);
+        assertNull(db.getCarById(carId));
+    }
+
+    @Test
+    void getCarsByDriverId_returnsOnlyThatDriversCarsInIdOrder() {
+        int driverA = db.createUser("A", "a@example.com", "hash", "DRIVER");
+        int driverB = db.createUser("B", "b@example.com", "hash", "DRIVER");
+        int first = db.createCar(new Car(driverA, "A1", "Seat", 4));
+        int other = db.createCar(new Car(driverB, "B1", "Kia", 4));
+        int second = db.createCar(new Car(driverA, "A2", "Fiat", 2));
+        db.deleteCar(first);
+        int third = db.createCar(new Car(driverA, "A3", "Opel", 5));
+
+        assertEquals(List.of(second, third),
+                db.getCarsByDriverId(driverA).stream().map(Car::getId).toList());
+        assertEquals(List.of(other),
+                db.getCarsByDriverId(driverB).stream().map(Car::getId).toList());
+        assertTrue(db.getCarsByDriverId(999).isEmpty());
+    }
+
     @Test
     void createRide_assignsIdAndIsPendingByDefault() {
         int passengerId = db.createUser("Passenger", "p@example.com", "hash", "PASSENGER");
@@ -157,6 +238,139 @@ class DatabaseManagerTest {
         assertEquals(RideStatus.PENDING, pending.get(0).getStatus());
     }
 
+    @Test
+    void getPendingRidesFrom_returnsPendingRidesFromThatPlaceOnly() {
+        int passengerId = db.createUser("Passenger", "p@example.com", "hash", "PASSENGER");
+        Ride fromTower = new Ride(passengerId, "IE Tower", "Atocha", LocalDateTime.now(), 1, 10.0);
+        Ride fromTowerConfirmed = new Ride(passengerId, "ie tower", "Atocha", LocalDateTime.now(), 1, 10.0);
+        Ride fromAtocha = new Ride(passengerId, "Atocha", "IE Tower", LocalDateTime.now(), 1, 10.0);
+        db.createRide(fromTower);
+        db.createRide(fromTowerConfirmed);
+        db.createRide(fromAtocha);
+        db.transitionRide(fromTowerConfirmed, RideStatus.CONFIRMED);
+
+        List<Ride> pending = db.getPendingRidesFrom(db.getPlaces().idOf("IE Tower"));
+        assertEquals(1, pending.size());
+        assertEquals(fromTower.getId(), pending.get(0).getId());
+        assertEquals("IE Tower", fromTowerConfirmed.getOrigin());
+    }
+
+    @Test
+    void getPendingRidesBetween_returnsPendingRidesInTheWindowByTime() {
+        int passengerId = db.createUser("Passenger", "p@example.com", "hash", "PASSENGER");
+        LocalDateTime now = LocalDateTime.of(2025, 3, 14, 9, 0, 30);
+        Ride later = new Ride(passengerId, "A", "B", now.plusHours(3), 1, 10.0);
+        Ride sooner = new Ride(passengerId, "A", "B", now.plusMinutes(5), 1, 10.0);
+        Ride confirmed = new Ride(passengerId, "A", "B", now.plusHours(1), 1, 10.0);
+        Ride tooLate = new Ride(passengerId, "A", "B", now.plusHours(6), 1, 10.0);
+        Ride sameMinuteBefore = new Ride(passengerId, "A", "B", now.minusSeconds(20), 1, 10.0);
+        db.createRide(later);
+        db.createRide(sooner);
+        db.createRide(confirmed);
+        db.createRide(tooLate);
+        db.createRide(sameMinuteBefore);
+        db.transitionRide(confirmed, RideStatus.CONFIRMED);
+
+        List<Ride> window = db.getPendingRidesBetween(now, now.plusHours(6));
+        assertEquals(List.of(sooner.getId(), later.getId()), window.stream().map(Ride::getId).toList());
+
+        later.setTime(now.plusHours(7));
+        db.updateRide(later);
+        assertEquals(List.of(sooner.getId()),
+                db.getPendingRidesBetween(now, now.plusHours(6)).stream().map(Ride::getId).toList());
+    }
+
+    @Test
+    void expirePendingRides_cancelsOnlyPendingRidesBeforeTheCutoff() throws Exception {
+        int passengerId = db.createUser("Passenger", "p@example.com", "hash", "PASSENGER");
+        int driverId = db.createUser("Driver", "d@example.com", "hash", "DRIVER");
+        LocalDateTime cutoff = LocalDateTime.of(2025, 3, 14, 9, 0);
+        Ride stale = new Ride(passengerId, "A", "B", cutoff.minusHours(1), 1, 10.0);
+        Ride staleButAccepted = new Ride(passengerId, "A", "B", cutoff.minusHours(1), 1, 10.0);
+        Ride upcoming = new Ride(passengerId, "A", "B", cutoff.plusSeconds(1), 1, 10.0);
+        db.createRide(stale);
+        db.createRide(staleButAccepted);
+        db.createRide(upcoming);
+        db.acceptRide(staleButAccepted.getId(), driverId, 1);
+
+        assertEquals(1, db.expirePendingRides(cutoff));
+        assertEquals(0, db.expirePendingRides(cutoff));
+
+        List<Ride> cancelled = db.getRidesByStatus(RideStatus.CANCELLED);
+        assertEquals(1, cancelled.size());
+        assertEquals(stale.getId(), cancelled.get(0).getId());
+        assertEquals(List.of(upcoming.getId()), db.getPendingRides().stream().map(Ride::getId).toList());
+        assertTrue(db.getPendingRidesBetween(cutoff.minusHours(2), cutoff).isEmpty());
+    }
+
+    @Test
+    void transitionRide_movesRideBetweenStatusBuckets() {
+        int passengerId = db.createUser("Passenger", "p@example.com", "hash", "PASSENGER");
+        Ride ride = new Ride(passengerId, "A", "B", LocalDateTime.now(), 1, 10.0);
+        db.createRide(ride);
+
+        db.transitionRide(ride, RideStatus.CONFIRMED);
+        assertTrue(db.getPendingRides().isEmpty());
+        assertEquals(1, db.getRidesByStatus(RideStatus.CONFIRMED).size());
+
+        db.transitionRide(ride, RideStatus.COMPLETED);
+        assertTrue(db.getRidesByStatus(RideStatus.CONFIRMED).isEmpty());
+        List<Ride> completed = db.getRidesByStatus(RideStatus.COMPLETED);
+        assertEquals(1, completed.size());
+        assertEquals(ride.getId(), completed.get(0).getId());
+    }
+
+    @Test
+    void acceptRide_onPendingRide_confirmsAndAssignsDriver() throws Exception {
+        int passengerId = db.createUser("P", "p@example.com", "hash", "PASSENGER");
+        int driverId = db.createUser("D", "d@example.com", "hash", "DRIVER");
+        Ride ride = new Ride(passengerId, "A", "B", LocalDateTime.now(), 1, 10.0);
+        db.createRide(ride);
+
+        Ride accepted = db.acceptRide(ride.getId(), driverId, 7);
+
+        assertEquals(RideStatus.CONFIRMED, accepted.getStatus());
+        assertEquals(driverId, accepted.getDriverId());
+        assertEquals(7, accepted.getCarId());
+        assertTrue(db.getPendingRides().isEmpty());
+        assertEquals(1, db.getRidesByDriverId(driverId).size());
+    }
+
+    @Test
+    void acceptRide_onAlreadyConfirmedRide_throwsAndKeepsFirstDriver() throws Exception {
+        int passengerId = db.createUser("P", "p@example.com", "hash", "PASSENGER");
+        int driver1Id = db.createUser("D1", "d1@example.com", "hash", "DRIVER");
+        int driver2Id = db.createUser("D2", "d2@example.com", "hash", "DRIVER");
+        Ride ride = new Ride(passengerId, "A", "B", LocalDateTime.now(), 1, 10.0);
+        db.createRide(ride);
+
+        db.acceptRide(ride.getId(), driver1Id, 1);
+
+        assertThrows(RideNotAvailableException.class, () -> db.acceptRide(ride.getId(), driver2Id, 2));
+        Ride stored = db.getRidesByDriverId(driver1Id).get(0);
+        assertEquals(driver1Id, stored.getDriverId());
+        assertEquals(1, stored.getCarId());
+        assertTrue(db.getRidesByDriverId(driver2Id).isEmpty());
+    }
+
+    @Test
+    void getRides_returnCopiesThatDoNotWriteThrough() {
+        int passengerId = db.createUser("P", "p@example.com", "hash", "PASSENGER");
+        Ride ride = new Ride(passengerId, "A", "B", LocalDateTime.now(), 1, 10.0);
+        db.createRide(ride);
+
+        Ride copy = db.getRidesByPassengerId(passengerId).get(0);
+        copy.setDestination("C");
+
+        assertNotSame(ride, copy);
+        assertEquals("B", db.getRidesByPassengerId(passengerId).get(0).getDestination());
+    }
+
+    @Test
+    void acceptRide_unknownRide_throws() {
+        assertThrows(RideNotAvailableException.class, () -> db.acceptRide(999, 1, 1));
+    }
+
     @Test
     void getRidesByPassengerId_returnsOnlyThatPassengersRides() {
         int passenger1Id = db.createUser("P1", "p1@example.com", "hash", "PASSENGER");
@@ -206,6 +420,33 @@ class DatabaseManagerTest {
         assertEquals(driver2Id, d2Rides.get(0).getDriverId());
     }
 
+    @Test
+    void getRidesByDriverId_afterReassignment_movesRideToNewDriver() {
+        int passengerId = db.createUser("P", "p@example.com", "hash", "PASSENGER");
+        int driver1Id = db.createUser("D1", "d1@example.com", "hash", "DRIVER");
+        int driver2Id = db.createUser("D2", "d2@example.com", "hash", "DRIVER");
+
+        Ride ride = new Ride(passengerId, "A", "B", LocalDateTime.now(), 1, 10.0);
+        db.createRide(ride);
+        ride.setDriverId(driver1Id);
+        db.updateRide(ride);
+
+        ride.setDriverId(driver2Id);
+        db.updateRide(ride);
+
+        assertTrue(db.getRidesByDriverId(driver1Id).isEmpty());
+        assertEquals(1, db.getRidesByDriverId(driver2Id).size());
+    }
+
+    @Test
+    void getRidesByPassengerId_returnsReadOnlyList() {
+        int passengerId = db.createUser("P", "p@example.com", "hash", "PASSENGER");
+        db.createRide(new Ride(passengerId, "A", "B", LocalDateTime.now(), 1, 10.0));
+
+        List<Ride> rides = db.getRidesByPassengerId(passengerId);
+        assertThrows(UnsupportedOperationException.class, () -> rides.clear());
+    }
+
     @Test
     void updateRide_persistsChangesToExistingRide() {
         int passengerId = db.createUser("P", "p@example.com", "hash", "PASSENGER");
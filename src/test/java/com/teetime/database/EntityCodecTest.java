@@ -0,0 +1,78 @@
+package com.teetime.database;
+
+import com.teetime.domain.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityCodecTest {
+
+    @Test
+    void user_roundTripsAndKeepsSubclass() {
+        User driver = new Driver(3, "Dana", "dana@ie.edu", "hash", "BOTH");
+
+        User decoded = EntityCodec.decodeUser(ByteBuffer.wrap(EntityCodec.encodeUser(driver)));
+
+        assertTrue(decoded instanceof Driver);
+        assertEquals(3, decoded.getId());
+        assertEquals("Dana", decoded.getName());
+        assertEquals("dana@ie.edu", decoded.getEmail());
+        assertEquals("hash", decoded.getPasswordHash());
+        assertEquals("BOTH", decoded.getRole());
+
+        User passenger = new Passenger(4, "Pat", "pat@ie.edu", "h", "PASSENGER");
+        assertTrue(EntityCodec.decodeUser(ByteBuffer.wrap(EntityCodec.encodeUser(passenger))) instanceof Passenger);
+    }
+
+    @Test
+    void car_roundTrips() {
+        Car car = new Car(7, "1234ABC", "Seat Ibiza", 4);
+        car.setId(12);
+
+        Car decoded = EntityCodec.decodeCar(ByteBuffer.wrap(EntityCodec.encodeCar(car)));
+
+        assertEquals(12, decoded.getId());
+        assertEquals(7, decoded.getDriverId());
+        assertEquals("1234ABC", decoded.getPlate());
+        assertEquals("Seat Ibiza", decoded.getBrand());
+        assertEquals(4, decoded.getSeats());
+    }
+
+    @Test
+    void ride_roundTripsIncludingNullDriverAndCar() {
+        LocalDateTime time = LocalDateTime.of(2025, 3, 14, 8, 30, 15, 123_000_000);
+        Ride ride = new Ride(5, "IE Tower", "Atocha, Madrid", time, 2, 12.75);
+        ride.setId(40);
+
+        Ride decoded = EntityCodec.decodeRide(ByteBuffer.wrap(EntityCodec.encodeRide(ride)));
+
+        assertEquals(40, decoded.getId());
+        assertEquals(5, decoded.getPassengerId());
+        assertNull(decoded.getDriverId());
+        assertNull(decoded.getCarId());
+        assertEquals("IE Tower", decoded.getOrigin());
+        assertEquals("Atocha, Madrid", decoded.getDestination());
+        assertEquals(time, decoded.getTime());
+        assertEquals(2, decoded.getSeatsNeeded());
+        assertEquals(RideStatus.PENDING, decoded.getStatus());
+        assertEquals(12.75, decoded.getPriceEstimate());
+    }
+
+    @Test
+    void ride_roundTripsAssignedDriverAndCar() {
+        Ride ride = new Ride(5, "A", "B", LocalDateTime.now(), 1, 5.0);
+        ride.setId(1);
+        ride.setDriverId(9);
+        ride.setCarId(3);
+        ride.setStatus(RideStatus.COMPLETED);
+
+        Ride decoded = EntityCodec.decodeRide(ByteBuffer.wrap(EntityCodec.encodeRide(ride)));
+
+        assertEquals(9, decoded.getDriverId());
+        assertEquals(3, decoded.getCarId());
+        assertEquals(RideStatus.COMPLETED, decoded.getStatus());
+    }
+}
@@ -0,0 +1,72 @@
+package com.teetime.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdSetTest {
+
+    private static List<Integer> ids(IdSet set) {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = set.next(0); id >= 0; id = set.next(id + 1)) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    @Test
+    void next_iteratesInAscendingOrder() {
+        IdSet set = new IdSet();
+        set.add(500_000);
+        set.add(64);
+        set.add(63);
+        set.add(1);
+
+        assertEquals(List.of(1, 63, 64, 500_000), ids(set));
+        assertEquals(64, set.next(64));
+        assertEquals(500_000, set.next(65));
+        assertEquals(-1, set.next(500_001));
+    }
+
+    @Test
+    void remove_clearsOnlyThatId() {
+        IdSet set = new IdSet();
+        set.add(1);
+        set.add(2);
+        set.remove(1);
+        set.remove(7_000_000); // never allocated
+
+        assertFalse(set.contains(1));
+        assertTrue(set.contains(2));
+        assertEquals(List.of(2), ids(set));
+    }
+
+    @Test
+    void add_concurrentlyToSharedWords_losesNoIds() throws Exception {
+        IdSet set = new IdSet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int offset = t;
+                results.add(pool.submit(() -> {
+                    for (int id = offset; id < 200_000; id += 8) {
+                        set.add(id);
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(200_000, ids(set).size());
+    }
+}
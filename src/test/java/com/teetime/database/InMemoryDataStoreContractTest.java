@@ -0,0 +1,9 @@
+package com.teetime.database;
+
+class InMemoryDataStoreContractTest extends DataStoreContractTest {
+
+    @Override
+    protected DataStore openStore() {
+        return DatabaseManager.open(StorageConfig.inMemory());
+    }
+}
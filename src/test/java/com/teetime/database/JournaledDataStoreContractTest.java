@@ -0,0 +1,17 @@
+package com.teetime.database;
+
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+// The journaled store archives finished rides, which takes other code paths
+class JournaledDataStoreContractTest extends DataStoreContractTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Override
+    protected DataStore openStore() {
+        return DatabaseManager.open(StorageConfig.persistent(dataDir, StorageConfig.FsyncPolicy.INTERVAL));
+    }
+}
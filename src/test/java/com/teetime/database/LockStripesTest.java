@@ -0,0 +1,31 @@
+package com.teetime.database;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LockStripesTest {
+
+    @Test
+    void size_isRoundedUpToPowerOfTwo() {
+        assertEquals(64, new LockStripes(64).size());
+        assertEquals(128, new LockStripes(100).size());
+        assertEquals(1, new LockStripes(1).size());
+    }
+
+    @Test
+    void forId_isStableForTheSameId() {
+        LockStripes stripes = new LockStripes(16);
+        assertSame(stripes.forId(42), stripes.forId(42));
+    }
+
+    @Test
+    void forId_spreadsConsecutiveIdsAcrossStripes() {
+        LockStripes stripes = new LockStripes(16);
+        java.util.Set<Object> used = new java.util.HashSet<>();
+        for (int id = 1; id <= 64; id++) {
+            used.add(stripes.forId(id));
+        }
+        assertTrue(used.size() > 8, "Consecutive ids should not pile onto a few stripes");
+    }
+}
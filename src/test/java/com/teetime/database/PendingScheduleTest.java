@@ -0,0 +1,78 @@
+package com.teetime.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PendingScheduleTest {
+
+    private static long at(int hour, int minute, int second) {
+        return LocalDateTime.of(2025, 3, 14, hour, minute, second).toEpochSecond(ZoneOffset.UTC);
+    }
+
+    @Test
+    void between_returnsRidesInTimeOrderNotIdOrder() {
+        PendingSchedule schedule = new PendingSchedule();
+        schedule.add(1, at(18, 0, 0));
+        schedule.add(2, at(9, 30, 0));
+        schedule.add(3, at(12, 0, 0));
+        schedule.add(4, at(23, 0, 0));
+
+        assertArrayEquals(new int[] {2, 3, 1}, schedule.between(at(9, 0, 0), at(18, 0, 0)));
+        assertArrayEquals(new int[0], schedule.between(at(18, 0, 0), at(9, 0, 0)));
+    }
+
+    @Test
+    void between_includesWholeBoundaryMinutes() {
+        PendingSchedule schedule = new PendingSchedule();
+        schedule.add(1, at(9, 0, 10));
+        schedule.add(2, at(10, 0, 50));
+
+        assertArrayEquals(new int[] {1, 2}, schedule.between(at(9, 0, 30), at(10, 0, 0)));
+    }
+
+    @Test
+    void ridesInTheSameMinute_areOrderedById() {
+        PendingSchedule schedule = new PendingSchedule();
+        schedule.add(7, at(9, 0, 0));
+        schedule.add(Integer.MAX_VALUE, at(9, 0, 0));
+        schedule.add(3, at(9, 0, 0));
+
+        assertArrayEquals(new int[] {3, 7, Integer.MAX_VALUE}, schedule.between(at(9, 0, 0), at(9, 0, 0)));
+    }
+
+    @Test
+    void move_reschedulesAndRemoves() {
+        PendingSchedule schedule = new PendingSchedule();
+        schedule.add(1, at(9, 0, 0));
+        schedule.move(1, at(9, 0, 0), at(9, 0, 40)); // same minute keeps its entry
+        schedule.move(1, at(9, 0, 40), at(15, 0, 0));
+
+        assertArrayEquals(new int[0], schedule.upTo(at(12, 0, 0)));
+        assertArrayEquals(new int[] {1}, schedule.upTo(at(15, 0, 0)));
+
+        schedule.remove(1, at(15, 0, 0));
+        assertEquals(0, schedule.size());
+    }
+
+    @Test
+    void noTime_isNeverScheduled() {
+        PendingSchedule schedule = new PendingSchedule();
+        schedule.add(1, PendingSchedule.NO_TIME);
+
+        assertEquals(0, schedule.size());
+    }
+
+    @Test
+    void timesBeforeTheEpoch_sortBeforeLaterOnes() {
+        PendingSchedule schedule = new PendingSchedule();
+        long before = LocalDateTime.of(1969, 12, 31, 23, 0).toEpochSecond(ZoneOffset.UTC);
+        schedule.add(1, at(9, 0, 0));
+        schedule.add(2, before);
+
+        assertArrayEquals(new int[] {2, 1}, schedule.upTo(at(9, 0, 0)));
+    }
+}
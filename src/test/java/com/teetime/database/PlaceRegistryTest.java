@@ -0,0 +1,103 @@
+package com.teetime.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlaceRegistryTest {
+
+    @Test
+    void intern_samePlace_returnsSameId() {
+        PlaceRegistry places = new PlaceRegistry();
+        int tower = places.intern("IE Tower");
+
+        assertNotEquals(PlaceRegistry.NONE, tower);
+        assertEquals(tower, places.intern("IE Tower"));
+        assertNotEquals(tower, places.intern("Atocha"));
+        assertEquals(2, places.size());
+    }
+
+    @Test
+    void intern_ignoresCaseAndExtraWhitespace() {
+        PlaceRegistry places = new PlaceRegistry();
+        int tower = places.intern("IE Tower");
+
+        assertEquals(tower, places.intern("  ie   TOWER "));
+        assertEquals(tower, places.intern("IE\tTower"));
+        assertEquals("IE Tower", places.canonical("ie tower"));
+    }
+
+    @Test
+    void intern_stripsNonAsciiWhitespaceAtEitherEnd() {
+        PlaceRegistry places = new PlaceRegistry();
+        int atocha = places.intern("Atocha");
+
+        assertEquals(atocha, places.intern("\u3000Atocha"));
+        assertEquals(atocha, places.intern("Atocha\u3000"));
+        assertEquals(atocha, places.intern("\u2003 Atocha \u3000"));
+        assertEquals("IE Tower", PlaceRegistry.normalize("\u3000IE\u3000\u3000Tower\u2003"));
+        assertEquals("", PlaceRegistry.normalize("\u3000"));
+    }
+
+    @Test
+    void canonical_firstSpellingWinsAndIsNormalized() {
+        PlaceRegistry places = new PlaceRegistry();
+
+        assertEquals("Segovia campus", places.canonical("  Segovia    campus "));
+        assertSame(places.canonical("segovia campus"), places.canonical("SEGOVIA CAMPUS"));
+    }
+
+    @Test
+    void idOf_unknownPlace_returnsNoneWithoutRegistering() {
+        PlaceRegistry places = new PlaceRegistry();
+
+        assertEquals(PlaceRegistry.NONE, places.idOf("Atocha"));
+        assertEquals(0, places.size());
+    }
+
+    @Test
+    void nullPlace_mapsToNone() {
+        PlaceRegistry places = new PlaceRegistry();
+
+        assertEquals(PlaceRegistry.NONE, places.intern(null));
+        assertNull(places.canonical(null));
+        assertNull(places.name(PlaceRegistry.NONE));
+    }
+
+    @Test
+    void name_unknownId_throws() {
+        assertThrows(IllegalArgumentException.class, () -> new PlaceRegistry().name(7));
+    }
+
+    @Test
+    void intern_concurrently_assignsOneIdPerPlace() throws Exception {
+        PlaceRegistry places = new PlaceRegistry();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(pool.submit(() -> {
+                    int[] ids = new int[500];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = places.intern("Place " + i);
+                    }
+                    return ids;
+                }));
+            }
+            int[] first = results.get(0).get();
+            for (Future<int[]> result : results) {
+                assertArrayEquals(first, result.get());
+            }
+            assertEquals(500, places.size());
+            assertEquals("Place 499", places.name(first[499]));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.teetime.database;
+
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RideArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    private RideArchive archive;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        archive = new RideArchive(dir, new PlaceRegistry(), 4); // tiny regions so tests cross region boundaries
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        archive.close();
+    }
+
+    private Ride completed(int id, int passengerId, Integer driverId) {
+        Ride ride = new Ride(passengerId, "IE Tower", "Atocha", LocalDateTime.of(2025, 3, 14, 9, 30, 45, 500), 2, 12.345678901);
+        ride.setId(id);
+        ride.setDriverId(driverId);
+        ride.setCarId(driverId != null ? 70 + driverId : null);
+        ride.setStatus(RideStatus.COMPLETED);
+        return ride;
+    }
+
+    @Test
+    void put_thenRead_roundTripsAtFullPrecision() {
+        archive.put(completed(5, 1, 2));
+
+        Ride ride = archive.get(5);
+        assertEquals(5, ride.getId());
+        assertEquals(1, ride.getPassengerId());
+        assertEquals(2, ride.getDriverId());
+        assertEquals(72, ride.getCarId());
+        assertEquals("IE Tower", ride.getOrigin());
+        assertEquals("Atocha", ride.getDestination());
+        assertEquals(LocalDateTime.of(2025, 3, 14, 9, 30, 45, 500), ride.getTime());
+        assertEquals(2, ride.getSeatsNeeded());
+        assertEquals(RideStatus.COMPLETED, ride.getStatus());
+        assertEquals(12.345678901, ride.getPriceEstimate());
+    }
+
+    @Test
+    void put_withoutDriver_readsBackNullDriverAndCar() {
+        archive.put(completed(1, 1, null));
+
+        Ride ride = archive.get(1);
+        assertNull(ride.getDriverId());
+        assertNull(ride.getCarId());
+        assertTrue(archive.getByDriver(0).isEmpty());
+    }
+
+    @Test
+    void getByPassengerAndDriver_followOnlyThatUsersRowsOldestFirst() {
+        for (int id = 1; id <= 10; id++) {
+            archive.put(completed(id, id % 2 == 0 ? 100 : 200, id % 3 == 0 ? 300 : 400));
+        }
+
+        assertEquals(List.of(2, 4, 6, 8, 10), ids(archive.getByPassenger(100)));
+        assertEquals(List.of(3, 6, 9), ids(archive.getByDriver(300)));
+        assertTrue(archive.getByPassenger(999).isEmpty());
+        assertEquals(10, archive.rowCount());
+    }
+
+    @Test
+    void put_sameIdAgain_rewritesRowInPlace() {
+        archive.put(completed(1, 1, 2));
+        Ride updated = completed(1, 1, 2);
+        updated.setDestination("Segovia campus");
+        archive.put(updated);
+
+        assertEquals(1, archive.rowCount());
+        assertEquals("Segovia campus", archive.get(1).getDestination());
+    }
+
+    @Test
+    void put_sameIdWithNewDriverOrPassenger_movesRowToTheNewChains() {
+        archive.put(completed(1, 1, 2));
+        archive.put(completed(2, 1, 2));
+        archive.put(completed(1, 1, 3));
+        archive.put(completed(2, 4, 2));
+
+        assertEquals(List.of(2), ids(archive.getByDriver(2)));
+        assertEquals(List.of(1), ids(archive.getByDriver(3)));
+        assertEquals(List.of(1), ids(archive.getByPassenger(1)));
+        assertEquals(List.of(2), ids(archive.getByPassenger(4)));
+        assertEquals(List.of(1, 2), ids(archive.getByStatus(RideStatus.COMPLETED)));
+    }
+
+    @Test
+    void remove_hidesRideFromEveryQuery() {
+        archive.put(completed(1, 1, 2));
+        archive.put(completed(2, 1, 2));
+
+        assertTrue(archive.remove(1));
+        assertFalse(archive.remove(1));
+        assertFalse(archive.contains(1));
+        assertNull(archive.get(1));
+        assertEquals(List.of(2), ids(archive.getByPassenger(1)));
+        assertEquals(List.of(2), ids(archive.getByStatus(RideStatus.COMPLETED)));
+    }
+
+    @Test
+    void get_findsEachRideByIdAmongManyRows() {
+        for (int id = 5000; id > 0; id -= 2) {
+            archive.put(completed(id, id % 7, null));
+        }
+
+        assertEquals(5000, archive.get(5000).getId());
+        assertEquals(2, archive.get(2).getId());
+        assertEquals(2, archive.get(2).getPassengerId());
+        assertNull(archive.get(3));
+        assertNull(archive.get(100_000));
+    }
+
+    @Test
+    void remove_thenPutAgain_archivesInANewRow() {
+        archive.put(completed(1, 1, 2));
+        archive.remove(1);
+        Ride again = completed(1, 1, 2);
+        again.setDestination("Sol");
+        archive.put(again);
+
+        assertEquals(2, archive.rowCount());
+        assertEquals("Sol", archive.get(1).getDestination());
+        assertEquals(List.of(1), ids(archive.getByPassenger(1)));
+    }
+
+    @Test
+    void getByStatus_filtersOnStatus() {
+        archive.put(completed(1, 1, 2));
+        Ride cancelled = completed(2, 1, null);
+        cancelled.setStatus(RideStatus.CANCELLED);
+        archive.put(cancelled);
+
+        assertEquals(List.of(1), ids(archive.getByStatus(RideStatus.COMPLETED)));
+        assertEquals(List.of(2), ids(archive.getByStatus(RideStatus.CANCELLED)));
+    }
+
+    private static List<Integer> ids(List<Ride> rides) {
+        return rides.stream().map(Ride::getId).toList();
+    }
+}
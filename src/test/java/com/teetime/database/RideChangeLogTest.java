@@ -0,0 +1,117 @@
+package com.teetime.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RideChangeLogTest {
+
+    @Test
+    void append_numbersWritesFromOne() {
+        RideChangeLog log = new RideChangeLog();
+        assertEquals(0, log.lastSeq());
+        assertEquals(1, log.append(7));
+        assertEquals(2, log.append(3));
+        assertEquals(2, log.lastSeq());
+    }
+
+    @Test
+    void ridesChangedBetween_listsEachRideOnceInIdOrder() {
+        RideChangeLog log = new RideChangeLog();
+        log.append(7);  // 1
+        log.append(3);  // 2
+        log.append(7);  // 3
+        log.append(5);  // 4
+        log.append(3);  // 5
+
+        assertArrayEquals(new int[] {3, 5, 7}, log.ridesChangedBetween(0, 5));
+        assertArrayEquals(new int[] {3, 5, 7}, log.ridesChangedBetween(2, 5));
+        assertArrayEquals(new int[] {5, 7}, log.ridesChangedBetween(2, 4));
+        assertArrayEquals(new int[] {3}, log.ridesChangedBetween(4, 100));
+        assertArrayEquals(new int[0], log.ridesChangedBetween(5, 5));
+    }
+
+    @Test
+    void pages_spanLongHistories() throws IOException {
+        RideChangeLog log = new RideChangeLog();
+        int writes = RideChangeLog.PAGE_SIZE * 2 + 10;
+        for (int i = 1; i <= writes; i++) {
+            log.append(i);
+        }
+
+        assertArrayEquals(new int[] {writes - 1, writes}, log.ridesChangedBetween(writes - 2, writes));
+        List<Long> pageStarts = new ArrayList<>();
+        int[] total = {0};
+        log.forEachPage((firstSeq, ids, count) -> {
+            pageStarts.add(firstSeq);
+            total[0] += count;
+        });
+        assertEquals(List.of(0L, (long) RideChangeLog.PAGE_SIZE, 2L * RideChangeLog.PAGE_SIZE), pageStarts);
+        assertEquals(writes + 1, total[0]); // slot 0 is never used
+    }
+
+    @Test
+    void pagesBeyondTheRetainedOnes_areDroppedAndTheirMarksCanNoLongerBeAnswered() throws IOException {
+        RideChangeLog log = new RideChangeLog(2);
+        int writes = RideChangeLog.PAGE_SIZE * 3 + 10;
+        for (int i = 1; i <= writes; i++) {
+            log.append(i);
+        }
+
+        long oldest = 2L * RideChangeLog.PAGE_SIZE - 1;
+        assertEquals(oldest, log.oldestSeq());
+        assertNull(log.ridesChangedBetween(oldest - 1, writes));
+        assertNull(log.ridesChangedBetween(0, writes));
+        assertEquals(writes - oldest, log.ridesChangedBetween(oldest, writes).length);
+        assertArrayEquals(new int[0], log.ridesChangedBetween(0, 0));
+        List<Long> pageStarts = new ArrayList<>();
+        log.forEachPage((firstSeq, ids, count) -> pageStarts.add(firstSeq));
+        assertEquals(List.of(2L * RideChangeLog.PAGE_SIZE, 3L * RideChangeLog.PAGE_SIZE), pageStarts);
+    }
+
+    @Test
+    void restore_fromRetainedPages_keepsTheSameOldestMark() throws IOException {
+        RideChangeLog original = new RideChangeLog(2);
+        for (int i = 1; i <= RideChangeLog.PAGE_SIZE * 3; i++) {
+            original.append(i);
+        }
+        RideChangeLog restored = new RideChangeLog(2);
+        original.forEachPage((firstSeq, ids, count) -> {
+            for (int i = 0; i < count; i++) {
+                if (ids[i] > 0) {
+                    restored.restore(firstSeq + i, ids[i]);
+                }
+            }
+        });
+
+        assertEquals(original.oldestSeq(), restored.oldestSeq());
+        assertNull(restored.ridesChangedBetween(0, restored.lastSeq()));
+        assertArrayEquals(original.ridesChangedBetween(original.oldestSeq(), original.lastSeq()),
+                restored.ridesChangedBetween(restored.oldestSeq(), restored.lastSeq()));
+    }
+
+    @Test
+    void restore_rebuildsTheSameLogInAnyOrder() throws IOException {
+        RideChangeLog original = new RideChangeLog();
+        for (int i = 0; i < 100; i++) {
+            original.append(1 + i % 13);
+        }
+        RideChangeLog restored = new RideChangeLog();
+        restored.restore(100, original.ridesChangedBetween(99, 100)[0]);
+        original.forEachPage((firstSeq, ids, count) -> {
+            for (int i = 0; i < count; i++) {
+                if (ids[i] > 0) {
+                    restored.restore(firstSeq + i, ids[i]);
+                }
+            }
+        });
+
+        assertEquals(100, restored.lastSeq());
+        assertArrayEquals(original.ridesChangedBetween(40, 60), restored.ridesChangedBetween(40, 60));
+        assertEquals(101, restored.append(1));
+    }
+}
@@ -0,0 +1,66 @@
+package com.teetime.database;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RideIndexTest {
+
+    @Test
+    void get_unknownKey_returnsEmptyArray() {
+        assertEquals(0, new RideIndex().get(42).length);
+    }
+
+    @Test
+    void put_keepsIdsSortedPerKey() {
+        RideIndex index = new RideIndex();
+        index.put(1, 11);
+        index.put(1, 10);
+        index.put(2, 12);
+
+        assertArrayEquals(new int[]{10, 11}, index.get(1));
+        assertArrayEquals(new int[]{12}, index.get(2));
+    }
+
+    @Test
+    void put_sameIdTwice_indexesItOnce() {
+        RideIndex index = new RideIndex();
+        index.put(1, 10);
+        index.put(1, 10);
+
+        assertArrayEquals(new int[]{10}, index.get(1));
+    }
+
+    @Test
+    void get_returnsSnapshotUnaffectedByLaterWrites() {
+        RideIndex index = new RideIndex();
+        index.put(1, 10);
+        int[] snapshot = index.get(1);
+
+        index.put(1, 11);
+        index.remove(1, 10);
+
+        assertArrayEquals(new int[]{10}, snapshot);
+        assertArrayEquals(new int[]{11}, index.get(1));
+    }
+
+    @Test
+    void remove_lastId_leavesEmptyArray() {
+        RideIndex index = new RideIndex();
+        index.put(1, 10);
+        index.remove(1, 10);
+        index.remove(1, 10);
+
+        assertEquals(0, index.get(1).length);
+    }
+
+    @Test
+    void load_replacesIdsAndLaterPutsMerge() {
+        RideIndex index = new RideIndex();
+        index.put(1, 99);
+        index.load(1, new int[]{3, 1});
+        index.put(1, 2);
+
+        assertArrayEquals(new int[]{1, 2, 3}, index.get(1));
+    }
+}
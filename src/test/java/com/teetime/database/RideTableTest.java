@@ -0,0 +1,114 @@
+package com.teetime.database;
+
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RideTableTest {
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final RideTable table = new RideTable(new PlaceRegistry(), nextId::get);
+
+    private Ride ride(int id) {
+        Ride ride = new Ride(7, "IE Tower", "Atocha", LocalDateTime.of(2025, 3, 14, 9, 30, 15, 123_000_000), 2, 12.34);
+        ride.setId(id);
+        nextId.accumulateAndGet(id + 1, Math::max);
+        return ride;
+    }
+
+    @Test
+    void putThenRead_roundTripsEveryField() {
+        Ride ride = ride(3);
+        ride.setDriverId(8);
+        ride.setCarId(9);
+        ride.setStatus(RideStatus.CONFIRMED);
+        table.put(ride);
+
+        Ride read = table.read(3);
+        assertNotSame(ride, read);
+        assertEquals(3, read.getId());
+        assertEquals(7, read.getPassengerId());
+        assertEquals(8, read.getDriverId());
+        assertEquals(9, read.getCarId());
+        assertEquals("IE Tower", read.getOrigin());
+        assertEquals("Atocha", read.getDestination());
+        assertEquals(ride.getTime(), read.getTime());
+        assertEquals(2, read.getSeatsNeeded());
+        assertEquals(RideStatus.CONFIRMED, read.getStatus());
+        assertEquals(12.34, read.getPriceEstimate());
+    }
+
+    @Test
+    void unassignedDriverAndCar_readBackAsNull() {
+        table.put(ride(1));
+
+        Ride read = table.read(1);
+        assertNull(read.getDriverId());
+        assertNull(read.getCarId());
+        assertEquals(0, table.driverId(1));
+    }
+
+    @Test
+    void put_existingId_overwritesWithoutGrowing() {
+        table.put(ride(1));
+        Ride updated = ride(1);
+        updated.setStatus(RideStatus.CANCELLED);
+        table.put(updated);
+
+        assertEquals(1, table.size());
+        assertEquals(RideStatus.CANCELLED, table.status(1));
+    }
+
+    @Test
+    void read_unknownId_returnsNull() {
+        assertNull(table.read(12345));
+        assertFalse(table.contains(12345));
+        assertFalse(table.remove(12345));
+    }
+
+    @Test
+    void nextId_skipsAbsentRowsAndChunks() {
+        table.put(ride(2));
+        table.put(ride(5));
+        table.put(ride(3 * RideTable.CHUNK_ROWS + 1));
+
+        assertEquals(2, table.nextId(0));
+        assertEquals(5, table.nextId(3));
+        assertEquals(3 * RideTable.CHUNK_ROWS + 1, table.nextId(6));
+        assertEquals(-1, table.nextId(3 * RideTable.CHUNK_ROWS + 2));
+    }
+
+    @Test
+    void remove_lastRideOfAFullyAssignedChunk_dropsTheChunk() {
+        for (int id = 1; id < RideTable.CHUNK_ROWS; id++) {
+            table.put(ride(id));
+        }
+        nextId.set(RideTable.CHUNK_ROWS + 1); // every id of chunk 0 handed out
+        table.put(ride(RideTable.CHUNK_ROWS));
+        assertEquals(2, table.chunkCount());
+
+        for (int id = 1; id < RideTable.CHUNK_ROWS; id++) {
+            assertTrue(table.remove(id));
+        }
+        assertEquals(1, table.chunkCount());
+        assertEquals(1, table.size());
+        assertNull(table.read(1));
+
+        // An archived ride coming back gets a fresh chunk
+        table.put(ride(1));
+        assertEquals(7, table.read(1).getPassengerId());
+    }
+
+    @Test
+    void remove_inChunkStillReceivingIds_keepsTheChunk() {
+        table.put(ride(1));
+        table.remove(1);
+
+        assertEquals(1, table.chunkCount());
+    }
+}
@@ -0,0 +1,16 @@
+package com.teetime.database;
+
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+class SqlDataStoreContractTest extends DataStoreContractTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Override
+    protected DataStore openStore() {
+        return SqlDataStore.open(dataDir, SqlDataStore.DEFAULT_POOL_SIZE);
+    }
+}
@@ -0,0 +1,61 @@
+package com.teetime.database;
+
+import com.teetime.domain.Car;
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlDataStoreTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void reopen_keepsDataAndContinuesIds() throws Exception {
+        SqlDataStore store = SqlDataStore.open(dataDir, 2);
+        int passengerId = store.createUser("Pat", "pat@student.ie.edu", "hash", "PASSENGER");
+        int driverId = store.createUser("Dana", "dana@ie.edu", "hash", "DRIVER");
+        int carId = store.createCar(new Car(driverId, "1234ABC", "Toyota", 4));
+        Ride ride = new Ride(passengerId, "IE Tower", "Atocha", LocalDateTime.of(2030, 1, 1, 9, 0), 2, 14.5);
+        int rideId = store.createRide(ride);
+        store.acceptRide(rideId, driverId, carId);
+        store.close();
+        assertTrue(Files.exists(dataDir.resolve("teetime.mv.db")));
+
+        SqlDataStore reopened = SqlDataStore.open(dataDir, 2);
+        try {
+            assertEquals(passengerId, reopened.getUserByEmail("pat@student.ie.edu").getId());
+            assertEquals(1, reopened.getCarsByDriverId(driverId).size());
+            List<Ride> driverRides = reopened.getRidesByDriverId(driverId);
+            assertEquals(1, driverRides.size());
+            assertEquals(RideStatus.CONFIRMED, driverRides.get(0).getStatus());
+            assertEquals("IE Tower", driverRides.get(0).getOrigin());
+            assertTrue(reopened.createRide(new Ride(passengerId, "ie tower", "Atocha",
+                    LocalDateTime.of(2030, 1, 2, 9, 0), 1, 5.0)) > rideId);
+            assertEquals(1, reopened.getPendingRidesFrom("IE Tower").size());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void inMemory_storesAreIndependent() {
+        SqlDataStore first = SqlDataStore.inMemory();
+        SqlDataStore second = SqlDataStore.inMemory();
+        try {
+            first.createUser("Pat", "pat@student.ie.edu", "hash", "PASSENGER");
+            assertNull(second.getUserByEmail("pat@student.ie.edu"));
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+}
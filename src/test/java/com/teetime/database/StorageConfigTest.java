@@ -0,0 +1,57 @@
+package com.teetime.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageConfigTest {
+
+    @AfterEach
+    void clearProperties() {
+        System.clearProperty("teetime.data.dir");
+        System.clearProperty("teetime.fsync");
+        System.clearProperty("teetime.fsync.batch");
+    }
+
+    @Test
+    void inMemory_isNotPersistent() {
+        assertFalse(StorageConfig.inMemory().isPersistent());
+    }
+
+    @Test
+    void fromSystemProperties_withoutDataDir_isInMemory() {
+        StorageConfig config = StorageConfig.fromSystemProperties();
+        assertFalse(config.isPersistent());
+        assertEquals(StorageConfig.FsyncPolicy.PER_OP, config.getFsyncPolicy());
+    }
+
+    @Test
+    void fromSystemProperties_readsDataDirAndPolicy() {
+        System.setProperty("teetime.data.dir", "/tmp/teetime-data");
+        System.setProperty("teetime.fsync", "batched");
+        System.setProperty("teetime.fsync.batch", "128");
+
+        StorageConfig config = StorageConfig.fromSystemProperties();
+
+        assertTrue(config.isPersistent());
+        assertEquals(Paths.get("/tmp/teetime-data"), config.getDataDir());
+        assertEquals(StorageConfig.FsyncPolicy.BATCHED, config.getFsyncPolicy());
+        assertEquals(128, config.getBatchSize());
+    }
+
+    @Test
+    void parsePolicy_acceptsAllPoliciesAndRejectsUnknown() {
+        assertEquals(StorageConfig.FsyncPolicy.PER_OP, StorageConfig.parsePolicy("per-op"));
+        assertEquals(StorageConfig.FsyncPolicy.INTERVAL, StorageConfig.parsePolicy(" Interval "));
+        assertThrows(IllegalArgumentException.class, () -> StorageConfig.parsePolicy("sometimes"));
+    }
+
+    @Test
+    void constructor_withNonPositiveBatchSize_throws() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new StorageConfig(null, StorageConfig.FsyncPolicy.BATCHED, 0, 50));
+    }
+}
@@ -0,0 +1,199 @@
+package com.teetime.database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    Path dir;
+
+    private StorageConfig config(StorageConfig.FsyncPolicy policy) {
+        return new StorageConfig(dir, policy, 4, 10);
+    }
+
+    private List<Integer> replayInts(Path file) throws IOException {
+        List<Integer> values = new ArrayList<>();
+        WriteAheadLog.replay(file, (type, payload) -> values.add(payload.getInt()));
+        return values;
+    }
+
+    @Test
+    void replay_missingFile_appliesNothing() throws IOException {
+        assertEquals(0, WriteAheadLog.replay(dir.resolve("none.wal"), (type, payload) -> fail()));
+    }
+
+    @Test
+    void appendThenReplay_returnsRecordsInOrder() throws IOException {
+        Path file = dir.resolve("test.wal");
+        try (WriteAheadLog log = new WriteAheadLog(file, config(StorageConfig.FsyncPolicy.PER_OP))) {
+            for (int i = 1; i <= 3; i++) {
+                log.awaitDurable(log.append(EntityCodec.DELETE_CAR, EntityCodec.encodeId(i)));
+            }
+        }
+
+        List<Byte> types = new ArrayList<>();
+        WriteAheadLog.replay(file, (type, payload) -> types.add(type));
+        assertEquals(List.of(EntityCodec.DELETE_CAR, EntityCodec.DELETE_CAR, EntityCodec.DELETE_CAR), types);
+        assertEquals(List.of(1, 2, 3), replayInts(file));
+    }
+
+    @Test
+    void awaitDurable_perOp_isOnDiskBeforeReturning() throws IOException {
+        Path file = dir.resolve("test.wal");
+        try (WriteAheadLog log = new WriteAheadLog(file, config(StorageConfig.FsyncPolicy.PER_OP))) {
+            long seq = log.append(EntityCodec.DELETE_USER, EntityCodec.encodeId(42));
+            log.awaitDurable(seq);
+
+            assertEquals(seq, log.durableSequence());
+            assertEquals(List.of(42), replayInts(file));
+        }
+    }
+
+    @Test
+    void awaitDurable_batched_flushesOncePerBatch() throws IOException {
+        Path file = dir.resolve("test.wal");
+        try (WriteAheadLog log = new WriteAheadLog(file, config(StorageConfig.FsyncPolicy.BATCHED))) {
+            for (int i = 1; i <= 3; i++) {
+                log.awaitDurable(log.append(EntityCodec.DELETE_USER, EntityCodec.encodeId(i)));
+            }
+            assertEquals(0, log.durableSequence(), "Below the batch size nothing is flushed yet");
+
+            log.awaitDurable(log.append(EntityCodec.DELETE_USER, EntityCodec.encodeId(4)));
+            assertEquals(4, log.durableSequence());
+        }
+    }
+
+    @Test
+    void interval_backgroundSyncMakesRecordsDurable() throws Exception {
+        Path file = dir.resolve("test.wal");
+        try (WriteAheadLog log = new WriteAheadLog(file, config(StorageConfig.FsyncPolicy.INTERVAL))) {
+            long seq = log.append(EntityCodec.DELETE_USER, EntityCodec.encodeId(1));
+            log.awaitDurable(seq);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (log.durableSequence() < seq && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(seq, log.durableSequence());
+        }
+    }
+
+    @Test
+    void replay_tornTail_isTruncatedAndAppendingResumesAfterLastGoodRecord() throws IOException {
+        Path file = dir.resolve("test.wal");
+        try (WriteAheadLog log = new WriteAheadLog(file, config(StorageConfig.FsyncPolicy.PER_OP))) {
+            log.awaitDurable(log.append(EntityCodec.DELETE_USER, EntityCodec.encodeId(1)));
+            log.awaitDurable(log.append(EntityCodec.DELETE_USER, EntityCodec.encodeId(2)));
+        }
+        long goodSize = Files.size(file);
+        // Simulate a crash halfway through writing a third record
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            ch.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 4, 1, 2}));
+        }
+
+        assertEquals(List.of(1, 2), replayInts(file));
+        assertEquals(goodSize, Files.size(file));
+
+        try (WriteAheadLog log = new WriteAheadLog(file, config(StorageConfig.FsyncPolicy.PER_OP))) {
+            log.awaitDurable(log.append(EntityCodec.DELETE_USER, EntityCodec.encodeId(3)));
+        }
+        assertEquals(List.of(1, 2, 3), replayInts(file));
+    }
+
+    @Test
+    void replay_corruptRecord_stopsAtLastRecordWithValidChecksum() throws IOException {
+        Path file = dir.resolve("test.wal");
+        try (WriteAheadLog log = new WriteAheadLog(file, config(StorageConfig.FsyncPolicy.PER_OP))) {
+            log.awaitDurable(log.append(EntityCodec.DELETE_USER, EntityCodec.encodeId(1)));
+            log.awaitDurable(log.append(EntityCodec.DELETE_USER, EntityCodec.encodeId(2)));
+        }
+        // Flip a payload byte of the second record
+        int recordSize = WriteAheadLog.HEADER_BYTES + Integer.BYTES;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(new byte[]{0x7f}), recordSize + WriteAheadLog.HEADER_BYTES);
+        }
+
+        assertEquals(List.of(1), replayInts(file));
+    }
+
+    @Test
+    void replay_lengthPastEndOfFile_isTreatedAsATornTail() throws IOException {
+        Path file = dir.resolve("test.wal");
+        try (WriteAheadLog log = new WriteAheadLog(file, config(StorageConfig.FsyncPolicy.PER_OP))) {
+            log.awaitDurable(log.append(EntityCodec.DELETE_USER, EntityCodec.encodeId(1)));
+        }
+        long goodSize = Files.size(file);
+        // A full header whose length field was scribbled over
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            ch.write(ByteBuffer.allocate(WriteAheadLog.HEADER_BYTES + 8).putInt(Integer.MAX_VALUE - 10).putInt(0).flip());
+        }
+
+        assertEquals(List.of(1), replayInts(file));
+        assertEquals(goodSize, Files.size(file));
+    }
+
+    @Test
+    void concurrentWriters_perOp_allRecordsSurvive() throws Exception {
+        Path file = dir.resolve("test.wal");
+        int threads = 16;
+        int perThread = 200;
+        try (WriteAheadLog log = new WriteAheadLog(file, config(StorageConfig.FsyncPolicy.PER_OP))) {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int base = t * perThread;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        log.awaitDurable(log.append(EntityCodec.DELETE_USER, EntityCodec.encodeId(base + i)));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            pool.shutdown();
+        }
+
+        List<Integer> values = replayInts(file);
+        assertEquals(threads * perThread, values.size());
+        assertEquals(threads * perThread, values.stream().distinct().count());
+    }
+
+    @Test
+    void append_afterClose_throws() throws IOException {
+        WriteAheadLog log = new WriteAheadLog(dir.resolve("test.wal"), config(StorageConfig.FsyncPolicy.PER_OP));
+        log.close();
+        assertThrows(IllegalStateException.class, () -> log.append(EntityCodec.DELETE_USER, EntityCodec.encodeId(1)));
+    }
+
+    @Test
+    void rotate_flushesPendingRecordsAndAppendsToTheNextFile() throws IOException {
+        Path first = dir.resolve("first.wal");
+        Path second = dir.resolve("second.wal");
+        try (WriteAheadLog log = new WriteAheadLog(first, config(StorageConfig.FsyncPolicy.INTERVAL))) {
+            log.append(EntityCodec.DELETE_CAR, EntityCodec.encodeId(1));
+            log.rotate(second);
+            assertEquals(0, log.segmentBytes());
+            log.awaitDurable(log.append(EntityCodec.DELETE_CAR, EntityCodec.encodeId(2)));
+        }
+
+        assertEquals(List.of(1), replayInts(first));
+        assertEquals(List.of(2), replayInts(second));
+    }
+}
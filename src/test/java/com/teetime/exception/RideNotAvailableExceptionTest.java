@@ -0,0 +1,17 @@
+package com.teetime.exception;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RideNotAvailableExceptionTest {
+
+    @Test
+    void constructor_setsMessage() {
+        String msg = "Ride already accepted!";
+        RideNotAvailableException ex = new RideNotAvailableException(msg);
+
+        assertEquals(msg, ex.getMessage());
+        assertTrue(ex instanceof Exception);
+    }
+}
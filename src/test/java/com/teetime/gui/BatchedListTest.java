@@ -0,0 +1,66 @@
+package com.teetime.gui;
+
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchedListTest {
+
+    private static List<String> listen(BatchedList<String> list, List<Integer> notifications) {
+        List<String> changes = new ArrayList<>();
+        list.addListener((ListChangeListener<String>) c -> {
+            notifications.add(1);
+            while (c.next()) {
+                if (c.wasReplaced()) {
+                    changes.add("~" + c.getFrom() + ":" + c.getRemoved() + "->" + c.getAddedSubList());
+                } else if (c.wasAdded()) {
+                    changes.add("+" + c.getFrom() + ":" + c.getAddedSubList());
+                } else if (c.wasRemoved()) {
+                    changes.add("-" + c.getFrom() + ":" + c.getRemoved());
+                }
+            }
+        });
+        return changes;
+    }
+
+    @Test
+    void batch_notifiesListenersOnceForAllEdits() {
+        BatchedList<String> list = new BatchedList<>();
+        list.addAll(List.of("a", "b", "c", "d"));
+        List<Integer> notifications = new ArrayList<>();
+        List<String> changes = listen(list, notifications);
+
+        list.batch(() -> {
+            list.set(0, "A");
+            list.remove(1, 3);
+            list.add("e");
+        });
+
+        assertEquals(1, notifications.size());
+        assertEquals(List.of("A", "d", "e"), list);
+        // Adjacent edits are merged into one step
+        assertEquals(List.of("~0:[a, b, c]->[A]", "+2:[e]"), changes);
+    }
+
+    @Test
+    void rangeEdits_areOneChangeEach() {
+        BatchedList<String> list = new BatchedList<>();
+        List<Integer> notifications = new ArrayList<>();
+        List<String> changes = listen(list, notifications);
+
+        list.addAll(List.of("a", "d"));
+        list.addAll(1, List.of("b", "c"));
+        list.remove(0, 2);
+        list.addAll(List.of());
+        list.remove(1, 1);
+
+        assertEquals(List.of("c", "d"), list);
+        assertEquals(List.of("+0:[a, d]", "+1:[b, c]", "-0:[a, b]"), changes);
+        assertEquals(3, notifications.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.addAll(5, List.of("x")));
+    }
+}
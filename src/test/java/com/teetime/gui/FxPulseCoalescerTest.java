@@ -0,0 +1,113 @@
+package com.teetime.gui;
+
+import com.teetime.domain.Ride;
+import com.teetime.service.RideEvent;
+import com.teetime.service.RideEventBus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FxPulseCoalescerTest {
+
+    @Test
+    void updates_waitForThePulseAndRunTogether() {
+        AtomicInteger pulseRequests = new AtomicInteger();
+        FxPulseCoalescer coalescer = new FxPulseCoalescer("test", FxPulseCoalescer.FRAME_BUDGET_NANOS,
+                pulseRequests::incrementAndGet);
+        List<Integer> ran = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            int n = i;
+            coalescer.execute(() -> ran.add(n));
+        }
+
+        assertEquals(1, pulseRequests.get());
+        assertTrue(ran.isEmpty());
+        assertEquals(5, coalescer.queueDepth());
+        assertEquals(5, coalescer.flush());
+        assertEquals(List.of(0, 1, 2, 3, 4), ran);
+        assertEquals(0, coalescer.queueDepth());
+        assertEquals(5, coalescer.maxQueueDepth());
+        assertEquals(1, coalescer.flushCount());
+
+        coalescer.execute(() -> ran.add(5));
+        assertEquals(2, pulseRequests.get(), "pulses stop when the queue drains and restart on demand");
+    }
+
+    @Test
+    void flush_stopsAtTheFrameBudgetAndLeavesTheRestForTheNextPulse() {
+        AtomicInteger pulseRequests = new AtomicInteger();
+        FxPulseCoalescer coalescer = new FxPulseCoalescer("test", TimeUnit.MILLISECONDS.toNanos(1),
+                pulseRequests::incrementAndGet);
+        for (int i = 0; i < 10; i++) {
+            coalescer.execute(() -> {
+                long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1);
+                while (System.nanoTime() < until) {
+                    Thread.onSpinWait();
+                }
+            });
+        }
+
+        assertEquals(1, coalescer.flush());
+        assertEquals(9, coalescer.queueDepth());
+        coalescer.execute(() -> { });
+        assertEquals(1, pulseRequests.get(), "still pulsing");
+        while (coalescer.queueDepth() > 0) {
+            coalescer.flush();
+        }
+        assertEquals(11, coalescer.updatesRun());
+        assertTrue(coalescer.maxFlushNanos() >= TimeUnit.MILLISECONDS.toNanos(1));
+        assertTrue(coalescer.maxLatencyNanos() > 0);
+        assertTrue(coalescer.toString().contains("11 run"));
+    }
+
+    @Test
+    void aBurstOfRideEvents_reachesTheDashboardAsOneBatchedListChange() {
+        FxPulseCoalescer coalescer = new FxPulseCoalescer("test", FxPulseCoalescer.FRAME_BUDGET_NANOS, () -> { });
+        RideEventBus bus = new RideEventBus();
+        BatchedList<Ride> rows = new BatchedList<>();
+        AtomicInteger listChanges = new AtomicInteger();
+        rows.addListener((javafx.collections.ListChangeListener<Ride>) c -> listChanges.incrementAndGet());
+        bus.subscribe(null, coalescer, new RideEventBus.Listener() {
+            @Override
+            public void onEvents(List<RideEvent> events) {
+                rows.batch(() -> events.forEach(e -> rows.add(e.getRide())));
+            }
+
+            @Override
+            public void onResync() {
+            }
+        });
+
+        for (int id = 1; id <= 1000; id++) {
+            Ride ride = new Ride(10, "Campus", "Sol", LocalDateTime.of(2030, 6, 1, 12, 0), 1, 5.0);
+            ride.setId(id);
+            bus.publish(new RideEvent(RideEvent.Type.CREATED, ride));
+        }
+        assertEquals(1, coalescer.queueDepth(), "one drain queued however many events arrive");
+
+        coalescer.flush();
+
+        assertEquals(1000, rows.size());
+        assertEquals(1, listChanges.get());
+    }
+
+    @Test
+    void stop_dropsWaitingAndLaterUpdates() {
+        FxPulseCoalescer coalescer = new FxPulseCoalescer("test", FxPulseCoalescer.FRAME_BUDGET_NANOS, () -> { });
+        AtomicInteger ran = new AtomicInteger();
+        coalescer.execute(ran::incrementAndGet);
+
+        coalescer.stop();
+        coalescer.execute(ran::incrementAndGet);
+
+        assertEquals(0, coalescer.flush());
+        assertEquals(0, ran.get());
+    }
+}
@@ -0,0 +1,142 @@
+package com.teetime.gui;
+
+import com.teetime.domain.Car;
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedListDiffTest {
+
+    private static Ride ride(int id, RideStatus status) {
+        Ride ride = new Ride(10, "Campus", "Sol", LocalDateTime.of(2030, 6, 1, 12, 0).plusMinutes(id), 1, 5.0);
+        ride.setId(id);
+        ride.setStatus(status);
+        return ride;
+    }
+
+    private static List<Ride> rides(int... ids) {
+        List<Ride> rides = new ArrayList<>();
+        for (int id : ids) {
+            rides.add(ride(id, RideStatus.PENDING));
+        }
+        return rides;
+    }
+
+    private static List<Integer> ids(List<Ride> rides) {
+        return rides.stream().map(Ride::getId).collect(Collectors.toList());
+    }
+
+    // Records each change as "+n" (added), "-n" (removed) or "~n" (replaced)
+    private static List<String> changesOf(ObservableList<Ride> rows, Runnable action) {
+        List<String> changes = new ArrayList<>();
+        ListChangeListener<Ride> listener = c -> {
+            while (c.next()) {
+                if (c.wasReplaced()) {
+                    changes.add("~" + c.getAddedSize());
+                } else if (c.wasAdded()) {
+                    changes.add("+" + c.getAddedSize());
+                } else if (c.wasRemoved()) {
+                    changes.add("-" + c.getRemovedSize());
+                }
+            }
+        };
+        rows.addListener(listener);
+        action.run();
+        rows.removeListener(listener);
+        return changes;
+    }
+
+    @Test
+    void merge_touchesOnlyTheRowsThatChanged() {
+        ObservableList<Ride> rows = FXCollections.observableArrayList(rides(1, 2, 3, 4, 5, 6));
+        Ride kept = rows.get(0);
+        List<Ride> fresh = rides(1, 2, 4, 5, 6, 7, 8);
+        fresh.get(3).setStatus(RideStatus.CONFIRMED);
+
+        List<String> changes = changesOf(rows, () -> KeyedListDiff.RIDES.merge(rows, fresh));
+
+        assertEquals(List.of("-1", "~1", "+2"), changes);
+        assertEquals(List.of(1, 2, 4, 5, 6, 7, 8), ids(rows));
+        assertSame(kept, rows.get(0));
+        assertEquals(RideStatus.CONFIRMED, rows.get(3).getStatus());
+    }
+
+    @Test
+    void merge_withNothingChanged_firesNoChange() {
+        ObservableList<Ride> rows = FXCollections.observableArrayList(rides(1, 2, 3));
+
+        assertTrue(changesOf(rows, () -> KeyedListDiff.RIDES.merge(rows, rides(1, 2, 3))).isEmpty());
+    }
+
+    @Test
+    void merge_movesOneRowWithOneRemoveAndOneAdd() {
+        ObservableList<Ride> rows = FXCollections.observableArrayList(rides(9, 1, 2, 3, 4));
+
+        List<String> changes = changesOf(rows, () -> KeyedListDiff.RIDES.merge(rows, rides(1, 2, 3, 4, 9)));
+
+        assertEquals(List.of("-1", "+1"), changes);
+        assertEquals(List.of(1, 2, 3, 4, 9), ids(rows));
+    }
+
+    @Test
+    void merge_matchesTheFreshListForRandomEdits() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            List<Integer> before = new ArrayList<>();
+            List<Integer> after = new ArrayList<>();
+            for (int id = 1; id <= 60; id++) {
+                if (random.nextInt(4) > 0) {
+                    before.add(id);
+                }
+                if (random.nextInt(4) > 0) {
+                    after.add(id);
+                }
+            }
+            if (random.nextBoolean()) {
+                Collections.shuffle(after, random);
+            }
+            ObservableList<Ride> rows = FXCollections.observableArrayList(
+                    rides(before.stream().mapToInt(Integer::intValue).toArray()));
+            List<Ride> fresh = rides(after.stream().mapToInt(Integer::intValue).toArray());
+
+            KeyedListDiff.RIDES.merge(rows, fresh);
+
+            assertEquals(after, ids(rows), "round " + round);
+        }
+    }
+
+    @Test
+    void longestIncreasing_skipsMissingRows() {
+        assertArrayEquals(new boolean[] {false, true, false, true, true},
+                KeyedListDiff.longestIncreasing(new int[] {5, 0, -1, 1, 2}));
+        assertArrayEquals(new boolean[0], KeyedListDiff.longestIncreasing(new int[0]));
+    }
+
+    @Test
+    void cars_areMatchedByIdAndComparedFieldByField() {
+        Car car = new Car(7, "ABC-1234", "Toyota", 4);
+        car.setId(1);
+        Car same = new Car(7, "ABC-1234", "Toyota", 4);
+        same.setId(1);
+        Car repainted = new Car(7, "ABC-1234", "Seat", 4);
+        repainted.setId(1);
+        ObservableList<Car> rows = FXCollections.observableArrayList(car);
+
+        KeyedListDiff.CARS.merge(rows, List.of(same));
+        assertSame(car, rows.get(0));
+        KeyedListDiff.CARS.merge(rows, List.of(repainted));
+        assertSame(repainted, rows.get(0));
+    }
+}
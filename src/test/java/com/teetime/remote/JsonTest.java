@@ -0,0 +1,62 @@
+package com.teetime.remote;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonTest {
+
+    @Test
+    void writeThenParse_roundTripsNestedValues() {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("id", 7L);
+        value.put("price", 12.5);
+        value.put("name", "Café \"Sol\"\n\\ok");
+        value.put("ok", true);
+        value.put("missing", null);
+        value.put("items", Arrays.asList(1L, "two", List.of()));
+
+        String json = Json.write(value);
+
+        assertEquals("{\"id\":7,\"price\":12.5,\"name\":\"Café \\\"Sol\\\"\\n\\\\ok\",\"ok\":true,\"missing\":null,"
+                + "\"items\":[1,\"two\",[]]}", json);
+        assertEquals(value, Json.parse(json));
+    }
+
+    @Test
+    void parse_acceptsWhitespaceEscapesAndExponents() {
+        Object parsed = Json.parse(" { \"a\" : [ -3 , 1e2 , \"\\u0041\\t\" ] , \"b\" : { } } ");
+
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("a", Arrays.asList(-3L, 100.0, "A\t"));
+        expected.put("b", new LinkedHashMap<>());
+        assertEquals(expected, parsed);
+    }
+
+    @Test
+    void parse_rejectsMalformedText() {
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"a\":1"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("[1,2] x"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{a:1}"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("\"open"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("tru"));
+    }
+
+    @Test
+    void parse_rejectsNestingBeyondTheDepthLimit() {
+        assertEquals(List.of(List.of()), Json.parse("[".repeat(2) + "]".repeat(2)));
+        assertNotNull(Json.parse("[".repeat(64) + "]".repeat(64)));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("[".repeat(65) + "]".repeat(65)));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"a\":".repeat(10_000)));
+    }
+
+    @Test
+    void write_rejectsNonFiniteNumbers() {
+        assertThrows(IllegalArgumentException.class, () -> Json.write(Double.NaN));
+    }
+}
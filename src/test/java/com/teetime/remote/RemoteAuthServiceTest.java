@@ -0,0 +1,74 @@
+package com.teetime.remote;
+
+import com.teetime.database.DatabaseManager;
+import com.teetime.domain.Driver;
+import com.teetime.domain.Passenger;
+import com.teetime.domain.User;
+import com.teetime.exception.InvalidLoginException;
+import com.teetime.service.RideEventBus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RemoteAuthServiceTest {
+
+    private DatabaseManager db;
+    private RideServer server;
+    private RemoteAuthService authService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Field instanceField = DatabaseManager.class.getDeclaredField("instance");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+
+        db = DatabaseManager.getInstance();
+        server = new RideServer(db, new RideEventBus());
+        server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        authService = new RemoteAuthService(new RemoteClient("http://localhost:" + server.getPort()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void registerThenLogin_returnsTheStoredUserWithoutItsHash() throws Exception {
+        User registered = authService.register("Jane", "jane@ie.edu", "secret", "DRIVER");
+        User loggedIn = authService.login("jane@ie.edu", "secret");
+
+        assertInstanceOf(Driver.class, registered);
+        assertEquals(registered.getId(), loggedIn.getId());
+        assertEquals("Jane", loggedIn.getName());
+        assertEquals("DRIVER", loggedIn.getRole());
+        assertNull(loggedIn.getPasswordHash());
+        assertNotNull(db.getUserByEmail("jane@ie.edu").getPasswordHash());
+    }
+
+    @Test
+    void register_passenger_returnsPassenger() throws Exception {
+        assertInstanceOf(Passenger.class, authService.register("John", "john@student.ie.edu", "1234", "PASSENGER"));
+    }
+
+    @Test
+    void login_withWrongPassword_throwsInvalidLoginException() throws Exception {
+        authService.register("Jane", "jane@ie.edu", "secret", "PASSENGER");
+
+        InvalidLoginException e = assertThrows(InvalidLoginException.class, () -> authService.login("jane@ie.edu", "wrong"));
+        assertEquals("Invalid password", e.getMessage());
+        assertThrows(InvalidLoginException.class, () -> authService.login("nobody@ie.edu", "secret"));
+    }
+
+    @Test
+    void register_withInvalidEmail_throwsTheServicesMessage() {
+        Exception e = assertThrows(Exception.class, () -> authService.register("Jane", "jane@gmail.com", "secret", "DRIVER"));
+        assertEquals("Email must be a valid IE University email", e.getMessage());
+    }
+}
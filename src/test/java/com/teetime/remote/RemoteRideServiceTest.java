@@ -0,0 +1,163 @@
+package com.teetime.remote;
+
+import com.teetime.database.DatabaseManager;
+import com.teetime.domain.Car;
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+import com.teetime.exception.CapacityExceededException;
+import com.teetime.exception.RideNotAvailableException;
+import com.teetime.exception.StorageException;
+import com.teetime.service.RideApi;
+import com.teetime.service.RideEvent;
+import com.teetime.service.RideEventBus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RemoteRideServiceTest {
+
+    private DatabaseManager db;
+    private RideServer server;
+    private RemoteRideService rideService;
+    private int passengerId;
+    private int driverId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Field instanceField = DatabaseManager.class.getDeclaredField("instance");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+
+        db = DatabaseManager.getInstance();
+        server = new RideServer(db, new RideEventBus());
+        server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        rideService = new RemoteRideService(new RemoteClient("http://localhost:" + server.getPort()));
+        passengerId = db.createUser("Passenger", "p@student.ie.edu", "hash", "PASSENGER");
+        driverId = db.createUser("Driver", "d@ie.edu", "hash", "DRIVER");
+    }
+
+    @AfterEach
+    void tearDown() {
+        rideService.close();
+        server.stop();
+    }
+
+    @Test
+    void rideLifecycle_goesThroughTheServersStore() throws Exception {
+        LocalDateTime time = LocalDateTime.now().plusHours(1).withNano(0);
+        Ride ride = rideService.createRideRequest(passengerId, "Campus", "Sol", time, 2);
+        Car car = rideService.addCar(driverId, "ABC-1234", "Seat Ibiza", 4);
+
+        assertTrue(ride.getId() > 0);
+        assertEquals(time, ride.getTime());
+        assertEquals(RideStatus.PENDING, db.getRideById(ride.getId()).getStatus());
+        assertEquals(List.of(ride.getId()),
+                rideService.getUpcomingPendingRides(Duration.ofHours(2)).stream().map(Ride::getId).toList());
+        assertEquals(1, rideService.getPendingRides().size());
+        assertEquals(1, rideService.getPendingRidesFrom("campus").size());
+
+        rideService.acceptRide(ride, driverId, car.getId());
+        assertEquals(RideStatus.CONFIRMED, ride.getStatus());
+        assertEquals(driverId, ride.getDriverId());
+        assertEquals(car.getId(), ride.getCarId());
+
+        assertEquals(RideStatus.COMPLETED, rideService.completeRide(ride.getId()).getStatus());
+        assertEquals(RideStatus.COMPLETED, db.getRideById(ride.getId()).getStatus());
+        assertEquals(RideStatus.COMPLETED, rideService.getRidesByPassengerId(passengerId).get(0).getStatus());
+        assertEquals(ride.getId(), rideService.getRidesByDriverId(driverId).get(0).getId());
+        assertTrue(rideService.getPendingRides().isEmpty());
+    }
+
+    @Test
+    void acceptRide_takenByAnotherDriver_throwsRideNotAvailableException() throws Exception {
+        int otherDriverId = db.createUser("Other", "o@ie.edu", "hash", "DRIVER");
+        Ride ride = rideService.createRideRequest(passengerId, "Campus", "Sol", LocalDateTime.now().plusHours(1), 2);
+        Car car = rideService.addCar(driverId, "ABC-1234", "Seat Ibiza", 4);
+        Car otherCar = rideService.addCar(otherDriverId, "XYZ-9876", "Toyota Prius", 4);
+        Ride sameRide = rideService.getPendingRides().get(0);
+
+        rideService.acceptRide(ride, driverId, car.getId());
+
+        assertThrows(RideNotAvailableException.class, () -> rideService.acceptRide(sameRide, otherDriverId, otherCar.getId()));
+        assertEquals(driverId, db.getRideById(ride.getId()).getDriverId());
+    }
+
+    @Test
+    void serviceErrors_comeBackAsTheSameExceptions() throws Exception {
+        Ride ride = rideService.createRideRequest(passengerId, "Campus", "Sol", LocalDateTime.now().plusHours(1), 4);
+        Car small = rideService.addCar(driverId, "ABC-1234", "Fiat 500", 2);
+
+        assertThrows(CapacityExceededException.class, () -> rideService.acceptRide(ride, driverId, small.getId()));
+        Exception invalid = assertThrows(Exception.class,
+                () -> rideService.createRideRequest(passengerId, " ", "Sol", LocalDateTime.now().plusHours(1), 1));
+        assertEquals("Origin cannot be empty", invalid.getMessage());
+    }
+
+    @Test
+    void cars_areAddedListedAndDeleted() throws Exception {
+        Car first = rideService.addCar(driverId, "ABC-1234", "Seat Ibiza", 4);
+        Car second = rideService.addCar(driverId, "XYZ-9876", "Toyota Prius", 5);
+
+        assertEquals(List.of(first.getId(), second.getId()),
+                rideService.getCarsByDriverId(driverId).stream().map(Car::getId).toList());
+        assertEquals("Toyota Prius", rideService.getCarsByDriverId(driverId).get(1).getBrand());
+
+        rideService.deleteCar(first.getId());
+        assertEquals(List.of(second.getId()), rideService.getCarsByDriverId(driverId).stream().map(Car::getId).toList());
+    }
+
+    @Test
+    void subscribe_hearsChangesMadeByOtherClients() throws Exception {
+        BlockingQueue<RideEvent> events = new LinkedBlockingQueue<>();
+        BlockingQueue<Boolean> resyncs = new LinkedBlockingQueue<>();
+        rideService.subscribe(null, Runnable::run, new RideEventBus.Listener() {
+            @Override
+            public void onEvents(List<RideEvent> batch) {
+                events.addAll(batch);
+            }
+
+            @Override
+            public void onResync() {
+                resyncs.add(true);
+            }
+        });
+        // The poller starts with a resync once it knows the server's sequence
+        assertNotNull(resyncs.poll(10, TimeUnit.SECONDS));
+
+        RideApi otherClient = new RemoteRideService(new RemoteClient("http://localhost:" + server.getPort()));
+        Ride ride = otherClient.createRideRequest(passengerId, "Campus", "Sol", LocalDateTime.now().plusHours(1), 2);
+        RideEvent created = events.poll(10, TimeUnit.SECONDS);
+        assertNotNull(created);
+        assertEquals(RideEvent.Type.CREATED, created.getType());
+        assertEquals(ride.getId(), created.getRide().getId());
+
+        Car car = otherClient.addCar(driverId, "ABC-1234", "Seat Ibiza", 4);
+        otherClient.acceptRide(ride, driverId, car.getId());
+        RideEvent accepted = events.poll(10, TimeUnit.SECONDS);
+        assertNotNull(accepted);
+        assertEquals(RideEvent.Type.ACCEPTED, accepted.getType());
+        assertEquals(driverId, accepted.getRide().getDriverId());
+    }
+
+    @Test
+    void unreachableServer_throwsStorageException() {
+        int port = server.getPort();
+        server.stop();
+
+        assertThrows(StorageException.class, () -> rideService.getRidesByPassengerId(passengerId));
+        assertThrows(StorageException.class,
+                () -> new RemoteRideService(new RemoteClient("http://localhost:" + port)).getPendingRides());
+    }
+}
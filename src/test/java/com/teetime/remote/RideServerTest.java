@@ -0,0 +1,165 @@
+package com.teetime.remote;
+
+import com.teetime.database.DatabaseManager;
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+import com.teetime.service.RideEventBus;
+import com.teetime.service.RideService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RideServerTest {
+
+    private DatabaseManager db;
+    private RideEventBus events;
+    private RideServer server;
+    private int passengerId;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Field instanceField = DatabaseManager.class.getDeclaredField("instance");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+
+        db = DatabaseManager.getInstance();
+        events = new RideEventBus();
+        server = new RideServer(db, events);
+        server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        passengerId = db.createUser("Passenger", "p@student.ie.edu", "hash", "PASSENGER");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+        executor.shutdownNow();
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void errors_mapToStatusCodesWithAJsonBody() throws Exception {
+        HttpResponse<String> unknown = send("GET", "/api/nothing", null);
+        HttpResponse<String> badLogin = send("POST", "/api/login", "{\"email\":\"x@ie.edu\",\"password\":\"1234\"}");
+        HttpResponse<String> badJson = send("POST", "/api/login", "{email");
+        HttpResponse<String> invalid = send("POST", "/api/users",
+                "{\"name\":\"Jane\",\"email\":\"jane@gmail.com\",\"password\":\"1234\",\"role\":\"PASSENGER\"}");
+        HttpResponse<String> noRide = send("POST", "/api/rides/999/complete", "{}");
+
+        assertEquals(404, unknown.statusCode());
+        assertEquals(401, badLogin.statusCode());
+        assertEquals("InvalidLoginException", ((Map<?, ?>) Json.parse(badLogin.body())).get("type"));
+        assertEquals(400, badJson.statusCode());
+        assertEquals(400, invalid.statusCode());
+        assertEquals("Email must be a valid IE University email", ((Map<?, ?>) Json.parse(invalid.body())).get("error"));
+        assertEquals(404, noRide.statusCode());
+    }
+
+    @Test
+    void hostileBodies_areRejectedWithoutTakingDownTheServer() throws Exception {
+        HttpResponse<String> deep = send("POST", "/api/login", "{\"a\":" + "[".repeat(10_000));
+        HttpResponse<String> huge = send("POST", "/api/login", "\"" + "x".repeat(RideServer.MAX_BODY_BYTES) + "\"");
+
+        assertEquals(400, deep.statusCode());
+        assertEquals(413, huge.statusCode());
+        assertEquals(404, send("GET", "/api/nothing", null).statusCode());
+    }
+
+    @Test
+    void changes_returnsRidesWrittenAfterTheGivenSequence() throws Exception {
+        RideService rides = new RideService(db, events);
+        long start = (Long) server.changes(-1, 0).get("seq");
+        Ride first = rides.createRideRequest(passengerId, "Campus", "Sol", LocalDateTime.now().plusHours(1), 1);
+        Ride second = rides.createRideRequest(passengerId, "Campus", "Retiro", LocalDateTime.now().plusHours(2), 1);
+        db.transitionRide(first, RideStatus.CANCELLED);
+
+        Map<String, Object> reply = server.changes(start, 0);
+
+        assertEquals(db.getLastRideModSeq(), reply.get("seq"));
+        List<Ride> changed = JsonMapping.rides(reply.get("rides"));
+        assertEquals(List.of(first.getId(), second.getId()), changed.stream().map(Ride::getId).toList());
+        assertEquals(RideStatus.CANCELLED, changed.get(0).getStatus());
+        assertEquals(List.of(), server.changes(db.getLastRideModSeq(), 0).get("rides"));
+        assertEquals(Boolean.TRUE, server.changes(db.getLastRideModSeq() + 10, 0).get("resync"));
+    }
+
+    @Test
+    void changes_waitsForTheNextRideWrite() throws Exception {
+        RideService rides = new RideService(db, events);
+        long start = db.getLastRideModSeq();
+        CompletableFuture<Map<String, Object>> poll = CompletableFuture.supplyAsync(() -> {
+            try {
+                return server.changes(start, 10_000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        Thread.sleep(100);
+        assertFalse(poll.isDone());
+        Ride ride = rides.createRideRequest(passengerId, "Campus", "Sol", LocalDateTime.now().plusHours(1), 1);
+
+        List<Ride> changed = JsonMapping.rides(poll.get(5, TimeUnit.SECONDS).get("rides"));
+        assertEquals(List.of(ride.getId()), changed.stream().map(Ride::getId).toList());
+    }
+
+    @Test
+    void changes_manyWaitingPolls_allWakeOnOneWrite() throws Exception {
+        RideService rides = new RideService(db, events);
+        long start = db.getLastRideModSeq();
+        List<CompletableFuture<Map<String, Object>>> polls = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            polls.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return server.changes(start, 10_000);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, executor));
+        }
+
+        Thread.sleep(100);
+        Ride ride = rides.createRideRequest(passengerId, "Campus", "Sol", LocalDateTime.now().plusHours(1), 1);
+
+        for (CompletableFuture<Map<String, Object>> poll : polls) {
+            List<Ride> changed = JsonMapping.rides(poll.get(5, TimeUnit.SECONDS).get("rides"));
+            assertEquals(List.of(ride.getId()), changed.stream().map(Ride::getId).toList());
+        }
+    }
+
+    @Test
+    void changes_withNothingNew_returnsEmptyAfterTheWait() throws Exception {
+        long seq = db.getLastRideModSeq();
+        long started = System.nanoTime();
+
+        Map<String, Object> reply = server.changes(seq, 200);
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) >= 150);
+        assertEquals(seq, reply.get("seq"));
+        assertEquals(List.of(), reply.get("rides"));
+    }
+}
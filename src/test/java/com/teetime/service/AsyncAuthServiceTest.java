@@ -0,0 +1,49 @@
+package com.teetime.service;
+
+import com.teetime.database.DatabaseManager;
+import com.teetime.domain.User;
+import com.teetime.exception.InvalidLoginException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncAuthServiceTest {
+
+    private ExecutorService executor;
+    private AsyncAuthService authService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Field instanceField = DatabaseManager.class.getDeclaredField("instance");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+
+        executor = ServiceExecutor.create(2);
+        authService = new AsyncAuthService(new AuthService(DatabaseManager.getInstance()), executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void registerThenLogin_returnsTheUser() throws Exception {
+        User registered = authService.register("Ana", "ana@student.ie.edu", "1234", "PASSENGER").get(10, TimeUnit.SECONDS);
+
+        User user = authService.login("ana@student.ie.edu", "1234").get(10, TimeUnit.SECONDS);
+
+        assertEquals(registered.getId(), user.getId());
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> authService.login("ana@student.ie.edu", "wrong").get(10, TimeUnit.SECONDS));
+        assertInstanceOf(InvalidLoginException.class, e.getCause());
+        assertEquals("Invalid password", e.getCause().getMessage());
+    }
+}
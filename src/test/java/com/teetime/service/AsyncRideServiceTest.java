@@ -0,0 +1,103 @@
+package com.teetime.service;
+
+import com.teetime.database.DatabaseManager;
+import com.teetime.domain.Car;
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+import com.teetime.exception.RideNotAvailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncRideServiceTest {
+
+    private DatabaseManager db;
+    private ExecutorService executor;
+    private AsyncRideService rideService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Field instanceField = DatabaseManager.class.getDeclaredField("instance");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+
+        db = DatabaseManager.getInstance();
+        executor = ServiceExecutor.create(4);
+        rideService = new AsyncRideService(new RideService(db), executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    private static <T> T await(CompletableFuture<T> call) throws Exception {
+        return call.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void calls_runOffTheCallersThreadAndReturnTheBlockingResults() throws Exception {
+        int passengerId = db.createUser("Passenger", "p@student.ie.edu", "hash", "PASSENGER");
+        int driverId = db.createUser("Driver", "d@ie.edu", "hash", "DRIVER");
+        Thread caller = Thread.currentThread();
+        Thread[] ranOn = new Thread[1];
+        AsyncRideService recording = new AsyncRideService(new RideService(db) {
+            @Override
+            public Ride createRideRequest(int passengerId, String origin, String destination,
+                                          LocalDateTime time, int seatsNeeded) throws Exception {
+                ranOn[0] = Thread.currentThread();
+                return super.createRideRequest(passengerId, origin, destination, time, seatsNeeded);
+            }
+        }, executor);
+
+        Ride ride = await(recording.createRideRequest(passengerId, "Campus", "Sol", LocalDateTime.now().plusHours(1), 2));
+        Car car = await(rideService.addCar(driverId, "ABC-1234", "Seat Ibiza", 4));
+
+        assertNotSame(caller, ranOn[0]);
+        assertEquals(List.of(ride.getId()),
+                await(rideService.getUpcomingPendingRides(Duration.ofHours(2))).stream().map(Ride::getId).toList());
+        assertEquals(List.of(car.getId()), await(rideService.getCarsByDriverId(driverId)).stream().map(Car::getId).toList());
+
+        Ride accepted = await(rideService.acceptRide(ride, driverId, car.getId()));
+        assertNotSame(ride, accepted);
+        assertEquals(RideStatus.PENDING, ride.getStatus());
+        assertEquals(RideStatus.CONFIRMED, accepted.getStatus());
+        assertEquals(driverId, accepted.getDriverId());
+        assertEquals(RideStatus.COMPLETED, await(rideService.completeRide(accepted)).getStatus());
+        assertEquals(1, await(rideService.getRidesByPassengerId(passengerId)).size());
+        assertEquals(RideStatus.COMPLETED, await(rideService.getRidesByDriverId(driverId)).get(0).getStatus());
+
+        await(rideService.deleteCar(car.getId()));
+        assertTrue(await(rideService.getCarsByDriverId(driverId)).isEmpty());
+    }
+
+    @Test
+    void failures_carryTheServiceException() throws Exception {
+        int passengerId = db.createUser("Passenger", "p@student.ie.edu", "hash", "PASSENGER");
+        int driverId = db.createUser("Driver", "d@ie.edu", "hash", "DRIVER");
+        int otherId = db.createUser("Other", "o@ie.edu", "hash", "DRIVER");
+        Car car = await(rideService.addCar(driverId, "ABC-1234", "Seat Ibiza", 4));
+        Car otherCar = await(rideService.addCar(otherId, "XYZ-9876", "Toyota", 4));
+        Ride ride = await(rideService.createRideRequest(passengerId, "Campus", "Sol", LocalDateTime.now().plusHours(1), 1));
+        await(rideService.acceptRide(ride, otherId, otherCar.getId()));
+
+        ExecutionException taken = assertThrows(ExecutionException.class,
+                () -> await(rideService.acceptRide(db.getRideById(ride.getId()), driverId, car.getId())));
+        assertInstanceOf(RideNotAvailableException.class, taken.getCause());
+
+        ExecutionException invalid = assertThrows(ExecutionException.class,
+                () -> await(rideService.createRideRequest(passengerId, " ", "Sol", LocalDateTime.now().plusHours(1), 1)));
+        assertEquals("Origin cannot be empty", invalid.getCause().getMessage());
+    }
+}
@@ -1,12 +1,16 @@
 package com.teetime.service;
 
 import com.teetime.database.DatabaseManager;
+import com.teetime.domain.Driver;
+import com.teetime.domain.Passenger;
 import com.teetime.domain.User;
 import com.teetime.exception.InvalidLoginException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Field;
+import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -111,4 +115,22 @@ class AuthServiceTest {
         );
         assertEquals("User not found", ex.getMessage());
     }
+
+    @Test
+    void importUsers_registersValidUsersAndRejectsTakenOrInvalidEmails() throws Exception {
+        authService.register("Existing", "taken@student.ie.edu", "1234", "PASSENGER");
+
+        ImportResult result = authService.importUsers(Stream.of(
+                new Passenger("Ana", "ana@student.ie.edu", "hash"),
+                new Passenger("Taken", "taken@student.ie.edu", "hash"),
+                new Driver("Gmail", "someone@gmail.com", "hash"),
+                new Driver("Bo", "bo@ie.edu", "hash")));
+
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals(List.of("Record 2: Email already registered",
+                "Record 3: Email must be a valid IE University email"), result.getErrors());
+        assertEquals("Bo", db.getUserByEmail("bo@ie.edu").getName());
+        assertEquals("DRIVER", db.getUserByEmail("bo@ie.edu").getRole());
+    }
 }
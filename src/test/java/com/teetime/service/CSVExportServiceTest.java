@@ -5,10 +5,19 @@ import com.teetime.domain.RideStatus;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -92,4 +101,182 @@ class CSVExportServiceTest {
             }
         }
     }
+
+    @Test
+    void appendPrice_matchesTwoDecimalFormatting() {
+        double[] prices = {0, -0.0, 0.005, 0.015, 0.125, 1.005, 2.675, 12.34, 8.5, -3.456, 99.995, 1e12 + 0.5};
+        for (double price : prices) {
+            assertPriceFormat(price);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            assertPriceFormat(random.nextDouble() * 200);
+            assertPriceFormat(Math.round(random.nextDouble() * 100_000) / 1000.0);
+        }
+    }
+
+    private static void assertPriceFormat(double price) {
+        StringBuilder out = new StringBuilder();
+        CSVExportService.appendPrice(out, price);
+        assertEquals(String.format(Locale.ROOT, "%.2f", price), out.toString(), "price " + price);
+    }
+
+    @Test
+    void appendTime_matchesLocalDateTimeToString() {
+        LocalDateTime base = LocalDateTime.of(2030, 1, 2, 3, 4);
+        LocalDateTime[] times = {base, base.withSecond(5), base.withNano(7_000_000), base.withNano(123_456_000),
+                base.withNano(1), base.withYear(12), LocalDateTime.of(12345, 1, 1, 0, 0), LocalDateTime.of(2030, 12, 31, 23, 59, 59)};
+        for (LocalDateTime time : times) {
+            StringBuilder out = new StringBuilder();
+            CSVExportService.appendTime(out, time);
+            assertEquals(time.toString(), out.toString());
+        }
+    }
+
+    @Test
+    void exportRides_fromStream_writesEveryRowAndReportsProgress() throws IOException {
+        CSVExportService service = new CSVExportService();
+        LocalDateTime now = LocalDateTime.of(2030, 6, 1, 12, 0);
+        int count = CSVExportService.PROGRESS_INTERVAL * 2 + 5;
+        Path file = Files.createTempFile("rides_stream", ".csv");
+        List<Long> updates = new ArrayList<>();
+
+        long written = service.exportRides(
+                IntStream.range(0, count).mapToObj(i -> createRide(i + 1, 10, null, null, "Campus", "City",
+                        now.plusMinutes(i), 1, RideStatus.COMPLETED, 5.0)).iterator(),
+                file, rows -> updates.add(rows));
+
+        assertEquals(count, written);
+        assertEquals(List.of((long) CSVExportService.PROGRESS_INTERVAL, 2L * CSVExportService.PROGRESS_INTERVAL, (long) count),
+                updates);
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(count + 1, lines.size());
+        assertEquals("1,10,,,Campus,City,2030-06-01T12:00,1,COMPLETED,5.00", lines.get(1));
+    }
+
+    @Test
+    void exportRides_whenCancelled_deletesThePartialFile() throws IOException {
+        CSVExportService service = new CSVExportService();
+        LocalDateTime now = LocalDateTime.of(2030, 6, 1, 12, 0);
+        Path file = Files.createTempFile("rides_cancelled", ".csv");
+
+        assertThrows(CancellationException.class, () -> service.exportRides(
+                Stream.generate(() -> createRide(1, 10, 20, 30, "Campus", "City", now, 2, RideStatus.PENDING, 1.0))
+                        .iterator(),
+                file, rows -> rows < 3L * CSVExportService.PROGRESS_INTERVAL));
+
+        assertFalse(Files.exists(file));
+    }
+
+    private List<Ride> manyRides(int count) {
+        LocalDateTime start = LocalDateTime.of(2030, 6, 1, 12, 0);
+        List<Ride> rides = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rides.add(createRide(i + 1, 10 + i % 7, i % 3 == 0 ? null : 20, i % 3 == 0 ? null : 30,
+                    "Plaza de Castilla " + i % 11, "Atocha", start.plusSeconds(i * 61L), 1 + i % 4,
+                    i % 3 == 0 ? RideStatus.PENDING : RideStatus.COMPLETED, i * 0.37));
+        }
+        return rides;
+    }
+
+    @Test
+    void exportRidesParallel_writesTheSameBytesAsTheSequentialExport() throws IOException {
+        CSVExportService service = new CSVExportService();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            int chunk = CSVExportService.CHUNK_ROWS;
+            for (int count : new int[] {0, 1, chunk - 1, chunk, chunk + 1, chunk * 9 + 17}) {
+                List<Ride> rides = manyRides(count);
+                Path sequential = Files.createTempFile("rides_seq", ".csv");
+                Path parallel = Files.createTempFile("rides_par", ".csv");
+                service.exportRides(rides.iterator(), sequential, RideExporter.Progress.NONE);
+
+                long written = service.exportRidesParallel(rides.iterator(), parallel, pool, RideExporter.Progress.NONE);
+
+                assertEquals(count, written);
+                assertArrayEquals(Files.readAllBytes(sequential), Files.readAllBytes(parallel), count + " rows");
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void exportRidesParallel_whenCancelledOrFailing_deletesThePartialFile() throws IOException {
+        CSVExportService service = new CSVExportService();
+        List<Ride> rides = manyRides(CSVExportService.CHUNK_ROWS * 4);
+        Path cancelled = Files.createTempFile("rides_par_cancelled", ".csv");
+
+        assertThrows(CancellationException.class,
+                () -> service.exportRidesParallel(rides.iterator(), cancelled, rows -> false));
+        assertFalse(Files.exists(cancelled));
+
+        rides.get(CSVExportService.CHUNK_ROWS * 2).setStatus(null);
+        Path failed = Files.createTempFile("rides_par_failed", ".csv");
+        assertThrows(NullPointerException.class,
+                () -> service.exportRidesParallel(rides.iterator(), failed, RideExporter.Progress.NONE));
+        assertFalse(Files.exists(failed));
+    }
+
+    @Test
+    void exportRides_quotesPlacesThatNeedIt() throws IOException {
+        CSVExportService service = new CSVExportService();
+        LocalDateTime time = LocalDateTime.of(2030, 6, 1, 12, 0);
+        Ride ride = createRide(1, 10, null, null, "Calle Serrano, 45", "The \"Tower\"", time, 1, RideStatus.PENDING, 5.0);
+        Path file = Files.createTempFile("rides_quoted", ".csv");
+
+        service.exportRides(List.of(ride).iterator(), file, RideExporter.Progress.NONE);
+
+        String content = Files.readString(file);
+        assertEquals(CSVExportService.HEADER
+                + "1,10,,,\"Calle Serrano, 45\",\"The \"\"Tower\"\"\",2030-06-01T12:00,1,PENDING,5.00\r\n", content);
+        Ride parsed = new CSVImportService().parseRide(content.split("\r\n")[1]);
+        assertEquals("Calle Serrano, 45", parsed.getOrigin());
+        assertEquals("The \"Tower\"", parsed.getDestination());
+    }
+
+    @Test
+    void gzipped_decompressesToThePlainCsvOnBothPaths() throws IOException {
+        List<Ride> rides = manyRides(CSVExportService.CHUNK_ROWS * 3 + 5);
+        Path plain = Files.createTempFile("rides_plain", ".csv");
+        Path sequential = Files.createTempFile("rides_seq", ".csv.gz");
+        Path parallel = Files.createTempFile("rides_par", ".csv.gz");
+        CSVExportService gzip = CSVExportService.gzipped();
+        new CSVExportService().exportRides(rides.iterator(), plain, RideExporter.Progress.NONE);
+
+        gzip.exportRides(rides.iterator(), sequential, RideExporter.Progress.NONE);
+        gzip.export(rides.iterator(), parallel, RideExporter.Progress.NONE);
+
+        byte[] expected = Files.readAllBytes(plain);
+        assertArrayEquals(expected, gunzip(sequential));
+        assertArrayEquals(expected, gunzip(parallel));
+        assertTrue(Files.size(parallel) * 4 < expected.length);
+        assertEquals("csv.gz", gzip.getExtension());
+    }
+
+    @Test
+    void appendRides_addsRowsWithoutAHeaderAndCutsBackOnCancel() throws IOException {
+        CSVExportService service = new CSVExportService();
+        List<Ride> rides = manyRides(5);
+        Path file = Files.createTempFile("rides_append", ".csv");
+        Files.delete(file);
+
+        assertEquals(2, service.appendRides(rides.subList(0, 2).iterator(), file, RideExporter.Progress.NONE));
+        assertEquals(3, service.appendRides(rides.subList(2, 5).iterator(), file, RideExporter.Progress.NONE));
+
+        Path whole = Files.createTempFile("rides_whole", ".csv");
+        service.exportRides(rides.iterator(), whole, RideExporter.Progress.NONE);
+        assertArrayEquals(Files.readAllBytes(whole), Files.readAllBytes(file));
+
+        long size = Files.size(file);
+        assertThrows(CancellationException.class, () -> service.appendRides(
+                Stream.generate(() -> rides.get(0)).iterator(), file, rows -> false));
+        assertEquals(size, Files.size(file));
+    }
+
+    private static byte[] gunzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return in.readAllBytes();
+        }
+    }
 }
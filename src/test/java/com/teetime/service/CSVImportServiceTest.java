@@ -0,0 +1,121 @@
+package com.teetime.service;
+
+import com.teetime.database.DatabaseManager;
+import com.teetime.domain.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CSVImportServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private DatabaseManager db;
+    private CSVImportService csv;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Field instanceField = DatabaseManager.class.getDeclaredField("instance");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+
+        db = DatabaseManager.getInstance();
+        csv = new CSVImportService();
+    }
+
+    @Test
+    void parseRide_readsTheExportLayout() {
+        Ride ride = csv.parseRide("7,10,20,30,Campus,City,2030-06-01T12:00,2,CONFIRMED,12.34");
+
+        assertEquals(10, ride.getPassengerId());
+        assertEquals(Integer.valueOf(20), ride.getDriverId());
+        assertEquals(Integer.valueOf(30), ride.getCarId());
+        assertEquals("Campus", ride.getOrigin());
+        assertEquals("City", ride.getDestination());
+        assertEquals(LocalDateTime.of(2030, 6, 1, 12, 0), ride.getTime());
+        assertEquals(2, ride.getSeatsNeeded());
+        assertEquals(RideStatus.CONFIRMED, ride.getStatus());
+        assertEquals(12.34, ride.getPriceEstimate());
+
+        Ride pending = csv.parseRide("8,10,,,Home,Campus,2030-06-01T13:00,1,PENDING,8.50");
+        assertNull(pending.getDriverId());
+        assertNull(pending.getCarId());
+    }
+
+    @Test
+    void parse_rejectsMalformedLines() {
+        assertThrows(IllegalArgumentException.class, () -> csv.parseRide("1,2,3"));
+        assertThrows(IllegalArgumentException.class,
+                () -> csv.parseRide("1,x,,,A,B,2030-06-01T12:00,1,PENDING,5.00"));
+        assertThrows(IllegalArgumentException.class,
+                () -> csv.parseRide("1,2,,,A,B,tomorrow,1,PENDING,5.00"));
+        assertThrows(IllegalArgumentException.class,
+                () -> csv.parseRide("1,2,,,A,B,2030-06-01T12:00,1,LOST,5.00"));
+        assertThrows(IllegalArgumentException.class, () -> csv.parseCar("1,ABC,Kia,four"));
+        assertThrows(IllegalArgumentException.class, () -> csv.parseCar("1,\"ABC,Kia,4"));
+        assertThrows(IllegalArgumentException.class, () -> csv.parseCar("1,\"ABC\"x,Kia,4"));
+        assertEquals("A\"B,C", csv.parseCar("1,\"A\"\"B,C\",Kia,4").getPlate());
+    }
+
+    @Test
+    void parseUser_picksTheTypeFromTheRole() {
+        assertTrue(csv.parseUser("Dana,dana@ie.edu,hash,DRIVER") instanceof Driver);
+        assertTrue(csv.parseUser("Bea,bea@ie.edu,hash,BOTH") instanceof Passenger);
+        User passenger = csv.parseUser("Ali,ali@ie.edu,hash,PASSENGER");
+        assertEquals("PASSENGER", passenger.getRole());
+        assertEquals("ali@ie.edu", passenger.getEmail());
+    }
+
+    @Test
+    void exportedRides_importIntoAnotherStore() throws Exception {
+        int passengerId = db.createUser("Pat", "pat@student.ie.edu", "hash", "PASSENGER");
+        LocalDateTime time = LocalDateTime.of(2030, 6, 1, 12, 0);
+        Ride r1 = new Ride(passengerId, "Campus", "City", time, 2, 12.34);
+        Ride r2 = new Ride(passengerId, "City", "Campus", time.plusHours(3), 1, 8.5);
+        Path file = dir.resolve("rides.csv");
+        new CSVExportService().exportRidesToCSV(List.of(r1, r2), file.toString());
+        Files.writeString(file, passengerId + ",broken\n", StandardOpenOption.APPEND);
+
+        ImportResult result = new RideService(db).importRidesFromCSV(file);
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertTrue(result.getErrors().get(0).startsWith("Record 3: "));
+        List<Ride> rides = db.getRidesByPassengerId(passengerId);
+        assertEquals(2, rides.size());
+        assertEquals("Campus", rides.get(0).getOrigin());
+        assertEquals(time.plusHours(3), rides.get(1).getTime());
+        assertEquals(8.5, rides.get(1).getPriceEstimate());
+    }
+
+    @Test
+    void usersAndCars_importFromCSV() throws Exception {
+        Path users = dir.resolve("users.csv");
+        Files.writeString(users, "Name,Email,Password Hash,Role\n"
+                + "Dana,dana@ie.edu,hash,DRIVER\n"
+                + "\n"
+                + "Pat,pat@student.ie.edu,hash,PASSENGER\n");
+
+        ImportResult userResult = new AuthService(db).importUsersFromCSV(users);
+
+        assertEquals(2, userResult.getImported());
+        int driverId = db.getUserByEmail("dana@ie.edu").getId();
+        Path cars = dir.resolve("cars.csv");
+        Files.writeString(cars, "Driver ID,Plate,Brand,Seats\n" + driverId + ",1234ABC,Toyota,4\n");
+
+        ImportResult carResult = new RideService(db).importCarsFromCSV(cars);
+
+        assertEquals(1, carResult.getImported());
+        assertEquals("Toyota", db.getCarsByDriverId(driverId).get(0).getBrand());
+    }
+}
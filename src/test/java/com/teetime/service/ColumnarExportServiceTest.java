@@ -0,0 +1,118 @@
+package com.teetime.service;
+
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarExportServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final ColumnarExportService service = new ColumnarExportService();
+
+    private static Ride ride(int id, Integer driverId, String origin, LocalDateTime time, RideStatus status, double price) {
+        Ride ride = new Ride(10 + id % 5, origin, "Atocha", time, 1 + id % 4, price);
+        ride.setId(id);
+        ride.setDriverId(driverId);
+        ride.setCarId(driverId == null ? null : driverId + 100);
+        ride.setStatus(status);
+        return ride;
+    }
+
+    private static String describe(Ride r) {
+        return r.getId() + "|" + r.getPassengerId() + "|" + r.getDriverId() + "|" + r.getCarId() + "|"
+                + r.getOrigin() + "|" + r.getDestination() + "|" + r.getTime() + "|" + r.getSeatsNeeded() + "|"
+                + r.getStatus() + "|" + Double.doubleToLongBits(r.getPriceEstimate());
+    }
+
+    private List<Ride> readBack(Path file) throws IOException {
+        try (Stream<Ride> rides = service.readRides(file)) {
+            return rides.collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void readRides_returnsEveryFieldExactly() throws IOException {
+        LocalDateTime noon = LocalDateTime.of(2030, 6, 1, 12, 0);
+        List<Ride> rides = List.of(
+                ride(5, null, "IE Tower", noon, RideStatus.PENDING, 12.34),
+                ride(3, 7, "Plaza Mayor, Madrid", noon.minusYears(40).withNano(123_456_789), RideStatus.COMPLETED, 1.0 / 3),
+                ride(900, 8, "Café \"Central\"", noon.plusSeconds(59), RideStatus.CANCELLED, -0.0),
+                ride(Integer.MAX_VALUE, -2, "IE Tower", noon, RideStatus.CONFIRMED, Double.NaN));
+        Path file = dir.resolve("rides.ttrc");
+
+        assertEquals(4, service.export(rides.iterator(), file, RideExporter.Progress.NONE));
+
+        assertEquals(rides.stream().map(ColumnarExportServiceTest::describe).collect(Collectors.toList()),
+                readBack(file).stream().map(ColumnarExportServiceTest::describe).collect(Collectors.toList()));
+    }
+
+    @Test
+    void manyBlocks_roundTripAndAreMuchSmallerThanCsv() throws IOException {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 8, 0);
+        int count = ColumnarExportService.BLOCK_ROWS * 3 + 11;
+        List<Ride> rides = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rides.add(ride(i + 1, i % 3 == 0 ? null : 2000 + i % 300, "Place " + (i % 200),
+                    start.plusMinutes(i), i % 3 == 0 ? RideStatus.PENDING : RideStatus.COMPLETED, 5 + (i % 997) / 10.0));
+        }
+        Path columnar = dir.resolve("rides.ttrc");
+        Path csv = dir.resolve("rides.csv");
+        List<Long> progress = new ArrayList<>();
+
+        service.export(rides.iterator(), columnar, progress::add);
+        new CSVExportService().exportRides(rides.iterator(), csv, RideExporter.Progress.NONE);
+
+        assertEquals(4, progress.size());
+        assertEquals((long) count, progress.get(3));
+        List<Ride> read = readBack(columnar);
+        assertEquals(count, read.size());
+        for (int i = 0; i < count; i += 997) {
+            assertEquals(describe(rides.get(i)), describe(read.get(i)));
+        }
+        assertEquals(describe(rides.get(count - 1)), describe(read.get(count - 1)));
+        assertTrue(Files.size(columnar) * 10 < Files.size(csv),
+                Files.size(columnar) + " bytes against " + Files.size(csv) + " for CSV");
+    }
+
+    @Test
+    void emptyExport_readsBackEmpty() throws IOException {
+        Path file = dir.resolve("empty.ttrc");
+        assertEquals(0, service.export(List.<Ride>of().iterator(), file, RideExporter.Progress.NONE));
+        assertTrue(readBack(file).isEmpty());
+    }
+
+    @Test
+    void cancelledExport_deletesTheFile() {
+        LocalDateTime time = LocalDateTime.of(2030, 6, 1, 12, 0);
+        Path file = dir.resolve("cancelled.ttrc");
+
+        assertThrows(CancellationException.class, () -> service.export(
+                Stream.generate(() -> ride(1, null, "A", time, RideStatus.PENDING, 1.0)).iterator(),
+                file, rows -> false));
+
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void readRides_rejectsOtherFiles() throws IOException {
+        Path file = dir.resolve("rides.csv");
+        Files.writeString(file, CSVExportService.HEADER);
+
+        assertThrows(IOException.class, () -> service.readRides(file));
+    }
+}
@@ -0,0 +1,168 @@
+package com.teetime.service;
+
+import com.teetime.database.DatabaseManager;
+import com.teetime.database.StorageConfig;
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalExportServiceTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2030, 6, 1, 12, 0);
+
+    @TempDir
+    Path dir;
+
+    private DatabaseManager db;
+    private IncrementalExportService service;
+    private int passengerId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Field instanceField = DatabaseManager.class.getDeclaredField("instance");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+
+        db = DatabaseManager.getInstance();
+        service = new IncrementalExportService(db);
+        passengerId = db.createUser("Passenger", "p@student.ie.edu", "hash", "PASSENGER");
+    }
+
+    private Ride ride(String origin) {
+        Ride ride = new Ride(passengerId, origin, "Atocha", NOON, 1, 5.0);
+        ride.setId(db.createRide(ride));
+        return ride;
+    }
+
+    private static List<String> rowIds(Path file) throws IOException {
+        return Files.readAllLines(file).stream().skip(1)
+                .map(line -> line.substring(0, line.indexOf(',')))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void appendChanges_firstRunExportsEverythingThenOnlyChanges() throws Exception {
+        Ride first = ride("Campus");
+        Ride second = ride("Sol");
+        Path file = dir.resolve("rides.csv");
+
+        ExportRun initial = service.appendChanges(file, new CSVExportService());
+
+        assertEquals(2, initial.getRides());
+        assertEquals(0, initial.getFromSeq());
+        assertEquals(List.of(first.getId() + "", second.getId() + ""), rowIds(file));
+        assertEquals(Long.toString(initial.getToSeq()), Files.readString(dir.resolve("rides.csv.mark")));
+
+        db.transitionRide(db.getRideById(second.getId()), RideStatus.CANCELLED);
+        Ride third = ride("Retiro");
+        ExportRun next = service.appendChanges(file, new CSVExportService());
+
+        assertEquals(2, next.getRides());
+        assertEquals(initial.getToSeq(), next.getFromSeq());
+        assertEquals(List.of(first.getId() + "", second.getId() + "", second.getId() + "", third.getId() + ""),
+                rowIds(file));
+        assertTrue(Files.readAllLines(file).get(3).endsWith("CANCELLED,5.00"));
+
+        long size = Files.size(file);
+        ExportRun idle = service.appendChanges(file, new CSVExportService());
+        assertEquals(0, idle.getRides());
+        assertEquals(size, Files.size(file));
+    }
+
+    @Test
+    void appendChanges_gzippedFileGainsOneMemberPerRun() throws Exception {
+        ride("Campus");
+        Path file = dir.resolve("rides.csv.gz");
+        service.appendChanges(file, CSVExportService.gzipped());
+        ride("Sol");
+
+        service.appendChanges(file, CSVExportService.gzipped());
+
+        Path plain = dir.resolve("plain.csv");
+        Files.write(plain, gunzip(file));
+        assertEquals(2, rowIds(plain).size());
+    }
+
+    @Test
+    void writeDelta_writesOneFilePerRunNamedAfterItsRange() throws Exception {
+        Ride first = ride("Campus");
+        ExportRun initial = service.writeDelta(dir, "rides", new CSVExportService());
+        assertEquals(dir.resolve("rides-0-" + initial.getToSeq() + ".csv"), initial.getFile());
+
+        ExportRun idle = service.writeDelta(dir, "rides", new CSVExportService());
+        assertNull(idle.getFile());
+        assertEquals(0, idle.getRides());
+
+        db.transitionRide(db.getRideById(first.getId()), RideStatus.COMPLETED);
+        ExportRun delta = service.writeDelta(dir, "rides", new ColumnarExportService());
+
+        assertEquals(dir.resolve("rides-" + initial.getToSeq() + "-" + delta.getToSeq() + ".ttrc"), delta.getFile());
+        try (Stream<Ride> rides = new ColumnarExportService().readRides(delta.getFile())) {
+            List<Ride> read = rides.collect(Collectors.toList());
+            assertEquals(1, read.size());
+            assertEquals(RideStatus.COMPLETED, read.get(0).getStatus());
+        }
+        assertEquals(delta.getToSeq(), IncrementalExportService.readMark(dir.resolve("rides.mark")));
+    }
+
+    @Test
+    void writeDelta_changesToArchivedRides_costOneLookupEachNotAHistoryScan() throws Exception {
+        Path dataDir = dir.resolve("data");
+        DatabaseManager journaled = DatabaseManager.open(StorageConfig.persistent(dataDir, StorageConfig.FsyncPolicy.BATCHED));
+        try {
+            int passenger = journaled.createUser("Pat", "pat@student.ie.edu", "hash", "PASSENGER");
+            List<Ride> history = new ArrayList<>();
+            for (int i = 0; i < 200_000; i++) {
+                Ride done = new Ride(passenger, "Campus", "Atocha", NOON.minusDays(1 + i % 300), 1, 5.0);
+                done.setStatus(RideStatus.COMPLETED);
+                history.add(done);
+            }
+            int[] archivedIds = journaled.importRides(history);
+            IncrementalExportService exports = new IncrementalExportService(journaled);
+            Path out = dir.resolve("exports");
+            Files.createDirectories(out);
+            exports.writeDelta(out, "rides", new CSVExportService());
+
+            // Every change touches a ride in the archive, spread across its rows
+            List<Integer> changed = new ArrayList<>();
+            for (int i = 0; i < archivedIds.length; i += 40) {
+                Ride ride = journaled.getRideById(archivedIds[i]);
+                journaled.transitionRide(ride, RideStatus.CANCELLED);
+                changed.add(ride.getId());
+            }
+
+            // Milliseconds with the archive's id index; seconds if each lookup scans the archive
+            ExportRun delta = assertTimeoutPreemptively(Duration.ofSeconds(1),
+                    () -> exports.writeDelta(out, "rides", new CSVExportService()));
+
+            assertEquals(changed.size(), delta.getRides());
+            assertEquals(changed.stream().map(String::valueOf).collect(Collectors.toList()), rowIds(delta.getFile()));
+            assertTrue(Files.readAllLines(delta.getFile()).get(1).endsWith("CANCELLED,5.00"));
+        } finally {
+            journaled.close();
+        }
+    }
+
+    private static byte[] gunzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.teetime.service;
+
+import com.teetime.domain.Ride;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RideEventBusTest {
+
+    // Runs delivery only when the test says so
+    private static class ManualExecutor implements Executor {
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.poll().run();
+            }
+        }
+    }
+
+    private static class Recorder implements RideEventBus.Listener {
+        final List<List<String>> batches = new ArrayList<>();
+        int resyncs;
+
+        @Override
+        public void onEvents(List<RideEvent> events) {
+            batches.add(events.stream().map(e -> e.getRide().getId() + ":" + e.getType()).collect(Collectors.toList()));
+        }
+
+        @Override
+        public void onResync() {
+            resyncs++;
+        }
+    }
+
+    private static RideEvent event(int rideId, int passengerId, RideEvent.Type type) {
+        Ride ride = new Ride(passengerId, "Campus", "Sol", LocalDateTime.of(2030, 6, 1, 12, 0), 1, 5.0);
+        ride.setId(rideId);
+        return new RideEvent(type, ride);
+    }
+
+    @Test
+    void publish_deliversOneCoalescedBatchPerDrain() {
+        RideEventBus bus = new RideEventBus();
+        ManualExecutor executor = new ManualExecutor();
+        Recorder recorder = new Recorder();
+        bus.subscribe(null, executor, recorder);
+
+        bus.publish(event(1, 10, RideEvent.Type.CREATED));
+        bus.publish(event(2, 10, RideEvent.Type.CREATED));
+        bus.publish(event(1, 10, RideEvent.Type.ACCEPTED));
+
+        assertEquals(1, executor.tasks.size());
+        executor.runAll();
+        assertEquals(List.of(List.of("1:ACCEPTED", "2:CREATED")), recorder.batches);
+
+        bus.publish(event(1, 10, RideEvent.Type.COMPLETED));
+        executor.runAll();
+        assertEquals(List.of("1:COMPLETED"), recorder.batches.get(1));
+        assertEquals(0, recorder.resyncs);
+    }
+
+    @Test
+    void subscribe_filtersRidesPerSubscriber() {
+        RideEventBus bus = new RideEventBus();
+        ManualExecutor executor = new ManualExecutor();
+        Recorder mine = new Recorder();
+        Recorder all = new Recorder();
+        bus.subscribe(ride -> ride.getPassengerId() == 10, executor, mine);
+        bus.subscribe(null, executor, all);
+
+        bus.publish(event(1, 10, RideEvent.Type.CREATED));
+        bus.publish(event(2, 11, RideEvent.Type.CREATED));
+        executor.runAll();
+
+        assertEquals(List.of(List.of("1:CREATED")), mine.batches);
+        assertEquals(List.of(List.of("1:CREATED", "2:CREATED")), all.batches);
+    }
+
+    @Test
+    void aSubscriberFallingBehind_isToldToResyncWithoutSlowingOthers() {
+        RideEventBus bus = new RideEventBus();
+        ManualExecutor slow = new ManualExecutor();
+        ManualExecutor fast = new ManualExecutor();
+        Recorder behind = new Recorder();
+        Recorder keepingUp = new Recorder();
+        bus.subscribe(null, slow, 3, behind);
+        bus.subscribe(null, fast, 3, keepingUp);
+
+        for (int id = 1; id <= 5; id++) {
+            bus.publish(event(id, 10, RideEvent.Type.CREATED));
+            fast.runAll();
+        }
+        slow.runAll();
+
+        assertEquals(1, behind.resyncs);
+        assertTrue(behind.batches.isEmpty());
+        assertEquals(5, keepingUp.batches.size());
+
+        bus.publish(event(6, 10, RideEvent.Type.CREATED));
+        slow.runAll();
+        assertEquals(List.of(List.of("6:CREATED")), behind.batches);
+    }
+
+    @Test
+    void eventsDuringDelivery_followInTheNextBatch() {
+        RideEventBus bus = new RideEventBus();
+        ManualExecutor executor = new ManualExecutor();
+        List<List<Integer>> batches = new ArrayList<>();
+        bus.subscribe(null, executor, new RideEventBus.Listener() {
+            @Override
+            public void onEvents(List<RideEvent> events) {
+                batches.add(events.stream().map(e -> e.getRide().getId()).collect(Collectors.toList()));
+                if (batches.size() == 1) {
+                    bus.publish(event(2, 10, RideEvent.Type.CREATED));
+                    assertTrue(executor.tasks.isEmpty(), "next batch waits for this one");
+                }
+            }
+
+            @Override
+            public void onResync() {
+            }
+        });
+
+        bus.publish(event(1, 10, RideEvent.Type.CREATED));
+        executor.runAll();
+
+        assertEquals(List.of(List.of(1), List.of(2)), batches);
+    }
+
+    @Test
+    void resyncAllAndClose() {
+        RideEventBus bus = new RideEventBus();
+        ManualExecutor executor = new ManualExecutor();
+        Recorder open = new Recorder();
+        Recorder closed = new Recorder();
+        bus.subscribe(null, executor, open);
+        RideEventBus.Subscription subscription = bus.subscribe(null, executor, closed);
+        bus.publish(event(1, 10, RideEvent.Type.CREATED));
+
+        subscription.close();
+        bus.resyncAll();
+        bus.publish(event(2, 10, RideEvent.Type.CREATED));
+        executor.runAll();
+
+        assertEquals(1, bus.subscriberCount());
+        assertEquals(1, open.resyncs);
+        assertTrue(open.batches.isEmpty(), "the reload covers events queued behind a resync");
+        assertEquals(0, closed.resyncs);
+        assertTrue(closed.batches.isEmpty());
+    }
+}
@@ -0,0 +1,70 @@
+package com.teetime.service;
+
+import com.teetime.database.DatabaseManager;
+import com.teetime.domain.Ride;
+import com.teetime.domain.RideStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RideExpirySweeperTest {
+
+    private DatabaseManager db;
+    private int passengerId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Field instanceField = DatabaseManager.class.getDeclaredField("instance");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+
+        db = DatabaseManager.getInstance();
+        passengerId = db.createUser("Passenger", "p@student.ie.edu", "hash", "PASSENGER");
+    }
+
+    private int rideAt(LocalDateTime time) {
+        return db.createRide(new Ride(passengerId, "IE Tower", "Atocha", time, 1, 10.0));
+    }
+
+    @Test
+    void sweep_cancelsRidesPastTheGracePeriodOnly() {
+        LocalDateTime now = LocalDateTime.now();
+        int stale = rideAt(now.minusHours(2));
+        int late = rideAt(now.minusMinutes(10));
+        int upcoming = rideAt(now.plusHours(1));
+
+        RideExpirySweeper sweeper = new RideExpirySweeper(db, Duration.ofMinutes(30));
+        assertEquals(1, sweeper.sweep());
+        assertEquals(0, sweeper.sweep());
+
+        assertEquals(1, db.getRidesByStatus(RideStatus.CANCELLED).size());
+        assertEquals(stale, db.getRidesByStatus(RideStatus.CANCELLED).get(0).getId());
+        assertEquals(2, db.getPendingRides().size());
+        assertTrue(db.getPendingRides().stream().anyMatch(r -> r.getId() == late));
+        assertTrue(db.getPendingRides().stream().anyMatch(r -> r.getId() == upcoming));
+    }
+
+    @Test
+    void start_sweepsInTheBackgroundUntilStopped() throws Exception {
+        rideAt(LocalDateTime.now().minusHours(1));
+
+        RideExpirySweeper sweeper = new RideExpirySweeper(db, Duration.ZERO);
+        sweeper.start(Duration.ofMillis(10));
+        try {
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (!db.getPendingRides().isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            sweeper.stop();
+        }
+
+        assertTrue(db.getPendingRides().isEmpty());
+        assertEquals(1, db.getRidesByStatus(RideStatus.CANCELLED).size());
+    }
+}
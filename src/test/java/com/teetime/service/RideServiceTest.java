@@ -5,12 +5,16 @@ import com.teetime.domain.Car;
 import com.teetime.domain.Ride;
 import com.teetime.domain.RideStatus;
 import com.teetime.exception.CapacityExceededException;
+import com.teetime.exception.RideNotAvailableException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -59,6 +63,21 @@ class RideServiceTest {
         assertTrue(pending.stream().anyMatch(r -> r.getId() == ride.getId()));
     }
 
+    @Test
+    void createRideRequest_samePlaceTypedDifferently_sharesOneSpelling() throws Exception {
+        int passengerId = createPassenger("p1@student.ie.edu");
+        LocalDateTime future = LocalDateTime.now().plusHours(1);
+
+        Ride first = rideService.createRideRequest(passengerId, "IE Tower", "Atocha", future, 1);
+        Ride second = rideService.createRideRequest(passengerId, "  ie  tower ", "ATOCHA", future, 1);
+
+        assertEquals("IE Tower", second.getOrigin());
+        assertSame(first.getOrigin(), second.getOrigin());
+        assertSame(first.getDestination(), second.getDestination());
+        assertEquals(2, rideService.getPendingRidesFrom("ie tower").size());
+        assertTrue(rideService.getPendingRidesFrom("Nowhere").isEmpty());
+    }
+
     @Test
     void createRideRequest_withEmptyOrigin_throwsException() {
         int passengerId = createPassenger("p1@student.ie.edu");
@@ -164,6 +183,20 @@ class RideServiceTest {
         assertEquals("Car not found", ex.getMessage());
     }
 
+    @Test
+    void acceptRide_withAnotherDriversCar_throwsCarNotFound() throws Exception {
+        int passengerId = createPassenger("p1@student.ie.edu");
+        int driverId = createDriver("d1@ie.edu");
+        int ownerId = createDriver("d2@ie.edu");
+        Car car = rideService.addCar(ownerId, "1234ABC", "Toyota", 4);
+
+        Ride ride = rideService.createRideRequest(passengerId, "O", "D", LocalDateTime.now().plusHours(1), 2);
+
+        Exception ex = assertThrows(Exception.class, () -> rideService.acceptRide(ride, driverId, car.getId()));
+        assertEquals("Car not found", ex.getMessage());
+        assertEquals(RideStatus.PENDING, ride.getStatus());
+    }
+
     @Test
     void acceptRide_withInsufficientSeats_throwsCapacityExceededException() throws Exception {
         int passengerId = createPassenger("p1@student.ie.edu");
@@ -200,6 +233,25 @@ class RideServiceTest {
         assertTrue(driverRides.stream().anyMatch(r -> r.getId() == ride.getId()));
     }
 
+    @Test
+    void acceptRide_whenAnotherDriverAcceptedFirst_throwsRideNotAvailableException() throws Exception {
+        int passengerId = createPassenger("p1@student.ie.edu");
+        int driver1Id = createDriver("d1@ie.edu");
+        int driver2Id = createDriver("d2@ie.edu");
+        Car car1 = rideService.addCar(driver1Id, "1111AAA", "Toyota", 4);
+        Car car2 = rideService.addCar(driver2Id, "2222BBB", "Seat", 4);
+        Ride ride = rideService.createRideRequest(passengerId, "O", "D", LocalDateTime.now().plusHours(1), 1);
+
+        rideService.acceptRide(ride, driver1Id, car1.getId());
+
+        assertThrows(RideNotAvailableException.class, () ->
+                rideService.acceptRide(ride, driver2Id, car2.getId())
+        );
+        assertEquals(driver1Id, ride.getDriverId());
+        assertEquals(car1.getId(), ride.getCarId());
+        assertTrue(rideService.getRidesByDriverId(driver2Id).isEmpty());
+    }
+
     @Test
     void completeRide_setsStatusCompletedAndPersists() throws Exception {
         int passengerId = createPassenger("p1@student.ie.edu");
@@ -232,4 +284,152 @@ class RideServiceTest {
 
         assertTrue(rideService.getCarsByDriverId(driverId).isEmpty());
     }
+
+    @Test
+    void getUpcomingPendingRides_returnsOnlyRidesInTheWindow() throws Exception {
+        int passengerId = createPassenger("p1@student.ie.edu");
+        LocalDateTime now = LocalDateTime.now();
+        Ride soon = rideService.createRideRequest(passengerId, "Campus", "Center", now.plusHours(1), 1);
+        rideService.createRideRequest(passengerId, "Campus", "Center", now.plusDays(2), 1);
+
+        List<Ride> upcoming = rideService.getUpcomingPendingRides(Duration.ofHours(12));
+        assertEquals(1, upcoming.size());
+        assertEquals(soon.getId(), upcoming.get(0).getId());
+    }
+
+    @Test
+    void importRides_storesValidRidesAndReportsTheRest() {
+        int passengerId = createPassenger("p1@student.ie.edu");
+        int driverId = createDriver("d1@ie.edu");
+        LocalDateTime past = LocalDateTime.now().minusDays(3);
+        Ride history = new Ride(passengerId, "Campus", "Center", past, 2, 11.0);
+        history.setDriverId(driverId);
+        history.setStatus(RideStatus.COMPLETED);
+        Ride unpriced = new Ride(passengerId, "Center", "Campus", past.plusDays(5), 1, 0);
+        unpriced.setStatus(null);
+        Ride unknownPassenger = new Ride(9999, "Campus", "Center", past, 1, 5.0);
+        Ride noSeats = new Ride(passengerId, "Campus", "Center", past, 0, 5.0);
+
+        ImportResult result = rideService.importRides(Stream.of(history, unknownPassenger, unpriced, noSeats));
+
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals(List.of("Record 2: Passenger 9999 not found", "Record 4: Seats needed must be greater than 0"),
+                result.getErrors());
+        assertEquals(2, rideService.getRidesByPassengerId(passengerId).size());
+        assertEquals(RideStatus.COMPLETED, rideService.getRidesByDriverId(driverId).get(0).getStatus());
+        Ride pending = rideService.getPendingRides().get(0);
+        assertEquals(unpriced.getId(), pending.getId());
+        assertTrue(pending.getPriceEstimate() > 0);
+    }
+
+    @Test
+    void importRides_acrossSeveralBatches_keepsInputOrder() {
+        int passengerId = createPassenger("p1@student.ie.edu");
+        LocalDateTime time = LocalDateTime.now().plusDays(1);
+        int count = BulkImporter.BATCH_SIZE + 10;
+
+        ImportResult result = rideService.importRides(IntStream.range(0, count)
+                .mapToObj(i -> new Ride(passengerId, "Campus", "Center " + (i % 50), time, 1, 5.0)));
+
+        assertEquals(count, result.getImported());
+        List<Ride> rides = rideService.getRidesByPassengerId(passengerId);
+        assertEquals(count, rides.size());
+        assertEquals("Center 0", rides.get(0).getDestination());
+        assertEquals("Center " + ((count - 1) % 50), rides.get(count - 1).getDestination());
+    }
+
+    @Test
+    void importCars_validatesLikeAddCar() {
+        int driverId = createDriver("d1@ie.edu");
+
+        ImportResult result = rideService.importCars(Stream.of(
+                new Car(driverId, "1234ABC", "Toyota", 4),
+                new Car(driverId, "5678DEF", "Bus", 20),
+                new Car(9999, "0000XYZ", "Seat", 4)));
+
+        assertEquals(1, result.getImported());
+        assertEquals(List.of("Record 2: Seats must be between 1 and 8", "Record 3: Driver 9999 not found"),
+                result.getErrors());
+        assertEquals("1234ABC", rideService.getCarsByDriverId(driverId).get(0).getPlate());
+    }
+
+    private static class EventRecorder implements RideEventBus.Listener {
+        final List<String> events = new java.util.ArrayList<>();
+        int resyncs;
+
+        @Override
+        public void onEvents(List<RideEvent> batch) {
+            batch.forEach(e -> events.add(e.getType() + ":" + e.getRide().getId() + ":" + e.getRide().getStatus()));
+        }
+
+        @Override
+        public void onResync() {
+            resyncs++;
+        }
+    }
+
+    @Test
+    void rideChanges_arePublishedToSubscribers() throws Exception {
+        RideEventBus bus = new RideEventBus();
+        RideService service = new RideService(db, bus);
+        EventRecorder recorder = new EventRecorder();
+        service.subscribe(null, Runnable::run, recorder);
+        int passengerId = createPassenger("p1@student.ie.edu");
+        int driverId = createDriver("d1@ie.edu");
+        Car car = service.addCar(driverId, "ABC-1234", "Toyota", 4);
+
+        Ride ride = service.createRideRequest(passengerId, "Campus", "Center", LocalDateTime.now().plusHours(1), 1);
+        service.acceptRide(ride, driverId, car.getId());
+        service.completeRide(ride);
+        Ride stale = new Ride(passengerId, "Campus", "Center", LocalDateTime.now().minusHours(2), 1, 5.0);
+        int staleId = db.createRide(stale);
+        assertEquals(1, service.expirePendingRides(LocalDateTime.now().minusHours(1)));
+
+        assertEquals(List.of(
+                "CREATED:" + ride.getId() + ":PENDING",
+                "ACCEPTED:" + ride.getId() + ":CONFIRMED",
+                "COMPLETED:" + ride.getId() + ":COMPLETED",
+                "CANCELLED:" + staleId + ":CANCELLED"), recorder.events);
+        assertEquals(0, recorder.resyncs);
+    }
+
+    @Test
+    void publishedRides_areSnapshotsTheCallerCannotChange() throws Exception {
+        RideEventBus bus = new RideEventBus();
+        RideService service = new RideService(db, bus);
+        List<RideEvent> events = new java.util.ArrayList<>();
+        service.subscribe(null, Runnable::run, new RideEventBus.Listener() {
+            @Override
+            public void onEvents(List<RideEvent> batch) {
+                events.addAll(batch);
+            }
+
+            @Override
+            public void onResync() {
+            }
+        });
+        Ride ride = service.createRideRequest(createPassenger("p1@student.ie.edu"), "Campus", "Center",
+                LocalDateTime.now().plusHours(1), 1);
+
+        ride.setSeatsNeeded(4);
+
+        assertNotSame(ride, events.get(0).getRide());
+        assertEquals(1, events.get(0).getRide().getSeatsNeeded());
+    }
+
+    @Test
+    void importRides_asksSubscribersToResync() {
+        RideEventBus bus = new RideEventBus();
+        RideService service = new RideService(db, bus);
+        EventRecorder recorder = new EventRecorder();
+        service.subscribe(null, Runnable::run, recorder);
+        int passengerId = createPassenger("p1@student.ie.edu");
+
+        service.importRides(Stream.of(new Ride(passengerId, "Campus", "Center", LocalDateTime.now(), 1, 5.0)));
+        service.importRides(Stream.empty());
+
+        assertEquals(1, recorder.resyncs);
+        assertTrue(recorder.events.isEmpty());
+    }
 }
@@ -0,0 +1,108 @@
+package com.teetime.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceExecutorTest {
+
+    @Test
+    void create_neverRunsMoreCallsThanTheBoundAtOnce() throws Exception {
+        ExecutorService executor = ServiceExecutor.create(3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Integer>> calls = new ArrayList<>();
+        try {
+            for (int i = 0; i < 20; i++) {
+                int n = i;
+                calls.add(ServiceExecutor.submit(executor, () -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    release.await();
+                    running.decrementAndGet();
+                    return n;
+                }));
+            }
+            Thread.sleep(100);
+            assertEquals(3, running.get());
+            release.countDown();
+
+            for (int i = 0; i < calls.size(); i++) {
+                assertEquals(i, calls.get(i).get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(3, peak.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void perTask_isUnboundedOnlyOnVirtualThreads() throws Exception {
+        boolean virtualThreads = Runtime.version().feature() >= 21;
+        ExecutorService executor = ServiceExecutor.perTask(3);
+        AtomicInteger running = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Integer>> calls = new ArrayList<>();
+        try {
+            for (int i = 0; i < 20; i++) {
+                int n = i;
+                calls.add(ServiceExecutor.submit(executor, () -> {
+                    running.incrementAndGet();
+                    release.await();
+                    return n;
+                }));
+            }
+            Thread.sleep(100);
+            assertEquals(virtualThreads ? 20 : 3, running.get());
+            release.countDown();
+
+            for (int i = 0; i < calls.size(); i++) {
+                assertEquals(i, calls.get(i).get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void submit_failsWithTheExceptionTheCallThrew() throws Exception {
+        ExecutorService executor = ServiceExecutor.create(1);
+        Exception thrown = new Exception("Origin cannot be empty");
+
+        CompletableFuture<Object> call = ServiceExecutor.submit(executor, () -> {
+            throw thrown;
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> call.get(10, TimeUnit.SECONDS));
+        assertSame(thrown, e.getCause());
+        assertSame(thrown, call.handle((result, error) -> error).get());
+
+        executor.shutdown();
+        CompletableFuture<Object> late = ServiceExecutor.submit(executor, () -> "too late");
+        assertTrue(late.isCompletedExceptionally());
+        assertInstanceOf(RejectedExecutionException.class, assertThrows(ExecutionException.class, late::get).getCause());
+    }
+
+    @Test
+    void shared_isReplacedAfterShutdown() throws Exception {
+        ExecutorService first = ServiceExecutor.shared();
+        assertSame(first, ServiceExecutor.shared());
+
+        ServiceExecutor.shutdownShared();
+
+        assertTrue(first.isShutdown());
+        ExecutorService second = ServiceExecutor.shared();
+        assertNotSame(first, second);
+        assertEquals("ok", ServiceExecutor.submit(second, () -> "ok").get(10, TimeUnit.SECONDS));
+    }
+}